@@ -5,7 +5,8 @@ import com.destrostudios.rl.test.flappybird.component.Bird;
 import com.destrostudios.rl.test.flappybird.component.Pipe;
 import com.destrostudios.rl.test.flappybird.component.Pipes;
 import lombok.Getter;
-import org.deeplearning4j.rl4j.environment.Environment;
+import org.deeplearning4j.rl4j.environment.BufferedEnvironment;
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
 import org.deeplearning4j.rl4j.environment.IntegerActionSchema;
 import org.deeplearning4j.rl4j.environment.Schema;
 import org.deeplearning4j.rl4j.environment.StepResult;
@@ -13,23 +14,21 @@ import org.nd4j.linalg.api.rng.Random;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
 
-public class FlappyBird implements Environment<Integer> {
+public class FlappyBird extends BufferedEnvironment<Integer> {
 
     public FlappyBird(Random random) {
+        super(new Schema<>(new IntegerActionSchema(ACTIONS_COUNT, DO_NOTHING, random), Collections.singletonList(new ChannelSchema("mydata", 6))));
         ground = new Ground();
         bird = new Bird(this);
         pipes = new Pipes();
         image = new BufferedImage(Constant.FRAME_WIDTH, Constant.FRAME_HEIGHT, BufferedImage.TYPE_4BYTE_ABGR);
-        schema = new Schema<>(new IntegerActionSchema(ACTIONS_COUNT, DO_NOTHING, random));
     }
     public static final int ACTIONS_COUNT = 2;
     private static final int DO_NOTHING = 0;
     private static final int FLAP = 1;
-    @Getter
-    private Schema<Integer> schema;
     private Ground ground;
     private Bird bird;
     private Pipes pipes;
@@ -50,6 +49,7 @@ public class FlappyBird implements Environment<Integer> {
         pipes.reset();
         score = 0;
         episodeFinished = false;
+        writeObservation();
         return getChannelsData();
     }
 
@@ -102,20 +102,18 @@ public class FlappyBird implements Environment<Integer> {
             e.printStackTrace();
         }*/
 
-        return new StepResult(getChannelsData(), reward, isEpisodeFinished());
+        writeObservation();
+        return getStepResult(reward, isEpisodeFinished());
     }
 
-    private Map<String, Object> getChannelsData() {
-        HashMap<String, Object> channelsData = new HashMap<>();
-        channelsData.put("mydata", new double[] {
-            bird.getBirdCollisionRect().getY(),
-            bird.getVelocity(),
-            pipes.getNextPipeX(),
-            pipes.getNextPipeHoleY(),
-            pipes.getPreviousPipeX(),
-            pipes.getPreviousPipeHoleY(),
-        });
-        return channelsData;
+    private void writeObservation() {
+        double[] mydata = getChannelBuffer(0);
+        mydata[0] = bird.getBirdCollisionRect().getY();
+        mydata[1] = bird.getVelocity();
+        mydata[2] = pipes.getNextPipeX();
+        mydata[3] = pipes.getNextPipeHoleY();
+        mydata[4] = pipes.getPreviousPipeX();
+        mydata[5] = pipes.getPreviousPipeHoleY();
     }
 
     @Override
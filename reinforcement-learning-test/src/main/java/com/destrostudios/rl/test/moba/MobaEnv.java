@@ -2,20 +2,22 @@ package com.destrostudios.rl.test.moba;
 
 import com.destrostudios.rl.test.moba.objects.Player;
 import lombok.Getter;
-import org.deeplearning4j.rl4j.environment.Environment;
+import org.deeplearning4j.rl4j.environment.BufferedEnvironment;
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
 import org.deeplearning4j.rl4j.environment.IntegerActionSchema;
 import org.deeplearning4j.rl4j.environment.Schema;
 import org.deeplearning4j.rl4j.environment.StepResult;
 import org.nd4j.linalg.api.rng.Random;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
-public class MobaEnv implements Environment<Integer> {
+public class MobaEnv extends BufferedEnvironment<Integer> {
 
     public MobaEnv(Random random) {
-        schema = new Schema<>(new IntegerActionSchema(ACTIONS_COUNT, 0, random));
+        super(new Schema<>(new IntegerActionSchema(ACTIONS_COUNT, 0, random), Collections.singletonList(new ChannelSchema("mydata", MYDATA_SIZE))));
     }
     /*
     -> do nothing
@@ -30,14 +32,15 @@ public class MobaEnv implements Environment<Integer> {
     11,12,13
     */
     public static final int ACTIONS_COUNT = 1 + 4 + (int) Math.pow(Player.ATTACK_RANGE + 1, 2);
-    @Getter
-    private Schema<Integer> schema;
+    private static final int NEAREST_OBJECTS_LIMIT = 5;
+    private static final int MYDATA_SIZE = 4 + (NEAREST_OBJECTS_LIMIT * 5);
     @Getter
     private MobaMap map;
 
     @Override
     public Map<String, Object> reset() {
         map = new MobaMap();
+        writeObservation();
         return getChannelsData();
     }
 
@@ -86,7 +89,8 @@ public class MobaEnv implements Environment<Integer> {
         if (map.getTower2().isDead()) {
             reward += 1000;
         }
-        return new StepResult(getChannelsData(), reward, isEpisodeFinished());
+        writeObservation();
+        return getStepResult(reward, isEpisodeFinished());
     }
 
     private double getTeamHealthChangeReward(int team1HealthOld, int team2HealthOld) {
@@ -95,17 +99,16 @@ public class MobaEnv implements Environment<Integer> {
         return ((team1HealthNew - team1HealthOld) + (team2HealthOld - team2HealthNew));
     }
 
-    private Map<String, Object> getChannelsData() {
+    private void writeObservation() {
         MobaObject player = map.getPlayer();
-        int nearestObjectsLimit = 5;
-        double[] mydata = new double[4 + (nearestObjectsLimit * 5)];
+        double[] mydata = getChannelBuffer(0);
         int index = 0;
         mydata[index++] = player.getX();
         mydata[index++] = player.getY();
         mydata[index++] = player.getHealth();
         mydata[index++] = player.getRemainingAttackCooldown();
-        List<MobaObject> objects = player.getNearestObjects(nearestObjectsLimit);
-        for (int i = 0; i < nearestObjectsLimit; i++) {
+        List<MobaObject> objects = player.getNearestObjects(NEAREST_OBJECTS_LIMIT);
+        for (int i = 0; i < NEAREST_OBJECTS_LIMIT; i++) {
             MobaObject object = ((i < objects.size()) ? objects.get(i) : null);
             if (object != null) {
                 mydata[index++] = object.getTeam();
@@ -114,12 +117,11 @@ public class MobaEnv implements Environment<Integer> {
                 mydata[index++] = object.getHealth();
                 mydata[index++] = object.getRemainingAttackCooldown();
             } else {
+                // The buffer is reused; clear what the previous observation wrote
+                Arrays.fill(mydata, index, index + 5, 0.0);
                 index += 5;
             }
         }
-        HashMap<String, Object> channelsData = new HashMap<>();
-        channelsData.put("mydata", mydata);
-        return channelsData;
     }
 
     @Override
@@ -26,6 +26,8 @@ import lombok.NonNull;
 import lombok.experimental.SuperBuilder;
 import org.deeplearning4j.rl4j.agent.listener.AgentListener;
 import org.deeplearning4j.rl4j.agent.listener.AgentListenerList;
+import org.deeplearning4j.rl4j.environment.BufferedEnvironment;
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
 import org.deeplearning4j.rl4j.environment.Environment;
 import org.deeplearning4j.rl4j.environment.StepResult;
 import org.deeplearning4j.rl4j.observation.Observation;
@@ -33,6 +35,8 @@ import org.deeplearning4j.rl4j.observation.transform.TransformProcess;
 import org.deeplearning4j.rl4j.policy.IPolicy;
 import org.nd4j.common.base.Preconditions;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 public class Agent<ACTION> implements IAgent<ACTION> {
@@ -47,6 +51,11 @@ public class Agent<ACTION> implements IAgent<ACTION> {
 
     private final TransformProcess transformProcess;
 
+    // Only when the environment is a BufferedEnvironment and the transform process is compiled: the index of the
+    // environment channel of each channel slot. The observations are then built from the channel buffers by slot.
+    private final int[] environmentChannelBySlot;
+    private final Object[] channelSlots;
+
     protected final AgentListenerList<ACTION> listeners;
 
     private final Integer maxEpisodeSteps;
@@ -81,6 +90,8 @@ public class Agent<ACTION> implements IAgent<ACTION> {
 
         this.environment = environment;
         this.transformProcess = transformProcess;
+        this.environmentChannelBySlot = buildEnvironmentChannelBySlot(environment, transformProcess);
+        this.channelSlots = environmentChannelBySlot == null ? null : new Object[environmentChannelBySlot.length];
         this.policy = policy;
         this.maxEpisodeSteps = configuration.getMaxEpisodeSteps();
         this.id = id;
@@ -88,6 +99,30 @@ public class Agent<ACTION> implements IAgent<ACTION> {
         listeners = buildListenerList();
     }
 
+    private static int[] buildEnvironmentChannelBySlot(Environment<?> environment, TransformProcess transformProcess) {
+        if(!(environment instanceof BufferedEnvironment) || !transformProcess.isCompiled()) {
+            return null;
+        }
+
+        List<ChannelSchema> channels = environment.getSchema().getChannels();
+        int[] result = new int[transformProcess.getNumChannelSlots()];
+        for(int slot = 0; slot < result.length; ++slot) {
+            String channelName = transformProcess.getChannelSlotName(slot);
+            int channelIdx = 0;
+            while(channelIdx < channels.size() && !channels.get(channelIdx).getName().equals(channelName)) {
+                ++channelIdx;
+            }
+
+            if(channelIdx == channels.size()) {
+                // Not supplied by the environment; the transform process will report it
+                return null;
+            }
+            result[slot] = channelIdx;
+        }
+
+        return result;
+    }
+
     protected AgentListenerList<ACTION> buildListenerList() {
         return new AgentListenerList<ACTION>();
     }
@@ -144,7 +179,7 @@ public class Agent<ACTION> implements IAgent<ACTION> {
     protected void resetEnvironment() {
         episodeStepCount = 0;
         Map<String, Object> channelsData = environment.reset();
-        this.observation = transformProcess.transform(channelsData, episodeStepCount, false);
+        this.observation = transform(channelsData, episodeStepCount, false);
     }
 
     protected void resetPolicy() {
@@ -203,7 +238,24 @@ public class Agent<ACTION> implements IAgent<ACTION> {
     }
 
     protected Observation convertChannelDataToObservation(StepResult stepResult, int episodeStepNumberOfObs) {
-        return transformProcess.transform(stepResult.getChannelsData(), episodeStepNumberOfObs, stepResult.isTerminal());
+        return transform(stepResult.getChannelsData(), episodeStepNumberOfObs, stepResult.isTerminal());
+    }
+
+    private Observation transform(Map<String, Object> channelsData, int episodeStepNumberOfObs, boolean isFinalObservation) {
+        if(environmentChannelBySlot == null) {
+            return transformProcess.transform(channelsData, episodeStepNumberOfObs, isFinalObservation);
+        }
+
+        BufferedEnvironment<ACTION> bufferedEnvironment = (BufferedEnvironment<ACTION>) environment;
+        for(int slot = 0; slot < channelSlots.length; ++slot) {
+            channelSlots[slot] = bufferedEnvironment.getChannelData(environmentChannelBySlot[slot]);
+        }
+
+        try {
+            return transformProcess.transformSlots(channelSlots, channelsData, episodeStepNumberOfObs, isFinalObservation);
+        } finally {
+            Arrays.fill(channelSlots, null);
+        }
     }
 
     protected double computeReward(StepResult stepResult) {
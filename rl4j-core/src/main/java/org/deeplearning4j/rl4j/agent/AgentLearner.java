@@ -89,6 +89,11 @@ public class AgentLearner<ACTION> extends Agent<ACTION> implements IAgentLearner
         learningBehavior.notifyBeforeStep();
     }
 
+    @Override
+    public void close() {
+        learningBehavior.close();
+    }
+
     @SuperBuilder
     @Data
     public static class Configuration extends Agent.Configuration {
@@ -19,5 +19,13 @@
  */
 package org.deeplearning4j.rl4j.agent;
 
-public interface IAgentLearner<ACTION> extends IAgent<ACTION> {
+public interface IAgentLearner<ACTION> extends IAgent<ACTION>, AutoCloseable {
+
+    /**
+     * Release the resources held by the learning part of the agent-learner. Called by the trainers when the training is over.
+     */
+    @Override
+    default void close() {
+        // Do Nothing
+    }
 }
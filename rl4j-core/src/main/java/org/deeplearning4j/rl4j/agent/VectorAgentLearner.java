@@ -0,0 +1,252 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.agent;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.deeplearning4j.rl4j.agent.learning.behavior.ILearningBehavior;
+import org.deeplearning4j.rl4j.agent.learning.update.Features;
+import org.deeplearning4j.rl4j.agent.learning.update.FeaturesBuilder;
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
+import org.deeplearning4j.rl4j.environment.StepResult;
+import org.deeplearning4j.rl4j.environment.VectorEnvironment;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.deeplearning4j.rl4j.observation.transform.TransformProcess;
+import org.deeplearning4j.rl4j.policy.IBatchPolicy;
+import org.nd4j.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * An agent-learner that plays in all the environments of a {@link VectorEnvironment} at the same time. On each step, the
+ * observations of all the environments are stacked and the policy is evaluated once on the whole batch. The
+ * experience of each environment is handled by its own {@link ILearningBehavior}, as an {@link AgentLearner} would do.
+ * <br>
+ * When the episode of an environment ends, the environment is reset and a new episode starts while the other
+ * environments continue theirs. Recurrent networks are not supported.
+ */
+public class VectorAgentLearner<ACTION> implements AutoCloseable {
+    @Getter
+    private final String id;
+
+    @Getter
+    private final VectorEnvironment<ACTION> environment;
+
+    @Getter
+    private final IBatchPolicy<ACTION> policy;
+
+    private final List<TransformProcess> transformProcesses;
+    private final List<ILearningBehavior<ACTION>> learningBehaviors;
+    private final Integer maxEpisodeSteps;
+
+    private final FeaturesBuilder featuresBuilder;
+
+    private final Observation[] observations;
+    private final List<ACTION> actions;
+    private final int[] episodeStepCounts;
+    private final double[] rewards;
+    private final double[] rewardsAtLastExperience;
+    private final int[] batchEnvironmentIndexes;
+
+    private boolean isStarted = false;
+
+    /**
+     * @param environment The {@link VectorEnvironment} to be used
+     * @param transformProcesses One {@link TransformProcess} per environment
+     * @param policy The {@link IBatchPolicy} to be used by all environments
+     * @param configuration The configuration of each sub-agent
+     * @param id A user-supplied id to identify the instance.
+     * @param learningBehaviors One {@link ILearningBehavior} per environment
+     */
+    public VectorAgentLearner(@NonNull VectorEnvironment<ACTION> environment,
+                              @NonNull List<TransformProcess> transformProcesses,
+                              @NonNull IBatchPolicy<ACTION> policy,
+                              @NonNull Agent.Configuration configuration,
+                              String id,
+                              @NonNull List<ILearningBehavior<ACTION>> learningBehaviors) {
+        this(environment, transformProcesses, policy, configuration, id, learningBehaviors, null);
+    }
+
+    /**
+     * @param environment The {@link VectorEnvironment} to be used
+     * @param transformProcesses One {@link TransformProcess} per environment
+     * @param policy The {@link IBatchPolicy} to be used by all environments
+     * @param configuration The configuration of each sub-agent
+     * @param id A user-supplied id to identify the instance.
+     * @param learningBehaviors One {@link ILearningBehavior} per environment
+     * @param observationSchema The schema of the observations, used to set up the batching of the observations up
+     *                          front. Can be null; it's then taken from the first observations.
+     */
+    public VectorAgentLearner(@NonNull VectorEnvironment<ACTION> environment,
+                              @NonNull List<TransformProcess> transformProcesses,
+                              @NonNull IBatchPolicy<ACTION> policy,
+                              @NonNull Agent.Configuration configuration,
+                              String id,
+                              @NonNull List<ILearningBehavior<ACTION>> learningBehaviors,
+                              List<ChannelSchema> observationSchema) {
+        int numEnvironments = environment.getNumEnvironments();
+        Preconditions.checkArgument(transformProcesses.size() == numEnvironments, "Expected one transform process per environment (%s), got %s", numEnvironments, transformProcesses.size());
+        Preconditions.checkArgument(learningBehaviors.size() == numEnvironments, "Expected one learning behavior per environment (%s), got %s", numEnvironments, learningBehaviors.size());
+        Preconditions.checkArgument(configuration.getMaxEpisodeSteps() == null || configuration.getMaxEpisodeSteps() > 0, "Configuration: maxEpisodeSteps must be null (no maximum) or greater than 0, got", configuration.getMaxEpisodeSteps());
+
+        this.environment = environment;
+        this.transformProcesses = transformProcesses;
+        this.policy = policy;
+        this.maxEpisodeSteps = configuration.getMaxEpisodeSteps();
+        this.id = id;
+        this.learningBehaviors = learningBehaviors;
+        featuresBuilder = observationSchema != null
+                ? new FeaturesBuilder(false, observationSchema)
+                : new FeaturesBuilder(false);
+
+        observations = new Observation[numEnvironments];
+        actions = new ArrayList<>(Arrays.asList((ACTION[]) new Object[numEnvironments]));
+        episodeStepCounts = new int[numEnvironments];
+        rewards = new double[numEnvironments];
+        rewardsAtLastExperience = new double[numEnvironments];
+        batchEnvironmentIndexes = new int[numEnvironments];
+    }
+
+    /**
+     * @return The number of environments
+     */
+    public int getNumEnvironments() {
+        return environment.getNumEnvironments();
+    }
+
+    /**
+     * @param idx The index of the environment
+     * @return The step count taken in the current episode of the environment at index <i>idx</i>
+     */
+    public int getEpisodeStepCount(int idx) {
+        return episodeStepCounts[idx];
+    }
+
+    /**
+     * @param idx The index of the environment
+     * @return The cumulative reward received in the current episode of the environment at index <i>idx</i>
+     */
+    public double getReward(int idx) {
+        return rewards[idx];
+    }
+
+    /**
+     * Perform a single step in every environment. The first call starts an episode in every environment.
+     * @return The number of episodes that ended during this step
+     */
+    public int step() {
+        if(!isStarted) {
+            start();
+        }
+
+        for(ILearningBehavior<ACTION> learningBehavior : learningBehaviors) {
+            learningBehavior.notifyBeforeStep();
+        }
+
+        decideActions();
+
+        StepResult[] stepResults = environment.step(actions);
+
+        int endedEpisodeCount = 0;
+        for(int i = 0; i < stepResults.length; ++i) {
+            if(handleStepResult(i, stepResults[i])) {
+                ++endedEpisodeCount;
+            }
+        }
+
+        return endedEpisodeCount;
+    }
+
+    private void start() {
+        policy.reset();
+        for(int i = 0; i < observations.length; ++i) {
+            startEpisode(i);
+        }
+
+        isStarted = true;
+    }
+
+    private void startEpisode(int idx) {
+        episodeStepCounts[idx] = 0;
+        rewards[idx] = 0;
+        rewardsAtLastExperience[idx] = 0;
+        actions.set(idx, environment.getSchema().getActionSchema().getNoOp());
+        policy.reset(idx);
+        observations[idx] = transformProcesses.get(idx).transform(environment.reset(idx), 0, false);
+
+        learningBehaviors.get(idx).handleEpisodeStart();
+    }
+
+    private void decideActions() {
+        int batchSize = 0;
+        for(int i = 0; i < observations.length; ++i) {
+            if(!observations[i].isSkipped()) {
+                batchEnvironmentIndexes[batchSize++] = i;
+            }
+        }
+
+        // Environments with a skipped observation repeat their last action
+        if(batchSize == 0) {
+            return;
+        }
+
+        Features features = featuresBuilder.build(IntStream.range(0, batchSize).mapToObj(i -> observations[batchEnvironmentIndexes[i]]), batchSize);
+        List<ACTION> batchActions = policy.nextActions(features);
+        for(int i = 0; i < batchSize; ++i) {
+            actions.set(batchEnvironmentIndexes[i], batchActions.get(i));
+        }
+    }
+
+    private boolean handleStepResult(int idx, StepResult stepResult) {
+        Observation observationBeforeAction = observations[idx];
+        int episodeStepCount = ++episodeStepCounts[idx];
+
+        observations[idx] = transformProcesses.get(idx).transform(stepResult.getChannelsData(), episodeStepCount, stepResult.isTerminal());
+        rewards[idx] += stepResult.getReward();
+
+        ILearningBehavior<ACTION> learningBehavior = learningBehaviors.get(idx);
+        if(!observationBeforeAction.isSkipped()) {
+            learningBehavior.handleNewExperience(observationBeforeAction, actions.get(idx), rewards[idx] - rewardsAtLastExperience[idx], stepResult.isTerminal());
+            rewardsAtLastExperience[idx] = rewards[idx];
+        }
+
+        if(!environment.isEpisodeFinished(idx) && (maxEpisodeSteps == null || episodeStepCount < maxEpisodeSteps)) {
+            return false;
+        }
+
+        learningBehavior.handleEpisodeEnd(observations[idx]);
+        startEpisode(idx);
+
+        return true;
+    }
+
+    /**
+     * Close the learning behaviors of all the environments. Called when the training is over.
+     */
+    @Override
+    public void close() {
+        for(ILearningBehavior<ACTION> learningBehavior : learningBehaviors) {
+            learningBehavior.close();
+        }
+    }
+}
@@ -44,4 +44,19 @@ public abstract class ActorCriticHelper {
      * @param advantage The advantage value
      */
     public abstract void setPolicy(INDArray policy, long idx, int action, double advantage);
+
+    /**
+     * Create the value array of the whole training batch
+     * @param returns The discounted return of each step of the training batch
+     * @return The value array
+     */
+    public abstract INDArray createValueLabels(double[] returns);
+
+    /**
+     * Create the policy array of the whole training batch, with the advantage of each step set at its action
+     * @param actions The action taken at each step of the training batch
+     * @param advantages The advantage of each step of the training batch
+     * @return The policy array
+     */
+    public abstract INDArray createPolicyLabels(int[] actions, double[] advantages);
 }
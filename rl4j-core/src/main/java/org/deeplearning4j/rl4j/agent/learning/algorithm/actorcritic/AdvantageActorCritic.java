@@ -29,6 +29,7 @@ import org.deeplearning4j.rl4j.agent.learning.update.FeaturesBuilder;
 import org.deeplearning4j.rl4j.agent.learning.update.FeaturesLabels;
 import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
 import org.deeplearning4j.rl4j.experience.StateActionReward;
+import org.deeplearning4j.rl4j.helper.DiscountedReturnHelper;
 import org.deeplearning4j.rl4j.network.CommonLabelNames;
 import org.deeplearning4j.rl4j.network.CommonOutputNames;
 import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
@@ -64,30 +65,33 @@ public class AdvantageActorCritic implements IUpdateAlgorithm<Gradients, StateAc
         int size = trainingBatch.size();
 
         Features features = featuresBuilder.build(trainingBatch);
-        INDArray values = algorithmHelper.createValueLabels(size);
-        INDArray policy = algorithmHelper.createPolicyLabels(size);
-
-        StateActionReward<Integer> stateActionReward = trainingBatch.get(size - 1);
-        double value;
-        if (stateActionReward.isTerminal()) {
-            value = 0;
-        } else {
-            value = threadCurrent.output(trainingBatch.get(size - 1).getObservation()).get(CommonOutputNames.ActorCritic.Value).getDouble(0);
-        }
 
-        for (int i = size - 1; i >= 0; --i) {
-            stateActionReward = trainingBatch.get(i);
+        // The expected values of the whole segment are evaluated in a single pass
+        INDArray allExpectedValues = threadCurrent.output(features).get(CommonOutputNames.ActorCritic.Value);
+        double[] expectedValues = allExpectedValues.reshape(size).toDoubleVector();
+
+        int[] actions = new int[size];
+        double[] rewards = new double[size];
+        for (int i = 0; i < size; ++i) {
+            StateActionReward<Integer> stateActionReward = trainingBatch.get(i);
+            actions[i] = stateActionReward.getAction();
+            rewards[i] = stateActionReward.getReward();
+        }
 
-            value = stateActionReward.getReward() + gamma * value;
+        double bootstrapValue = trainingBatch.get(size - 1).isTerminal()
+                ? 0.0
+                : expectedValues[size - 1];
 
-            //the critic
-            values.putScalar(i, value);
+        //the critic
+        double[] returns = DiscountedReturnHelper.computeReturns(rewards, gamma, bootstrapValue);
+        INDArray values = algorithmHelper.createValueLabels(returns);
 
-            //the actor
-            double expectedV = threadCurrent.output(trainingBatch.get(i).getObservation()).get(CommonOutputNames.ActorCritic.Value).getDouble(0);
-            double advantage = value - expectedV;
-            algorithmHelper.setPolicy(policy, i, stateActionReward.getAction(), advantage);
+        //the actor
+        double[] advantages = new double[size];
+        for (int i = 0; i < size; ++i) {
+            advantages[i] = returns[i] - expectedValues[i];
         }
+        INDArray policy = algorithmHelper.createPolicyLabels(actions, advantages);
 
         FeaturesLabels featuresLabels = new FeaturesLabels(features);
         featuresLabels.putLabels(CommonLabelNames.ActorCritic.Value, values);
@@ -44,4 +44,20 @@ public class NonRecurrentActorCriticHelper extends ActorCriticHelper {
     public void setPolicy(INDArray policy, long idx, int action, double advantage) {
         policy.putScalar(idx, action, advantage);
     }
+
+    @Override
+    public INDArray createValueLabels(double[] returns) {
+        return Nd4j.create(returns, new long[] { returns.length, 1 }, Nd4j.defaultFloatingPointType());
+    }
+
+    @Override
+    public INDArray createPolicyLabels(int[] actions, double[] advantages) {
+        int trainingBatchSize = advantages.length;
+        double[] policy = new double[trainingBatchSize * actionSpaceSize];
+        for(int i = 0; i < trainingBatchSize; ++i) {
+            policy[i * actionSpaceSize + actions[i]] = advantages[i];
+        }
+
+        return Nd4j.create(policy, new long[] { trainingBatchSize, actionSpaceSize }, Nd4j.defaultFloatingPointType());
+    }
 }
\ No newline at end of file
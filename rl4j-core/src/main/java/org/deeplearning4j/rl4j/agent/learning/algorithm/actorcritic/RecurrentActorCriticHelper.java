@@ -43,4 +43,20 @@ public class RecurrentActorCriticHelper extends ActorCriticHelper {
     public void setPolicy(INDArray policy, long idx, int action, double advantage) {
         policy.putScalar(0, action, idx, advantage);
     }
+
+    @Override
+    public INDArray createValueLabels(double[] returns) {
+        return Nd4j.create(returns, new long[] { 1, 1, returns.length }, Nd4j.defaultFloatingPointType());
+    }
+
+    @Override
+    public INDArray createPolicyLabels(int[] actions, double[] advantages) {
+        int trainingBatchSize = advantages.length;
+        double[] policy = new double[trainingBatchSize * actionSpaceSize];
+        for(int i = 0; i < trainingBatchSize; ++i) {
+            policy[actions[i] * trainingBatchSize + i] = advantages[i];
+        }
+
+        return Nd4j.create(policy, new long[] { 1, actionSpaceSize, trainingBatchSize }, Nd4j.defaultFloatingPointType());
+    }
 }
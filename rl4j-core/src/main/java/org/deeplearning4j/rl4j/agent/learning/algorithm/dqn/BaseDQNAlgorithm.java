@@ -25,6 +25,7 @@ import org.deeplearning4j.rl4j.agent.learning.update.Features;
 import org.deeplearning4j.rl4j.network.CommonOutputNames;
 import org.deeplearning4j.rl4j.network.IOutputNeuralNet;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 
 /**
  * The base of all DQN based algorithms
@@ -35,9 +36,11 @@ import org.nd4j.linalg.api.ndarray.INDArray;
 public abstract class BaseDQNAlgorithm extends BaseTransitionTDAlgorithm {
 
     private final IOutputNeuralNet targetQNetwork;
+    private final boolean isQNetworkNextFeaturesRequired;
 
     /**
-     * In literature, this corresponds to Q<sub>net</sub>(s(t+1), a)
+     * In literature, this corresponds to Q<sub>net</sub>(s(t+1), a)<br />
+     * Only evaluated if the algorithm requires it.
      */
     protected INDArray qNetworkNextFeatures;
 
@@ -46,18 +49,40 @@ public abstract class BaseDQNAlgorithm extends BaseTransitionTDAlgorithm {
      */
     protected INDArray targetQNetworkNextFeatures;
 
+    /**
+     * @param qNetwork The Q-Network
+     * @param targetQNetwork The target Q-Network
+     * @param configuration The {@link BaseTransitionTDAlgorithm.Configuration Configuration} to use
+     * @param isQNetworkNextFeaturesRequired True if the algorithm uses Q<sub>net</sub>(s(t+1), a). The observations and
+     *                                       the next observations are then evaluated by the Q-Network in a single pass.
+     */
     protected BaseDQNAlgorithm(IOutputNeuralNet qNetwork,
                                @NonNull IOutputNeuralNet targetQNetwork,
-                               BaseTransitionTDAlgorithm.Configuration configuration) {
+                               BaseTransitionTDAlgorithm.Configuration configuration,
+                               boolean isQNetworkNextFeaturesRequired) {
         super(qNetwork, configuration);
         this.targetQNetwork = targetQNetwork;
+        this.isQNetworkNextFeaturesRequired = isQNetworkNextFeaturesRequired;
     }
 
     @Override
-    protected void initComputation(Features features, Features nextFeatures) {
-        super.initComputation(features, nextFeatures);
-
-        qNetworkNextFeatures = qNetwork.output(nextFeatures).get(CommonOutputNames.QValues);
+    protected INDArray computeQValues(Features features, Features nextFeatures, Features stackedFeatures) {
         targetQNetworkNextFeatures = targetQNetwork.output(nextFeatures).get(CommonOutputNames.QValues);
+
+        if(!isQNetworkNextFeaturesRequired) {
+            qNetworkNextFeatures = null;
+            return super.computeQValues(features, nextFeatures, stackedFeatures);
+        }
+
+        if(stackedFeatures == null) {
+            qNetworkNextFeatures = qNetwork.output(nextFeatures).get(CommonOutputNames.QValues);
+            return super.computeQValues(features, nextFeatures, stackedFeatures);
+        }
+
+        INDArray stackedQValues = qNetwork.output(stackedFeatures).get(CommonOutputNames.QValues);
+        long size = features.getBatchSize();
+        qNetworkNextFeatures = stackedQValues.get(NDArrayIndex.interval(size, 2 * size), NDArrayIndex.all());
+
+        return stackedQValues.get(NDArrayIndex.interval(0, size), NDArrayIndex.all());
     }
 }
@@ -28,13 +28,19 @@ import org.deeplearning4j.rl4j.agent.learning.algorithm.IUpdateAlgorithm;
 import org.deeplearning4j.rl4j.agent.learning.update.Features;
 import org.deeplearning4j.rl4j.agent.learning.update.FeaturesBuilder;
 import org.deeplearning4j.rl4j.agent.learning.update.FeaturesLabels;
+import org.deeplearning4j.rl4j.experience.IPrioritizedBatch;
 import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.deeplearning4j.rl4j.experience.StateActionRewardStateBatch;
 import org.deeplearning4j.rl4j.network.CommonLabelNames;
 import org.deeplearning4j.rl4j.network.CommonOutputNames;
 import org.deeplearning4j.rl4j.network.IOutputNeuralNet;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.ops.transforms.Transforms;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public abstract class BaseTransitionTDAlgorithm implements IUpdateAlgorithm<FeaturesLabels, StateActionRewardState<Integer>> {
 
@@ -44,6 +50,7 @@ public abstract class BaseTransitionTDAlgorithm implements IUpdateAlgorithm<Feat
     private final double errorClamp;
     private final boolean isClamped;
 
+    private final boolean isRecurrent;
     private final FeaturesBuilder featuresBuilder;
     /**
      *
@@ -57,55 +64,114 @@ public abstract class BaseTransitionTDAlgorithm implements IUpdateAlgorithm<Feat
         this.errorClamp = configuration.getErrorClamp();
         isClamped = !Double.isNaN(errorClamp);
 
-        featuresBuilder = new FeaturesBuilder(qNetwork.isRecurrent());
+        isRecurrent = qNetwork.isRecurrent();
+        featuresBuilder = new FeaturesBuilder(isRecurrent);
     }
 
     /**
-     * Called just before the calculation starts
+     * Evaluate the Q-Values of the observations of the batch. Called once per batch, before {@link #computeTargets(INDArray, INDArray)}.
      * @param features A {@link Features} instance of all observations in the batch
      * @param nextFeatures A {@link Features} instance of all next observations in the batch
+     * @param stackedFeatures The observations followed by the next observations, as a single batch of twice the size.
+     *                        <i>features</i> and <i>nextFeatures</i> are views on it. null if not available.
+     * @return Q(s(t), a) for every transition of the batch
      */
-    protected void initComputation(Features features, Features nextFeatures) {
-        // Do nothing
+    protected INDArray computeQValues(Features features, Features nextFeatures, Features stackedFeatures) {
+        return qNetwork.output(features).get(CommonOutputNames.QValues);
     }
 
     /**
-     * Compute the new estimated Q-Value for every transition in the batch
+     * Compute the new estimated Q-Value of every transition in the batch
      *
-     * @param batchIdx The index in the batch of the current transition
-     * @param reward The reward of the current transition
-     * @param isTerminal True if it's the last transition of the "game"
-     * @return The estimated Q-Value
+     * @param rewards The rewards of the transitions, as a [batch size, 1] column
+     * @param nonTerminalMask 0.0 for the transitions that are the last of the "game", 1.0 for the others, as a [batch size, 1] column
+     * @return The estimated Q-Values, as a [batch size, 1] column
      */
-    protected abstract double computeTarget(int batchIdx, double reward, boolean isTerminal);
+    protected abstract INDArray computeTargets(INDArray rewards, INDArray nonTerminalMask);
 
     @Override
     public FeaturesLabels compute(List<StateActionRewardState<Integer>> stateActionRewardStates) {
 
         int size = stateActionRewardStates.size();
 
-        Features features = featuresBuilder.build(stateActionRewardStates);
-        Features nextFeatures = featuresBuilder.build(stateActionRewardStates.stream().map(e -> e.getNextObservation()), stateActionRewardStates.size());
+        // A StateActionRewardStateBatch already has its observations laid out as features; use them as-is.
+        StateActionRewardStateBatch batch = !isRecurrent && stateActionRewardStates instanceof StateActionRewardStateBatch
+                ? (StateActionRewardStateBatch) stateActionRewardStates
+                : null;
+
+        Features features;
+        Features nextFeatures;
+        Features stackedFeatures;
+        if(batch != null) {
+            features = batch.getFeatures();
+            nextFeatures = batch.getNextFeatures();
+            stackedFeatures = batch.getStackedFeatures();
+        } else if(!isRecurrent) {
+            // The observations and the next observations are laid out in a single batch so that they can be evaluated together
+            stackedFeatures = featuresBuilder.build(Stream.concat(stateActionRewardStates.stream().map(e -> e.getObservation()),
+                    stateActionRewardStates.stream().map(e -> e.getNextObservation())), 2 * size);
+            features = stackedFeatures.getRows(0, size);
+            nextFeatures = stackedFeatures.getRows(size, 2 * size);
+        } else {
+            features = featuresBuilder.build(stateActionRewardStates);
+            nextFeatures = featuresBuilder.build(stateActionRewardStates.stream().map(e -> e.getNextObservation()), stateActionRewardStates.size());
+            stackedFeatures = null;
+        }
 
-        initComputation(features, nextFeatures);
+        INDArray qValues = computeQValues(features, nextFeatures, stackedFeatures);
+        int numActions = (int) qValues.size(1);
 
-        INDArray updatedQValues = qNetwork.output(features).get(CommonOutputNames.QValues);
+        // The scalar parts of the transitions are gathered on-heap and sent to ND4J in one copy each
+        double[] rewardsData = new double[size];
+        double[] nonTerminalMaskData = new double[size];
+        double[] actionsMaskData = new double[size * numActions];
         for (int i = 0; i < size; ++i) {
-            StateActionRewardState<Integer> stateActionRewardState = stateActionRewardStates.get(i);
-            double yTarget = computeTarget(i, stateActionRewardState.getReward(), stateActionRewardState.isTerminal());
-
-            if(isClamped) {
-                double previousQValue = updatedQValues.getDouble(i, stateActionRewardState.getAction());
-                double lowBound = previousQValue - errorClamp;
-                double highBound = previousQValue + errorClamp;
-                yTarget = Math.min(highBound, Math.max(yTarget, lowBound));
+            int action;
+            if(batch != null) {
+                action = batch.getAction(i);
+                rewardsData[i] = batch.getReward(i);
+                nonTerminalMaskData[i] = batch.isTerminal(i) ? 0.0 : 1.0;
+            } else {
+                StateActionRewardState<Integer> stateActionRewardState = stateActionRewardStates.get(i);
+                action = stateActionRewardState.getAction();
+                rewardsData[i] = stateActionRewardState.getReward();
+                nonTerminalMaskData[i] = stateActionRewardState.isTerminal() ? 0.0 : 1.0;
             }
-            updatedQValues.putScalar(i, stateActionRewardState.getAction(), yTarget);
+            actionsMaskData[i * numActions + action] = 1.0;
+        }
+        DataType dataType = qValues.dataType();
+        INDArray rewards = Nd4j.create(rewardsData, new long[] { size, 1 }, dataType);
+        INDArray nonTerminalMask = Nd4j.create(nonTerminalMaskData, new long[] { size, 1 }, dataType);
+        INDArray actionsMask = Nd4j.create(actionsMaskData, new long[] { size, numActions }, dataType);
+
+        INDArray targets = computeTargets(rewards, nonTerminalMask);
+
+        // Q(s(t), a(t)) of every transition
+        INDArray previousQValues = qValues.mul(actionsMask).sum(true, 1);
+
+        // Batches from a prioritized replay memory get their TD errors back to update the priorities
+        IPrioritizedBatch prioritizedBatch = stateActionRewardStates instanceof IPrioritizedBatch
+                ? (IPrioritizedBatch) stateActionRewardStates
+                : null;
+        if(prioritizedBatch != null) {
+            prioritizedBatch.updatePriorities(targets.sub(previousQValues).toDoubleVector());
+        }
+
+        if(isClamped) {
+            INDArray clampedErrors = Transforms.min(Transforms.max(targets.sub(previousQValues), -errorClamp, false), errorClamp, false);
+            targets = previousQValues.addi(clampedErrors);
         }
 
+        // Only the Q-Values of the actions taken are replaced by their target
+        INDArray updatedQValues = qValues.mul(actionsMask.rsub(1.0)).addi(actionsMask.muliColumnVector(targets));
+
         FeaturesLabels featuresLabels = new FeaturesLabels(features);
         featuresLabels.putLabels(CommonLabelNames.QValues, updatedQValues);
 
+        if(prioritizedBatch != null) {
+            featuresLabels.setSampleWeights(prioritizedBatch.getImportanceSamplingWeights());
+        }
+
         return featuresLabels;
     }
 
@@ -20,46 +20,37 @@
 
 package org.deeplearning4j.rl4j.agent.learning.algorithm.dqn;
 
-import org.deeplearning4j.rl4j.agent.learning.update.Features;
 import org.deeplearning4j.rl4j.network.IOutputNeuralNet;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.shape.OneHot;
 import org.nd4j.linalg.factory.Nd4j;
 
 public class DoubleDQN extends BaseDQNAlgorithm {
 
     private static final int ACTION_DIMENSION_IDX = 1;
 
-    // In literature, this corresponds to: max<sub>a</sub> Q(s<sub>t+1</sub>, a)
-    private INDArray maxActionsFromQNetworkNextObservation;
-
     public DoubleDQN(IOutputNeuralNet qNetwork,
                      IOutputNeuralNet targetQNetwork,
                      BaseTransitionTDAlgorithm.Configuration configuration) {
-        super(qNetwork, targetQNetwork, configuration);
-    }
-
-    @Override
-    protected void initComputation(Features features, Features nextFeatures) {
-        super.initComputation(features, nextFeatures);
-
-        maxActionsFromQNetworkNextObservation = Nd4j.argMax(qNetworkNextFeatures, ACTION_DIMENSION_IDX);
+        super(qNetwork, targetQNetwork, configuration, true);
     }
 
     /**
      * In literature, this corresponds to:<br />
      *      Q(s<sub>t</sub>, a<sub>t</sub>) = R<sub>t+1</sub> + &gamma; * Q<sub>tar</sub>(s<sub>t+1</sub>, max<sub>a</sub> Q(s<sub>t+1</sub>, a))
-     * @param batchIdx The index in the batch of the current transition
-     * @param reward The reward of the current transition
-     * @param isTerminal True if it's the last transition of the "game"
-     * @return The estimated Q-Value
+     * @param rewards The rewards of the transitions, as a [batch size, 1] column
+     * @param nonTerminalMask 0.0 for the transitions that are the last of the "game", 1.0 for the others, as a [batch size, 1] column
+     * @return The estimated Q-Values, as a [batch size, 1] column
      */
     @Override
-    protected double computeTarget(int batchIdx, double reward, boolean isTerminal) {
-        double yTarget = reward;
-        if (!isTerminal) {
-            yTarget += gamma * targetQNetworkNextFeatures.getDouble(batchIdx, maxActionsFromQNetworkNextObservation.getInt(batchIdx));
-        }
+    protected INDArray computeTargets(INDArray rewards, INDArray nonTerminalMask) {
+        // max<sub>a</sub> Q(s<sub>t+1</sub>, a), as a one-hot mask built on the device
+        INDArray maxActionsFromQNetworkNextObservation = Nd4j.argMax(qNetworkNextFeatures, ACTION_DIMENSION_IDX);
+        int numActions = (int) targetQNetworkNextFeatures.size(ACTION_DIMENSION_IDX);
+        INDArray maxActionsMask = Nd4j.exec(new OneHot(maxActionsFromQNetworkNextObservation, numActions, -1, 1.0, 0.0, targetQNetworkNextFeatures.dataType()))[0];
+
+        INDArray targetQValues = maxActionsMask.muli(targetQNetworkNextFeatures).sum(true, ACTION_DIMENSION_IDX);
 
-        return yTarget;
+        return targetQValues.muli(nonTerminalMask).muli(gamma).addi(rewards);
     }
 }
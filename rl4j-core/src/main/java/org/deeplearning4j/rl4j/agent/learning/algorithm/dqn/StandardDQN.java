@@ -20,47 +20,29 @@
 
 package org.deeplearning4j.rl4j.agent.learning.algorithm.dqn;
 
-import org.deeplearning4j.rl4j.agent.learning.update.Features;
 import org.deeplearning4j.rl4j.network.IOutputNeuralNet;
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.factory.Nd4j;
 
 public class StandardDQN extends BaseDQNAlgorithm {
 
     private static final int ACTION_DIMENSION_IDX = 1;
 
-    /**
-     * In literature, this corresponds to: max<sub>a</sub> Q<sub>tar</sub>(s<sub>t+1</sub>, a)
-     */
-    private INDArray maxActionsFromQTargetNextObservation;
-
     public StandardDQN(IOutputNeuralNet qNetwork, IOutputNeuralNet targetQNetwork, Configuration configuration) {
-        super(qNetwork, targetQNetwork, configuration);
-    }
-
-
-    @Override
-    protected void initComputation(Features features, Features nextFeatures) {
-        super.initComputation(features, nextFeatures);
-
-        maxActionsFromQTargetNextObservation = Nd4j.max(targetQNetworkNextFeatures, ACTION_DIMENSION_IDX);
+        super(qNetwork, targetQNetwork, configuration, false);
     }
 
     /**
      * In literature, this corresponds to:<br />
      *      Q(s<sub>t</sub>, a<sub>t</sub>) = R<sub>t+1</sub> + &gamma; * max<sub>a</sub> Q<sub>tar</sub>(s<sub>t+1</sub>, a)
-     * @param batchIdx The index in the batch of the current transition
-     * @param reward The reward of the current transition
-     * @param isTerminal True if it's the last transition of the "game"
-     * @return The estimated Q-Value
+     * @param rewards The rewards of the transitions, as a [batch size, 1] column
+     * @param nonTerminalMask 0.0 for the transitions that are the last of the "game", 1.0 for the others, as a [batch size, 1] column
+     * @return The estimated Q-Values, as a [batch size, 1] column
      */
     @Override
-    protected double computeTarget(int batchIdx, double reward, boolean isTerminal) {
-        double yTarget = reward;
-        if (!isTerminal) {
-            yTarget += gamma * maxActionsFromQTargetNextObservation.getDouble(batchIdx);
-        }
+    protected INDArray computeTargets(INDArray rewards, INDArray nonTerminalMask) {
+        // max<sub>a</sub> Q<sub>tar</sub>(s<sub>t+1</sub>, a)
+        INDArray maxActionsFromQTargetNextObservation = targetQNetworkNextFeatures.max(true, ACTION_DIMENSION_IDX);
 
-        return yTarget;
+        return maxActionsFromQTargetNextObservation.muli(nonTerminalMask).muli(gamma).addi(rewards);
     }
 }
@@ -29,6 +29,7 @@ import org.deeplearning4j.rl4j.agent.learning.update.FeaturesBuilder;
 import org.deeplearning4j.rl4j.agent.learning.update.FeaturesLabels;
 import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
 import org.deeplearning4j.rl4j.experience.StateActionReward;
+import org.deeplearning4j.rl4j.helper.DiscountedReturnHelper;
 import org.deeplearning4j.rl4j.network.CommonLabelNames;
 import org.deeplearning4j.rl4j.network.CommonOutputNames;
 import org.deeplearning4j.rl4j.network.IOutputNeuralNet;
@@ -74,25 +75,26 @@ public class NStepQLearning implements IUpdateAlgorithm<Gradients, StateActionRe
 
         Features features = featuresBuilder.build(trainingBatch);
 
-        INDArray labels = algorithmHelper.createLabels(size);
-
-        double r;
+        double bootstrapValue;
         if (stateActionReward.isTerminal()) {
-            r = 0;
+            bootstrapValue = 0;
         } else {
             INDArray expectedValuesOfLast = algorithmHelper.getTargetExpectedQValuesOfLast(target, trainingBatch, features);
-            r = Nd4j.max(expectedValuesOfLast).getDouble(0);
+            bootstrapValue = Nd4j.max(expectedValuesOfLast).getDouble(0);
         }
 
-        for (int i = size - 1; i >= 0; --i) {
+        int[] actions = new int[size];
+        double[] rewards = new double[size];
+        for (int i = 0; i < size; ++i) {
             stateActionReward = trainingBatch.get(i);
-
-            r = stateActionReward.getReward() + gamma * r;
-            INDArray expectedQValues = threadCurrent.output(stateActionReward.getObservation()).get(CommonOutputNames.QValues);
-            expectedQValues = expectedQValues.putScalar(stateActionReward.getAction(), r);
-
-            algorithmHelper.setLabels(labels, i, expectedQValues);
+            actions[i] = stateActionReward.getAction();
+            rewards[i] = stateActionReward.getReward();
         }
+        double[] returns = DiscountedReturnHelper.computeReturns(rewards, gamma, bootstrapValue);
+
+        // The expected Q values of the whole segment are evaluated in a single pass
+        INDArray allExpectedQValues = threadCurrent.output(features).get(CommonOutputNames.QValues);
+        INDArray labels = algorithmHelper.createLabels(allExpectedQValues, actions, returns);
 
         FeaturesLabels featuresLabels = new FeaturesLabels(features);
         featuresLabels.putLabels(CommonLabelNames.QValues, labels);
@@ -51,6 +51,16 @@ public abstract class NStepQLearningHelper {
      */
     public abstract void setLabels(INDArray labels, long idx, INDArray data);
 
+    /**
+     * Create the Q values array of the whole training batch: the expected Q values, where the Q value of the action
+     * taken at each step is replaced by the discounted return of that step.
+     * @param allExpectedQValues The expected Q values of all the observations of the training batch, as returned by the network
+     * @param actions The action taken at each step of the training batch
+     * @param returns The discounted return of each step of the training batch
+     * @return The Q values array
+     */
+    public abstract INDArray createLabels(INDArray allExpectedQValues, int[] actions, double[] returns);
+
     /**
      * Get the expected Q values for the last element of the training batch, estimated using the target network.
      * @param target The target network
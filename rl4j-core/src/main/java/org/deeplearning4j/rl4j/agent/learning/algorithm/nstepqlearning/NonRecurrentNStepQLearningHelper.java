@@ -24,9 +24,11 @@ import org.deeplearning4j.rl4j.experience.StateActionReward;
 import org.deeplearning4j.rl4j.network.CommonOutputNames;
 import org.deeplearning4j.rl4j.network.IOutputNeuralNet;
 import org.deeplearning4j.rl4j.observation.Observation;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
+import java.util.Arrays;
 import java.util.List;
 
 public class NonRecurrentNStepQLearningHelper extends NStepQLearningHelper {
@@ -51,6 +53,24 @@ public class NonRecurrentNStepQLearningHelper extends NStepQLearningHelper {
         labels.putRow(idx, data);
     }
 
+    @Override
+    public INDArray createLabels(INDArray allExpectedQValues, int[] actions, double[] returns) {
+        int trainingBatchSize = returns.length;
+        double[] keepMask = new double[trainingBatchSize * actionSpaceSize];
+        double[] returnsMask = new double[trainingBatchSize * actionSpaceSize];
+        Arrays.fill(keepMask, 1.0);
+        for(int i = 0; i < trainingBatchSize; ++i) {
+            int idx = i * actionSpaceSize + actions[i];
+            keepMask[idx] = 0.0;
+            returnsMask[idx] = returns[i];
+        }
+
+        long[] shape = new long[] { trainingBatchSize, actionSpaceSize };
+        DataType dataType = allExpectedQValues.dataType();
+        return allExpectedQValues.mul(Nd4j.create(keepMask, shape, dataType))
+                .addi(Nd4j.create(returnsMask, shape, dataType));
+    }
+
     @Override
     public INDArray getTargetExpectedQValuesOfLast(IOutputNeuralNet target, List<StateActionReward<Integer>> trainingBatch, Features features) {
         Observation lastObservation = trainingBatch.get(trainingBatch.size() - 1).getObservation();
@@ -23,10 +23,12 @@ import org.deeplearning4j.rl4j.agent.learning.update.Features;
 import org.deeplearning4j.rl4j.experience.StateActionReward;
 import org.deeplearning4j.rl4j.network.CommonOutputNames;
 import org.deeplearning4j.rl4j.network.IOutputNeuralNet;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.indexing.NDArrayIndex;
 
+import java.util.Arrays;
 import java.util.List;
 
 public class RecurrentNStepQLearningHelper extends NStepQLearningHelper {
@@ -51,6 +53,24 @@ public class RecurrentNStepQLearningHelper extends NStepQLearningHelper {
         getElementAtIndex(labels, idx).assign(data);
     }
 
+    @Override
+    public INDArray createLabels(INDArray allExpectedQValues, int[] actions, double[] returns) {
+        int trainingBatchSize = returns.length;
+        double[] keepMask = new double[trainingBatchSize * actionSpaceSize];
+        double[] returnsMask = new double[trainingBatchSize * actionSpaceSize];
+        Arrays.fill(keepMask, 1.0);
+        for(int i = 0; i < trainingBatchSize; ++i) {
+            int idx = actions[i] * trainingBatchSize + i;
+            keepMask[idx] = 0.0;
+            returnsMask[idx] = returns[i];
+        }
+
+        long[] shape = new long[] { 1, actionSpaceSize, trainingBatchSize };
+        DataType dataType = allExpectedQValues.dataType();
+        return allExpectedQValues.mul(Nd4j.create(keepMask, shape, dataType))
+                .addi(Nd4j.create(returnsMask, shape, dataType));
+    }
+
     @Override
     public INDArray getTargetExpectedQValuesOfLast(IOutputNeuralNet target, List<StateActionReward<Integer>> trainingBatch, Features features) {
         return getElementAtIndex(target.output(features).get(CommonOutputNames.QValues), trainingBatch.size() - 1);
@@ -0,0 +1,78 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.agent.learning.behavior;
+
+import lombok.Builder;
+import lombok.NonNull;
+import org.deeplearning4j.rl4j.experience.ExperienceHandler;
+import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
+import org.deeplearning4j.rl4j.observation.Observation;
+
+/**
+ * A learning behavior for actors of an actor-learner setup: the experience is only stored in the experience handler
+ * (usually backed by a replay memory shared with the learner), no training is done. The actor's network is synchronized
+ * with the network trained by the learner at the start of every episode.
+ */
+@Builder
+public class ActorLearningBehavior<ACTION, EXPERIENCE_TYPE> implements ILearningBehavior<ACTION> {
+
+    @NonNull
+    private final ExperienceHandler<ACTION, EXPERIENCE_TYPE> experienceHandler;
+
+    /**
+     * The network used by the actor
+     */
+    @NonNull
+    private final ITrainableNeuralNet actorNetwork;
+
+    /**
+     * The network trained by the learner. Its monitor is held while copying it.
+     */
+    @NonNull
+    private final ITrainableNeuralNet learnerNetwork;
+
+    @Override
+    public void handleEpisodeStart() {
+        experienceHandler.reset();
+        synchronized (learnerNetwork) {
+            actorNetwork.copyFrom(learnerNetwork);
+        }
+    }
+
+    @Override
+    public void handleNewExperience(Observation observation, ACTION action, double reward, boolean isTerminal) {
+        experienceHandler.addExperience(observation, action, reward, isTerminal);
+    }
+
+    @Override
+    public void handleEpisodeEnd(Observation finalObservation) {
+        experienceHandler.setFinalObservation(finalObservation);
+    }
+
+    @Override
+    public void notifyBeforeStep() {
+        // Do nothing
+    }
+
+    @Override
+    public void close() {
+        experienceHandler.close();
+    }
+}
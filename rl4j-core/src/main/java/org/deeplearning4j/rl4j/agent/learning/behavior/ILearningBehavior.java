@@ -21,7 +21,7 @@ package org.deeplearning4j.rl4j.agent.learning.behavior;
 
 import org.deeplearning4j.rl4j.observation.Observation;
 
-public interface ILearningBehavior<ACTION> {
+public interface ILearningBehavior<ACTION> extends AutoCloseable {
 
     /**
      * This method is called when a new episode has been started.
@@ -49,4 +49,12 @@ public interface ILearningBehavior<ACTION> {
      * Notify the learning behavior that a step will be taken.
      */
     void notifyBeforeStep();
+
+    /**
+     * Release the resources held by the learning behavior and its experience handler. Called when the training is over.
+     */
+    @Override
+    default void close() {
+        // Do Nothing
+    }
 }
@@ -36,6 +36,12 @@ public class LearningBehavior<ACTION, EXPERIENCE_TYPE> implements ILearningBehav
     @NonNull
     private final IUpdateRule<EXPERIENCE_TYPE> updateRule;
 
+    /**
+     * Decides when and how many times the update rule is applied. If null, one update is done every time a training
+     * batch is ready.
+     */
+    private final UpdateScheduler updateScheduler;
+
     @Override
     public void handleEpisodeStart() {
         experienceHandler.reset();
@@ -44,7 +50,9 @@ public class LearningBehavior<ACTION, EXPERIENCE_TYPE> implements ILearningBehav
     @Override
     public void handleNewExperience(Observation observation, ACTION action, double reward, boolean isTerminal) {
         experienceHandler.addExperience(observation, action, reward, isTerminal);
-        if(experienceHandler.isTrainingBatchReady()) {
+        if(updateScheduler != null) {
+            handleScheduledBatches();
+        } else if(experienceHandler.isTrainingBatchReady()) {
             handleBatch();
         }
     }
@@ -52,7 +60,20 @@ public class LearningBehavior<ACTION, EXPERIENCE_TYPE> implements ILearningBehav
     @Override
     public void handleEpisodeEnd(Observation finalObservation) {
         experienceHandler.setFinalObservation(finalObservation);
-        if(experienceHandler.isTrainingBatchReady()) {
+        // With a scheduler, the training is only done on environment steps
+        if(updateScheduler == null && experienceHandler.isTrainingBatchReady()) {
+            handleBatch();
+        }
+    }
+
+    private void handleScheduledBatches() {
+        updateScheduler.notifyEnvironmentStep();
+        if(!experienceHandler.isTrainingBatchReady()) {
+            return;
+        }
+
+        int gradientSteps = updateScheduler.computeGradientSteps();
+        for(int i = 0; i < gradientSteps; ++i) {
             handleBatch();
         }
     }
@@ -71,4 +92,9 @@ public class LearningBehavior<ACTION, EXPERIENCE_TYPE> implements ILearningBehav
             hasBatchChanged = false;
         }
     }
+
+    @Override
+    public void close() {
+        experienceHandler.close();
+    }
 }
@@ -0,0 +1,366 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.agent.learning.behavior;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.experimental.SuperBuilder;
+import org.deeplearning4j.rl4j.agent.learning.update.IUpdateRule;
+import org.deeplearning4j.rl4j.experience.ExperienceHandler;
+import org.deeplearning4j.rl4j.experience.IPrioritizedBatch;
+import org.deeplearning4j.rl4j.experience.StateActionRewardStateBatch;
+import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A learning behavior that overlaps the training with the environment stepping. The training batches are handed to a
+ * dedicated learner thread through a bounded queue, and the agent keeps acting with its own network (the actor network)
+ * while the learner network is being updated.
+ * <br>
+ * The actor network picks up the parameters of the learner network at sync points: before a step, at most once every
+ * <i>syncInterval</i> steps, and only if the learner has applied updates since the last sync. The learner holds the
+ * monitor of the learner network while updating it; the copy is done while holding the same monitor.
+ * <br>
+ * When the queue is full, the agent waits for the learner (backpressure) or drops the batch, depending on the configuration.
+ * <br>
+ * The learner thread is stopped by {@link #close()}, which is called when the AgentLearner is closed at the end of the
+ * training. By default, the batches still in the queue are trained before the learner thread stops.
+ * <br>
+ * Batches reused by their producer ({@link StateActionRewardStateBatch}) are copied before being queued, and the
+ * priority updates of {@link IPrioritizedBatch prioritized batches} are deferred to the agent's thread so that the
+ * replay memory is only accessed by one thread.
+ */
+public class PipelinedLearningBehavior<ACTION, EXPERIENCE_TYPE> implements ILearningBehavior<ACTION> {
+
+    private static final long QUEUE_POLL_MILLIS = 10;
+
+    private final ExperienceHandler<ACTION, EXPERIENCE_TYPE> experienceHandler;
+    private final IUpdateRule<EXPERIENCE_TYPE> updateRule;
+    private final ITrainableNeuralNet actorNetwork;
+    private final ITrainableNeuralNet learnerNetwork;
+
+    private final int syncInterval;
+    private final boolean isDroppingBatchesWhenFull;
+    private final boolean isDrainingQueueOnClose;
+
+    private final BlockingQueue<List<EXPERIENCE_TYPE>> pendingBatches;
+    private final Queue<Runnable> pendingPriorityUpdates = new ConcurrentLinkedQueue<>();
+    private final Thread learnerThread;
+
+    private volatile boolean isClosed = false;
+    private volatile Throwable learnerFailure;
+
+    // Only written by the learner thread, while holding the monitor of the learner network
+    private volatile long appliedUpdateCount = 0;
+
+    private long syncedUpdateCount = 0;
+    private int stepsSinceSync = 0;
+
+    private long droppedBatchCount = 0;
+    private long backpressureCount = 0;
+    private long backpressureWaitNanos = 0;
+
+    /**
+     * @param experienceHandler The experience handler that generates the training batches
+     * @param updateRule The update rule used by the learner thread. Must update <i>learnerNetwork</i>.
+     * @param actorNetwork The network used by the policy of the agent
+     * @param learnerNetwork The network trained by the learner thread
+     * @param configuration The {@link Configuration} of the pipeline
+     */
+    public PipelinedLearningBehavior(@NonNull ExperienceHandler<ACTION, EXPERIENCE_TYPE> experienceHandler,
+                                     @NonNull IUpdateRule<EXPERIENCE_TYPE> updateRule,
+                                     @NonNull ITrainableNeuralNet actorNetwork,
+                                     @NonNull ITrainableNeuralNet learnerNetwork,
+                                     @NonNull Configuration configuration) {
+        Preconditions.checkArgument(actorNetwork != learnerNetwork, "The actor network and the learner network must be different instances");
+        Preconditions.checkArgument(configuration.getQueueCapacity() > 0, "Configuration: queueCapacity must be greater than 0, got %s", configuration.getQueueCapacity());
+        Preconditions.checkArgument(configuration.getSyncInterval() > 0, "Configuration: syncInterval must be greater than 0, got %s", configuration.getSyncInterval());
+
+        this.experienceHandler = experienceHandler;
+        this.updateRule = updateRule;
+        this.actorNetwork = actorNetwork;
+        this.learnerNetwork = learnerNetwork;
+        this.syncInterval = configuration.getSyncInterval();
+        this.isDroppingBatchesWhenFull = configuration.isDropBatchesWhenFull();
+        this.isDrainingQueueOnClose = configuration.isDrainQueueOnClose();
+
+        pendingBatches = new ArrayBlockingQueue<>(configuration.getQueueCapacity());
+
+        learnerThread = new Thread(this::learn, "PipelinedLearner");
+        learnerThread.setDaemon(true);
+        learnerThread.start();
+    }
+
+    @Override
+    public void handleEpisodeStart() {
+        experienceHandler.reset();
+    }
+
+    @Override
+    public void handleNewExperience(Observation observation, ACTION action, double reward, boolean isTerminal) {
+        experienceHandler.addExperience(observation, action, reward, isTerminal);
+        if(experienceHandler.isTrainingBatchReady()) {
+            handleBatch();
+        }
+    }
+
+    @Override
+    public void handleEpisodeEnd(Observation finalObservation) {
+        experienceHandler.setFinalObservation(finalObservation);
+        if(experienceHandler.isTrainingBatchReady()) {
+            handleBatch();
+        }
+    }
+
+    /**
+     * Apply the deferred priority updates and, at sync points, copy the learner network into the actor network.
+     */
+    @Override
+    public void notifyBeforeStep() {
+        checkLearner();
+
+        Runnable priorityUpdate;
+        while ((priorityUpdate = pendingPriorityUpdates.poll()) != null) {
+            priorityUpdate.run();
+        }
+
+        if(++stepsSinceSync >= syncInterval && appliedUpdateCount != syncedUpdateCount) {
+            synchronized (learnerNetwork) {
+                actorNetwork.copyFrom(learnerNetwork);
+                syncedUpdateCount = appliedUpdateCount;
+            }
+            stepsSinceSync = 0;
+        }
+    }
+
+    /**
+     * @return The number of training batches waiting for the learner thread
+     */
+    public int getQueueDepth() {
+        return pendingBatches.size();
+    }
+
+    /**
+     * @return The number of updates applied by the learner thread
+     */
+    public long getAppliedUpdateCount() {
+        return appliedUpdateCount;
+    }
+
+    /**
+     * @return The number of updates applied to the learner network that the actor network hasn't picked up yet
+     */
+    public long getStaleness() {
+        return appliedUpdateCount - syncedUpdateCount;
+    }
+
+    /**
+     * @return The number of training batches dropped because the queue was full
+     */
+    public long getDroppedBatchCount() {
+        return droppedBatchCount;
+    }
+
+    /**
+     * @return The number of times the agent had to wait for the learner thread because the queue was full
+     */
+    public long getBackpressureCount() {
+        return backpressureCount;
+    }
+
+    /**
+     * @return The total time, in nanoseconds, the agent waited for the learner thread because the queue was full
+     */
+    public long getBackpressureWaitNanos() {
+        return backpressureWaitNanos;
+    }
+
+    /**
+     * Stop the learner thread. Depending on the configuration, the training batches still in the queue are either
+     * trained first or discarded. The priority updates reported by the learner are applied before the experience
+     * handler is closed.
+     */
+    @Override
+    public void close() {
+        if(isClosed) {
+            return;
+        }
+
+        isClosed = true;
+        if(!isDrainingQueueOnClose) {
+            learnerThread.interrupt();
+        }
+        try {
+            learnerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pendingBatches.clear();
+
+        Runnable priorityUpdate;
+        while ((priorityUpdate = pendingPriorityUpdates.poll()) != null) {
+            priorityUpdate.run();
+        }
+        experienceHandler.close();
+    }
+
+    private void handleBatch() {
+        checkLearner();
+
+        List<EXPERIENCE_TYPE> trainingBatch = detach(experienceHandler.generateTrainingBatch());
+        if(pendingBatches.offer(trainingBatch)) {
+            return;
+        }
+
+        if(isDroppingBatchesWhenFull) {
+            ++droppedBatchCount;
+            return;
+        }
+
+        ++backpressureCount;
+        long start = System.nanoTime();
+        try {
+            while (!pendingBatches.offer(trainingBatch, QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkLearner();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            backpressureWaitNanos += System.nanoTime() - start;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<EXPERIENCE_TYPE> detach(List<EXPERIENCE_TYPE> trainingBatch) {
+        if(trainingBatch instanceof StateActionRewardStateBatch) {
+            return (List<EXPERIENCE_TYPE>) ((StateActionRewardStateBatch) trainingBatch).copy();
+        }
+
+        if(trainingBatch instanceof IPrioritizedBatch) {
+            return new DeferredPrioritiesBatch(trainingBatch);
+        }
+
+        return trainingBatch;
+    }
+
+    private void checkLearner() {
+        Preconditions.checkState(!isClosed, "The PipelinedLearningBehavior is closed");
+        if(learnerFailure != null) {
+            throw new RuntimeException("The learner thread has failed", learnerFailure);
+        }
+    }
+
+    private void learn() {
+        try {
+            // Once closed, the loop ends when the queue is empty (it is only fed by the agent's thread, which closes it)
+            while (!isClosed || !pendingBatches.isEmpty()) {
+                List<EXPERIENCE_TYPE> trainingBatch = pendingBatches.poll(QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if(trainingBatch == null) {
+                    continue;
+                }
+
+                synchronized (learnerNetwork) {
+                    updateRule.update(trainingBatch);
+                    updateRule.notifyNewBatchStarted();
+                    ++appliedUpdateCount;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed
+        } catch (Throwable t) {
+            learnerFailure = t;
+        }
+    }
+
+    /**
+     * Wraps a prioritized batch; the priority updates reported by the learner thread are applied on the agent's thread.
+     */
+    private class DeferredPrioritiesBatch extends AbstractList<EXPERIENCE_TYPE> implements IPrioritizedBatch {
+        private final List<EXPERIENCE_TYPE> batch;
+        private final IPrioritizedBatch prioritizedBatch;
+
+        private DeferredPrioritiesBatch(List<EXPERIENCE_TYPE> batch) {
+            this.batch = batch;
+            this.prioritizedBatch = (IPrioritizedBatch) batch;
+        }
+
+        @Override
+        public EXPERIENCE_TYPE get(int index) {
+            return batch.get(index);
+        }
+
+        @Override
+        public int size() {
+            return batch.size();
+        }
+
+        @Override
+        public INDArray getImportanceSamplingWeights() {
+            return prioritizedBatch.getImportanceSamplingWeights();
+        }
+
+        @Override
+        public void updatePriorities(double[] tdErrors) {
+            pendingPriorityUpdates.add(() -> prioritizedBatch.updatePriorities(tdErrors));
+        }
+    }
+
+    @SuperBuilder
+    @Data
+    public static class Configuration {
+        /**
+         * The maximum number of training batches waiting for the learner thread. Default is 2
+         */
+        @Builder.Default
+        private int queueCapacity = 2;
+
+        /**
+         * The minimum number of steps between two times the actor network picks up the parameters of the learner
+         * network. Default is 1 (before every step, if the learner network has been updated)
+         */
+        @Builder.Default
+        private int syncInterval = 1;
+
+        /**
+         * If true, a training batch is dropped when the queue is full. Otherwise, the agent waits until the learner
+         * thread takes a batch from the queue. Default is false
+         */
+        private boolean dropBatchesWhenFull;
+
+        /**
+         * If true, the training batches still in the queue when the behavior is closed are trained before the
+         * learner thread stops. Otherwise, they are discarded. Default is true
+         */
+        @Builder.Default
+        private boolean drainQueueOnClose = true;
+    }
+}
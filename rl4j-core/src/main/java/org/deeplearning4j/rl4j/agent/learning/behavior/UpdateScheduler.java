@@ -0,0 +1,162 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.agent.learning.behavior;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.SuperBuilder;
+import org.nd4j.common.base.Preconditions;
+
+/**
+ * Decides when and how much a {@link LearningBehavior} trains, trading the learner compute against the environment throughput:
+ * <ul>
+ *     <li>No training is done until <i>warmupSize</i> transitions have been stored in the replay memory and a training
+ *     batch is ready. This is the end of the warm-up.</li>
+ *     <li>After that, a training event happens every <i>trainInterval</i> environment steps</li>
+ *     <li>Each training event performs <i>gradientStepsPerTraining</i> gradient steps or, if <i>targetReplayRatio</i> is set,
+ *     as many gradient steps as needed to bring the replay ratio (the number of gradient steps per environment step,
+ *     measured since the end of the warm-up) back to the target.</li>
+ * </ul>
+ * The transitions are counted as they are handed to the scheduler, one per environment step. A scheduler can be shared
+ * by the learning behaviors of a {@link org.deeplearning4j.rl4j.agent.VectorAgentLearner VectorAgentLearner} whose
+ * environments store their experience in the same replay memory; it is not thread-safe.
+ */
+public class UpdateScheduler {
+
+    private final int warmupSize;
+    private final int trainInterval;
+    private final int gradientStepsPerTraining;
+    private final double targetReplayRatio;
+
+    /**
+     * The total number of environment steps
+     */
+    @Getter
+    private long environmentStepCount = 0;
+
+    /**
+     * The total number of gradient steps scheduled
+     */
+    @Getter
+    private long gradientStepCount = 0;
+
+    // The environment step count at the end of the warm-up, -1 until then
+    private long warmupEndStep = -1;
+
+    public UpdateScheduler(@NonNull Configuration configuration) {
+        Preconditions.checkArgument(configuration.getWarmupSize() >= 0, "Configuration: warmupSize must be 0 or greater, got %s", configuration.getWarmupSize());
+        Preconditions.checkArgument(configuration.getTrainInterval() > 0, "Configuration: trainInterval must be greater than 0, got %s", configuration.getTrainInterval());
+        Preconditions.checkArgument(configuration.getGradientStepsPerTraining() > 0, "Configuration: gradientStepsPerTraining must be greater than 0, got %s", configuration.getGradientStepsPerTraining());
+        Preconditions.checkArgument(configuration.getTargetReplayRatio() >= 0.0, "Configuration: targetReplayRatio must be 0 or greater, got %s", configuration.getTargetReplayRatio());
+
+        this.warmupSize = configuration.getWarmupSize();
+        this.trainInterval = configuration.getTrainInterval();
+        this.gradientStepsPerTraining = configuration.getGradientStepsPerTraining();
+        this.targetReplayRatio = configuration.getTargetReplayRatio();
+    }
+
+    /**
+     * Signal that a step has been taken in an environment
+     */
+    public void notifyEnvironmentStep() {
+        ++environmentStepCount;
+    }
+
+    /**
+     * @return True until the replay memory holds <i>warmupSize</i> transitions
+     */
+    public boolean isWarmingUp() {
+        return environmentStepCount < warmupSize;
+    }
+
+    /**
+     * Get the number of gradient steps of the current environment step and count them as done. Should be called once
+     * per environment step, after {@link #notifyEnvironmentStep()}, when a training batch is ready. The first call once
+     * <i>warmupSize</i> transitions have been stored ends the warm-up.
+     * @return The number of gradient steps to perform now; 0 if this step is not a training event.
+     */
+    public int computeGradientSteps() {
+        if(isWarmingUp()) {
+            return 0;
+        }
+
+        if(warmupEndStep == -1) {
+            warmupEndStep = environmentStepCount - 1;
+        }
+
+        long stepsSinceWarmup = environmentStepCount - warmupEndStep;
+        if(stepsSinceWarmup % trainInterval != 0) {
+            return 0;
+        }
+
+        int result;
+        if(targetReplayRatio > 0.0) {
+            long targetGradientStepCount = (long) Math.floor(targetReplayRatio * stepsSinceWarmup);
+            result = (int) Math.max(0, targetGradientStepCount - gradientStepCount);
+        } else {
+            result = gradientStepsPerTraining;
+        }
+
+        gradientStepCount += result;
+        return result;
+    }
+
+    /**
+     * @return The number of gradient steps per environment step since the end of the warm-up. 0.0 during the warm-up.
+     */
+    public double getReplayRatio() {
+        long stepsSinceWarmup = warmupEndStep == -1 ? 0 : environmentStepCount - warmupEndStep;
+        return stepsSinceWarmup > 0
+                ? (double) gradientStepCount / stepsSinceWarmup
+                : 0.0;
+    }
+
+    @SuperBuilder
+    @Data
+    public static class Configuration {
+        /**
+         * The number of transitions the replay memory must hold before the training starts. Default is 0
+         * (the training starts as soon as a batch is ready)
+         */
+        private int warmupSize;
+
+        /**
+         * The number of environment steps between two training events. Default is 1
+         */
+        @Builder.Default
+        private int trainInterval = 1;
+
+        /**
+         * The number of gradient steps of each training event. Not used when <i>targetReplayRatio</i> is set. Default is 1
+         */
+        @Builder.Default
+        private int gradientStepsPerTraining = 1;
+
+        /**
+         * If greater than 0, the number of gradient steps of each training event is adjusted so that the number of
+         * gradient steps per environment step stays at this value. For example, 0.25 with a <i>trainInterval</i> of 1
+         * performs one gradient step every 4 environment steps, and 4.0 performs 4 per environment step.
+         * Default is 0 (disabled)
+         */
+        private double targetReplayRatio;
+    }
+}
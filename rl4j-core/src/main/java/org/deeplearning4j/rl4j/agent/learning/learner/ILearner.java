@@ -0,0 +1,45 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.agent.learning.learner;
+
+/**
+ * A learner that trains a network independently of the agents generating the experience (see
+ * {@link org.deeplearning4j.rl4j.trainer.ActorLearnerTrainer ActorLearnerTrainer}).
+ */
+public interface ILearner extends AutoCloseable {
+    /**
+     * Perform one training step, if possible.
+     * @return True if a training step has been performed, false if there was not enough experience to do so.
+     */
+    boolean learn();
+
+    /**
+     * @return The number of training steps performed so far
+     */
+    int getUpdateCount();
+
+    /**
+     * Release the resources used by the learner; to be called when the training is over. The default does nothing.
+     */
+    @Override
+    default void close() {
+        // Do nothing
+    }
+}
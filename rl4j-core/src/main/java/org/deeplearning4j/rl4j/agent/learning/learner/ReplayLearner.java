@@ -0,0 +1,81 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.agent.learning.learner;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.deeplearning4j.rl4j.agent.learning.update.IUpdateRule;
+import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.deeplearning4j.rl4j.learning.sync.IExpReplay;
+import org.deeplearning4j.rl4j.learning.sync.PrefetchingExpReplay;
+import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
+
+/**
+ * A {@link ILearner} that samples batches from a replay memory filled by actors and uses them to update the learner network.
+ * The monitor of the learner network is held during the update so that actors never copy a half-updated network.
+ *
+ * @param <ACTION> The type of actions
+ */
+public class ReplayLearner<ACTION> implements ILearner {
+
+    private final IExpReplay<ACTION> expReplay;
+    private final IUpdateRule<StateActionRewardState<ACTION>> updateRule;
+    private final ITrainableNeuralNet learnerNetwork;
+
+    @Getter
+    private int updateCount = 0;
+
+    /**
+     * @param expReplay The replay memory to sample from. If it is a {@link PrefetchingExpReplay}, it is closed with the learner.
+     * @param updateRule The update rule used to update the learner network
+     * @param learnerNetwork The network updated by <i>updateRule</i>
+     */
+    public ReplayLearner(@NonNull IExpReplay<ACTION> expReplay,
+                         @NonNull IUpdateRule<StateActionRewardState<ACTION>> updateRule,
+                         @NonNull ITrainableNeuralNet learnerNetwork) {
+        this.expReplay = expReplay;
+        this.updateRule = updateRule;
+        this.learnerNetwork = learnerNetwork;
+    }
+
+    @Override
+    public boolean learn() {
+        if(expReplay.getBatchSize() < expReplay.getDesignatedBatchSize()) {
+            return false;
+        }
+
+        synchronized (learnerNetwork) {
+            updateRule.update(expReplay.getBatch());
+        }
+        ++updateCount;
+
+        return true;
+    }
+
+    /**
+     * Stop the helper thread of the replay memory, if it is a {@link PrefetchingExpReplay}
+     */
+    @Override
+    public void close() {
+        if(expReplay instanceof PrefetchingExpReplay) {
+            ((PrefetchingExpReplay<ACTION>) expReplay).close();
+        }
+    }
+}
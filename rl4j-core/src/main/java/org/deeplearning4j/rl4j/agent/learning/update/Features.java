@@ -21,6 +21,7 @@ package org.deeplearning4j.rl4j.agent.learning.update;
 
 import lombok.Getter;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 
 public class Features {
 
@@ -44,4 +45,19 @@ public class Features {
     public INDArray get(int channelIdx) {
         return features[channelIdx];
     }
-}
\ No newline at end of file
+
+    /**
+     * Non-recurrent features only.
+     * @param from The index of the first row (inclusive)
+     * @param to The index of the last row (exclusive)
+     * @return A Features instance made of views on the rows <i>from</i> to <i>to</i> of every channel
+     */
+    public Features getRows(long from, long to) {
+        INDArray[] rows = new INDArray[features.length];
+        for(int channelIdx = 0; channelIdx < features.length; ++channelIdx) {
+            rows[channelIdx] = features[channelIdx].get(NDArrayIndex.interval(from, to));
+        }
+
+        return new Features(rows);
+    }
+}
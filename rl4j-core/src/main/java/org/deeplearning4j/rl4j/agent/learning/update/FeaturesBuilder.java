@@ -19,6 +19,7 @@
  */
 package org.deeplearning4j.rl4j.agent.learning.update;
 
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
 import org.deeplearning4j.rl4j.helper.INDArrayHelper;
 import org.deeplearning4j.rl4j.observation.IObservationSource;
 import org.deeplearning4j.rl4j.observation.Observation;
@@ -42,6 +43,21 @@ public class FeaturesBuilder {
         this.isRecurrent = isRecurrent;
     }
 
+    /**
+     * @param isRecurrent True if the network is a recurrent one.
+     * @param observationSchema The schema of the observations. The shapes of the features are taken from it instead
+     *                          of from the first observation.
+     */
+    public FeaturesBuilder(boolean isRecurrent, List<ChannelSchema> observationSchema) {
+        this(isRecurrent);
+
+        numChannels = observationSchema.size();
+        shapeByChannel = new long[numChannels][];
+        for (int channelIdx = 0; channelIdx < numChannels; ++channelIdx) {
+            shapeByChannel[channelIdx] = observationSchema.get(channelIdx).getShape();
+        }
+    }
+
     /**
      * Build a {@link Features} instance
      * @param trainingBatch A container of observation list (see {@link IObservationSource})
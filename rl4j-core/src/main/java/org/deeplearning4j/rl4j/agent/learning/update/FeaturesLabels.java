@@ -20,6 +20,7 @@
 package org.deeplearning4j.rl4j.agent.learning.update;
 
 import lombok.Getter;
+import lombok.Setter;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
 import java.util.HashMap;
@@ -31,6 +32,13 @@ public class FeaturesLabels {
 
     private final HashMap<String, INDArray> labels = new HashMap<String, INDArray>();
 
+    /**
+     * Optional per-sample weights, as a [batchSize, 1] array, that scale the loss of every sample (for example the
+     * importance-sampling weights of a prioritized replay). Null means all samples have the same weight.
+     */
+    @Getter @Setter
+    private INDArray sampleWeights;
+
     /**
      * @param features
      */
@@ -20,9 +20,13 @@
 package org.deeplearning4j.rl4j.agent.learning.update;
 
 import lombok.Getter;
+import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 
 import java.util.HashMap;
+import java.util.Map;
 
 public class Gradients {
 
@@ -56,4 +60,78 @@ public class Gradients {
         return gradients.get(name);
     }
 
+    /**
+     * Create a copy that doesn't share any array with this instance. Useful when the gradients have to outlive the
+     * next gradient computation of the network that produced them (which overwrites its gradient arrays).
+     * @return The copy
+     */
+    public Gradients copy() {
+        Gradients result = new Gradients(batchSize);
+        for(Map.Entry<String, Gradient> entry : gradients.entrySet()) {
+            result.putGradient(entry.getKey(), copyGradient(entry.getValue()));
+        }
+
+        return result;
+    }
+
+    /**
+     * @param batchSize The size of the training batch of the result
+     * @return A Gradients with the same {@link Gradient} instances as this one and a different batch size
+     */
+    public Gradients withBatchSize(long batchSize) {
+        Gradients result = new Gradients(batchSize);
+        result.gradients.putAll(gradients);
+
+        return result;
+    }
+
+    /**
+     * Add, in place, the gradients of <i>other</i> to the gradients having the same name in this instance.
+     * @param other The gradients to add
+     * @return This instance
+     */
+    public Gradients addi(Gradients other) {
+        for(Map.Entry<String, Gradient> entry : gradients.entrySet()) {
+            entry.getValue().gradient().addi(other.getGradient(entry.getKey()).gradient());
+        }
+
+        return this;
+    }
+
+    /**
+     * Multiply, in place, all the gradients by <i>factor</i>.
+     * @param factor The scaling factor
+     * @return This instance
+     */
+    public Gradients muli(double factor) {
+        for(Gradient gradient : gradients.values()) {
+            gradient.gradient().muli(factor);
+        }
+
+        return this;
+    }
+
+    // The per-variable gradients are usually views of the flattened gradient; the copies are made views of the copied one.
+    private static Gradient copyGradient(Gradient gradient) {
+        INDArray flattened = gradient.gradient();
+        INDArray flattenedCopy = flattened.dup();
+        INDArray flattenedCopyVector = flattenedCopy.reshape(flattenedCopy.length());
+
+        DefaultGradient result = new DefaultGradient(flattenedCopy);
+        for(Map.Entry<String, INDArray> entry : gradient.gradientForVariable().entrySet()) {
+            INDArray variable = entry.getValue();
+            long start = variable.offset() - flattened.offset();
+            boolean isViewOfFlattened = flattened.isVector()
+                    && variable.data().address() == flattened.data().address()
+                    && start >= 0 && start + variable.length() <= flattened.length();
+
+            INDArray variableCopy = isViewOfFlattened
+                    ? flattenedCopyVector.get(NDArrayIndex.interval(start, start + variable.length())).reshape(variable.ordering(), variable.shape())
+                    : variable.dup();
+            result.setGradientFor(entry.getKey(), variableCopy, gradient.flatteningOrderForVariable(entry.getKey()));
+        }
+
+        return result;
+    }
+
 }
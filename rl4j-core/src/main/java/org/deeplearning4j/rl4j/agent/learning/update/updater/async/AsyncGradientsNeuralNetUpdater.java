@@ -33,6 +33,17 @@ public class AsyncGradientsNeuralNetUpdater extends BaseAsyncNeuralNetUpdater<Gr
         super(threadCurrent, sharedNetworksUpdateHandler);
     }
 
+    /**
+     * @param threadCurrent The thread-current network
+     * @param threadTarget The thread-specific copy of the target network. Can be null.
+     * @param sharedNetworksUpdateHandler An instance shared among all threads that updates the shared networks
+     */
+    public AsyncGradientsNeuralNetUpdater(ITrainableNeuralNet threadCurrent,
+                                          ITrainableNeuralNet threadTarget,
+                                          AsyncSharedNetworksUpdateHandler sharedNetworksUpdateHandler) {
+        super(threadCurrent, threadTarget, sharedNetworksUpdateHandler);
+    }
+
     /**
      * Perform the necessary updates to the networks.
      * @param gradients A {@link Gradients} that will be used to update the network.
@@ -0,0 +1,233 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.agent.learning.update.updater.async;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.SuperBuilder;
+import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
+import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
+import org.nd4j.common.base.Preconditions;
+
+/**
+ * A local-SGD updater: the gradients are applied to the thread-current network, and only every <i>localUpdates</i>
+ * updates is the thread-current network merged into the global current network (see {@link MergeMode}) and
+ * synchronized back from it. Compared to {@link AsyncGradientsNeuralNetUpdater}, the parameters are exchanged with
+ * the global current <i>localUpdates</i> times less often.
+ * <br>
+ * When <i>targetSyncTimeFraction</i> is set, the number of local updates adapts: it doubles when the merge and the
+ * synchronization take more than this fraction of the time of a period, and halves when they take less than a
+ * quarter of it.
+ */
+public class AsyncLocalSGDNeuralNetUpdater extends BaseAsyncNeuralNetUpdater<Gradients> {
+
+    private final MergeMode mergeMode;
+    private final double mergeWeight;
+    private final int minLocalUpdates;
+    private final int maxLocalUpdates;
+    private final double targetSyncTimeFraction;
+
+    // Delta mode only: the parameters of the thread-current network at the last synchronization
+    private final ITrainableNeuralNet base;
+
+    /**
+     * The number of local updates between two merges
+     */
+    @Getter
+    private int localUpdates;
+
+    /**
+     * The number of times the thread-current network has been merged into the global current network
+     */
+    @Getter
+    private long mergeCount = 0;
+
+    private int localUpdateCount = 0;
+    private boolean isSyncPending = true;
+
+    private long periodStartNanos;
+    private long localNanos;
+    private long mergeNanos;
+
+    /**
+     * @param threadCurrent The thread-current network
+     * @param sharedNetworksUpdateHandler An instance shared among all threads that updates the shared networks
+     * @param configuration The local-SGD configuration
+     */
+    public AsyncLocalSGDNeuralNetUpdater(@NonNull ITrainableNeuralNet threadCurrent,
+                                         @NonNull AsyncSharedNetworksUpdateHandler sharedNetworksUpdateHandler,
+                                         @NonNull Configuration configuration) {
+        this(threadCurrent, null, sharedNetworksUpdateHandler, configuration);
+    }
+
+    /**
+     * @param threadCurrent The thread-current network
+     * @param threadTarget The thread-specific copy of the target network. Can be null.
+     * @param sharedNetworksUpdateHandler An instance shared among all threads that updates the shared networks
+     * @param configuration The local-SGD configuration
+     */
+    public AsyncLocalSGDNeuralNetUpdater(@NonNull ITrainableNeuralNet threadCurrent,
+                                         ITrainableNeuralNet threadTarget,
+                                         @NonNull AsyncSharedNetworksUpdateHandler sharedNetworksUpdateHandler,
+                                         @NonNull Configuration configuration) {
+        super(threadCurrent, threadTarget, sharedNetworksUpdateHandler);
+
+        Preconditions.checkArgument(configuration.getMinLocalUpdates() > 0, "Configuration: minLocalUpdates must be greater than 0, got %s", configuration.getMinLocalUpdates());
+        Preconditions.checkArgument(configuration.getMaxLocalUpdates() >= configuration.getMinLocalUpdates(), "Configuration: maxLocalUpdates must be at least minLocalUpdates (%s), got %s", configuration.getMinLocalUpdates(), configuration.getMaxLocalUpdates());
+        Preconditions.checkArgument(configuration.getLocalUpdates() >= configuration.getMinLocalUpdates() && configuration.getLocalUpdates() <= configuration.getMaxLocalUpdates(),
+                "Configuration: localUpdates must be between minLocalUpdates (%s) and maxLocalUpdates (%s), got %s", configuration.getMinLocalUpdates(), configuration.getMaxLocalUpdates(), configuration.getLocalUpdates());
+        Preconditions.checkArgument(configuration.getMergeWeight() > 0.0 && configuration.getMergeWeight() <= 1.0, "Configuration: mergeWeight must be in ]0, 1], got %s", configuration.getMergeWeight());
+        Preconditions.checkArgument(configuration.getTargetSyncTimeFraction() >= 0.0 && configuration.getTargetSyncTimeFraction() < 1.0, "Configuration: targetSyncTimeFraction must be in [0, 1[, got %s", configuration.getTargetSyncTimeFraction());
+
+        mergeMode = configuration.getMergeMode();
+        mergeWeight = configuration.getMergeWeight();
+        minLocalUpdates = configuration.getMinLocalUpdates();
+        maxLocalUpdates = configuration.getMaxLocalUpdates();
+        targetSyncTimeFraction = configuration.getTargetSyncTimeFraction();
+        localUpdates = configuration.getLocalUpdates();
+        base = mergeMode == MergeMode.Delta ? threadCurrent.clone() : null;
+    }
+
+    /**
+     * Apply the gradients to the thread-current network, and merge it into the global current network once
+     * <i>localUpdates</i> updates have been done since the last merge.
+     * @param gradients A {@link Gradients} that will be used to update the network.
+     */
+    @Override
+    public void update(Gradients gradients) {
+        threadCurrent.applyGradients(gradients);
+
+        if(++localUpdateCount < localUpdates) {
+            return;
+        }
+
+        long mergeStartNanos = System.nanoTime();
+        localNanos = mergeStartNanos - periodStartNanos;
+        sharedNetworksUpdateHandler.updateGlobalCurrent(this::merge);
+        mergeNanos = System.nanoTime() - mergeStartNanos;
+
+        ++mergeCount;
+        localUpdateCount = 0;
+        isSyncPending = true;
+    }
+
+    /**
+     * Copy the global current network to the thread-current network; only after a merge (and on the first call).
+     * The thread-target network is refreshed on every call.
+     */
+    @Override
+    public void synchronizeCurrent() {
+        if(!isSyncPending) {
+            synchronizeTarget();
+            return;
+        }
+
+        long syncStartNanos = System.nanoTime();
+        super.synchronizeCurrent();
+        if(base != null) {
+            base.copyFrom(threadCurrent);
+        }
+        periodStartNanos = System.nanoTime();
+        isSyncPending = false;
+
+        if(mergeCount > 0 && targetSyncTimeFraction > 0.0) {
+            adaptLocalUpdates(mergeNanos + periodStartNanos - syncStartNanos);
+        }
+    }
+
+    private void merge(ITrainableNeuralNet globalCurrent) {
+        if(mergeMode == MergeMode.Average) {
+            globalCurrent.mergeFrom(threadCurrent, 1.0 - mergeWeight, mergeWeight);
+        } else {
+            globalCurrent.mergeFrom(threadCurrent, 1.0, mergeWeight);
+            globalCurrent.mergeFrom(base, 1.0, -mergeWeight);
+        }
+    }
+
+    private void adaptLocalUpdates(long syncNanos) {
+        double syncTimeFraction = (double) syncNanos / (syncNanos + localNanos);
+        if(syncTimeFraction > targetSyncTimeFraction) {
+            localUpdates = Math.min(maxLocalUpdates, localUpdates * 2);
+        } else if(syncTimeFraction < targetSyncTimeFraction / 4.0) {
+            localUpdates = Math.max(minLocalUpdates, localUpdates / 2);
+        }
+    }
+
+    /**
+     * How the thread-current network is merged into the global current network
+     */
+    public enum MergeMode {
+        /**
+         * global = (1 - mergeWeight) * global + mergeWeight * threadCurrent
+         */
+        Average,
+
+        /**
+         * The change of the thread-current network since its last synchronization is added to the global current:
+         * global += mergeWeight * (threadCurrent - threadCurrent at the last synchronization)
+         */
+        Delta,
+    }
+
+    @SuperBuilder
+    @Data
+    public static class Configuration {
+        /**
+         * The number of local updates between two merges; the initial number when adaptive. Default is 4
+         */
+        @Builder.Default
+        private int localUpdates = 4;
+
+        /**
+         * How the thread-current network is merged into the global current. Default is Delta
+         */
+        @Builder.Default
+        private MergeMode mergeMode = MergeMode.Delta;
+
+        /**
+         * The weight of the thread-current network in the merge, in ]0, 1]. Use 1 / number of threads to average the
+         * changes of all the threads. Default is 1.0
+         */
+        @Builder.Default
+        private double mergeWeight = 1.0;
+
+        /**
+         * If greater than 0, the fraction of the time that the merge and the synchronization should take; the number
+         * of local updates adapts to it, between <i>minLocalUpdates</i> and <i>maxLocalUpdates</i>. Default is 0 (fixed
+         * number of local updates)
+         */
+        @Builder.Default
+        private double targetSyncTimeFraction = 0.0;
+
+        /**
+         * The minimum number of local updates when adaptive. Default is 1
+         */
+        @Builder.Default
+        private int minLocalUpdates = 1;
+
+        /**
+         * The maximum number of local updates when adaptive. Default is 64
+         */
+        @Builder.Default
+        private int maxLocalUpdates = 64;
+    }
+}
@@ -24,22 +24,47 @@ import lombok.NonNull;
 import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
 import org.deeplearning4j.rl4j.agent.learning.update.updater.NeuralNetUpdaterConfiguration;
 import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
+import org.deeplearning4j.rl4j.network.VersionedParameterStore;
 import org.nd4j.common.base.Preconditions;
 
-public class AsyncSharedNetworksUpdateHandler {
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
+/**
+ * Applies the gradients of all the threads to the shared networks. The updates are serialized, and each one publishes
+ * the new parameters of the global current network in a {@link VersionedParameterStore}; the threads synchronize
+ * their network from there (see {@link #copyGlobalCurrentTo(ITrainableNeuralNet)}) without waiting for the updates.
+ * The parameters of the target network are published the same way when it is synchronized; the threads read them from
+ * their own copy (see {@link #copyTargetTo(ITrainableNeuralNet)}), never from the shared target network.
+ */
+public class AsyncSharedNetworksUpdateHandler implements AutoCloseable {
+
+    /**
+     * The global current network. It is changed by every update; use {@link #copyGlobalCurrentTo(ITrainableNeuralNet)}
+     * to get a consistent copy of its parameters.
+     */
     @Getter
     private final ITrainableNeuralNet globalCurrent;
 
+    private final VersionedParameterStore<ITrainableNeuralNet> parameterStore;
+
+    private final Object updateLock = new Object();
+
     private final ITrainableNeuralNet target;
+    private final VersionedParameterStore<ITrainableNeuralNet> targetParameterStore;
     private final int targetUpdateFrequency;
 
-    private int updateCount = 0;
+    // Written under updateLock, read without it by getUpdateCount()
+    private volatile int updateCount = 0;
+
+    private final AtomicInteger workerCount = new AtomicInteger();
 
     public AsyncSharedNetworksUpdateHandler(@NonNull ITrainableNeuralNet globalCurrent,
                                             @NonNull NeuralNetUpdaterConfiguration configuration) {
         this.globalCurrent = globalCurrent;
+        this.parameterStore = new VersionedParameterStore<>(globalCurrent);
         this.target = null;
+        this.targetParameterStore = null;
         this.targetUpdateFrequency = 0;
     }
 
@@ -49,26 +74,135 @@ public class AsyncSharedNetworksUpdateHandler {
         Preconditions.checkArgument(configuration.getTargetUpdateFrequency() > 0, "Configuration: targetUpdateFrequency must be greater than 0, got: ", configuration.getTargetUpdateFrequency());
 
         this.globalCurrent = globalCurrent;
+        this.parameterStore = new VersionedParameterStore<>(globalCurrent);
         this.target = target;
+        this.targetParameterStore = new VersionedParameterStore<>(target);
         this.targetUpdateFrequency = configuration.getTargetUpdateFrequency();
     }
 
     /**
-     * Applies the gradients to the global current and synchronize the target network if necessary
+     * Applies the gradients to the global current, publishes its new parameters and synchronize the target network if necessary
      * @param gradients
      */
     public void handleGradients(Gradients gradients) {
-        globalCurrent.applyGradients(gradients);
-        ++updateCount;
+        applyGradients(gradients);
+    }
+
+    /**
+     * Handle the gradients of a worker. By default, same as {@link #handleGradients(Gradients)}.
+     * @param gradients The gradients computed by the worker
+     * @param workerId The id of the worker, from {@link #registerWorker()}
+     * @param parameterVersion The version of the parameters the gradients have been computed with
+     */
+    public void handleGradients(Gradients gradients, int workerId, long parameterVersion) {
+        handleGradients(gradients);
+    }
+
+    /**
+     * Called once by each worker (thread-current network) that will submit gradients
+     * @return The id of the worker
+     */
+    public int registerWorker() {
+        return workerCount.getAndIncrement();
+    }
+
+    /**
+     * @return The number of updates made to the global current network
+     */
+    public int getUpdateCount() {
+        return updateCount;
+    }
+
+    /**
+     * @return The version of the latest published parameters of the global current network
+     */
+    public long getVersion() {
+        return parameterStore.getVersion();
+    }
+
+    /**
+     * Applies the gradients to the global current, publishes its new parameters and synchronize the target network if
+     * necessary. The calls are serialized.
+     * @param gradients
+     */
+    protected void applyGradients(Gradients gradients) {
+        updateGlobalCurrent(network -> network.applyGradients(gradients));
+    }
+
+    /**
+     * Changes the global current with <i>update</i>, publishes its new parameters and synchronize the target network
+     * if necessary. Serialized with the gradient updates; counts as one update.
+     * @param update The change to make to the global current network
+     */
+    public void updateGlobalCurrent(Consumer<ITrainableNeuralNet> update) {
+        synchronized (updateLock) {
+            update.accept(globalCurrent);
+            ++updateCount;
+            parameterStore.publish(globalCurrent);
 
-        if(target != null) {
-            syncTargetNetwork();
+            if(target != null) {
+                syncTargetNetwork();
+            }
         }
     }
 
+    /**
+     * @return The published snapshots of the global current network; lets readers use its parameters without taking
+     * the update lock.
+     */
+    public VersionedParameterStore<ITrainableNeuralNet> getParameterStore() {
+        return parameterStore;
+    }
+
+    /**
+     * Copy the latest published parameters of the global current network to <i>network</i>. Doesn't wait for the
+     * update in progress, if any.
+     * @param network The network to copy the parameters to
+     * @return The version of the parameters; the number of updates they include
+     */
+    public long copyGlobalCurrentTo(ITrainableNeuralNet network) {
+        return parameterStore.copyTo(network);
+    }
+
+    /**
+     * @return True if the handler synchronizes a target network
+     */
+    public boolean hasTarget() {
+        return target != null;
+    }
+
+    /**
+     * @return The version of the latest published parameters of the target network; incremented every time the
+     * target network is synchronized
+     */
+    public long getTargetVersion() {
+        Preconditions.checkState(targetParameterStore != null, "The handler has no target network");
+        return targetParameterStore.getVersion();
+    }
+
+    /**
+     * Copy the latest published parameters of the target network to <i>network</i>, a thread-specific copy of the target.
+     * Doesn't wait for the update in progress, if any.
+     * @param network The network to copy the parameters to
+     * @return The version of the parameters (see {@link #getTargetVersion()})
+     */
+    public long copyTargetTo(ITrainableNeuralNet network) {
+        Preconditions.checkState(targetParameterStore != null, "The handler has no target network");
+        return targetParameterStore.copyTo(network);
+    }
+
+    /**
+     * Release the resources of the handler; to be called when the training is over. The default does nothing.
+     */
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+
     private void syncTargetNetwork() {
         if(updateCount % targetUpdateFrequency == 0) {
-            target.copyFrom(globalCurrent);
+            parameterStore.copyTo(target);
+            targetParameterStore.publish(target);
         }
     }
 }
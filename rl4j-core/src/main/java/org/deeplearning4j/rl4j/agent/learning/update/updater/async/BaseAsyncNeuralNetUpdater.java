@@ -26,24 +26,59 @@ import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
 
 public abstract class BaseAsyncNeuralNetUpdater<DATA_TYPE> implements INeuralNetUpdater<DATA_TYPE> {
     protected final ITrainableNeuralNet threadCurrent;
-    private final AsyncSharedNetworksUpdateHandler sharedNetworksUpdateHandler;
+    private final ITrainableNeuralNet threadTarget;
+    protected final AsyncSharedNetworksUpdateHandler sharedNetworksUpdateHandler;
+    private final int workerId;
+
+    // The version of the global parameters last copied to the thread-current network
+    private long parameterVersion = 0;
+
+    // The version of the target parameters last copied to the thread-target network
+    private long targetVersion = -1;
 
     protected BaseAsyncNeuralNetUpdater(@NonNull ITrainableNeuralNet threadCurrent,
                                         @NonNull AsyncSharedNetworksUpdateHandler sharedNetworksUpdateHandler) {
+        this(threadCurrent, null, sharedNetworksUpdateHandler);
+    }
+
+    /**
+     * @param threadCurrent The thread-current network
+     * @param threadTarget The thread-specific copy of the target network, refreshed from the target parameters published
+     *                     by <i>sharedNetworksUpdateHandler</i>. Can be null.
+     * @param sharedNetworksUpdateHandler An instance shared among all threads that updates the shared networks
+     */
+    protected BaseAsyncNeuralNetUpdater(@NonNull ITrainableNeuralNet threadCurrent,
+                                        ITrainableNeuralNet threadTarget,
+                                        @NonNull AsyncSharedNetworksUpdateHandler sharedNetworksUpdateHandler) {
         this.threadCurrent = threadCurrent;
+        this.threadTarget = threadTarget;
         this.sharedNetworksUpdateHandler = sharedNetworksUpdateHandler;
+        this.workerId = sharedNetworksUpdateHandler.registerWorker();
+
+        // The thread-target network may have been cloned from a target network being synchronized
+        synchronizeTarget();
     }
 
     @Override
     public abstract void update(DATA_TYPE dataType);
 
     protected void updateAndSync(Gradients gradients) {
-        sharedNetworksUpdateHandler.handleGradients(gradients);
+        sharedNetworksUpdateHandler.handleGradients(gradients, workerId, parameterVersion);
     }
 
     @Override
     public void synchronizeCurrent() {
-        threadCurrent.copyFrom(sharedNetworksUpdateHandler.getGlobalCurrent());
+        parameterVersion = sharedNetworksUpdateHandler.copyGlobalCurrentTo(threadCurrent);
+        synchronizeTarget();
+    }
+
+    /**
+     * Copy the latest published target parameters to the thread-target network, if they changed since the last copy.
+     */
+    protected void synchronizeTarget() {
+        if(threadTarget != null && sharedNetworksUpdateHandler.getTargetVersion() != targetVersion) {
+            targetVersion = sharedNetworksUpdateHandler.copyTargetTo(threadTarget);
+        }
     }
 
 }
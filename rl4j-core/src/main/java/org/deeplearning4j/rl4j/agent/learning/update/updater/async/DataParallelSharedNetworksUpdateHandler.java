@@ -0,0 +1,236 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.agent.learning.update.updater.async;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.experimental.SuperBuilder;
+import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
+import org.deeplearning4j.rl4j.agent.learning.update.updater.NeuralNetUpdaterConfiguration;
+import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
+import org.nd4j.common.base.Preconditions;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * An {@link AsyncSharedNetworksUpdateHandler} for synchronous data-parallel training: the updates are done in rounds,
+ * each one made of the gradients of every one of the <i>numWorkers</i> workers. A worker submitting its gradients
+ * waits until the round is complete; the last worker of the round sums all the gradients with a pairwise tree
+ * reduction, applies the sum once to the global current network and publishes the new parameters, which all the
+ * workers then copy before their next batch.
+ * <br>
+ * The reduction always pairs the gradients in the order of the worker ids, whatever the order they arrived in, so
+ * the result of a round doesn't depend on the scheduling of the threads. The gradients are not copied: they are
+ * summed in place in the arrays of the workers' networks, which don't change while their worker waits.
+ * <br>
+ * Use with {@link org.deeplearning4j.rl4j.trainer.DataParallelTrainer DataParallelTrainer}, which runs exactly
+ * <i>numWorkers</i> workers and releases the waiting workers when the training stops.
+ */
+public class DataParallelSharedNetworksUpdateHandler extends AsyncSharedNetworksUpdateHandler {
+
+    private final int numWorkers;
+    private final boolean isParallelReduction;
+
+    private final ReentrantLock roundLock = new ReentrantLock();
+    private final Condition roundCompleted = roundLock.newCondition();
+
+    private final Gradients[] roundGradients;
+    private int roundGradientsCount = 0;
+    private long roundCount = 0;
+    private boolean isStopped = false;
+
+    public DataParallelSharedNetworksUpdateHandler(@NonNull ITrainableNeuralNet globalCurrent,
+                                                   @NonNull NeuralNetUpdaterConfiguration updaterConfiguration,
+                                                   @NonNull Configuration configuration) {
+        super(globalCurrent, updaterConfiguration);
+        validate(configuration);
+
+        numWorkers = configuration.getNumWorkers();
+        isParallelReduction = configuration.isParallelReduction();
+        roundGradients = new Gradients[numWorkers];
+    }
+
+    public DataParallelSharedNetworksUpdateHandler(@NonNull ITrainableNeuralNet globalCurrent,
+                                                   @NonNull ITrainableNeuralNet target,
+                                                   @NonNull NeuralNetUpdaterConfiguration updaterConfiguration,
+                                                   @NonNull Configuration configuration) {
+        super(globalCurrent, target, updaterConfiguration);
+        validate(configuration);
+
+        numWorkers = configuration.getNumWorkers();
+        isParallelReduction = configuration.isParallelReduction();
+        roundGradients = new Gradients[numWorkers];
+    }
+
+    private static void validate(Configuration configuration) {
+        Preconditions.checkArgument(configuration.getNumWorkers() > 0, "Configuration: numWorkers must be greater than 0, got %s", configuration.getNumWorkers());
+    }
+
+    /**
+     * @return The number of workers taking part in every round
+     */
+    public int getNumWorkers() {
+        return numWorkers;
+    }
+
+    /**
+     * @return The number of rounds completed; the number of updates applied to the global current network
+     */
+    public long getRoundCount() {
+        roundLock.lock();
+        try {
+            return roundCount;
+        } finally {
+            roundLock.unlock();
+        }
+    }
+
+    /**
+     * The workers get the ids 0 to numWorkers - 1. Once numWorkers workers are registered, the ids restart at 0, so
+     * that the workers of a new training replace those of the previous one.
+     */
+    @Override
+    public int registerWorker() {
+        return super.registerWorker() % numWorkers;
+    }
+
+    /**
+     * Add the gradients of a worker to the current round and wait until the round is complete, or until the handler
+     * is stopped. The last worker of the round reduces and applies the gradients.
+     * @param gradients The gradients computed by the worker
+     * @param workerId The id of the worker, from {@link #registerWorker()}
+     * @param parameterVersion Not used; all the gradients of a round are computed with the same parameters
+     */
+    @Override
+    public void handleGradients(Gradients gradients, int workerId, long parameterVersion) {
+        Preconditions.checkArgument(workerId >= 0 && workerId < numWorkers, "workerId must be between 0 and %s, got %s", numWorkers - 1, workerId);
+
+        roundLock.lock();
+        try {
+            if(isStopped) {
+                return;
+            }
+
+            Preconditions.checkState(roundGradients[workerId] == null, "The worker %s has already submitted its gradients for this round", workerId);
+            roundGradients[workerId] = gradients;
+
+            if(++roundGradientsCount == numWorkers) {
+                completeRound();
+                return;
+            }
+
+            long round = roundCount;
+            while(round == roundCount && !isStopped) {
+                roundCompleted.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the other workers", e);
+        } finally {
+            roundLock.unlock();
+        }
+    }
+
+    /**
+     * Release the waiting workers and discard the gradients of the incomplete round. Until {@link #reset()} is called,
+     * the gradients submitted are ignored.
+     */
+    public void stop() {
+        roundLock.lock();
+        try {
+            isStopped = true;
+            clearRound();
+            roundCompleted.signalAll();
+        } finally {
+            roundLock.unlock();
+        }
+    }
+
+    /**
+     * Make the handler ready for a new training; discard the gradients of the incomplete round, if any.
+     */
+    public void reset() {
+        roundLock.lock();
+        try {
+            isStopped = false;
+            clearRound();
+        } finally {
+            roundLock.unlock();
+        }
+    }
+
+    private void completeRound() {
+        try {
+            long batchSize = 0;
+            for(Gradients gradients : roundGradients) {
+                batchSize += gradients.getBatchSize();
+            }
+
+            applyGradients(reduce().withBatchSize(batchSize));
+        } finally {
+            clearRound();
+            ++roundCount;
+            roundCompleted.signalAll();
+        }
+    }
+
+    // Pairwise tree reduction: at each level, the gradients of worker i += those of worker i + stride, for every i
+    // multiple of 2 * stride. The pairs of a level are independent and can be summed in parallel.
+    private Gradients reduce() {
+        for(int stride = 1; stride < numWorkers; stride *= 2) {
+            final int levelStride = stride;
+            final int step = stride * 2;
+            int numPairs = (numWorkers - stride + step - 1) / step;
+
+            IntStream pairs = IntStream.range(0, numPairs);
+            if(isParallelReduction && numPairs > 1) {
+                pairs = pairs.parallel();
+            }
+            pairs.forEach(pair -> roundGradients[pair * step].addi(roundGradients[pair * step + levelStride]));
+        }
+
+        return roundGradients[0];
+    }
+
+    private void clearRound() {
+        for(int i = 0; i < numWorkers; ++i) {
+            roundGradients[i] = null;
+        }
+        roundGradientsCount = 0;
+    }
+
+    @SuperBuilder
+    @Data
+    public static class Configuration {
+        /**
+         * The number of workers; every round is made of one set of gradients of each one of them.
+         */
+        private int numWorkers;
+
+        /**
+         * If true, the pairs of a level of the reduction tree are summed in parallel. Default is true
+         */
+        @Builder.Default
+        private boolean parallelReduction = true;
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.agent.learning.update.updater.async;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.SuperBuilder;
+import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
+import org.deeplearning4j.rl4j.agent.learning.update.updater.NeuralNetUpdaterConfiguration;
+import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
+import org.nd4j.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An {@link AsyncSharedNetworksUpdateHandler} where the workers don't apply their gradients themselves: they add them
+ * to a lock-free queue and a dedicated applier thread applies them to the global current network. The workers only
+ * wait when the queue is full.
+ * <br>
+ * The gradients found together in the queue can be combined into a single update (see {@link Aggregation}), and the
+ * gradients computed with parameters more than <i>maxStaleness</i> versions older than the global current network are
+ * dropped or down-weighted (see {@link StalenessPolicy}).
+ * <br>
+ * The gradients are copied before being queued since the worker's network overwrites them at its next computation.
+ * <br>
+ * The applier thread is stopped by {@link #close()}, once all the gradients queued before have been applied.
+ */
+public class QueuedSharedNetworksUpdateHandler extends AsyncSharedNetworksUpdateHandler {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int queueCapacity;
+    private final int maxGradientsPerUpdate;
+    private final Aggregation aggregation;
+    private final long maxStaleness;
+    private final StalenessPolicy stalenessPolicy;
+
+    private final Queue<PendingGradients> pendingGradients = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+
+    // The workers between their closed check and their offer; the applier thread doesn't stop while there are any
+    private final AtomicInteger enqueuingCount = new AtomicInteger();
+    private final Map<Integer, WorkerStatistics> workerStatistics = new ConcurrentHashMap<>();
+    private final Thread applierThread;
+
+    private volatile boolean isClosed = false;
+    private volatile Throwable applierFailure;
+
+    public QueuedSharedNetworksUpdateHandler(@NonNull ITrainableNeuralNet globalCurrent,
+                                             @NonNull NeuralNetUpdaterConfiguration updaterConfiguration,
+                                             @NonNull Configuration configuration) {
+        super(globalCurrent, updaterConfiguration);
+        validate(configuration);
+
+        queueCapacity = configuration.getQueueCapacity();
+        maxGradientsPerUpdate = configuration.getMaxGradientsPerUpdate();
+        aggregation = configuration.getAggregation();
+        maxStaleness = configuration.getMaxStaleness();
+        stalenessPolicy = configuration.getStalenessPolicy();
+        applierThread = startApplierThread();
+    }
+
+    public QueuedSharedNetworksUpdateHandler(@NonNull ITrainableNeuralNet globalCurrent,
+                                             @NonNull ITrainableNeuralNet target,
+                                             @NonNull NeuralNetUpdaterConfiguration updaterConfiguration,
+                                             @NonNull Configuration configuration) {
+        super(globalCurrent, target, updaterConfiguration);
+        validate(configuration);
+
+        queueCapacity = configuration.getQueueCapacity();
+        maxGradientsPerUpdate = configuration.getMaxGradientsPerUpdate();
+        aggregation = configuration.getAggregation();
+        maxStaleness = configuration.getMaxStaleness();
+        stalenessPolicy = configuration.getStalenessPolicy();
+        applierThread = startApplierThread();
+    }
+
+    private static void validate(Configuration configuration) {
+        Preconditions.checkArgument(configuration.getQueueCapacity() > 0, "Configuration: queueCapacity must be greater than 0, got %s", configuration.getQueueCapacity());
+        Preconditions.checkArgument(configuration.getMaxGradientsPerUpdate() > 0, "Configuration: maxGradientsPerUpdate must be greater than 0, got %s", configuration.getMaxGradientsPerUpdate());
+        Preconditions.checkArgument(configuration.getMaxStaleness() >= 0, "Configuration: maxStaleness must be 0 or greater, got %s", configuration.getMaxStaleness());
+    }
+
+    private Thread startApplierThread() {
+        Thread result = new Thread(this::applyPendingGradients, "GradientApplier");
+        result.setDaemon(true);
+        result.start();
+
+        return result;
+    }
+
+    @Override
+    public int registerWorker() {
+        int workerId = super.registerWorker();
+        workerStatistics.put(workerId, new WorkerStatistics());
+
+        return workerId;
+    }
+
+    /**
+     * Queue gradients submitted without a worker. They are considered computed with the latest parameters.
+     * @param gradients
+     */
+    @Override
+    public void handleGradients(Gradients gradients) {
+        enqueue(new PendingGradients(gradients.copy(), -1, getVersion()));
+    }
+
+    /**
+     * Queue the gradients of a worker; waits if the queue is full.
+     */
+    @Override
+    public void handleGradients(Gradients gradients, int workerId, long parameterVersion) {
+        enqueue(new PendingGradients(gradients.copy(), workerId, parameterVersion));
+    }
+
+    private void enqueue(PendingGradients pending) {
+        enqueuingCount.incrementAndGet();
+        try {
+            checkApplier();
+            Preconditions.checkState(!isClosed, "The QueuedSharedNetworksUpdateHandler is closed");
+
+            reserveQueueSlot();
+            pendingGradients.offer(pending);
+        } finally {
+            enqueuingCount.decrementAndGet();
+        }
+        LockSupport.unpark(applierThread);
+    }
+
+    private void reserveQueueSlot() {
+        while(true) {
+            int size = queueSize.get();
+            if(size < queueCapacity) {
+                if(queueSize.compareAndSet(size, size + 1)) {
+                    return;
+                }
+                continue;
+            }
+
+            checkApplier();
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    /**
+     * @return The number of gradients waiting for the applier thread
+     */
+    public int getQueueDepth() {
+        return queueSize.get();
+    }
+
+    /**
+     * @param workerId The id of a worker, from {@link #registerWorker()}
+     * @return The statistics of the worker, or null if the id is unknown
+     */
+    public WorkerStatistics getWorkerStatistics(int workerId) {
+        return workerStatistics.get(workerId);
+    }
+
+    /**
+     * Stop the applier thread once the queued gradients, and those being queued, have been applied. The gradients
+     * handled after the call are rejected.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        LockSupport.unpark(applierThread);
+        try {
+            applierThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkApplier() {
+        if(applierFailure != null) {
+            throw new RuntimeException("The gradient applier thread has failed", applierFailure);
+        }
+    }
+
+    private void applyPendingGradients() {
+        List<PendingGradients> drained = new ArrayList<>(maxGradientsPerUpdate);
+        try {
+            while(true) {
+                PendingGradients pending;
+                while(drained.size() < maxGradientsPerUpdate && (pending = pendingGradients.poll()) != null) {
+                    queueSize.decrementAndGet();
+                    drained.add(pending);
+                }
+
+                if(drained.isEmpty()) {
+                    // A worker that passed the closed check before close() has its gradients in the queue once it is
+                    // no longer counted as enqueuing
+                    if(isClosed && enqueuingCount.get() == 0 && pendingGradients.isEmpty()) {
+                        return;
+                    }
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+
+                applyDrained(drained);
+                drained.clear();
+            }
+        } catch (Throwable t) {
+            applierFailure = t;
+        }
+    }
+
+    private void applyDrained(List<PendingGradients> drained) {
+        long now = System.nanoTime();
+        long version = getVersion();
+
+        Gradients combined = null;
+        long combinedBatchSize = 0;
+        int combinedCount = 0;
+        for(PendingGradients pending : drained) {
+            long staleness = Math.max(0, version - pending.parameterVersion);
+            WorkerStatistics statistics = pending.workerId == -1 ? null : workerStatistics.get(pending.workerId);
+            if(statistics != null) {
+                statistics.record(now - pending.enqueuedNanos, staleness);
+            }
+
+            Gradients gradients = pending.gradients;
+            if(staleness > maxStaleness) {
+                if(stalenessPolicy == StalenessPolicy.Drop) {
+                    if(statistics != null) {
+                        statistics.droppedCount.incrementAndGet();
+                    }
+                    continue;
+                }
+                gradients.muli((double) maxStaleness / staleness);
+            }
+
+            if(aggregation == Aggregation.None) {
+                applyGradients(gradients);
+                continue;
+            }
+
+            if(aggregation == Aggregation.Average) {
+                // Each gradient has the same weight, whatever its batch size
+                gradients.muli(1.0 / gradients.getBatchSize());
+            }
+
+            combined = combined == null ? gradients : combined.addi(gradients);
+            combinedBatchSize += gradients.getBatchSize();
+            ++combinedCount;
+        }
+
+        if(combined != null) {
+            applyGradients(aggregation == Aggregation.Sum
+                    ? combined.withBatchSize(combinedBatchSize)
+                    : combined.muli(1.0 / combinedCount).withBatchSize(1));
+        }
+    }
+
+    /**
+     * How the gradients drained together from the queue are applied
+     */
+    public enum Aggregation {
+        /**
+         * One update per gradient
+         */
+        None,
+
+        /**
+         * The gradients are summed into one update over all their samples: a gradient has a weight proportional to its batch size
+         */
+        Sum,
+
+        /**
+         * The gradients are averaged into one update: every gradient has the same weight
+         */
+        Average,
+    }
+
+    /**
+     * What is done with the gradients computed with parameters more than <i>maxStaleness</i> versions old
+     */
+    public enum StalenessPolicy {
+        /**
+         * The gradients are not applied
+         */
+        Drop,
+
+        /**
+         * The gradients are multiplied by maxStaleness / staleness
+         */
+        DownWeight,
+    }
+
+    /**
+     * The statistics of the gradients of a worker, as seen by the applier thread
+     */
+    public static class WorkerStatistics {
+        private final AtomicLong receivedCount = new AtomicLong();
+        private final AtomicLong droppedCount = new AtomicLong();
+        private final AtomicLong totalQueueLatencyNanos = new AtomicLong();
+        private final AtomicLong totalStaleness = new AtomicLong();
+
+        /**
+         * The staleness, in parameter versions, of the last gradients of the worker
+         */
+        @Getter
+        private volatile long lastStaleness;
+
+        private void record(long queueLatencyNanos, long staleness) {
+            receivedCount.incrementAndGet();
+            totalQueueLatencyNanos.addAndGet(queueLatencyNanos);
+            totalStaleness.addAndGet(staleness);
+            lastStaleness = staleness;
+        }
+
+        /**
+         * @return The number of gradients of the worker taken from the queue by the applier thread
+         */
+        public long getReceivedCount() {
+            return receivedCount.get();
+        }
+
+        /**
+         * @return The number of gradients of the worker dropped because they were too stale
+         */
+        public long getDroppedCount() {
+            return droppedCount.get();
+        }
+
+        /**
+         * @return The average time, in nanoseconds, the gradients of the worker waited in the queue
+         */
+        public double getMeanQueueLatencyNanos() {
+            long count = receivedCount.get();
+            return count == 0 ? 0.0 : (double) totalQueueLatencyNanos.get() / count;
+        }
+
+        /**
+         * @return The average staleness, in parameter versions, of the gradients of the worker
+         */
+        public double getMeanStaleness() {
+            long count = receivedCount.get();
+            return count == 0 ? 0.0 : (double) totalStaleness.get() / count;
+        }
+    }
+
+    private static class PendingGradients {
+        private final Gradients gradients;
+        private final int workerId;
+        private final long parameterVersion;
+        private final long enqueuedNanos = System.nanoTime();
+
+        private PendingGradients(Gradients gradients, int workerId, long parameterVersion) {
+            this.gradients = gradients;
+            this.workerId = workerId;
+            this.parameterVersion = parameterVersion;
+        }
+    }
+
+    @SuperBuilder
+    @Data
+    public static class Configuration {
+        /**
+         * The maximum number of gradients waiting for the applier thread. A worker submitting gradients waits when the
+         * queue is full. Default is 16
+         */
+        @Builder.Default
+        private int queueCapacity = 16;
+
+        /**
+         * The maximum number of queued gradients combined into one update. Not used when <i>aggregation</i> is None.
+         * Default is 1
+         */
+        @Builder.Default
+        private int maxGradientsPerUpdate = 1;
+
+        /**
+         * How the gradients drained together are combined. Default is Sum
+         */
+        @Builder.Default
+        private Aggregation aggregation = Aggregation.Sum;
+
+        /**
+         * The number of parameter versions between the parameters the gradients were computed with and the global
+         * current network above which <i>stalenessPolicy</i> is applied. Default is Long.MAX_VALUE (no limit)
+         */
+        @Builder.Default
+        private long maxStaleness = Long.MAX_VALUE;
+
+        /**
+         * What is done with the gradients that are too stale. Default is Drop
+         */
+        @Builder.Default
+        private StalenessPolicy stalenessPolicy = StalenessPolicy.Drop;
+    }
+}
@@ -29,6 +29,8 @@ import org.deeplearning4j.rl4j.agent.learning.algorithm.actorcritic.AdvantageAct
 import org.deeplearning4j.rl4j.agent.learning.algorithm.IUpdateAlgorithm;
 import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
 import org.deeplearning4j.rl4j.agent.learning.update.updater.async.AsyncSharedNetworksUpdateHandler;
+import org.deeplearning4j.rl4j.agent.learning.update.updater.async.DataParallelSharedNetworksUpdateHandler;
+import org.deeplearning4j.rl4j.agent.learning.update.updater.async.QueuedSharedNetworksUpdateHandler;
 import org.deeplearning4j.rl4j.environment.Environment;
 import org.deeplearning4j.rl4j.environment.IActionSchema;
 import org.deeplearning4j.rl4j.experience.StateActionReward;
@@ -54,7 +56,7 @@ public class AdvantageActorCriticBuilder extends BaseAsyncAgentLearnerBuilder<Ad
     @Override
     protected IPolicy<Integer> buildPolicy() {
         return ACPolicy.builder()
-            .neuralNet(networks.getThreadCurrentNetwork())
+            .neuralNet(getPolicyNetwork())
             .isTraining(true)
             .rnd(rnd)
             .build();
@@ -68,6 +70,14 @@ public class AdvantageActorCriticBuilder extends BaseAsyncAgentLearnerBuilder<Ad
 
     @Override
     protected AsyncSharedNetworksUpdateHandler buildAsyncSharedNetworksUpdateHandler() {
+        if(configuration.getDataParallelConfiguration() != null) {
+            return new DataParallelSharedNetworksUpdateHandler(networks.getGlobalCurrentNetwork(), configuration.getNeuralNetUpdaterConfiguration(), configuration.getDataParallelConfiguration());
+        }
+
+        if(configuration.getGradientQueueConfiguration() != null) {
+            return new QueuedSharedNetworksUpdateHandler(networks.getGlobalCurrentNetwork(), configuration.getNeuralNetUpdaterConfiguration(), configuration.getGradientQueueConfiguration());
+        }
+
         return new AsyncSharedNetworksUpdateHandler(networks.getGlobalCurrentNetwork(), configuration.getNeuralNetUpdaterConfiguration());
     }
 
@@ -20,6 +20,7 @@
 package org.deeplearning4j.rl4j.builder;
 
 import lombok.Getter;
+import org.deeplearning4j.rl4j.network.BaseNetwork;
 import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
 
 public class AsyncNetworkHandler implements INetworksHandler {
@@ -33,13 +34,47 @@ public class AsyncNetworkHandler implements INetworksHandler {
     @Getter
     final ITrainableNeuralNet globalCurrentNetwork;
 
+    // Created when first requested by a build, since only some algorithms use a target network
+    private ITrainableNeuralNet threadTargetNetwork;
+
+    private final boolean isCopyOnWrite;
+
     public AsyncNetworkHandler(ITrainableNeuralNet network) {
+        this(network, false);
+    }
+
+    /**
+     * @param network The global current network
+     * @param isCopyOnWrite If true and the network is a {@link BaseNetwork}, the thread-current and thread-target networks
+     *                      use the parameters of the network they are built from until they change or refresh them.
+     *                      (See {@link BaseNetwork#copyOnWriteClone()})
+     */
+    public AsyncNetworkHandler(ITrainableNeuralNet network, boolean isCopyOnWrite) {
         globalCurrentNetwork = network;
         targetNetwork = network.clone();
+        this.isCopyOnWrite = isCopyOnWrite;
+    }
+
+    /**
+     * @return The thread-specific copy of the target network of the build. Its parameters must be refreshed from the
+     * target parameters published by the shared-networks update handler before it is used. With copy-on-write,
+     * the shared target network is not cloned beforehand: the parameters are copied once, by the first refresh.
+     */
+    @Override
+    public ITrainableNeuralNet getThreadTargetNetwork() {
+        if(threadTargetNetwork == null) {
+            threadTargetNetwork = isCopyOnWrite && targetNetwork instanceof BaseNetwork
+                    ? ((BaseNetwork) targetNetwork).copyOnWriteClone()
+                    : targetNetwork.clone();
+        }
+        return threadTargetNetwork;
     }
 
     @Override
     public void resetForNewBuild() {
-        threadCurrentNetwork = globalCurrentNetwork.clone();
+        threadTargetNetwork = null;
+        threadCurrentNetwork = isCopyOnWrite && globalCurrentNetwork instanceof BaseNetwork
+                ? ((BaseNetwork) globalCurrentNetwork).copyOnWriteClone()
+                : globalCurrentNetwork.clone();
     }
 }
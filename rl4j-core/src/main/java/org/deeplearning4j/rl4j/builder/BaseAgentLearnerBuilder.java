@@ -27,27 +27,38 @@ import lombok.experimental.SuperBuilder;
 import org.apache.commons.lang3.builder.Builder;
 import org.deeplearning4j.rl4j.agent.AgentLearner;
 import org.deeplearning4j.rl4j.agent.IAgentLearner;
+import org.deeplearning4j.rl4j.agent.VectorAgentLearner;
 import org.deeplearning4j.rl4j.agent.learning.algorithm.IUpdateAlgorithm;
 import org.deeplearning4j.rl4j.agent.learning.behavior.ILearningBehavior;
 import org.deeplearning4j.rl4j.agent.learning.behavior.LearningBehavior;
+import org.deeplearning4j.rl4j.agent.learning.behavior.PipelinedLearningBehavior;
 import org.deeplearning4j.rl4j.agent.learning.update.IUpdateRule;
 import org.deeplearning4j.rl4j.agent.learning.update.UpdateRule;
 import org.deeplearning4j.rl4j.agent.learning.update.updater.INeuralNetUpdater;
 import org.deeplearning4j.rl4j.agent.listener.AgentListener;
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
 import org.deeplearning4j.rl4j.environment.Environment;
+import org.deeplearning4j.rl4j.environment.Schema;
+import org.deeplearning4j.rl4j.environment.VectorEnvironment;
 import org.deeplearning4j.rl4j.experience.ExperienceHandler;
+import org.deeplearning4j.rl4j.network.BatchingOutputNeuralNet;
+import org.deeplearning4j.rl4j.network.IOutputNeuralNet;
 import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
 import org.deeplearning4j.rl4j.observation.transform.TransformProcess;
+import org.deeplearning4j.rl4j.policy.IBatchPolicy;
 import org.deeplearning4j.rl4j.policy.IPolicy;
+import org.nd4j.common.base.Preconditions;
 
+import java.util.ArrayList;
 import java.util.List;
 
-public abstract class BaseAgentLearnerBuilder<ACTION, EXPERIENCE_TYPE, ALGORITHM_RESULT_TYPE, CONFIGURATION_TYPE extends BaseAgentLearnerBuilder.Configuration<ACTION>> implements Builder<IAgentLearner<ACTION>> {
+public abstract class BaseAgentLearnerBuilder<ACTION, EXPERIENCE_TYPE, ALGORITHM_RESULT_TYPE, CONFIGURATION_TYPE extends BaseAgentLearnerBuilder.Configuration<ACTION>> implements Builder<IAgentLearner<ACTION>>, AutoCloseable {
 
     protected final CONFIGURATION_TYPE configuration;
     private final Builder<Environment<ACTION>> environmentBuilder;
     private final Builder<TransformProcess> transformProcessBuilder;
     protected final INetworksHandler networks;
+    private BatchingOutputNeuralNet batchingNetwork;
 
     protected int createdAgentLearnerCount;
 
@@ -60,8 +71,39 @@ public abstract class BaseAgentLearnerBuilder<ACTION, EXPERIENCE_TYPE, ALGORITHM
         this.transformProcessBuilder = transformProcessBuilder;
 
         this.networks = configuration.isAsynchronous()
-                ? new AsyncNetworkHandler(neuralNet)
+                ? new AsyncNetworkHandler(neuralNet, configuration.isCopyOnWriteThreadNetworks())
                 : new SyncNetworkHandler(neuralNet);
+
+        if(configuration.getBatchedInferenceConfiguration() != null) {
+            Preconditions.checkArgument(configuration.isAsynchronous(), "Batched inference requires an asynchronous configuration");
+            Preconditions.checkArgument(configuration.getPipelinedLearningConfiguration() == null, "Batched inference can't be combined with pipelined learning");
+        }
+    }
+
+    /**
+     * @return The network the policies should use: the {@link BatchingOutputNeuralNet} shared by all the built
+     * AgentLearners when batched inference is configured, the actor network when pipelined learning is configured,
+     * the thread-specific network otherwise.
+     */
+    protected IOutputNeuralNet getPolicyNetwork() {
+        if(configuration.getBatchedInferenceConfiguration() != null) {
+            if(batchingNetwork == null) {
+                batchingNetwork = buildBatchingNetwork();
+            }
+            return batchingNetwork;
+        }
+
+        return actorNetwork != null
+                ? actorNetwork
+                : networks.getThreadCurrentNetwork();
+    }
+
+    /**
+     * Build the {@link BatchingOutputNeuralNet} shared by all the AgentLearners. The default evaluates the batches with
+     * the global current network while holding its monitor; override it when the updates don't hold that monitor.
+     */
+    protected BatchingOutputNeuralNet buildBatchingNetwork() {
+        return new BatchingOutputNeuralNet(networks.getGlobalCurrentNetwork(), configuration.getBatchedInferenceConfiguration());
     }
 
     @Getter(AccessLevel.PROTECTED)
@@ -70,6 +112,20 @@ public abstract class BaseAgentLearnerBuilder<ACTION, EXPERIENCE_TYPE, ALGORITHM
     @Getter(AccessLevel.PROTECTED)
     private TransformProcess transformProcess;
 
+    /**
+     * The schema of the observations, inferred from the channels of the environment's schema and the transform
+     * process. null if the environment doesn't describe its channels or if it can't be inferred.
+     */
+    @Getter(AccessLevel.PROTECTED)
+    private List<ChannelSchema> observationSchema;
+
+    /**
+     * Pipelined learning only: the copy of the thread-specific network used by the policy while the learner thread
+     * trains the thread-specific network. null otherwise.
+     */
+    @Getter(AccessLevel.PROTECTED)
+    private ITrainableNeuralNet actorNetwork;
+
     @Getter(AccessLevel.PROTECTED)
     private IPolicy<ACTION> policy;
 
@@ -96,16 +152,33 @@ public abstract class BaseAgentLearnerBuilder<ACTION, EXPERIENCE_TYPE, ALGORITHM
         return new UpdateRule<ALGORITHM_RESULT_TYPE, EXPERIENCE_TYPE>(getUpdateAlgorithm(), getNeuralNetUpdater());
     }
     protected ILearningBehavior<ACTION> buildLearningBehavior() {
+        if(configuration.getPipelinedLearningConfiguration() != null) {
+            return new PipelinedLearningBehavior<ACTION, EXPERIENCE_TYPE>(getExperienceHandler(), getUpdateRule(), actorNetwork,
+                    networks.getThreadCurrentNetwork(), configuration.getPipelinedLearningConfiguration());
+        }
+
         return LearningBehavior.<ACTION, EXPERIENCE_TYPE>builder()
                 .experienceHandler(getExperienceHandler())
                 .updateRule(getUpdateRule())
                 .build();
     }
 
+    /**
+     * Build the experience handler of each additional environment of a {@link VectorAgentLearner}. By default, every
+     * environment gets its own experience handler.
+     */
+    protected ExperienceHandler<ACTION, EXPERIENCE_TYPE> buildAdditionalExperienceHandler() {
+        return buildExperienceHandler();
+    }
+
     protected void resetForNewBuild() {
         networks.resetForNewBuild();
         environment = environmentBuilder.build();
         transformProcess = transformProcessBuilder.build();
+        observationSchema = buildObservationSchema();
+        actorNetwork = configuration.getPipelinedLearningConfiguration() != null
+                ? networks.getThreadCurrentNetwork().clone()
+                : null;
         policy = buildPolicy();
         experienceHandler = buildExperienceHandler();
         updateAlgorithm = buildUpdateAlgorithm();
@@ -116,6 +189,14 @@ public abstract class BaseAgentLearnerBuilder<ACTION, EXPERIENCE_TYPE, ALGORITHM
         ++createdAgentLearnerCount;
     }
 
+    private List<ChannelSchema> buildObservationSchema() {
+        Schema<ACTION> schema = environment.getSchema();
+        List<ChannelSchema> channels = schema != null ? schema.getChannels() : null;
+        return channels != null
+                ? transformProcess.getObservationSchema(channels)
+                : null;
+    }
+
     protected String getThreadId() {
         return "AgentLearner-" + createdAgentLearnerCount;
     }
@@ -141,6 +222,52 @@ public abstract class BaseAgentLearnerBuilder<ACTION, EXPERIENCE_TYPE, ALGORITHM
         return buildAgentLearner();
     }
 
+    /**
+     * Release the resources shared by all the AgentLearners built; to be called when the training is over, after the
+     * AgentLearners have been closed. Stops the dispatch thread of the batched inference.
+     */
+    @Override
+    public void close() {
+        if(batchingNetwork != null) {
+            batchingNetwork.close();
+            batchingNetwork = null;
+        }
+    }
+
+    /**
+     * Build a {@link VectorAgentLearner} that plays in <i>numEnvironments</i> environments at the same time. The
+     * environments share the policy, the network and the update rule, and each one has its own transform process and
+     * learning behavior. The agentLearnerListeners of the configuration are not used.
+     * @param numEnvironments The number of environments
+     * @return a {@link VectorAgentLearner}
+     */
+    public VectorAgentLearner<ACTION> buildVectorAgentLearner(int numEnvironments) {
+        Preconditions.checkArgument(numEnvironments > 0, "numEnvironments must be greater than 0, got: %s", numEnvironments);
+        Preconditions.checkArgument(configuration.getPipelinedLearningConfiguration() == null, "Pipelined learning is not supported with a VectorAgentLearner");
+
+        resetForNewBuild();
+        Preconditions.checkArgument(policy instanceof IBatchPolicy, "The policy must be an IBatchPolicy to be used with a VectorAgentLearner");
+        Preconditions.checkArgument(!networks.getThreadCurrentNetwork().isRecurrent(), "Recurrent networks are not supported with a VectorAgentLearner");
+
+        List<Environment<ACTION>> environments = new ArrayList<>(numEnvironments);
+        List<TransformProcess> transformProcesses = new ArrayList<>(numEnvironments);
+        List<ILearningBehavior<ACTION>> learningBehaviors = new ArrayList<>(numEnvironments);
+
+        environments.add(environment);
+        transformProcesses.add(transformProcess);
+        learningBehaviors.add(learningBehavior);
+        for(int i = 1; i < numEnvironments; ++i) {
+            environments.add(environmentBuilder.build());
+            transformProcesses.add(transformProcessBuilder.build());
+            experienceHandler = buildAdditionalExperienceHandler();
+            learningBehavior = buildLearningBehavior();
+            learningBehaviors.add(learningBehavior);
+        }
+
+        return new VectorAgentLearner<ACTION>(new VectorEnvironment<ACTION>(environments), transformProcesses, (IBatchPolicy<ACTION>) policy,
+                configuration.getAgentLearnerConfiguration(), getThreadId(), learningBehaviors, observationSchema);
+    }
+
     @SuperBuilder
     @Data
     public static class Configuration<ACTION> {
@@ -158,5 +285,27 @@ public abstract class BaseAgentLearnerBuilder<ACTION, EXPERIENCE_TYPE, ALGORITHM
          * Tell the builder that the AgentLearners will be used in an asynchronous setup
          */
         boolean asynchronous;
+
+        /**
+         * If set, the policies of all the AgentLearners evaluate their observations together, in batches, on the global
+         * network. Requires <i>asynchronous</i> to be true. The dispatch thread is stopped when the builder is closed.
+         * (default = null; each AgentLearner uses its own network)
+         */
+        BatchingOutputNeuralNet.Configuration batchedInferenceConfiguration;
+
+        /**
+         * If set, the training is done on a dedicated learner thread while the AgentLearner keeps stepping the
+         * environment with its own copy of the network. (See {@link PipelinedLearningBehavior})
+         * (default = null; the training is done synchronously, between steps)
+         */
+        PipelinedLearningBehavior.Configuration pipelinedLearningConfiguration;
+
+        /**
+         * Asynchronous only: if true, the thread-specific networks are built without copying the parameters of the
+         * global network, nor its updater state; each one copies the parameters the first time it changes them (on its
+         * first synchronization, usually), and only once. Only for {@link org.deeplearning4j.rl4j.network.BaseNetwork BaseNetwork}
+         * networks. (default = false; the global network is cloned for every AgentLearner)
+         */
+        boolean copyOnWriteThreadNetworks;
     }
 }
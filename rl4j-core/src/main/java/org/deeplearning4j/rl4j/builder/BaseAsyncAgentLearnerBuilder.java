@@ -28,14 +28,19 @@ import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
 import org.deeplearning4j.rl4j.agent.learning.update.updater.INeuralNetUpdater;
 import org.deeplearning4j.rl4j.agent.learning.update.updater.NeuralNetUpdaterConfiguration;
 import org.deeplearning4j.rl4j.agent.learning.update.updater.async.AsyncGradientsNeuralNetUpdater;
+import org.deeplearning4j.rl4j.agent.learning.update.updater.async.AsyncLocalSGDNeuralNetUpdater;
 import org.deeplearning4j.rl4j.agent.learning.update.updater.async.AsyncSharedNetworksUpdateHandler;
+import org.deeplearning4j.rl4j.agent.learning.update.updater.async.DataParallelSharedNetworksUpdateHandler;
+import org.deeplearning4j.rl4j.agent.learning.update.updater.async.QueuedSharedNetworksUpdateHandler;
 import org.deeplearning4j.rl4j.environment.Environment;
 import org.deeplearning4j.rl4j.experience.ExperienceHandler;
 import org.deeplearning4j.rl4j.experience.StateActionExperienceHandler;
 import org.deeplearning4j.rl4j.experience.StateActionReward;
+import org.deeplearning4j.rl4j.network.BatchingOutputNeuralNet;
 import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
 import org.deeplearning4j.rl4j.observation.transform.TransformProcess;
 import org.deeplearning4j.rl4j.policy.EpsGreedy;
+import org.nd4j.common.base.Preconditions;
 
 public abstract class BaseAsyncAgentLearnerBuilder<CONFIGURATION_TYPE extends BaseAsyncAgentLearnerBuilder.Configuration> extends BaseAgentLearnerBuilder<Integer, StateActionReward<Integer>, Gradients, CONFIGURATION_TYPE> {
 
@@ -47,6 +52,11 @@ public abstract class BaseAsyncAgentLearnerBuilder<CONFIGURATION_TYPE extends Ba
                                         Builder<TransformProcess> transformProcessBuilder) {
         super(configuration, neuralNet, environmentBuilder, transformProcessBuilder);
 
+        Preconditions.checkArgument(configuration.getGradientQueueConfiguration() == null || configuration.getDataParallelConfiguration() == null,
+                "A gradient queue can't be combined with data-parallel training");
+        Preconditions.checkArgument(configuration.getLocalSGDConfiguration() == null || (configuration.getGradientQueueConfiguration() == null && configuration.getDataParallelConfiguration() == null),
+                "Local SGD can't be combined with a gradient queue or data-parallel training");
+
         asyncSharedNetworksUpdateHandler = buildAsyncSharedNetworksUpdateHandler();
     }
 
@@ -57,11 +67,52 @@ public abstract class BaseAsyncAgentLearnerBuilder<CONFIGURATION_TYPE extends Ba
 
     @Override
     protected INeuralNetUpdater<Gradients> buildNeuralNetUpdater() {
-        return new AsyncGradientsNeuralNetUpdater(networks.getThreadCurrentNetwork(), asyncSharedNetworksUpdateHandler);
+        // The thread keeps its own copy of the target network up to date; the shared one is changed in place
+        ITrainableNeuralNet threadTarget = asyncSharedNetworksUpdateHandler.hasTarget() ? networks.getThreadTargetNetwork() : null;
+        if(configuration.getLocalSGDConfiguration() != null) {
+            return new AsyncLocalSGDNeuralNetUpdater(networks.getThreadCurrentNetwork(), threadTarget, asyncSharedNetworksUpdateHandler, configuration.getLocalSGDConfiguration());
+        }
+
+        return new AsyncGradientsNeuralNetUpdater(networks.getThreadCurrentNetwork(), threadTarget, asyncSharedNetworksUpdateHandler);
     }
 
     protected abstract AsyncSharedNetworksUpdateHandler buildAsyncSharedNetworksUpdateHandler();
 
+    /**
+     * @return The handler shared by all the AgentLearners built; to be given to a
+     * {@link org.deeplearning4j.rl4j.trainer.DataParallelTrainer DataParallelTrainer}. Requires a <i>dataParallelConfiguration</i>.
+     */
+    public DataParallelSharedNetworksUpdateHandler getDataParallelUpdateHandler() {
+        Preconditions.checkState(configuration.getDataParallelConfiguration() != null, "The data-parallel update handler requires a dataParallelConfiguration");
+        return (DataParallelSharedNetworksUpdateHandler) asyncSharedNetworksUpdateHandler;
+    }
+
+    /**
+     * @return The number of updates made to the global network shared by all the AgentLearners built. Can be used as
+     * the <i>updateCountSupplier</i> of an elastic {@link org.deeplearning4j.rl4j.trainer.AsyncTrainer AsyncTrainer}.
+     */
+    public int getUpdateCount() {
+        return asyncSharedNetworksUpdateHandler.getUpdateCount();
+    }
+
+    /**
+     * The batches are evaluated with the parameters published by the shared-networks update handler; the updates are
+     * serialized by the handler's lock, not by the monitor of the global current network.
+     */
+    @Override
+    protected BatchingOutputNeuralNet buildBatchingNetwork() {
+        return new BatchingOutputNeuralNet(asyncSharedNetworksUpdateHandler.getParameterStore(), configuration.getBatchedInferenceConfiguration());
+    }
+
+    /**
+     * Close the handler shared by the AgentLearners built; stops the applier thread of the gradient queue.
+     */
+    @Override
+    public void close() {
+        super.close();
+        asyncSharedNetworksUpdateHandler.close();
+    }
+
     @EqualsAndHashCode(callSuper = true)
     @SuperBuilder
     @Data
@@ -69,5 +120,26 @@ public abstract class BaseAsyncAgentLearnerBuilder<CONFIGURATION_TYPE extends Ba
         EpsGreedy.Configuration policyConfiguration;
         NeuralNetUpdaterConfiguration neuralNetUpdaterConfiguration;
         StateActionExperienceHandler.Configuration experienceHandlerConfiguration;
+
+        /**
+         * If set, the gradients of all the AgentLearners are queued and applied to the global network by a dedicated
+         * thread, which is stopped when the builder is closed. (See {@link QueuedSharedNetworksUpdateHandler})
+         * (default = null; each AgentLearner applies its gradients)
+         */
+        QueuedSharedNetworksUpdateHandler.Configuration gradientQueueConfiguration;
+
+        /**
+         * If set, the training is synchronous and data-parallel: the gradients of all the AgentLearners are summed
+         * into one update per round. (See {@link DataParallelSharedNetworksUpdateHandler}) Can't be combined with
+         * <i>gradientQueueConfiguration</i>. (default = null)
+         */
+        DataParallelSharedNetworksUpdateHandler.Configuration dataParallelConfiguration;
+
+        /**
+         * If set, each AgentLearner trains its own network and merges it into the global network only every few
+         * updates. (See {@link AsyncLocalSGDNeuralNetUpdater}) Can't be combined with <i>gradientQueueConfiguration</i>
+         * or <i>dataParallelConfiguration</i>. (default = null; the gradients are applied to the global network)
+         */
+        AsyncLocalSGDNeuralNetUpdater.Configuration localSGDConfiguration;
     }
 }
@@ -24,8 +24,16 @@ import lombok.EqualsAndHashCode;
 import lombok.experimental.SuperBuilder;
 import org.apache.commons.lang3.builder.Builder;
 import org.deeplearning4j.rl4j.agent.IAgentLearner;
+import org.deeplearning4j.rl4j.agent.learning.algorithm.IUpdateAlgorithm;
 import org.deeplearning4j.rl4j.agent.learning.algorithm.dqn.BaseTransitionTDAlgorithm;
+import org.deeplearning4j.rl4j.agent.learning.behavior.ActorLearningBehavior;
+import org.deeplearning4j.rl4j.agent.learning.behavior.ILearningBehavior;
+import org.deeplearning4j.rl4j.agent.learning.behavior.LearningBehavior;
+import org.deeplearning4j.rl4j.agent.learning.behavior.UpdateScheduler;
+import org.deeplearning4j.rl4j.agent.learning.learner.ReplayLearner;
 import org.deeplearning4j.rl4j.agent.learning.update.FeaturesLabels;
+import org.deeplearning4j.rl4j.agent.learning.update.IUpdateRule;
+import org.deeplearning4j.rl4j.agent.learning.update.UpdateRule;
 import org.deeplearning4j.rl4j.agent.learning.update.updater.INeuralNetUpdater;
 import org.deeplearning4j.rl4j.agent.learning.update.updater.NeuralNetUpdaterConfiguration;
 import org.deeplearning4j.rl4j.agent.learning.update.updater.sync.SyncLabelsNeuralNetUpdater;
@@ -34,6 +42,10 @@ import org.deeplearning4j.rl4j.environment.IActionSchema;
 import org.deeplearning4j.rl4j.experience.ExperienceHandler;
 import org.deeplearning4j.rl4j.experience.ReplayMemoryExperienceHandler;
 import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.deeplearning4j.rl4j.learning.sync.IExpReplay;
+import org.deeplearning4j.rl4j.learning.sync.PrefetchingExpReplay;
+import org.deeplearning4j.rl4j.learning.sync.ShardedExpReplay;
+import org.deeplearning4j.rl4j.network.IOutputNeuralNet;
 import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
 import org.deeplearning4j.rl4j.observation.transform.TransformProcess;
 import org.deeplearning4j.rl4j.policy.DQNPolicy;
@@ -47,6 +59,11 @@ public abstract class BaseDQNAgentLearnerBuilder<CONFIGURATION_TYPE extends Base
 
     private final Random rnd;
 
+    private final ShardedExpReplay<Integer> sharedExpReplay;
+
+    // Shared by the learning behaviors of a VectorAgentLearner, like their replay memory
+    private UpdateScheduler updateScheduler;
+
     public BaseDQNAgentLearnerBuilder(CONFIGURATION_TYPE configuration,
                                       ITrainableNeuralNet neuralNet,
                                       Builder<Environment<Integer>> environmentBuilder,
@@ -57,22 +74,101 @@ public abstract class BaseDQNAgentLearnerBuilder<CONFIGURATION_TYPE extends Base
         // TODO: remove once RNN networks states are supported with DQN
         Preconditions.checkArgument(!neuralNet.isRecurrent(), "Recurrent networks are not yet supported with DQN.");
         this.rnd = rnd;
+
+        if(configuration.isActorLearnerMode()) {
+            Preconditions.checkArgument(configuration.isAsynchronous(), "The actor-learner mode requires an asynchronous configuration");
+            Preconditions.checkArgument(configuration.getPipelinedLearningConfiguration() == null, "The actor-learner mode can't be combined with pipelined learning");
+            Preconditions.checkArgument(configuration.getNumActors() > 0, "numActors must be greater than 0, got: %s", configuration.getNumActors());
+
+            ReplayMemoryExperienceHandler.Configuration experienceHandlerConfiguration = configuration.getExperienceHandlerConfiguration();
+            int shardCapacity = Math.max(1, experienceHandlerConfiguration.getMaxReplayMemorySize() / configuration.getNumActors());
+            sharedExpReplay = new ShardedExpReplay<>(configuration.getNumActors(), shardCapacity, experienceHandlerConfiguration.getBatchSize(), rnd);
+        } else {
+            sharedExpReplay = null;
+        }
+
+        if(configuration.getUpdateSchedulerConfiguration() != null) {
+            Preconditions.checkArgument(!configuration.isActorLearnerMode(), "An update scheduler can't be used in the actor-learner mode");
+            Preconditions.checkArgument(configuration.getPipelinedLearningConfiguration() == null, "An update scheduler can't be combined with pipelined learning");
+        }
+    }
+
+    /**
+     * Build the update algorithm
+     * @param qNetwork The Q-Network the algorithm will use
+     */
+    protected abstract IUpdateAlgorithm<FeaturesLabels, StateActionRewardState<Integer>> buildUpdateAlgorithm(IOutputNeuralNet qNetwork);
+
+    @Override
+    protected IUpdateAlgorithm<FeaturesLabels, StateActionRewardState<Integer>> buildUpdateAlgorithm() {
+        return buildUpdateAlgorithm(networks.getThreadCurrentNetwork());
     }
 
     @Override
     protected IPolicy<Integer> buildPolicy() {
-        INeuralNetPolicy<Integer> greedyPolicy = new DQNPolicy<Integer>(networks.getThreadCurrentNetwork());
+        INeuralNetPolicy<Integer> greedyPolicy = new DQNPolicy<Integer>(getPolicyNetwork());
         IActionSchema<Integer> actionSchema = getEnvironment().getSchema().getActionSchema();
         return new EpsGreedy(greedyPolicy, actionSchema, configuration.getPolicyConfiguration(), rnd);
     }
 
     @Override
     protected ExperienceHandler<Integer, StateActionRewardState<Integer>> buildExperienceHandler() {
-        return new ReplayMemoryExperienceHandler(configuration.getExperienceHandlerConfiguration(), rnd);
+        if(configuration.isActorLearnerMode()) {
+            return new ReplayMemoryExperienceHandler<Integer>(sharedExpReplay.acquireShard());
+        }
+
+        return new ReplayMemoryExperienceHandler(configuration.getExperienceHandlerConfiguration(), getObservationSchema(), rnd);
+    }
+
+    @Override
+    protected ExperienceHandler<Integer, StateActionRewardState<Integer>> buildAdditionalExperienceHandler() {
+        if(configuration.isActorLearnerMode()) {
+            return buildExperienceHandler();
+        }
+
+        // All environments of a VectorAgentLearner store their experience in the same replay memory
+        IExpReplay<Integer> expReplay = ((ReplayMemoryExperienceHandler<Integer>) getExperienceHandler()).getExpReplay();
+        return new ReplayMemoryExperienceHandler<Integer>(expReplay);
+    }
+
+    @Override
+    protected void resetForNewBuild() {
+        updateScheduler = null;
+        super.resetForNewBuild();
+    }
+
+    @Override
+    protected ILearningBehavior<Integer> buildLearningBehavior() {
+        if(configuration.isActorLearnerMode()) {
+            return ActorLearningBehavior.<Integer, StateActionRewardState<Integer>>builder()
+                    .experienceHandler(getExperienceHandler())
+                    .actorNetwork(networks.getThreadCurrentNetwork())
+                    .learnerNetwork(networks.getGlobalCurrentNetwork())
+                    .build();
+        }
+
+        if(configuration.getUpdateSchedulerConfiguration() != null) {
+            if(updateScheduler == null) {
+                updateScheduler = new UpdateScheduler(configuration.getUpdateSchedulerConfiguration());
+            }
+
+            return LearningBehavior.<Integer, StateActionRewardState<Integer>>builder()
+                    .experienceHandler(getExperienceHandler())
+                    .updateRule(getUpdateRule())
+                    .updateScheduler(updateScheduler)
+                    .build();
+        }
+
+        return super.buildLearningBehavior();
     }
 
     @Override
     protected INeuralNetUpdater<FeaturesLabels> buildNeuralNetUpdater() {
+        if(configuration.isActorLearnerMode()) {
+            // Not used by the actors; they don't train
+            return new SyncLabelsNeuralNetUpdater(networks.getGlobalCurrentNetwork(), networks.getTargetNetwork(), configuration.getNeuralNetUpdaterConfiguration());
+        }
+
         if(configuration.isAsynchronous()) {
             throw new UnsupportedOperationException("Only synchronized use is currently supported");
         }
@@ -80,6 +176,25 @@ public abstract class BaseDQNAgentLearnerBuilder<CONFIGURATION_TYPE extends Base
         return new SyncLabelsNeuralNetUpdater(networks.getThreadCurrentNetwork(), networks.getTargetNetwork(), configuration.getNeuralNetUpdaterConfiguration());
     }
 
+    /**
+     * Build the learner of the actor-learner mode. It samples from the replay memory shared by all the actors built by
+     * this builder and trains the global network. Should be called once.
+     * @return A {@link ReplayLearner}
+     */
+    public ReplayLearner<Integer> buildLearner() {
+        Preconditions.checkState(configuration.isActorLearnerMode(), "A learner can only be built in the actor-learner mode");
+
+        ITrainableNeuralNet learnerNetwork = networks.getGlobalCurrentNetwork();
+        IUpdateRule<StateActionRewardState<Integer>> updateRule = new UpdateRule<FeaturesLabels, StateActionRewardState<Integer>>(buildUpdateAlgorithm(learnerNetwork),
+                new SyncLabelsNeuralNetUpdater(learnerNetwork, networks.getTargetNetwork(), configuration.getNeuralNetUpdaterConfiguration()));
+
+        IExpReplay<Integer> learnerExpReplay = configuration.getExperienceHandlerConfiguration().isPrefetchBatches()
+                ? new PrefetchingExpReplay<Integer>(sharedExpReplay)
+                : sharedExpReplay;
+
+        return new ReplayLearner<Integer>(learnerExpReplay, updateRule, learnerNetwork);
+    }
+
     @EqualsAndHashCode(callSuper = true)
     @SuperBuilder
     @Data
@@ -88,5 +203,26 @@ public abstract class BaseDQNAgentLearnerBuilder<CONFIGURATION_TYPE extends Base
         ReplayMemoryExperienceHandler.Configuration experienceHandlerConfiguration;
         NeuralNetUpdaterConfiguration neuralNetUpdaterConfiguration;
         BaseTransitionTDAlgorithm.Configuration updateAlgorithmConfiguration;
+
+        /**
+         * If true, the built AgentLearners are actors: they only act and store their experience in a replay memory
+         * shared by all of them. The training is done by the learner built with {@link BaseDQNAgentLearnerBuilder#buildLearner()}.
+         * Requires <i>asynchronous</i> to be true. (See {@link org.deeplearning4j.rl4j.trainer.ActorLearnerTrainer ActorLearnerTrainer})
+         */
+        boolean actorLearnerMode;
+
+        /**
+         * Actor-learner mode only: the number of actors. Each one gets its shard of the shared replay memory, of
+         * maxReplayMemorySize / numActors transitions. (default 1)
+         */
+        @lombok.Builder.Default
+        int numActors = 1;
+
+        /**
+         * If set, controls the warm-up, the training frequency and the number of gradient steps per training event.
+         * (See {@link UpdateScheduler}) Not supported in the actor-learner mode or with pipelined learning.
+         * (default = null; one gradient step every time a batch is ready)
+         */
+        UpdateScheduler.Configuration updateSchedulerConfiguration;
     }
 }
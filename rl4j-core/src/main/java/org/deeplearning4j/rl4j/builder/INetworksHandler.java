@@ -27,6 +27,12 @@ public interface INetworksHandler {
      */
     ITrainableNeuralNet getTargetNetwork();
 
+    /**
+     * @return The copy of the target parameters &theta;<sup>&ndash;</sup> used by the thread being built. In an asynchronous
+     * setup, each thread has its own copy, refreshed from the published target parameters; otherwise it is the target network.
+     */
+    ITrainableNeuralNet getThreadTargetNetwork();
+
     /**
      * @return The thread-specific parameters &theta;'
      */
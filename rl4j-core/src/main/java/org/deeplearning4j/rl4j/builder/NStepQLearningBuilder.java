@@ -28,6 +28,8 @@ import org.deeplearning4j.rl4j.agent.learning.algorithm.IUpdateAlgorithm;
 import org.deeplearning4j.rl4j.agent.learning.algorithm.nstepqlearning.NStepQLearning;
 import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
 import org.deeplearning4j.rl4j.agent.learning.update.updater.async.AsyncSharedNetworksUpdateHandler;
+import org.deeplearning4j.rl4j.agent.learning.update.updater.async.DataParallelSharedNetworksUpdateHandler;
+import org.deeplearning4j.rl4j.agent.learning.update.updater.async.QueuedSharedNetworksUpdateHandler;
 import org.deeplearning4j.rl4j.environment.Environment;
 import org.deeplearning4j.rl4j.environment.IActionSchema;
 import org.deeplearning4j.rl4j.experience.StateActionReward;
@@ -60,7 +62,7 @@ public class NStepQLearningBuilder extends BaseAsyncAgentLearnerBuilder<NStepQLe
 
     @Override
     protected IPolicy<Integer> buildPolicy() {
-        INeuralNetPolicy<Integer> greedyPolicy = new DQNPolicy<Integer>(networks.getThreadCurrentNetwork());
+        INeuralNetPolicy<Integer> greedyPolicy = new DQNPolicy<Integer>(getPolicyNetwork());
         IActionSchema<Integer> actionSchema = getEnvironment().getSchema().getActionSchema();
         return new EpsGreedy(greedyPolicy, actionSchema, configuration.getPolicyConfiguration(), rnd);
     }
@@ -68,11 +70,19 @@ public class NStepQLearningBuilder extends BaseAsyncAgentLearnerBuilder<NStepQLe
     @Override
     protected IUpdateAlgorithm<Gradients, StateActionReward<Integer>> buildUpdateAlgorithm() {
         IActionSchema<Integer> actionSchema = getEnvironment().getSchema().getActionSchema();
-        return new NStepQLearning(networks.getThreadCurrentNetwork(), networks.getTargetNetwork(), actionSchema.getActionSpaceSize(), configuration.getNstepQLearningConfiguration());
+        return new NStepQLearning(networks.getThreadCurrentNetwork(), networks.getThreadTargetNetwork(), actionSchema.getActionSpaceSize(), configuration.getNstepQLearningConfiguration());
     }
 
     @Override
     protected AsyncSharedNetworksUpdateHandler buildAsyncSharedNetworksUpdateHandler() {
+        if(configuration.getDataParallelConfiguration() != null) {
+            return new DataParallelSharedNetworksUpdateHandler(networks.getGlobalCurrentNetwork(), networks.getTargetNetwork(), configuration.getNeuralNetUpdaterConfiguration(), configuration.getDataParallelConfiguration());
+        }
+
+        if(configuration.getGradientQueueConfiguration() != null) {
+            return new QueuedSharedNetworksUpdateHandler(networks.getGlobalCurrentNetwork(), networks.getTargetNetwork(), configuration.getNeuralNetUpdaterConfiguration(), configuration.getGradientQueueConfiguration());
+        }
+
         return new AsyncSharedNetworksUpdateHandler(networks.getGlobalCurrentNetwork(), networks.getTargetNetwork(), configuration.getNeuralNetUpdaterConfiguration());
     }
 
@@ -29,6 +29,7 @@ import org.deeplearning4j.rl4j.agent.learning.algorithm.dqn.StandardDQN;
 import org.deeplearning4j.rl4j.agent.learning.update.FeaturesLabels;
 import org.deeplearning4j.rl4j.environment.Environment;
 import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.deeplearning4j.rl4j.network.IOutputNeuralNet;
 import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
 import org.deeplearning4j.rl4j.observation.transform.TransformProcess;
 import org.nd4j.linalg.api.rng.Random;
@@ -48,8 +49,8 @@ public class StandardDQNBuilder extends BaseDQNAgentLearnerBuilder<StandardDQNBu
     }
 
     @Override
-    protected IUpdateAlgorithm<FeaturesLabels, StateActionRewardState<Integer>> buildUpdateAlgorithm() {
-        return new StandardDQN(networks.getThreadCurrentNetwork(), networks.getTargetNetwork(), configuration.getUpdateAlgorithmConfiguration());
+    protected IUpdateAlgorithm<FeaturesLabels, StateActionRewardState<Integer>> buildUpdateAlgorithm(IOutputNeuralNet qNetwork) {
+        return new StandardDQN(qNetwork, networks.getTargetNetwork(), configuration.getUpdateAlgorithmConfiguration());
     }
 
     @EqualsAndHashCode(callSuper = true)
@@ -41,6 +41,11 @@ public class SyncNetworkHandler implements INetworksHandler {
         threadCurrentNetwork = network;
     }
 
+    @Override
+    public ITrainableNeuralNet getThreadTargetNetwork() {
+        return targetNetwork;
+    }
+
     @Override
     public void resetForNewBuild() {
         // Do Nothing
@@ -0,0 +1,119 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.environment;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An opt-in base for the {@link Environment environments} that write their observation channels into buffers instead
+ * of allocating a new map and new arrays at every step. One double[] buffer is preallocated for each
+ * {@link ChannelSchema channel} of the {@link Schema}.
+ * <br>
+ * The channels data map returned by {@link #reset()}, its buffers and the {@link StepResult} returned by
+ * {@link #step(Object)} are recycled: they are only valid until the next call to reset() or step(). Their content must
+ * be copied if it has to be kept longer (the {@link org.deeplearning4j.rl4j.observation.transform.operation.ArrayToINDArrayTransform ArrayToINDArrayTransform}
+ * of a {@link org.deeplearning4j.rl4j.observation.transform.TransformProcess TransformProcess} does).
+ * <br>
+ * Implementations write the observation with {@link #getChannelBuffer(int)} and end reset() with
+ * {@link #getChannelsData()} and step() with {@link #getStepResult(double, boolean)}.
+ */
+public abstract class BufferedEnvironment<ACTION> implements Environment<ACTION> {
+
+    @Getter
+    private final Schema<ACTION> schema;
+
+    private final String[] channelNames;
+    private final double[][] channelBuffers;
+    private final Map<String, Object> channelsData;
+    private final StepResult stepResult;
+
+    /**
+     * @param schema The schema of the environment. Its channels must be set.
+     */
+    protected BufferedEnvironment(@NonNull Schema<ACTION> schema) {
+        List<ChannelSchema> channels = schema.getChannels();
+        Preconditions.checkArgument(channels != null && !channels.isEmpty(), "The schema of a BufferedEnvironment must describe its channels");
+
+        this.schema = schema;
+
+        channelNames = new String[channels.size()];
+        channelBuffers = new double[channels.size()][];
+        channelsData = new HashMap<String, Object>(channels.size() * 2);
+        for(int i = 0; i < channelNames.length; ++i) {
+            ChannelSchema channel = channels.get(i);
+            Preconditions.checkArgument(channel.getDataType() == DataType.DOUBLE, "The channels of a BufferedEnvironment must be DOUBLE, channel '%s' is %s", channel.getName(), channel.getDataType());
+            Preconditions.checkArgument(!channelsData.containsKey(channel.getName()), "Duplicate channel '%s'", channel.getName());
+
+            channelNames[i] = channel.getName();
+            channelBuffers[i] = new double[channel.getSize()];
+            channelsData.put(channelNames[i], channelBuffers[i]);
+        }
+
+        stepResult = new StepResult(channelsData, 0.0, false);
+    }
+
+    /**
+     * @param channelIdx The index of the channel in the channels of the schema
+     * @return The buffer of the channel
+     */
+    protected double[] getChannelBuffer(int channelIdx) {
+        return channelBuffers[channelIdx];
+    }
+
+    /**
+     * @param channelIdx The index of the channel in the channels of the schema
+     * @return The buffer of the channel, to be read without a lookup in the channels data map. Recycled like the map.
+     */
+    public Object getChannelData(int channelIdx) {
+        return channelBuffers[channelIdx];
+    }
+
+    /**
+     * @return The recycled channels data map. The buffers are bound again to their channel because a
+     * {@link org.deeplearning4j.rl4j.observation.transform.TransformProcess TransformProcess} replaces the entries of
+     * the maps it transforms.
+     */
+    protected Map<String, Object> getChannelsData() {
+        for(int i = 0; i < channelNames.length; ++i) {
+            channelsData.put(channelNames[i], channelBuffers[i]);
+        }
+
+        return channelsData;
+    }
+
+    /**
+     * @param reward The reward of the step
+     * @param terminal True if the step ended the episode
+     * @return The recycled {@link StepResult}, holding the channels data
+     */
+    protected StepResult getStepResult(double reward, boolean terminal) {
+        getChannelsData();
+        stepResult.set(reward, terminal);
+
+        return stepResult;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.environment;
+
+import lombok.Value;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+
+import java.util.Arrays;
+
+/**
+ * Describes a channel of observation data: its name, as used in the channels data map, its data type and its shape.
+ * <br>
+ * The channels of an {@link Environment} describe their raw data (for example a double[] of size n is a DOUBLE
+ * channel of shape [n]). The channels of the observations built by a
+ * {@link org.deeplearning4j.rl4j.observation.transform.TransformProcess TransformProcess} have the batch dimension of 1
+ * as their first dimension, like the INDArrays of the observations.
+ */
+@Value
+public class ChannelSchema {
+    private String name;
+    private DataType dataType;
+    private long[] shape;
+
+    public ChannelSchema(String name, DataType dataType, long... shape) {
+        Preconditions.checkArgument(shape.length > 0, "The shape of channel '%s' must have at least one dimension", name);
+        for(long dimension : shape) {
+            Preconditions.checkArgument(dimension > 0, "The dimensions of channel '%s' must be greater than 0, got: %s", name, Arrays.toString(shape));
+        }
+
+        this.name = name;
+        this.dataType = dataType;
+        this.shape = shape;
+    }
+
+    /**
+     * A 1-D DOUBLE channel; the description of a double[] of <i>size</i> elements
+     */
+    public ChannelSchema(String name, int size) {
+        this(name, DataType.DOUBLE, size);
+    }
+
+    /**
+     * @return The number of elements of the channel data
+     */
+    public int getSize() {
+        long size = 1;
+        for(long dimension : shape) {
+            size *= dimension;
+        }
+
+        return (int) size;
+    }
+
+    /**
+     * @return A copy of this schema, with another data type and shape
+     */
+    public ChannelSchema withDataTypeAndShape(DataType dataType, long... shape) {
+        return new ChannelSchema(name, dataType, shape);
+    }
+}
@@ -19,10 +19,25 @@
  */
 package org.deeplearning4j.rl4j.environment;
 
+import lombok.AllArgsConstructor;
 import lombok.Value;
 
+import java.util.List;
+
 // Work in progress
 @Value
+@AllArgsConstructor
 public class Schema<ACTION> {
     private IActionSchema<ACTION> actionSchema;
+
+    /**
+     * The observation channels of the environment. Can be null if the environment does not describe them.
+     * (Required by {@link BufferedEnvironment}; used to infer the schema of the observations, see
+     * {@link org.deeplearning4j.rl4j.observation.transform.TransformProcess#getObservationSchema(List) TransformProcess.getObservationSchema()})
+     */
+    private List<ChannelSchema> channels;
+
+    public Schema(IActionSchema<ACTION> actionSchema) {
+        this(actionSchema, null);
+    }
 }
@@ -19,13 +19,25 @@
  */
 package org.deeplearning4j.rl4j.environment;
 
-import lombok.Value;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
 import java.util.Map;
 
-@Value
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
 public class StepResult {
     private Map<String, Object> channelsData;
     private double reward;
     private boolean terminal;
+
+    // Used by BufferedEnvironment to recycle its StepResult
+    void set(double reward, boolean terminal) {
+        this.reward = reward;
+        this.terminal = terminal;
+    }
 }
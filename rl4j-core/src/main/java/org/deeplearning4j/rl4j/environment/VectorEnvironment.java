@@ -0,0 +1,110 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.environment;
+
+import lombok.NonNull;
+import org.nd4j.common.base.Preconditions;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A group of {@link Environment environments} of the same kind that are stepped in lockstep: each call to
+ * {@link #step(List)} takes one action per environment.
+ */
+public class VectorEnvironment<ACTION> {
+
+    private final List<Environment<ACTION>> environments;
+    private final StepResult[] stepResults;
+
+    /**
+     * @param environments The environments. They must all have the same {@link Schema}.
+     */
+    public VectorEnvironment(@NonNull List<Environment<ACTION>> environments) {
+        Preconditions.checkArgument(!environments.isEmpty(), "At least one environment is required");
+
+        this.environments = environments;
+        stepResults = new StepResult[environments.size()];
+    }
+
+    /**
+     * @return The number of environments
+     */
+    public int getNumEnvironments() {
+        return environments.size();
+    }
+
+    /**
+     * @param idx The index of the environment
+     * @return The environment at index <i>idx</i>
+     */
+    public Environment<ACTION> getEnvironment(int idx) {
+        return environments.get(idx);
+    }
+
+    /**
+     * @return The {@link Schema} of the environments
+     */
+    public Schema<ACTION> getSchema() {
+        return environments.get(0).getSchema();
+    }
+
+    /**
+     * Reset an environment to start a new episode.
+     * @param idx The index of the environment
+     * @return The channels data of the first observation of the episode
+     */
+    public Map<String, Object> reset(int idx) {
+        return environments.get(idx).reset();
+    }
+
+    /**
+     * Perform a single step on every environment.
+     * @param actions The actions; the i-th action is taken on the i-th environment.
+     * @return The results of the step; the i-th result is from the i-th environment. The returned array is reused by
+     * the next call.
+     */
+    public StepResult[] step(List<ACTION> actions) {
+        Preconditions.checkArgument(actions.size() == environments.size(), "Expected one action per environment (%s), got %s", environments.size(), actions.size());
+
+        for(int i = 0; i < stepResults.length; ++i) {
+            stepResults[i] = environments.get(i).step(actions.get(i));
+        }
+
+        return stepResults;
+    }
+
+    /**
+     * @param idx The index of the environment
+     * @return True if the episode of the environment at index <i>idx</i> is finished
+     */
+    public boolean isEpisodeFinished(int idx) {
+        return environments.get(idx).isEpisodeFinished();
+    }
+
+    /**
+     * Close all the environments.
+     */
+    public void close() {
+        for(Environment<ACTION> environment : environments) {
+            environment.close();
+        }
+    }
+}
@@ -23,7 +23,7 @@ import org.deeplearning4j.rl4j.observation.Observation;
 
 import java.util.List;
 
-public interface ExperienceHandler<A, E> {
+public interface ExperienceHandler<A, E> extends AutoCloseable {
     void addExperience(Observation observation, A action, double reward, boolean isTerminal);
 
     /**
@@ -52,4 +52,12 @@ public interface ExperienceHandler<A, E> {
      * Signal the experience handler that a new episode is starting
      */
     void reset();
+
+    /**
+     * Release the resources held by the experience handler, like the file of a memory-mapped replay memory.
+     */
+    @Override
+    default void close() {
+        // Do Nothing
+    }
 }
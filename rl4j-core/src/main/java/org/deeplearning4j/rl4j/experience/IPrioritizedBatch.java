@@ -0,0 +1,42 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.experience;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * Implemented by training batches sampled from a prioritized replay memory. The algorithm that consumes the batch
+ * uses the importance-sampling weights to scale the loss of every sample, and reports back the new TD errors so that
+ * the replay memory can update the priorities of the sampled transitions.
+ */
+public interface IPrioritizedBatch {
+
+    /**
+     * @return The importance-sampling weight of every sample of the batch, as a [batchSize, 1] array.
+     */
+    INDArray getImportanceSamplingWeights();
+
+    /**
+     * Update the priorities of the sampled transitions, all at once.
+     * @param tdErrors The TD error of every sample of the batch, in batch order
+     */
+    void updatePriorities(double[] tdErrors);
+}
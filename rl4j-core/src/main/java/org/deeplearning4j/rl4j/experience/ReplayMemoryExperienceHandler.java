@@ -22,12 +22,25 @@ package org.deeplearning4j.rl4j.experience;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.experimental.SuperBuilder;
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
+import org.deeplearning4j.rl4j.learning.sync.ColumnarExpReplay;
 import org.deeplearning4j.rl4j.learning.sync.ExpReplay;
+import org.deeplearning4j.rl4j.learning.sync.FrameStackExpReplay;
 import org.deeplearning4j.rl4j.learning.sync.IExpReplay;
+import org.deeplearning4j.rl4j.learning.sync.MappedExpReplay;
+import org.deeplearning4j.rl4j.learning.sync.PrefetchingExpReplay;
+import org.deeplearning4j.rl4j.learning.sync.PrioritizedExpReplay;
 import org.deeplearning4j.rl4j.observation.Observation;
+import org.nd4j.common.base.Preconditions;
 import org.nd4j.linalg.api.rng.Random;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 @EqualsAndHashCode
@@ -36,17 +49,89 @@ public class ReplayMemoryExperienceHandler<A> implements ExperienceHandler<A, St
     private static final int DEFAULT_BATCH_SIZE = 32;
     private final int batchSize;
 
+    /**
+     * The replay memory where the experience is stored
+     */
+    @Getter
     private IExpReplay<A> expReplay;
 
     private StateActionRewardState<A> pendingStateActionRewardState;
 
+    // The replay memories built by this handler, closed with it. A replay memory given to the handler belongs to the caller.
+    @EqualsAndHashCode.Exclude
+    private final List<IExpReplay<A>> ownedExpReplays;
+
     public ReplayMemoryExperienceHandler(IExpReplay<A> expReplay) {
+        this(expReplay, Collections.emptyList());
+    }
+
+    private ReplayMemoryExperienceHandler(IExpReplay<A> expReplay, List<IExpReplay<A>> ownedExpReplays) {
         this.expReplay = expReplay;
         this.batchSize = expReplay.getDesignatedBatchSize();
+        this.ownedExpReplays = ownedExpReplays;
+    }
+
+    private ReplayMemoryExperienceHandler(Configuration configuration, IExpReplay<A> storage) {
+        this(buildPrefetchingExpReplay(configuration, storage), storage);
+    }
+
+    private ReplayMemoryExperienceHandler(IExpReplay<A> expReplay, IExpReplay<A> storage) {
+        this(expReplay, expReplay == storage ? Collections.singletonList(storage) : Arrays.asList(expReplay, storage));
     }
 
     public ReplayMemoryExperienceHandler(Configuration configuration, Random random) {
-        this(new ExpReplay<A>(configuration.maxReplayMemorySize, configuration.batchSize, random));
+        this(configuration, null, random);
+    }
+
+    /**
+     * @param configuration The configuration of the replay memory
+     * @param observationSchema The schema of the observations, used by the replay memories that preallocate their
+     *                          storage (Columnar and FrameStack). Can be null; the storage is then allocated when
+     *                          the first transition is stored.
+     * @param random The random generator used to sample the transitions
+     */
+    public ReplayMemoryExperienceHandler(Configuration configuration, List<ChannelSchema> observationSchema, Random random) {
+        this(configuration, ReplayMemoryExperienceHandler.<A>buildExpReplay(configuration, observationSchema, random));
+    }
+
+    private static <A> IExpReplay<A> buildPrefetchingExpReplay(Configuration configuration, IExpReplay<A> expReplay) {
+        if(!configuration.isPrefetchBatches()) {
+            return expReplay;
+        }
+
+        Preconditions.checkArgument(configuration.getReplayMemoryType() != ReplayMemoryTypes.Prioritized, "Batch prefetching is not supported with a prioritized replay memory");
+        return new PrefetchingExpReplay<A>(expReplay);
+    }
+
+    private static <A> IExpReplay<A> buildExpReplay(Configuration configuration, List<ChannelSchema> observationSchema, Random random) {
+        switch (configuration.replayMemoryType) {
+            case Columnar:
+                // The columnar replay memory stores the actions as primitive ints.
+                return (IExpReplay<A>) (observationSchema != null
+                        ? new ColumnarExpReplay(configuration.maxReplayMemorySize, configuration.batchSize, observationSchema, random)
+                        : new ColumnarExpReplay(configuration.maxReplayMemorySize, configuration.batchSize, random));
+
+            case Prioritized:
+                return new PrioritizedExpReplay<A>(configuration.maxReplayMemorySize, configuration.batchSize,
+                        configuration.priorityExponent, configuration.importanceSamplingExponent,
+                        configuration.importanceSamplingExponentIncrement, configuration.priorityEpsilon, random);
+
+            case FrameStack:
+                return observationSchema != null
+                        ? new FrameStackExpReplay<A>(configuration.maxReplayMemorySize, configuration.batchSize, observationSchema, random)
+                        : new FrameStackExpReplay<A>(configuration.maxReplayMemorySize, configuration.batchSize, random);
+
+            case MemoryMapped:
+                Preconditions.checkArgument(configuration.replayMemoryFile != null, "replayMemoryFile must be set to use a memory-mapped replay memory");
+                try {
+                    return (IExpReplay<A>) new MappedExpReplay(Paths.get(configuration.replayMemoryFile), configuration.maxReplayMemorySize, configuration.batchSize, random);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+            default:
+                return new ExpReplay<A>(configuration.maxReplayMemorySize, configuration.batchSize, random);
+        }
     }
 
     public void addExperience(Observation observation, A action, double reward, boolean isTerminal) {
@@ -82,6 +167,24 @@ public class ReplayMemoryExperienceHandler<A> implements ExperienceHandler<A, St
         pendingStateActionRewardState = null;
     }
 
+    /**
+     * Close the replay memories built by this handler; a memory-mapped replay memory is flushed to its file.
+     */
+    @Override
+    public void close() {
+        for(IExpReplay<A> ownedExpReplay : ownedExpReplays) {
+            if(ownedExpReplay instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) ownedExpReplay).close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+
     private void setNextObservationOnPending(Observation observation) {
         if(pendingStateActionRewardState != null) {
             pendingStateActionRewardState.setNextObservation(observation);
@@ -89,6 +192,33 @@ public class ReplayMemoryExperienceHandler<A> implements ExperienceHandler<A, St
         }
     }
 
+    public enum ReplayMemoryTypes {
+        /**
+         * Keeps every transition as a {@link StateActionRewardState} instance. (See {@link ExpReplay})
+         */
+        Standard,
+
+        /**
+         * Keeps the transitions in preallocated column buffers. Can only be used with integer actions. (See {@link ColumnarExpReplay})
+         */
+        Columnar,
+
+        /**
+         * Samples the transitions proportionally to their last TD error. (See {@link PrioritizedExpReplay})
+         */
+        Prioritized,
+
+        /**
+         * Keeps every frame of stacked observations only once. (See {@link FrameStackExpReplay})
+         */
+        FrameStack,
+
+        /**
+         * Keeps the transitions in a memory-mapped file. Can only be used with integer actions. (See {@link MappedExpReplay})
+         */
+        MemoryMapped,
+    }
+
     @SuperBuilder
     @Data
     public static class Configuration {
@@ -103,5 +233,46 @@ public class ReplayMemoryExperienceHandler<A> implements ExperienceHandler<A, St
          */
         @Builder.Default
         private int batchSize = DEFAULT_BATCH_SIZE;
+
+        /**
+         * The kind of replay memory to use. Default is {@link ReplayMemoryTypes#Standard Standard}
+         */
+        @Builder.Default
+        private ReplayMemoryTypes replayMemoryType = ReplayMemoryTypes.Standard;
+
+        /**
+         * Prioritized replay memory only: how much prioritization is used, 0.0 being uniform sampling. Default is 0.6
+         */
+        @Builder.Default
+        private double priorityExponent = 0.6;
+
+        /**
+         * Prioritized replay memory only: the initial importance-sampling exponent. Default is 0.4
+         */
+        @Builder.Default
+        private double importanceSamplingExponent = 0.4;
+
+        /**
+         * Prioritized replay memory only: how much the importance-sampling exponent is increased after every batch, up to 1.0. Default is 0.00001
+         */
+        @Builder.Default
+        private double importanceSamplingExponentIncrement = 0.00001;
+
+        /**
+         * Prioritized replay memory only: a small value added to the TD errors so that no transition has a priority of 0. Default is 0.000001
+         */
+        @Builder.Default
+        private double priorityEpsilon = 0.000001;
+
+        /**
+         * Memory-mapped replay memory only: the file where the transitions are kept. If it exists, the transitions it contains are reused.
+         */
+        private String replayMemoryFile;
+
+        /**
+         * If true, the next batch is sampled on a helper thread while the current one is used for training.
+         * (See {@link PrefetchingExpReplay}) Not supported with the prioritized replay memory. Default is false
+         */
+        private boolean prefetchBatches;
     }
 }
@@ -0,0 +1,186 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.experience;
+
+import lombok.Getter;
+import org.deeplearning4j.rl4j.agent.learning.update.Features;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.AbstractList;
+
+/**
+ * A batch of transitions whose observations and next observations are already laid out as {@link Features} and whose
+ * actions, rewards and terminal flags are kept in primitive arrays. Consumers that know about this class can use
+ * {@link #getFeatures()} and {@link #getNextFeatures()} directly instead of building the features from every transition.<br/>
+ * For other consumers, {@link #get(int)} builds a {@link StateActionRewardState} whose observations are views on the features.<br/>
+ * Note: Instances are meant to be reused by their producer; the content is only valid until the producer refills it.
+ */
+public class StateActionRewardStateBatch extends AbstractList<StateActionRewardState<Integer>> {
+
+    /**
+     * The observations of the batch
+     */
+    @Getter
+    private final Features features;
+
+    /**
+     * The next observations of the batch
+     */
+    @Getter
+    private final Features nextFeatures;
+
+    /**
+     * The observations followed by the next observations, as a single {@link Features} of twice the batch size, whose
+     * halves are <i>features</i> and <i>nextFeatures</i>. Lets consumers evaluate both in a single pass. null if the
+     * producer doesn't lay them out this way.
+     */
+    @Getter
+    private final Features stackedFeatures;
+
+    private final int[] actions;
+    private final double[] rewards;
+    private final boolean[] terminals;
+
+    private final int numChannels;
+    private final int capacity;
+    private int size = 0;
+
+    /**
+     * @param features The {@link Features} that will hold the observations. Their batch size is the capacity of this batch.
+     * @param nextFeatures The {@link Features} that will hold the next observations. Must have the same batch size as <i>features</i>.
+     * @param numChannels The number of channels of the features
+     */
+    public StateActionRewardStateBatch(Features features, Features nextFeatures, int numChannels) {
+        this(features, nextFeatures, null, numChannels);
+    }
+
+    /**
+     * @param features The {@link Features} that will hold the observations. Their batch size is the capacity of this batch.
+     * @param nextFeatures The {@link Features} that will hold the next observations. Must have the same batch size as <i>features</i>.
+     * @param stackedFeatures The {@link Features} of which <i>features</i> and <i>nextFeatures</i> are the first and second halves. Can be null.
+     * @param numChannels The number of channels of the features
+     */
+    public StateActionRewardStateBatch(Features features, Features nextFeatures, Features stackedFeatures, int numChannels) {
+        Preconditions.checkArgument(features.getBatchSize() == nextFeatures.getBatchSize(),
+                "features and nextFeatures must have the same batch size, got %s and %s", features.getBatchSize(), nextFeatures.getBatchSize());
+        Preconditions.checkArgument(stackedFeatures == null || stackedFeatures.getBatchSize() == 2 * features.getBatchSize(),
+                "stackedFeatures must have twice the batch size of features, got %s and %s", stackedFeatures == null ? 0 : stackedFeatures.getBatchSize(), features.getBatchSize());
+
+        this.features = features;
+        this.nextFeatures = nextFeatures;
+        this.stackedFeatures = stackedFeatures;
+        this.numChannels = numChannels;
+
+        capacity = (int)features.getBatchSize();
+        actions = new int[capacity];
+        rewards = new double[capacity];
+        terminals = new boolean[capacity];
+    }
+
+    /**
+     * Set the scalar parts of a transition. The observations are expected to be written directly in the features.
+     * @param idx The index of the transition in the batch
+     */
+    public void set(int idx, int action, double reward, boolean isTerminal) {
+        actions[idx] = action;
+        rewards[idx] = reward;
+        terminals[idx] = isTerminal;
+    }
+
+    /**
+     * Set the number of transitions in the batch. Must not exceed the batch size of the features.
+     */
+    public void setSize(int size) {
+        Preconditions.checkArgument(size >= 0 && size <= capacity, "The size must be between 0 and %s, got %s", capacity, size);
+        this.size = size;
+    }
+
+    /**
+     * @return A copy of this batch that shares no data with it. Lets the batch be used by another thread while the
+     * producer refills this one.
+     */
+    public StateActionRewardStateBatch copy() {
+        StateActionRewardStateBatch result;
+        if(stackedFeatures != null) {
+            Features stackedCopy = copyOf(stackedFeatures);
+            result = new StateActionRewardStateBatch(stackedCopy.getRows(0, capacity), stackedCopy.getRows(capacity, 2L * capacity), stackedCopy, numChannels);
+        } else {
+            result = new StateActionRewardStateBatch(copyOf(features), copyOf(nextFeatures), numChannels);
+        }
+
+        System.arraycopy(actions, 0, result.actions, 0, size);
+        System.arraycopy(rewards, 0, result.rewards, 0, size);
+        System.arraycopy(terminals, 0, result.terminals, 0, size);
+        result.size = size;
+
+        return result;
+    }
+
+    private Features copyOf(Features source) {
+        INDArray[] channelsData = new INDArray[numChannels];
+        for(int channelIdx = 0; channelIdx < numChannels; ++channelIdx) {
+            channelsData[channelIdx] = source.get(channelIdx).dup();
+        }
+
+        return new Features(channelsData);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int getAction(int idx) {
+        return actions[idx];
+    }
+
+    public double getReward(int idx) {
+        return rewards[idx];
+    }
+
+    public boolean isTerminal(int idx) {
+        return terminals[idx];
+    }
+
+    @Override
+    public StateActionRewardState<Integer> get(int idx) {
+        if(idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size);
+        }
+
+        StateActionRewardState<Integer> result = new StateActionRewardState<>(getObservation(features, idx), actions[idx], rewards[idx], terminals[idx]);
+        result.setNextObservation(getObservation(nextFeatures, idx));
+
+        return result;
+    }
+
+    private Observation getObservation(Features source, int idx) {
+        INDArray[] channelsData = new INDArray[numChannels];
+        for(int channelIdx = 0; channelIdx < numChannels; ++channelIdx) {
+            channelsData[channelIdx] = Nd4j.expandDims(source.get(channelIdx).slice(idx), 0);
+        }
+
+        return new Observation(channelsData);
+    }
+}
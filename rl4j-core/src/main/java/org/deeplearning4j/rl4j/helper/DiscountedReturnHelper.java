@@ -0,0 +1,45 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.helper;
+
+/**
+ * Discounted return helper methods used by the n-step algorithms
+ */
+public class DiscountedReturnHelper {
+
+    /**
+     * Compute the discounted return of every step of a trajectory segment with a single reverse scan:<br />
+     *      R<sub>i</sub> = r<sub>i</sub> + &gamma; * R<sub>i+1</sub>, with R<sub>n</sub> = <i>bootstrapValue</i>
+     * @param rewards The rewards of the segment, in chronological order
+     * @param gamma The discount factor
+     * @param bootstrapValue The estimated value of the state that follows the segment (0 if the segment ends the episode)
+     * @return The discounted returns, in the same order as <i>rewards</i>
+     */
+    public static double[] computeReturns(double[] rewards, double gamma, double bootstrapValue) {
+        double[] returns = new double[rewards.length];
+        double value = bootstrapValue;
+        for(int i = rewards.length - 1; i >= 0; --i) {
+            value = rewards[i] + gamma * value;
+            returns[i] = value;
+        }
+
+        return returns;
+    }
+}
@@ -45,6 +45,22 @@ public class INDArrayHelper {
 
     }
 
+    /**
+     * The shape counterpart of {@link #forceCorrectShape(INDArray)}
+     * @param shape The shape to be corrected
+     * @return The corrected shape
+     */
+    public static long[] forceCorrectShape(long[] shape) {
+        if(shape[0] == 1 && shape.length > 1) {
+            return shape;
+        }
+
+        long[] result = new long[shape.length + 1];
+        result[0] = 1;
+        System.arraycopy(shape, 0, result, 1, shape.length);
+        return result;
+    }
+
     /**
      * This will create a INDArray with <i>batchSize</i> as dimension 0 and <i>shape</i> as other dimensions.
      * For example, if <i>batchSize</i> is 10 and shape is { 1, 3, 4 }, the resulting INDArray shape will be { 10, 3, 4 }
@@ -25,19 +25,28 @@ import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.rl4j.learning.configuration.IAsyncLearningConfiguration;
 import org.deeplearning4j.rl4j.network.NeuralNet;
+import org.deeplearning4j.rl4j.network.VersionedParameterStore;
 
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * The global network shared by the worker threads. The gradients are applied to the current network while holding
+ * the update lock; the target network is published as versioned snapshots (see {@link VersionedParameterStore}) that
+ * the workers copy without taking the lock.
+ */
 @Slf4j
 public class AsyncGlobal<NN extends NeuralNet> implements IAsyncGlobal<NN> {
 
     final private NN current;
 
-    private NN target;
+    final private VersionedParameterStore<NN> targetStore;
 
     final private IAsyncLearningConfiguration configuration;
 
+    /**
+     * Serializes the updates of the current network. Not needed to read the target network.
+     */
     @Getter
     private final Lock updateLock;
 
@@ -45,14 +54,14 @@ public class AsyncGlobal<NN extends NeuralNet> implements IAsyncGlobal<NN> {
      * The number of times the gradient has been updated by worker threads
      */
     @Getter
-    private int workerUpdateCount;
+    private volatile int workerUpdateCount;
 
     @Getter
-    private int stepCount;
+    private volatile int stepCount;
 
     public AsyncGlobal(NN initial, IAsyncLearningConfiguration configuration) {
         this.current = initial;
-        target = (NN) initial.clone();
+        targetStore = new VersionedParameterStore<>(initial);
         this.configuration = configuration;
 
         // This is used to sync between
@@ -84,7 +93,7 @@ public class AsyncGlobal<NN extends NeuralNet> implements IAsyncGlobal<NN> {
             if (targetUpdateFrequency != -1 && workerUpdateCount % targetUpdateFrequency == 0) {
                 log.info("Updating target network at updates={} steps={}", workerUpdateCount, stepCount);
             } else {
-                target.copyFrom(current);
+                targetStore.publish(current);
             }
         } finally {
             updateLock.unlock();
@@ -92,14 +101,18 @@ public class AsyncGlobal<NN extends NeuralNet> implements IAsyncGlobal<NN> {
 
     }
 
+    /**
+     * @return The network of the latest published target. It must not be changed; use {@link #copyTargetTo(NeuralNet)}
+     * to get a copy that stays consistent while the workers keep updating.
+     */
     @Override
     public NN getTarget() {
-        try {
-            updateLock.lock();
-            return target;
-        } finally {
-            updateLock.unlock();
-        }
+        return targetStore.getLatest();
+    }
+
+    @Override
+    public long copyTargetTo(NN network) {
+        return targetStore.copyTo(network);
     }
 
 }
@@ -55,9 +55,9 @@ public abstract class AsyncThreadDiscrete<OBSERVATION extends Encodable, NN exte
                                int threadNumber,
                                int deviceNum) {
         super(mdp, listeners, threadNumber, deviceNum);
-        synchronized (asyncGlobal) {
-            current = (NN) asyncGlobal.getTarget().clone();
-        }
+        // The snapshot returned by getTarget() can be recycled while it is cloned; the copy makes the parameters consistent
+        current = (NN) asyncGlobal.getTarget().clone();
+        asyncGlobal.copyTargetTo(current);
 
         StateActionExperienceHandler.Configuration experienceHandlerConfiguration = StateActionExperienceHandler.Configuration.builder()
             .batchSize(getNStep())
@@ -99,7 +99,7 @@ public abstract class AsyncThreadDiscrete<OBSERVATION extends Encodable, NN exte
      */
     public SubEpochReturn trainSubEpoch(Observation sObs, int trainingSteps) {
 
-        current.copyFrom(getAsyncGlobal().getTarget());
+        getAsyncGlobal().copyTargetTo(current);
 
         Observation obs = sObs;
         IPolicy<Integer> policy = getPolicy(current);
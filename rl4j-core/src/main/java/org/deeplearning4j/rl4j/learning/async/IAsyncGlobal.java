@@ -42,6 +42,13 @@ public interface IAsyncGlobal<NN extends ITrainableNeuralNet> {
      */
     NN getTarget();
 
+    /**
+     * Copy the parameters of the latest target network to <i>network</i>, without waiting for the updates in progress.
+     * @param network The network to copy the parameters to
+     * @return The version of the copied parameters
+     */
+    long copyTargetTo(NN network);
+
     /**
      * Apply gradients to the global network
      * @param gradient
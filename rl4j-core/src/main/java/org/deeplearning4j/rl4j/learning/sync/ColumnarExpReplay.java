@@ -0,0 +1,385 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.learning.sync;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import lombok.Getter;
+import org.deeplearning4j.rl4j.agent.learning.update.Features;
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
+import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.deeplearning4j.rl4j.experience.StateActionRewardStateBatch;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.rng.Random;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An {@link IExpReplay} that stores the transitions in preallocated column buffers instead of keeping every
+ * {@link StateActionRewardState} instance alive. Observations and next observations are stored, per channel, in
+ * a single off-heap [capacity, elementLength] {@link INDArray}; actions, rewards and terminal flags are stored in
+ * primitive arrays.<br/>
+ * The observation columns are allocated at construction when the schema of the observations is supplied, otherwise when
+ * the first transition is stored, using the shapes of its channels. All subsequent observations must have the same shapes.<br/>
+ * Sampled batches are gathered straight into the reused features of a {@link StateActionRewardStateBatch}. Two batch
+ * buffers are used alternately, so that a batch can be used while the next one is being sampled.<br/>
+ * When sampled with {@link #getBatch(Object)}, the rows are gathered without holding the store lock; the sampled rows
+ * overwritten meanwhile are re-read under the lock and hold the newer transitions.
+ */
+public class ColumnarExpReplay implements IConcurrentlySampledExpReplay<Integer> {
+
+    private static final int NUM_BATCH_BUFFERS = 2;
+
+    private final int batchSize;
+    private final Random rnd;
+
+    @Getter
+    private final int capacity;
+
+    private final int[] actions;
+    private final double[] rewards;
+    private final boolean[] terminals;
+
+    private INDArray[] observationColumns;
+    private INDArray[] nextObservationColumns;
+    private long[][] shapeByChannel;
+    private long[] elementLengthByChannel;
+
+    private final IntOpenHashSet sampledIndexes = new IntOpenHashSet();
+
+    private final BatchBuffer[] batchBuffers = new BatchBuffer[NUM_BATCH_BUFFERS];
+    private int nextBatchBufferIdx = 0;
+
+    private int nextSlot = 0;
+
+    // The total number of transitions stored; used to find the slots overwritten while a batch is being gathered
+    private long writeCount = 0;
+
+    /**
+     * The number of transitions currently stored
+     */
+    @Getter
+    private int size = 0;
+
+    /**
+     * @param capacity The maximum number of transitions kept. When full, the oldest transition is overwritten.
+     * @param batchSize The designated size of the batches returned by {@link #getBatch()}
+     * @param rnd The random generator used to sample the transitions
+     */
+    public ColumnarExpReplay(int capacity, int batchSize, Random rnd) {
+        Preconditions.checkArgument(capacity > 0, "The capacity must be at least 1, got %s", capacity);
+
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.rnd = rnd;
+
+        actions = new int[capacity];
+        rewards = new double[capacity];
+        terminals = new boolean[capacity];
+    }
+
+    /**
+     * @param capacity The maximum number of transitions kept. When full, the oldest transition is overwritten.
+     * @param batchSize The designated size of the batches returned by {@link #getBatch()}
+     * @param observationSchema The schema of the observations; used to allocate the observation columns now.
+     * @param rnd The random generator used to sample the transitions
+     */
+    public ColumnarExpReplay(int capacity, int batchSize, List<ChannelSchema> observationSchema, Random rnd) {
+        this(capacity, batchSize, rnd);
+
+        int numChannels = observationSchema.size();
+        long[][] shapes = new long[numChannels][];
+        DataType[] dataTypes = new DataType[numChannels];
+        for(int channelIdx = 0; channelIdx < numChannels; ++channelIdx) {
+            shapes[channelIdx] = observationSchema.get(channelIdx).getShape();
+            dataTypes[channelIdx] = observationSchema.get(channelIdx).getDataType();
+        }
+        allocateColumns(shapes, dataTypes);
+    }
+
+    /**
+     * Sample a batch of transitions. The sampled rows are gathered directly into the {@link Features} of a reused
+     * {@link StateActionRewardStateBatch}; no per-transition object is created unless {@link StateActionRewardStateBatch#get(int)} is used.
+     * @param size The desired size of the batch. The returned batch will be smaller if fewer transitions are stored.
+     * @return The sampled transitions. The returned instance is reused and refilled by the call after the next one.
+     */
+    public List<StateActionRewardState<Integer>> getBatch(int size) {
+        BatchBuffer batchBuffer = select(size);
+        if(batchBuffer == null) {
+            return Collections.emptyList();
+        }
+
+        gatherRows(batchBuffer);
+
+        return batchBuffer.batch;
+    }
+
+    /**
+     * Sample a batch of the designated size while transitions are being stored by another thread. <i>storeLock</i>
+     * is only held while the slots are selected and while the rows overwritten during the gathering are re-read.
+     * @param storeLock The lock held by the callers of {@link #store(StateActionRewardState)}
+     * @return The sampled transitions. The returned instance is reused and refilled by the call after the next one.
+     */
+    @Override
+    public List<StateActionRewardState<Integer>> getBatch(Object storeLock) {
+        BatchBuffer batchBuffer;
+        synchronized (storeLock) {
+            batchBuffer = select(batchSize);
+        }
+        if(batchBuffer == null) {
+            return Collections.emptyList();
+        }
+
+        gatherRows(batchBuffer);
+
+        synchronized (storeLock) {
+            rereadOverwrittenRows(batchBuffer);
+        }
+
+        return batchBuffer.batch;
+    }
+
+    // Select the slots and copy the scalar columns; the observation rows are gathered by gatherRows()
+    private BatchBuffer select(int size) {
+        int actualBatchSize = Math.min(this.size, size);
+        if(actualBatchSize == 0) {
+            return null;
+        }
+
+        BatchBuffer batchBuffer = getBatchBuffer(actualBatchSize);
+        StateActionRewardStateBatch batch = batchBuffer.batch;
+        int[] sampledSlots = batchBuffer.sampledSlots;
+
+        sampledIndexes.clear();
+        for(int i = 0; i < actualBatchSize; ++i) {
+            int next = rnd.nextInt(this.size);
+            while(!sampledIndexes.add(next)) {
+                next = rnd.nextInt(this.size);
+            }
+
+            int slot = toSlot(next);
+            sampledSlots[i] = slot;
+            batch.set(i, actions[slot], rewards[slot], terminals[slot]);
+        }
+        batch.setSize(actualBatchSize);
+        batchBuffer.selectionWriteCount = writeCount;
+        batchBuffer.selectionNextSlot = nextSlot;
+
+        return batchBuffer;
+    }
+
+    private void gatherRows(BatchBuffer batchBuffer) {
+        for(int channelIdx = 0; channelIdx < observationColumns.length; ++channelIdx) {
+            Nd4j.pullRows(observationColumns[channelIdx], batchBuffer.observationRows[channelIdx], 1, batchBuffer.sampledSlots);
+            Nd4j.pullRows(nextObservationColumns[channelIdx], batchBuffer.nextObservationRows[channelIdx], 1, batchBuffer.sampledSlots);
+        }
+    }
+
+    // The stores done since the selection wrote the slots following selectionNextSlot; their rows may be torn
+    private void rereadOverwrittenRows(BatchBuffer batchBuffer) {
+        long numOverwritten = writeCount - batchBuffer.selectionWriteCount;
+        if(numOverwritten == 0) {
+            return;
+        }
+
+        int[] sampledSlots = batchBuffer.sampledSlots;
+        for(int i = 0; i < sampledSlots.length; ++i) {
+            int slot = sampledSlots[i];
+            int distance = (slot - batchBuffer.selectionNextSlot + capacity) % capacity;
+            if(distance >= numOverwritten) {
+                continue;
+            }
+
+            batchBuffer.batch.set(i, actions[slot], rewards[slot], terminals[slot]);
+            for(int channelIdx = 0; channelIdx < observationColumns.length; ++channelIdx) {
+                batchBuffer.observationRows[channelIdx].putRow(i, observationColumns[channelIdx].getRow(slot));
+                batchBuffer.nextObservationRows[channelIdx].putRow(i, nextObservationColumns[channelIdx].getRow(slot));
+            }
+        }
+    }
+
+    @Override
+    public List<StateActionRewardState<Integer>> getBatch() {
+        return getBatch(batchSize);
+    }
+
+    @Override
+    public void store(StateActionRewardState<Integer> stateActionRewardState) {
+        Observation observation = stateActionRewardState.getObservation();
+        Observation nextObservation = stateActionRewardState.getNextObservation();
+        Preconditions.checkArgument(!observation.isSkipped() && nextObservation != null && !nextObservation.isSkipped(),
+                "Only transitions with non-skipped observation and next observation can be stored");
+
+        if(observationColumns == null) {
+            allocateColumns(observation);
+        }
+
+        putObservation(observationColumns, nextSlot, observation);
+        putObservation(nextObservationColumns, nextSlot, nextObservation);
+        actions[nextSlot] = stateActionRewardState.getAction();
+        rewards[nextSlot] = stateActionRewardState.getReward();
+        terminals[nextSlot] = stateActionRewardState.isTerminal();
+
+        nextSlot = (nextSlot + 1) % capacity;
+        ++writeCount;
+        if(size < capacity) {
+            ++size;
+        }
+    }
+
+    @Override
+    public int getDesignatedBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public int getBatchSize() {
+        return Math.min(size, batchSize);
+    }
+
+    /**
+     * @param idx The index of the transition, 0 being the oldest one
+     * @return The storage slot where the transition is kept
+     */
+    protected int toSlot(int idx) {
+        return size < capacity
+                ? idx
+                : (nextSlot + idx) % capacity;
+    }
+
+    private void allocateColumns(Observation observation) {
+        int numChannels = observation.numChannels();
+        long[][] shapes = new long[numChannels][];
+        DataType[] dataTypes = new DataType[numChannels];
+        for(int channelIdx = 0; channelIdx < numChannels; ++channelIdx) {
+            shapes[channelIdx] = observation.getChannelData(channelIdx).shape();
+            dataTypes[channelIdx] = observation.getChannelData(channelIdx).dataType();
+        }
+        allocateColumns(shapes, dataTypes);
+    }
+
+    private void allocateColumns(long[][] shapes, DataType[] dataTypes) {
+        int numChannels = shapes.length;
+        observationColumns = new INDArray[numChannels];
+        nextObservationColumns = new INDArray[numChannels];
+        shapeByChannel = shapes;
+        elementLengthByChannel = new long[numChannels];
+
+        for(int channelIdx = 0; channelIdx < numChannels; ++channelIdx) {
+            long elementLength = 1;
+            for(long dimension : shapes[channelIdx]) {
+                elementLength *= dimension;
+            }
+            elementLengthByChannel[channelIdx] = elementLength;
+
+            observationColumns[channelIdx] = Nd4j.create(dataTypes[channelIdx], capacity, elementLength);
+            nextObservationColumns[channelIdx] = Nd4j.create(dataTypes[channelIdx], capacity, elementLength);
+        }
+    }
+
+    private void putObservation(INDArray[] columns, int slot, Observation observation) {
+        Preconditions.checkArgument(observation.numChannels() == columns.length,
+                "Expected observations with %s channels, got %s", columns.length, observation.numChannels());
+
+        for(int channelIdx = 0; channelIdx < columns.length; ++channelIdx) {
+            INDArray channelData = observation.getChannelData(channelIdx);
+            Preconditions.checkArgument(channelData.length() == elementLengthByChannel[channelIdx],
+                    "Channel %s: expected %s elements, got %s", channelIdx, elementLengthByChannel[channelIdx], channelData.length());
+
+            columns[channelIdx].putRow(slot, channelData.reshape(1, elementLengthByChannel[channelIdx]));
+        }
+    }
+
+    private BatchBuffer getBatchBuffer(int size) {
+        int batchBufferIdx = nextBatchBufferIdx;
+        nextBatchBufferIdx = (nextBatchBufferIdx + 1) % NUM_BATCH_BUFFERS;
+
+        BatchBuffer batchBuffer = batchBuffers[batchBufferIdx];
+        if(batchBuffer == null || batchBuffer.capacity < size) {
+            batchBuffer = new BatchBuffer(Math.max(size, batchSize));
+            batchBuffers[batchBufferIdx] = batchBuffer;
+        }
+        batchBuffer.setSize(size);
+
+        return batchBuffer;
+    }
+
+    // Allocated once at the designated batch size (or a larger requested size); smaller batches, while the memory
+    // fills up, are views on the first rows.
+    private class BatchBuffer {
+        private final int capacity;
+        private final INDArray[] stackedRows;
+
+        private int size = -1;
+        private int[] sampledSlots;
+        private long selectionWriteCount;
+        private int selectionNextSlot;
+        private INDArray[] observationRows;
+        private INDArray[] nextObservationRows;
+        private StateActionRewardStateBatch batch;
+
+        private BatchBuffer(int capacity) {
+            this.capacity = capacity;
+
+            int numChannels = observationColumns.length;
+            stackedRows = new INDArray[numChannels];
+            for(int channelIdx = 0; channelIdx < numChannels; ++channelIdx) {
+                stackedRows[channelIdx] = Nd4j.create(observationColumns[channelIdx].dataType(), 2L * capacity, elementLengthByChannel[channelIdx]);
+            }
+        }
+
+        private void setSize(int size) {
+            if(size == this.size) {
+                return;
+            }
+            this.size = size;
+
+            int numChannels = stackedRows.length;
+            observationRows = new INDArray[numChannels];
+            nextObservationRows = new INDArray[numChannels];
+            INDArray[] stackedFeatures = new INDArray[numChannels];
+            INDArray[] features = new INDArray[numChannels];
+            INDArray[] nextFeatures = new INDArray[numChannels];
+            for(int channelIdx = 0; channelIdx < numChannels; ++channelIdx) {
+                // The observations and the next observations share the first 2 * size rows so that the algorithms can
+                // evaluate both in a single pass. The halves of the rows are contiguous views and are filled in place by pullRows.
+                INDArray rows = stackedRows[channelIdx].get(NDArrayIndex.interval(0, 2L * size), NDArrayIndex.all());
+                observationRows[channelIdx] = rows.get(NDArrayIndex.interval(0, size), NDArrayIndex.all());
+                nextObservationRows[channelIdx] = rows.get(NDArrayIndex.interval(size, 2L * size), NDArrayIndex.all());
+
+                // The rows are contiguous; reshaping them to the batch shape gives views on the same buffers.
+                long[] batchShape = shapeByChannel[channelIdx].clone();
+                batchShape[0] = 2L * size;
+                stackedFeatures[channelIdx] = rows.reshape(batchShape);
+                features[channelIdx] = stackedFeatures[channelIdx].get(NDArrayIndex.interval(0, size));
+                nextFeatures[channelIdx] = stackedFeatures[channelIdx].get(NDArrayIndex.interval(size, 2L * size));
+            }
+
+            sampledSlots = new int[size];
+            batch = new StateActionRewardStateBatch(new Features(features), new Features(nextFeatures), new Features(stackedFeatures), numChannels);
+        }
+    }
+}
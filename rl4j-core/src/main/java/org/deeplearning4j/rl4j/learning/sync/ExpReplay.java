@@ -28,9 +28,10 @@ import org.deeplearning4j.rl4j.experience.StateActionRewardState;
 import org.nd4j.linalg.api.rng.Random;
 
 import java.util.ArrayList;
+import java.util.List;
 
 @Slf4j
-public class ExpReplay<A> implements IExpReplay<A> {
+public class ExpReplay<A> implements IConcurrentlySampledExpReplay<A> {
 
     final private int batchSize;
     final private Random rnd;
@@ -45,7 +46,24 @@ public class ExpReplay<A> implements IExpReplay<A> {
     }
 
     public ArrayList<StateActionRewardState<A>> getBatch(int size) {
-        ArrayList<StateActionRewardState<A>> batch = new ArrayList<>(size);
+        return dup(select(size));
+    }
+
+    /**
+     * Only the references to the sampled transitions are taken while holding <i>storeLock</i>; the transitions are
+     * duplicated after it is released.
+     */
+    @Override
+    public ArrayList<StateActionRewardState<A>> getBatch(Object storeLock) {
+        List<StateActionRewardState<A>> selected;
+        synchronized (storeLock) {
+            selected = select(batchSize);
+        }
+
+        return dup(selected);
+    }
+
+    private List<StateActionRewardState<A>> select(int size) {
         int storageSize = storage.size();
         int actualBatchSize = Math.min(storageSize, size);
 
@@ -60,8 +78,17 @@ public class ExpReplay<A> implements IExpReplay<A> {
             actualIndex[i] = next;
         }
 
+        List<StateActionRewardState<A>> selected = new ArrayList<>(actualBatchSize);
         for (int i = 0; i < actualBatchSize; i ++) {
-            StateActionRewardState<A> trans = storage.get(actualIndex[i]);
+            selected.add(storage.get(actualIndex[i]));
+        }
+
+        return selected;
+    }
+
+    private ArrayList<StateActionRewardState<A>> dup(List<StateActionRewardState<A>> selected) {
+        ArrayList<StateActionRewardState<A>> batch = new ArrayList<>(selected.size());
+        for (StateActionRewardState<A> trans : selected) {
             batch.add(trans.dup());
         }
 
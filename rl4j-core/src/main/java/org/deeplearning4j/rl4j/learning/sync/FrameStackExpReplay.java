@@ -0,0 +1,283 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.learning.sync;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import lombok.Getter;
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
+import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.rng.Random;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An {@link IExpReplay} for observations made of frame stacks, like the ones built by a
+ * {@link org.deeplearning4j.rl4j.observation.transform.operation.HistoryMergeTransform HistoryMergeTransform} with the
+ * default {@link org.deeplearning4j.rl4j.observation.transform.operation.historymerge.HistoryStackAssembler HistoryStackAssembler}.
+ * Every channel of the observations is expected to have a shape of [1, stackLength, ...].<br/>
+ * Instead of keeping the 2 x stackLength frames of every transition, each frame is kept once in a ring and the stacks
+ * are rebuilt from it when a batch is sampled:
+ * <ul>
+ *     <li>When a transition continues the previous one (its observation is the next observation of the previously
+ *     stored transition), only the newest frame of its next observation is added.</li>
+ *     <li>Otherwise (first transition of an episode), all frames of its observation are added first. Stacks therefore
+ *     never mix frames of different episodes.</li>
+ * </ul>
+ * The next observation of a transition is expected to be the stack of its observation shifted by one frame.<br/>
+ * Starting an episode uses stackLength frames more than continuing one; when the frame ring is full, the transitions
+ * whose frames have been overwritten are dropped, so with very short episodes fewer than <i>capacity</i> transitions
+ * may be kept.
+ *
+ * @param <A> The type of actions
+ */
+public class FrameStackExpReplay<A> implements IExpReplay<A> {
+
+    private final int batchSize;
+    private final Random rnd;
+
+    @Getter
+    private final int capacity;
+
+    // Transitions: a ring of capacity elements, from head (oldest) to head + size - 1
+    private final long[] newestFrameIdxByTransition;
+    private final Object[] actions;
+    private final double[] rewards;
+    private final boolean[] terminals;
+    private int head = 0;
+
+    /**
+     * The number of transitions currently stored
+     */
+    @Getter
+    private int size = 0;
+
+    // Frames: a ring of frameCapacity frames per channel, addressed by a frame counter that is never reset
+    private int stackLength;
+    private int frameCapacity;
+    private INDArray[] framesByChannel;
+    private long[][] stackShapeByChannel;
+    private long[] frameLengthByChannel;
+    private long frameCount = 0;
+
+    private Observation lastNextObservation;
+
+    private final IntOpenHashSet sampledIndexes = new IntOpenHashSet();
+
+    /**
+     * @param capacity The maximum number of transitions kept. When full, the oldest transition is overwritten.
+     * @param batchSize The designated size of the batches returned by {@link #getBatch()}
+     * @param rnd The random generator used to sample the transitions
+     */
+    public FrameStackExpReplay(int capacity, int batchSize, Random rnd) {
+        Preconditions.checkArgument(capacity > 0, "The capacity must be at least 1, got %s", capacity);
+
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.rnd = rnd;
+
+        newestFrameIdxByTransition = new long[capacity];
+        actions = new Object[capacity];
+        rewards = new double[capacity];
+        terminals = new boolean[capacity];
+    }
+
+    /**
+     * @param capacity The maximum number of transitions kept. When full, the oldest transition is overwritten.
+     * @param batchSize The designated size of the batches returned by {@link #getBatch()}
+     * @param observationSchema The schema of the observations; used to allocate the frames now.
+     * @param rnd The random generator used to sample the transitions
+     */
+    public FrameStackExpReplay(int capacity, int batchSize, List<ChannelSchema> observationSchema, Random rnd) {
+        this(capacity, batchSize, rnd);
+
+        int numChannels = observationSchema.size();
+        long[][] shapes = new long[numChannels][];
+        DataType[] dataTypes = new DataType[numChannels];
+        for(int channelIdx = 0; channelIdx < numChannels; ++channelIdx) {
+            shapes[channelIdx] = observationSchema.get(channelIdx).getShape();
+            dataTypes[channelIdx] = observationSchema.get(channelIdx).getDataType();
+        }
+        allocateFrames(shapes, dataTypes);
+    }
+
+    public ArrayList<StateActionRewardState<A>> getBatch(int size) {
+        int actualBatchSize = Math.min(this.size, size);
+        ArrayList<StateActionRewardState<A>> batch = new ArrayList<>(actualBatchSize);
+
+        sampledIndexes.clear();
+        for(int i = 0; i < actualBatchSize; ++i) {
+            int next = rnd.nextInt(this.size);
+            while(!sampledIndexes.add(next)) {
+                next = rnd.nextInt(this.size);
+            }
+
+            int slot = (head + next) % capacity;
+            long newestFrameIdx = newestFrameIdxByTransition[slot];
+            StateActionRewardState<A> transition = new StateActionRewardState<>(buildStack(newestFrameIdx), getAction(slot), rewards[slot], terminals[slot]);
+            transition.setNextObservation(buildStack(newestFrameIdx + 1));
+            batch.add(transition);
+        }
+
+        return batch;
+    }
+
+    @Override
+    public ArrayList<StateActionRewardState<A>> getBatch() {
+        return getBatch(batchSize);
+    }
+
+    @Override
+    public void store(StateActionRewardState<A> stateActionRewardState) {
+        Observation observation = stateActionRewardState.getObservation();
+        Observation nextObservation = stateActionRewardState.getNextObservation();
+        Preconditions.checkArgument(!observation.isSkipped() && nextObservation != null && !nextObservation.isSkipped(),
+                "Only transitions with non-skipped observation and next observation can be stored");
+
+        if(framesByChannel == null) {
+            allocateFrames(observation);
+        }
+
+        if(observation != lastNextObservation || size == 0) {
+            // Start of a new sequence: keep the whole stack of the observation
+            for(int frameIdx = 0; frameIdx < stackLength; ++frameIdx) {
+                addFrame(observation, frameIdx);
+            }
+        }
+        long newestFrameIdx = frameCount - 1;
+        addFrame(nextObservation, stackLength - 1);
+        lastNextObservation = nextObservation;
+
+        if(size == capacity) {
+            evictOldest();
+        }
+        int slot = (head + size) % capacity;
+        newestFrameIdxByTransition[slot] = newestFrameIdx;
+        actions[slot] = stateActionRewardState.getAction();
+        rewards[slot] = stateActionRewardState.getReward();
+        terminals[slot] = stateActionRewardState.isTerminal();
+        ++size;
+    }
+
+    @Override
+    public int getDesignatedBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public int getBatchSize() {
+        return Math.min(size, batchSize);
+    }
+
+    private void allocateFrames(Observation observation) {
+        int numChannels = observation.numChannels();
+        long[][] shapes = new long[numChannels][];
+        DataType[] dataTypes = new DataType[numChannels];
+        for(int channelIdx = 0; channelIdx < numChannels; ++channelIdx) {
+            shapes[channelIdx] = observation.getChannelData(channelIdx).shape();
+            dataTypes[channelIdx] = observation.getChannelData(channelIdx).dataType();
+        }
+        allocateFrames(shapes, dataTypes);
+    }
+
+    private void allocateFrames(long[][] shapes, DataType[] dataTypes) {
+        int numChannels = shapes.length;
+        framesByChannel = new INDArray[numChannels];
+        stackShapeByChannel = new long[numChannels][];
+        frameLengthByChannel = new long[numChannels];
+
+        for(int channelIdx = 0; channelIdx < numChannels; ++channelIdx) {
+            long[] shape = shapes[channelIdx];
+            Preconditions.checkArgument(shape.length >= 2 && shape[0] == 1,
+                    "Channel %s: expected a stack with a shape of [1, stackLength, ...], got %s", channelIdx, Arrays.toString(shape));
+            Preconditions.checkArgument(channelIdx == 0 || shape[1] == stackLength,
+                    "All channels must have the same stack length; channel %s has %s, expected %s", channelIdx, shape[1], stackLength);
+
+            stackLength = (int)shape[1];
+            stackShapeByChannel[channelIdx] = shape;
+
+            long length = 1;
+            for(long dimension : shape) {
+                length *= dimension;
+            }
+            frameLengthByChannel[channelIdx] = length / stackLength;
+        }
+
+        // Enough frames for capacity transitions of a single episode, plus the stack of its first observation
+        frameCapacity = capacity + stackLength;
+        for(int channelIdx = 0; channelIdx < numChannels; ++channelIdx) {
+            framesByChannel[channelIdx] = Nd4j.create(dataTypes[channelIdx], frameCapacity, frameLengthByChannel[channelIdx]);
+        }
+    }
+
+    private void addFrame(Observation observation, int frameIdx) {
+        Preconditions.checkArgument(observation.numChannels() == framesByChannel.length,
+                "Expected observations with %s channels, got %s", framesByChannel.length, observation.numChannels());
+
+        int frameSlot = (int)(frameCount % frameCapacity);
+        for(int channelIdx = 0; channelIdx < framesByChannel.length; ++channelIdx) {
+            INDArray channelData = observation.getChannelData(channelIdx);
+            Preconditions.checkArgument(channelData.length() == stackLength * frameLengthByChannel[channelIdx],
+                    "Channel %s: expected %s elements, got %s", channelIdx, stackLength * frameLengthByChannel[channelIdx], channelData.length());
+
+            INDArray frames = channelData.reshape(stackLength, frameLengthByChannel[channelIdx]);
+            framesByChannel[channelIdx].putRow(frameSlot, frames.getRow(frameIdx, true));
+        }
+        ++frameCount;
+
+        // Drop the transitions that need the frame that has just been overwritten
+        long oldestAvailableFrameIdx = frameCount - frameCapacity;
+        while(size > 0 && newestFrameIdxByTransition[head] - (stackLength - 1) < oldestAvailableFrameIdx) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        actions[head] = null;
+        head = (head + 1) % capacity;
+        --size;
+    }
+
+    private Observation buildStack(long newestFrameIdx) {
+        int[] frameSlots = new int[stackLength];
+        for(int i = 0; i < stackLength; ++i) {
+            frameSlots[i] = (int)((newestFrameIdx - stackLength + 1 + i) % frameCapacity);
+        }
+
+        INDArray[] channelsData = new INDArray[framesByChannel.length];
+        for(int channelIdx = 0; channelIdx < framesByChannel.length; ++channelIdx) {
+            channelsData[channelIdx] = Nd4j.pullRows(framesByChannel[channelIdx], 1, frameSlots).reshape(stackShapeByChannel[channelIdx]);
+        }
+
+        return new Observation(channelsData);
+    }
+
+    @SuppressWarnings("unchecked")
+    private A getAction(int slot) {
+        return (A) actions[slot];
+    }
+}
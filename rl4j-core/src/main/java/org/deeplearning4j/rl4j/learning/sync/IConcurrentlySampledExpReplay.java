@@ -0,0 +1,43 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+
+import java.util.List;
+
+/**
+ * An {@link IExpReplay} that can be sampled on a helper thread while transitions are being stored by another thread.
+ * The lock that serializes the calls to {@link #store(StateActionRewardState)} only has to be held while the transitions
+ * of the batch are selected, not while the batch is assembled. (See {@link PrefetchingExpReplay})
+ *
+ * @param <A> The type of actions
+ */
+public interface IConcurrentlySampledExpReplay<A> extends IExpReplay<A> {
+
+    /**
+     * Sample a batch of the designated size while {@link #store(StateActionRewardState)} may be called by other threads.
+     * @param storeLock The lock held by the callers of {@link #store(StateActionRewardState)}. The implementation holds
+     *                  it while reading its cursor and selecting the transitions, and again if it has to re-read the
+     *                  transitions overwritten while the batch was being assembled.
+     * @return a batch of uniformly sampled transitions
+     */
+    List<StateActionRewardState<A>> getBatch(Object storeLock);
+}
@@ -22,7 +22,7 @@ package org.deeplearning4j.rl4j.learning.sync;
 
 import org.deeplearning4j.rl4j.experience.StateActionRewardState;
 
-import java.util.ArrayList;
+import java.util.List;
 
 public interface IExpReplay<A> {
 
@@ -34,7 +34,7 @@ public interface IExpReplay<A> {
     /**
      * @return a batch of uniformly sampled transitions
      */
-    ArrayList<StateActionRewardState<A>> getBatch();
+    List<StateActionRewardState<A>> getBatch();
 
     /**
      *
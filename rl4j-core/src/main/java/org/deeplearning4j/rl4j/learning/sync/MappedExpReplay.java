@@ -0,0 +1,363 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.learning.sync;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import lombok.Getter;
+import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.rng.Random;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * An {@link IExpReplay} whose transitions are stored in a memory-mapped file instead of the heap, so that its capacity
+ * is bounded by the disk rather than the RAM; the OS page cache keeps the recently used parts in memory.<br/>
+ * The file starts with a header page (shapes of the observation channels, capacity, size and write position) followed
+ * by fixed-size records, one per transition: action, terminal flag, reward, then the observation and the next
+ * observation as floats. The records are laid out in a ring split in segments of at most <i>maxSegmentSize</i> bytes,
+ * each one mapped with its own {@link MappedByteBuffer}; a record never straddles two segments. Sampling only reads the
+ * sampled records.<br/>
+ * If the file already exists, it is reopened and the transitions it contains are kept. The capacity must then be the
+ * same as the one it was created with.<br/>
+ * Note: Observations are stored as floats. The header is updated after every stored transition but only written to the
+ * disk when the OS decides to, or when {@link #flush()} or {@link #close()} is called.
+ */
+public class MappedExpReplay implements IExpReplay<Integer>, Closeable {
+
+    public static final long DEFAULT_MAX_SEGMENT_SIZE = 1L << 30;
+
+    private static final int MAGIC = 0x524C344A; // "RL4J"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4096;
+
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SIZE_OFFSET = 12;
+    private static final int NEXT_SLOT_OFFSET = 16;
+    private static final int NUM_CHANNELS_OFFSET = 20;
+    private static final int SHAPES_OFFSET = 24;
+
+    private static final int ACTION_OFFSET = 0;
+    private static final int TERMINAL_OFFSET = 4;
+    private static final int REWARD_OFFSET = 8;
+    private static final int OBSERVATIONS_OFFSET = 16;
+
+    private final int batchSize;
+    private final Random rnd;
+    private final long maxSegmentSize;
+
+    @Getter
+    private final int capacity;
+
+    private final FileChannel fileChannel;
+    private MappedByteBuffer header;
+    private MappedByteBuffer[] segments;
+    private int recordsPerSegment;
+    private int recordSize;
+
+    private long[][] shapeByChannel;
+    private int[] elementLengthByChannel;
+    private int observationLength;
+
+    private int nextSlot;
+
+    /**
+     * The number of transitions currently stored
+     */
+    @Getter
+    private int size;
+
+    private final IntOpenHashSet sampledIndexes = new IntOpenHashSet();
+
+    /**
+     * @param file The file where the transitions are stored. Created if it does not exist, reopened otherwise.
+     * @param capacity The maximum number of transitions kept. When full, the oldest transition is overwritten.
+     * @param batchSize The designated size of the batches returned by {@link #getBatch()}
+     * @param rnd The random generator used to sample the transitions
+     */
+    public MappedExpReplay(Path file, int capacity, int batchSize, Random rnd) throws IOException {
+        this(file, capacity, batchSize, DEFAULT_MAX_SEGMENT_SIZE, rnd);
+    }
+
+    /**
+     * @param file The file where the transitions are stored. Created if it does not exist, reopened otherwise.
+     * @param capacity The maximum number of transitions kept. When full, the oldest transition is overwritten.
+     * @param batchSize The designated size of the batches returned by {@link #getBatch()}
+     * @param maxSegmentSize The maximum size, in bytes, of each mapped segment
+     * @param rnd The random generator used to sample the transitions
+     */
+    public MappedExpReplay(Path file, int capacity, int batchSize, long maxSegmentSize, Random rnd) throws IOException {
+        Preconditions.checkArgument(capacity > 0, "The capacity must be at least 1, got %s", capacity);
+        Preconditions.checkArgument(maxSegmentSize <= Integer.MAX_VALUE, "maxSegmentSize can't be larger than %s, got %s", Integer.MAX_VALUE, maxSegmentSize);
+
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxSegmentSize = maxSegmentSize;
+        this.rnd = rnd;
+
+        fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            header = map(0, HEADER_SIZE);
+
+            // The header is only written with the first transition; a file without it is handled as a new one
+            if(header.getInt(0) != 0) {
+                reopen();
+            }
+        } catch (RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
+    }
+
+    public ArrayList<StateActionRewardState<Integer>> getBatch(int size) {
+        int actualBatchSize = Math.min(this.size, size);
+        ArrayList<StateActionRewardState<Integer>> batch = new ArrayList<>(actualBatchSize);
+
+        float[] buffer = new float[observationLength];
+        sampledIndexes.clear();
+        for(int i = 0; i < actualBatchSize; ++i) {
+            int next = rnd.nextInt(this.size);
+            while(!sampledIndexes.add(next)) {
+                next = rnd.nextInt(this.size);
+            }
+
+            batch.add(readRecord(toSlot(next), buffer));
+        }
+
+        return batch;
+    }
+
+    @Override
+    public ArrayList<StateActionRewardState<Integer>> getBatch() {
+        return getBatch(batchSize);
+    }
+
+    @Override
+    public void store(StateActionRewardState<Integer> stateActionRewardState) {
+        Observation observation = stateActionRewardState.getObservation();
+        Observation nextObservation = stateActionRewardState.getNextObservation();
+        Preconditions.checkArgument(!observation.isSkipped() && nextObservation != null && !nextObservation.isSkipped(),
+                "Only transitions with non-skipped observation and next observation can be stored");
+
+        if(segments == null) {
+            create(observation);
+        }
+
+        ByteBuffer record = getRecord(nextSlot);
+        record.putInt(ACTION_OFFSET, stateActionRewardState.getAction());
+        record.put(TERMINAL_OFFSET, (byte)(stateActionRewardState.isTerminal() ? 1 : 0));
+        record.putDouble(REWARD_OFFSET, stateActionRewardState.getReward());
+        writeObservation(record, OBSERVATIONS_OFFSET, observation);
+        writeObservation(record, OBSERVATIONS_OFFSET + observationLength * Float.BYTES, nextObservation);
+
+        nextSlot = (nextSlot + 1) % capacity;
+        if(size < capacity) {
+            ++size;
+        }
+        header.putInt(NEXT_SLOT_OFFSET, nextSlot);
+        header.putInt(SIZE_OFFSET, size);
+    }
+
+    @Override
+    public int getDesignatedBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public int getBatchSize() {
+        return Math.min(size, batchSize);
+    }
+
+    /**
+     * Force the content of the mapped segments and the header to be written to the disk
+     */
+    public void flush() {
+        if(segments != null) {
+            for(MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+        header.force();
+    }
+
+    /**
+     * Flush and close the file. The mapped segments are released when they are garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        fileChannel.close();
+    }
+
+    private int toSlot(int idx) {
+        return size < capacity
+                ? idx
+                : (nextSlot + idx) % capacity;
+    }
+
+    private void create(Observation observation) {
+        int numChannels = observation.numChannels();
+        long[][] shapes = new long[numChannels][];
+        for(int channelIdx = 0; channelIdx < numChannels; ++channelIdx) {
+            shapes[channelIdx] = observation.getChannelData(channelIdx).shape();
+        }
+        setLayout(shapes);
+
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(CAPACITY_OFFSET, capacity);
+        header.putInt(SIZE_OFFSET, 0);
+        header.putInt(NEXT_SLOT_OFFSET, 0);
+        header.putInt(NUM_CHANNELS_OFFSET, numChannels);
+        int offset = SHAPES_OFFSET;
+        for(long[] shape : shapes) {
+            Preconditions.checkArgument(offset + Integer.BYTES + shape.length * Long.BYTES <= HEADER_SIZE,
+                    "The shapes of the observation channels don't fit in the header");
+            header.putInt(offset, shape.length);
+            offset += Integer.BYTES;
+            for(long dimension : shape) {
+                header.putLong(offset, dimension);
+                offset += Long.BYTES;
+            }
+        }
+
+        mapSegments();
+    }
+
+    private void reopen() {
+        Preconditions.checkState(header.getInt(0) == MAGIC && header.getInt(4) == VERSION, "The file is not a replay memory file or has an unsupported version");
+
+        int fileCapacity = header.getInt(CAPACITY_OFFSET);
+        Preconditions.checkArgument(fileCapacity == capacity, "The file has been created with a capacity of %s, got %s", fileCapacity, capacity);
+
+        int numChannels = header.getInt(NUM_CHANNELS_OFFSET);
+        long[][] shapes = new long[numChannels][];
+        int offset = SHAPES_OFFSET;
+        for(int channelIdx = 0; channelIdx < numChannels; ++channelIdx) {
+            int rank = header.getInt(offset);
+            offset += Integer.BYTES;
+            shapes[channelIdx] = new long[rank];
+            for(int i = 0; i < rank; ++i) {
+                shapes[channelIdx][i] = header.getLong(offset);
+                offset += Long.BYTES;
+            }
+        }
+        setLayout(shapes);
+
+        size = header.getInt(SIZE_OFFSET);
+        nextSlot = header.getInt(NEXT_SLOT_OFFSET);
+
+        mapSegments();
+    }
+
+    private void setLayout(long[][] shapes) {
+        shapeByChannel = shapes;
+        elementLengthByChannel = new int[shapes.length];
+        observationLength = 0;
+        for(int channelIdx = 0; channelIdx < shapes.length; ++channelIdx) {
+            long length = Arrays.stream(shapes[channelIdx]).reduce(1, (a, b) -> a * b);
+            elementLengthByChannel[channelIdx] = (int)length;
+            observationLength += length;
+        }
+
+        recordSize = OBSERVATIONS_OFFSET + 2 * observationLength * Float.BYTES;
+        Preconditions.checkArgument(recordSize <= maxSegmentSize, "A record (%s bytes) does not fit in a segment of %s bytes", recordSize, maxSegmentSize);
+        recordsPerSegment = (int)(maxSegmentSize / recordSize);
+    }
+
+    private void mapSegments() {
+        int numSegments = (capacity + recordsPerSegment - 1) / recordsPerSegment;
+        segments = new MappedByteBuffer[numSegments];
+        long segmentSize = (long)recordsPerSegment * recordSize;
+        for(int segmentIdx = 0; segmentIdx < numSegments; ++segmentIdx) {
+            int recordsInSegment = Math.min(recordsPerSegment, capacity - segmentIdx * recordsPerSegment);
+            segments[segmentIdx] = map(HEADER_SIZE + segmentIdx * segmentSize, (long)recordsInSegment * recordSize);
+        }
+    }
+
+    private MappedByteBuffer map(long position, long size) {
+        try {
+            MappedByteBuffer result = fileChannel.map(FileChannel.MapMode.READ_WRITE, position, size);
+            result.order(ByteOrder.LITTLE_ENDIAN);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ByteBuffer getRecord(int slot) {
+        MappedByteBuffer segment = segments[slot / recordsPerSegment];
+        return segment.slice((slot % recordsPerSegment) * recordSize, recordSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void writeObservation(ByteBuffer record, int offset, Observation observation) {
+        Preconditions.checkArgument(observation.numChannels() == shapeByChannel.length,
+                "Expected observations with %s channels, got %s", shapeByChannel.length, observation.numChannels());
+
+        for(int channelIdx = 0; channelIdx < shapeByChannel.length; ++channelIdx) {
+            INDArray channelData = observation.getChannelData(channelIdx);
+            Preconditions.checkArgument(channelData.length() == elementLengthByChannel[channelIdx],
+                    "Channel %s: expected %s elements, got %s", channelIdx, elementLengthByChannel[channelIdx], channelData.length());
+
+            float[] data = channelData.reshape(channelData.length()).castTo(DataType.FLOAT).toFloatVector();
+            record.asFloatBuffer().put(offset / Float.BYTES, data);
+            offset += data.length * Float.BYTES;
+        }
+    }
+
+    private StateActionRewardState<Integer> readRecord(int slot, float[] buffer) {
+        ByteBuffer record = getRecord(slot);
+
+        StateActionRewardState<Integer> result = new StateActionRewardState<>(readObservation(record, OBSERVATIONS_OFFSET, buffer),
+                record.getInt(ACTION_OFFSET), record.getDouble(REWARD_OFFSET), record.get(TERMINAL_OFFSET) != 0);
+        result.setNextObservation(readObservation(record, OBSERVATIONS_OFFSET + observationLength * Float.BYTES, buffer));
+
+        return result;
+    }
+
+    private Observation readObservation(ByteBuffer record, int offset, float[] buffer) {
+        record.asFloatBuffer().get(offset / Float.BYTES, buffer);
+
+        INDArray[] channelsData = new INDArray[shapeByChannel.length];
+        int bufferOffset = 0;
+        for(int channelIdx = 0; channelIdx < shapeByChannel.length; ++channelIdx) {
+            float[] data = Arrays.copyOfRange(buffer, bufferOffset, bufferOffset + elementLengthByChannel[channelIdx]);
+            channelsData[channelIdx] = Nd4j.create(data, shapeByChannel[channelIdx], DataType.FLOAT);
+            bufferOffset += data.length;
+        }
+
+        return new Observation(channelsData);
+    }
+}
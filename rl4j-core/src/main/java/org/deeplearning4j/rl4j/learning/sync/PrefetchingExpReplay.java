@@ -0,0 +1,128 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.learning.sync;
+
+import lombok.NonNull;
+import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * An {@link IExpReplay} that samples the next batch on a helper thread while the current one is being used, taking
+ * the sampling (and, for {@link ColumnarExpReplay}, the assembly of the features) off the critical path of the update loop.<br/>
+ * {@link #getBatch()} returns the batch prefetched during the previous call, waiting for it if needed, and immediately
+ * starts sampling the next one. The batches of the wrapped replay memory must therefore stay valid until the call after
+ * the next one: {@link ColumnarExpReplay} alternates two batch buffers, the other replay memories return new batches.<br/>
+ * The stores are serialized by a store lock. When the wrapped replay memory is an {@link IConcurrentlySampledExpReplay},
+ * the helper thread holds this lock only while it selects the transitions, so that the agent isn't blocked while a batch
+ * is assembled; otherwise the whole sampling holds it. A prefetched batch doesn't contain the transitions stored after
+ * its selection.<br/>
+ * The helper thread is stopped by {@link #close()}.<br/>
+ * Note: Replay memories whose batches report back to them after they are used ({@link PrioritizedExpReplay}) are not supported.
+ *
+ * @param <A> The type of actions
+ */
+public class PrefetchingExpReplay<A> implements IExpReplay<A>, AutoCloseable {
+
+    private final IExpReplay<A> expReplay;
+    private final ExecutorService prefetchExecutor;
+    private final Object storeLock = new Object();
+
+    private Future<List<StateActionRewardState<A>>> prefetchedBatch;
+
+    /**
+     * @param expReplay The replay memory to sample from
+     */
+    public PrefetchingExpReplay(@NonNull IExpReplay<A> expReplay) {
+        this.expReplay = expReplay;
+
+        prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PrefetchingExpReplay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public int getBatchSize() {
+        synchronized (storeLock) {
+            return expReplay.getBatchSize();
+        }
+    }
+
+    @Override
+    public List<StateActionRewardState<A>> getBatch() {
+        List<StateActionRewardState<A>> result = prefetchedBatch == null
+                ? sample()
+                : awaitPrefetchedBatch();
+
+        prefetchedBatch = prefetchExecutor.submit(this::sample);
+
+        return result;
+    }
+
+    @Override
+    public void store(StateActionRewardState<A> stateActionRewardState) {
+        synchronized (storeLock) {
+            expReplay.store(stateActionRewardState);
+        }
+    }
+
+    @Override
+    public int getDesignatedBatchSize() {
+        return expReplay.getDesignatedBatchSize();
+    }
+
+    /**
+     * Stop the helper thread. The batch being prefetched, if any, is discarded.
+     */
+    @Override
+    public void close() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    private List<StateActionRewardState<A>> sample() {
+        if(expReplay instanceof IConcurrentlySampledExpReplay) {
+            return ((IConcurrentlySampledExpReplay<A>) expReplay).getBatch(storeLock);
+        }
+
+        synchronized (storeLock) {
+            return expReplay.getBatch();
+        }
+    }
+
+    private List<StateActionRewardState<A>> awaitPrefetchedBatch() {
+        try {
+            return prefetchedBatch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.learning.sync;
+
+import lombok.Getter;
+import org.deeplearning4j.rl4j.experience.IPrioritizedBatch;
+import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.rng.Random;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+
+/**
+ * A proportional prioritized experience replay (see <a href="https://arxiv.org/abs/1511.05952">Schaul et al., 2015</a>).<br/>
+ * Transitions are sampled with a probability proportional to their priority, p<sub>i</sub><sup>&alpha;</sup>, using a
+ * {@link SumTree}; both sampling and priority updates are O(log n). New transitions get the highest priority seen so far.<br/>
+ * The batches returned are {@link IPrioritizedBatch} instances; their importance-sampling weights are normalized by the
+ * largest weight of the batch, and {@link IPrioritizedBatch#updatePriorities(double[])} sets the priorities of the
+ * sampled transitions to |&delta;| + &epsilon;. Priorities of transitions that have been overwritten since they were
+ * sampled are not updated.
+ *
+ * @param <A> The type of actions
+ */
+public class PrioritizedExpReplay<A> implements IExpReplay<A> {
+
+    private final int batchSize;
+    private final Random rnd;
+
+    @Getter
+    private final int capacity;
+
+    private final double alpha;
+    private final double betaIncrement;
+    private final double epsilon;
+
+    /**
+     * The current importance-sampling exponent. Annealed towards 1.0 by <i>betaIncrement</i> after every batch.
+     */
+    @Getter
+    private double beta;
+
+    private final StateActionRewardState<A>[] storage;
+    private final long[] generationBySlot;
+    private final SumTree priorities;
+
+    private double maxPriority = 1.0;
+    private long generation = 0;
+    private int nextSlot = 0;
+
+    /**
+     * The number of transitions currently stored
+     */
+    @Getter
+    private int size = 0;
+
+    /**
+     * @param capacity The maximum number of transitions kept. When full, the oldest transition is overwritten.
+     * @param batchSize The designated size of the batches returned by {@link #getBatch()}
+     * @param alpha How much prioritization is used, 0.0 being uniform sampling
+     * @param beta The initial importance-sampling exponent, 1.0 fully compensating the non-uniform sampling
+     * @param betaIncrement How much <i>beta</i> is increased after every batch, up to 1.0
+     * @param epsilon A small value added to the TD errors so that no transition has a priority of 0
+     * @param rnd The random generator used to sample the transitions
+     */
+    @SuppressWarnings("unchecked")
+    public PrioritizedExpReplay(int capacity, int batchSize, double alpha, double beta, double betaIncrement, double epsilon, Random rnd) {
+        Preconditions.checkArgument(capacity > 0, "The capacity must be at least 1, got %s", capacity);
+        Preconditions.checkArgument(alpha >= 0.0, "alpha must be non-negative, got %s", alpha);
+        Preconditions.checkArgument(beta >= 0.0 && beta <= 1.0, "beta must be between 0.0 and 1.0, got %s", beta);
+        Preconditions.checkArgument(epsilon > 0.0, "epsilon must be greater than 0, got %s", epsilon);
+
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.betaIncrement = betaIncrement;
+        this.epsilon = epsilon;
+        this.rnd = rnd;
+
+        storage = new StateActionRewardState[capacity];
+        generationBySlot = new long[capacity];
+        priorities = new SumTree(capacity);
+    }
+
+    /**
+     * Sample a batch with stratified proportional sampling: the total priority is split in <i>size</i> equal segments
+     * and one transition is drawn from each one. A transition can appear more than once in a batch.
+     * @param size The desired size of the batch. The returned batch will be smaller if fewer transitions are stored.
+     * @return The sampled transitions, as a {@link Batch}
+     */
+    public Batch getBatch(int size) {
+        int actualBatchSize = Math.min(this.size, size);
+        Batch batch = new Batch(actualBatchSize);
+        if(actualBatchSize == 0) {
+            return batch;
+        }
+
+        double total = priorities.getTotal();
+        double segmentLength = total / actualBatchSize;
+        double maxWeight = 0.0;
+        for(int i = 0; i < actualBatchSize; ++i) {
+            int slot = priorities.find((i + rnd.nextDouble()) * segmentLength);
+            batch.slots[i] = slot;
+            batch.generations[i] = generationBySlot[slot];
+            batch.add(storage[slot]);
+
+            // w = (N * P(i))^-beta
+            double weight = Math.pow(this.size * priorities.get(slot) / total, -beta);
+            batch.weights[i] = weight;
+            maxWeight = Math.max(maxWeight, weight);
+        }
+
+        for(int i = 0; i < actualBatchSize; ++i) {
+            batch.weights[i] /= maxWeight;
+        }
+
+        beta = Math.min(1.0, beta + betaIncrement);
+
+        return batch;
+    }
+
+    @Override
+    public Batch getBatch() {
+        return getBatch(batchSize);
+    }
+
+    @Override
+    public void store(StateActionRewardState<A> stateActionRewardState) {
+        storage[nextSlot] = stateActionRewardState;
+        generationBySlot[nextSlot] = ++generation;
+        priorities.set(nextSlot, maxPriority);
+
+        nextSlot = (nextSlot + 1) % capacity;
+        if(size < capacity) {
+            ++size;
+        }
+    }
+
+    @Override
+    public int getDesignatedBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public int getBatchSize() {
+        return Math.min(size, batchSize);
+    }
+
+    private void updatePriorities(int[] slots, long[] generations, double[] tdErrors) {
+        Preconditions.checkArgument(tdErrors.length == slots.length, "Expected %s TD errors, got %s", slots.length, tdErrors.length);
+
+        for(int i = 0; i < slots.length; ++i) {
+            int slot = slots[i];
+            if(generationBySlot[slot] != generations[i]) {
+                // The transition has been overwritten since it was sampled
+                continue;
+            }
+
+            double priority = Math.pow(Math.abs(tdErrors[i]) + epsilon, alpha);
+            priorities.set(slot, priority);
+            maxPriority = Math.max(maxPriority, priority);
+        }
+    }
+
+    /**
+     * A batch sampled from a {@link PrioritizedExpReplay}.
+     */
+    public class Batch extends ArrayList<StateActionRewardState<A>> implements IPrioritizedBatch {
+        private final int[] slots;
+        private final long[] generations;
+        private final double[] weights;
+
+        private Batch(int size) {
+            super(size);
+            slots = new int[size];
+            generations = new long[size];
+            weights = new double[size];
+        }
+
+        @Override
+        public INDArray getImportanceSamplingWeights() {
+            return Nd4j.create(weights, new long[] { weights.length, 1 }, Nd4j.defaultFloatingPointType());
+        }
+
+        @Override
+        public void updatePriorities(double[] tdErrors) {
+            PrioritizedExpReplay.this.updatePriorities(slots, generations, tdErrors);
+        }
+    }
+}
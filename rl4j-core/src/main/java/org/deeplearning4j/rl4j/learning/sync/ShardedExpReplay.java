@@ -0,0 +1,213 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.learning.sync;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.rng.Random;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A replay memory shared by several actor threads and sampled by one learner thread.<br/>
+ * The storage is split in shards, one per actor. Each actor gets its shard with {@link #acquireShard()} and is the
+ * only one to append to it, so storing is lock-free: the transition is published in the shard's ring, then the shard's
+ * write count is incremented. {@link #getBatch()} samples uniformly across all the shards.<br/>
+ * Transitions given directly to {@link #store(StateActionRewardState)} go to a shard owned by the calling thread; the
+ * shard is acquired on the first store of that thread, so each shard still has a single writer.<br/>
+ * Note: Sampling is meant to be done by a single thread. A transition can be overwritten by its actor while a batch is
+ * being sampled; the batch then contains the newer transition instead.
+ *
+ * @param <A> The type of actions
+ */
+public class ShardedExpReplay<A> implements IConcurrentlySampledExpReplay<A> {
+
+    private final int batchSize;
+    private final Random rnd;
+
+    private final List<Shard> shards;
+    private final AtomicInteger acquiredShardCount = new AtomicInteger();
+    private final ThreadLocal<Shard> threadShard = ThreadLocal.withInitial(this::acquireNextShard);
+
+    private final IntOpenHashSet sampledIndexes = new IntOpenHashSet();
+
+    /**
+     * @param numShards The number of shards; one per actor thread
+     * @param shardCapacity The maximum number of transitions kept by each shard. When full, the oldest transition of the shard is overwritten.
+     * @param batchSize The designated size of the batches returned by {@link #getBatch()}
+     * @param rnd The random generator used to sample the transitions
+     */
+    public ShardedExpReplay(int numShards, int shardCapacity, int batchSize, Random rnd) {
+        Preconditions.checkArgument(numShards > 0, "numShards must be at least 1, got %s", numShards);
+        Preconditions.checkArgument(shardCapacity > 0, "shardCapacity must be at least 1, got %s", shardCapacity);
+
+        this.batchSize = batchSize;
+        this.rnd = rnd;
+
+        shards = new ArrayList<>(numShards);
+        for(int i = 0; i < numShards; ++i) {
+            shards.add(new Shard(shardCapacity));
+        }
+    }
+
+    /**
+     * Give a shard to an actor thread. Each shard can be acquired only once.
+     * @return An {@link IExpReplay} that appends to the acquired shard and samples from the whole replay memory.
+     */
+    public IExpReplay<A> acquireShard() {
+        return acquireNextShard();
+    }
+
+    private Shard acquireNextShard() {
+        int shardIdx = acquiredShardCount.getAndIncrement();
+        Preconditions.checkState(shardIdx < shards.size(), "All %s shards have already been acquired", shards.size());
+
+        return shards.get(shardIdx);
+    }
+
+    /**
+     * @return The total number of transitions currently stored
+     */
+    public int getSize() {
+        int result = 0;
+        for(Shard shard : shards) {
+            result += shard.size();
+        }
+
+        return result;
+    }
+
+    public ArrayList<StateActionRewardState<A>> getBatch(int size) {
+        // Snapshot the write counts; the shards can keep growing while sampling
+        int numShards = shards.size();
+        long[] writeCounts = new long[numShards];
+        int[] sizes = new int[numShards];
+        int totalSize = 0;
+        for(int i = 0; i < numShards; ++i) {
+            Shard shard = shards.get(i);
+            writeCounts[i] = shard.writeCount.get();
+            sizes[i] = (int)Math.min(writeCounts[i], shard.capacity);
+            totalSize += sizes[i];
+        }
+
+        int actualBatchSize = Math.min(totalSize, size);
+        ArrayList<StateActionRewardState<A>> batch = new ArrayList<>(actualBatchSize);
+
+        sampledIndexes.clear();
+        for(int i = 0; i < actualBatchSize; ++i) {
+            int next = rnd.nextInt(totalSize);
+            while(!sampledIndexes.add(next)) {
+                next = rnd.nextInt(totalSize);
+            }
+
+            int shardIdx = 0;
+            while(next >= sizes[shardIdx]) {
+                next -= sizes[shardIdx++];
+            }
+
+            Shard shard = shards.get(shardIdx);
+            long writeIdx = writeCounts[shardIdx] - sizes[shardIdx] + next;
+            batch.add(shard.get(writeIdx));
+        }
+
+        return batch;
+    }
+
+    @Override
+    public ArrayList<StateActionRewardState<A>> getBatch() {
+        return getBatch(batchSize);
+    }
+
+    /**
+     * The shards are sampled without locking; <i>storeLock</i> is not needed.
+     */
+    @Override
+    public ArrayList<StateActionRewardState<A>> getBatch(Object storeLock) {
+        return getBatch(batchSize);
+    }
+
+    /**
+     * Store the transition in the shard of the calling thread. The first call from a thread acquires a shard for it
+     * (see {@link #acquireShard()}); an exception is thrown if all the shards have already been acquired.
+     */
+    @Override
+    public void store(StateActionRewardState<A> stateActionRewardState) {
+        threadShard.get().store(stateActionRewardState);
+    }
+
+    @Override
+    public int getDesignatedBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public int getBatchSize() {
+        return Math.min(getSize(), batchSize);
+    }
+
+    private class Shard implements IExpReplay<A> {
+        private final int capacity;
+
+        private final AtomicReferenceArray<StateActionRewardState<A>> storage;
+        private final AtomicLong writeCount = new AtomicLong();
+
+        public Shard(int capacity) {
+            this.capacity = capacity;
+            storage = new AtomicReferenceArray<>(capacity);
+        }
+
+        public int size() {
+            return (int)Math.min(writeCount.get(), capacity);
+        }
+
+        public StateActionRewardState<A> get(long writeIdx) {
+            return storage.get((int)(writeIdx % capacity));
+        }
+
+        @Override
+        public void store(StateActionRewardState<A> stateActionRewardState) {
+            // Only the owner of the shard writes; publish the transition before making it visible through the write count
+            long idx = writeCount.get();
+            storage.set((int)(idx % capacity), stateActionRewardState);
+            writeCount.lazySet(idx + 1);
+        }
+
+        @Override
+        public ArrayList<StateActionRewardState<A>> getBatch() {
+            return ShardedExpReplay.this.getBatch();
+        }
+
+        @Override
+        public int getBatchSize() {
+            return ShardedExpReplay.this.getBatchSize();
+        }
+
+        @Override
+        public int getDesignatedBatchSize() {
+            return batchSize;
+        }
+    }
+}
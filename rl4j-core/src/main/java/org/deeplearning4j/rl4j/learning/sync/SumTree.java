@@ -0,0 +1,108 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.learning.sync;
+
+import lombok.Getter;
+import org.nd4j.common.base.Preconditions;
+
+/**
+ * An array-backed sum-tree. Every leaf holds a non-negative value and every internal node holds the sum of its
+ * children. Updating a leaf and finding the leaf at a given cumulative sum are both O(log n).<br/>
+ * The tree is stored in a single array: node <i>i</i> has children <i>2i</i> and <i>2i+1</i>, node 1 is the root and
+ * the leaves start at the first power of two greater or equal to the capacity.
+ */
+public class SumTree {
+
+    @Getter
+    private final int capacity;
+
+    private final int firstLeafIdx;
+    private final double[] nodes;
+
+    /**
+     * @param capacity The number of leaves
+     */
+    public SumTree(int capacity) {
+        Preconditions.checkArgument(capacity > 0, "The capacity must be at least 1, got %s", capacity);
+
+        this.capacity = capacity;
+
+        int leafCount = 1;
+        while(leafCount < capacity) {
+            leafCount <<= 1;
+        }
+        firstLeafIdx = leafCount;
+        nodes = new double[2 * leafCount];
+    }
+
+    /**
+     * @return The sum of all leaves
+     */
+    public double getTotal() {
+        return nodes[1];
+    }
+
+    /**
+     * @param idx The index of the leaf
+     * @return The value of the leaf
+     */
+    public double get(int idx) {
+        return nodes[firstLeafIdx + idx];
+    }
+
+    /**
+     * Set the value of a leaf and update the sums of its ancestors.
+     * @param idx The index of the leaf
+     * @param value The new, non-negative, value
+     */
+    public void set(int idx, double value) {
+        Preconditions.checkArgument(idx >= 0 && idx < capacity, "The index must be between 0 and %s, got %s", capacity - 1, idx);
+        Preconditions.checkArgument(value >= 0.0, "The value must be non-negative, got %s", value);
+
+        // The parents are recomputed from their children instead of adding a delta so that rounding errors don't accumulate
+        int nodeIdx = firstLeafIdx + idx;
+        nodes[nodeIdx] = value;
+        for(nodeIdx >>= 1; nodeIdx > 0; nodeIdx >>= 1) {
+            nodes[nodeIdx] = nodes[nodeIdx << 1] + nodes[(nodeIdx << 1) + 1];
+        }
+    }
+
+    /**
+     * Find the leaf where the cumulative sum of the leaves, from left to right, reaches <i>prefixSum</i>.
+     * Leaves with a value of 0 are never returned, unless all leaves are 0.
+     * @param prefixSum A value between 0 and {@link #getTotal()}
+     * @return The index of the leaf
+     */
+    public int find(double prefixSum) {
+        int nodeIdx = 1;
+        while(nodeIdx < firstLeafIdx) {
+            int leftIdx = nodeIdx << 1;
+            if(prefixSum < nodes[leftIdx] || nodes[leftIdx + 1] == 0.0) {
+                nodeIdx = leftIdx;
+            } else {
+                prefixSum -= nodes[leftIdx];
+                nodeIdx = leftIdx + 1;
+            }
+        }
+
+        return nodeIdx - firstLeafIdx;
+    }
+}
@@ -26,16 +26,14 @@ import org.deeplearning4j.rl4j.environment.*;
 import org.nd4j.linalg.api.rng.Random;
 import org.nd4j.linalg.factory.Nd4j;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
 
-public class CartpoleEnvironment implements Environment<Integer> {
+public class CartpoleEnvironment extends BufferedEnvironment<Integer> {
     private static final int NUM_ACTIONS = 2;
     private static final int ACTION_LEFT = 0;
     private static final int ACTION_RIGHT = 1;
 
-    private final Schema<Integer> schema;
-
     public enum KinematicsIntegrators { Euler, SemiImplicitEuler }
 
     private static final double gravity = 9.8;
@@ -70,13 +68,8 @@ public class CartpoleEnvironment implements Environment<Integer> {
     }
 
     public CartpoleEnvironment(Random rnd) {
+        super(new Schema<Integer>(new IntegerActionSchema(NUM_ACTIONS, ACTION_LEFT, rnd), Collections.singletonList(new ChannelSchema("data", 4))));
         this.rnd = rnd;
-        this.schema = new Schema<Integer>(new IntegerActionSchema(NUM_ACTIONS, ACTION_LEFT, rnd));
-    }
-
-    @Override
-    public Schema<Integer> getSchema() {
-        return schema;
     }
 
     @Override
@@ -89,9 +82,8 @@ public class CartpoleEnvironment implements Environment<Integer> {
         stepsBeyondDone = null;
         episodeFinished = false;
 
-        return new HashMap<String, Object>() {{
-            put("data", new double[]{x, xDot, theta, thetaDot});
-        }};
+        writeObservation();
+        return getChannelsData();
     }
 
     @Override
@@ -135,10 +127,16 @@ public class CartpoleEnvironment implements Environment<Integer> {
             reward = 0;
         }
 
-        Map<String, Object> channelsData = new HashMap<String, Object>() {{
-            put("data", new double[]{x, xDot, theta, thetaDot});
-        }};
-        return new StepResult(channelsData, reward, episodeFinished);
+        writeObservation();
+        return getStepResult(reward, episodeFinished);
+    }
+
+    private void writeObservation() {
+        double[] data = getChannelBuffer(0);
+        data[0] = x;
+        data[1] = xDot;
+        data[2] = theta;
+        data[3] = thetaDot;
     }
 
     @Override
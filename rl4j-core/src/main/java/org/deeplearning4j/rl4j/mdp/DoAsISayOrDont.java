@@ -19,37 +19,36 @@
  */
 package org.deeplearning4j.rl4j.mdp;
 
-import lombok.Getter;
-import org.deeplearning4j.rl4j.environment.Environment;
+import org.deeplearning4j.rl4j.environment.BufferedEnvironment;
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
 import org.deeplearning4j.rl4j.environment.IntegerActionSchema;
 import org.deeplearning4j.rl4j.environment.Schema;
 import org.deeplearning4j.rl4j.environment.StepResult;
 import org.nd4j.linalg.api.rng.Random;
 import org.nd4j.linalg.factory.Nd4j;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
 
-public class DoAsISayOrDont implements Environment<Integer> {
+public class DoAsISayOrDont extends BufferedEnvironment<Integer> {
     private static final int NUM_ACTIONS = 2;
 
-    @Getter
-    private final Schema<Integer> schema;
     private final Random rnd;
 
     private boolean isOpposite;
     private int nextAction;
 
     public DoAsISayOrDont(Random rnd) {
+        super(new Schema<Integer>(new IntegerActionSchema(NUM_ACTIONS, 0, rnd), Collections.singletonList(new ChannelSchema("data", 4))));
         this.rnd = rnd != null ? rnd : Nd4j.getRandom();
-        this.schema = new Schema<Integer>(new IntegerActionSchema(NUM_ACTIONS, 0, rnd));
     }
 
     @Override
     public Map<String, Object> reset() {
         nextAction = rnd.nextBoolean() ? 1 : 0;
         isOpposite = rnd.nextBoolean();
-        return getChannelsData(true);
+        writeObservation(true);
+        return getChannelsData();
     }
 
     @Override
@@ -67,7 +66,8 @@ public class DoAsISayOrDont implements Environment<Integer> {
             isOpposite = !isOpposite;
         }
 
-        return new StepResult(getChannelsData(shouldReverse), reward, false);
+        writeObservation(shouldReverse);
+        return getStepResult(reward, false);
     }
 
     @Override
@@ -81,7 +81,7 @@ public class DoAsISayOrDont implements Environment<Integer> {
 
     }
 
-    private Map<String, Object> getChannelsData(boolean showIndicators) {
+    private void writeObservation(boolean showIndicators) {
         double normalModeIndicator = showIndicators
                 ? (isOpposite ? 0.0 : 1.0)
                 : -1.0;
@@ -89,8 +89,10 @@ public class DoAsISayOrDont implements Environment<Integer> {
                 ? (isOpposite ? 1.0 : 0.0)
                 : -1.0;
 
-        return new HashMap<String, Object>() {{
-            put("data", new double[]{ (double)nextAction, (1.0 - nextAction), normalModeIndicator, oppositeModeIndicator});
-        }};
+        double[] data = getChannelBuffer(0);
+        data[0] = nextAction;
+        data[1] = 1.0 - nextAction;
+        data[2] = normalModeIndicator;
+        data[3] = oppositeModeIndicator;
     }
 }
@@ -21,16 +21,17 @@
 package org.deeplearning4j.rl4j.mdp;
 
 import lombok.Getter;
-import org.deeplearning4j.rl4j.environment.Environment;
+import org.deeplearning4j.rl4j.environment.BufferedEnvironment;
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
 import org.deeplearning4j.rl4j.environment.IntegerActionSchema;
 import org.deeplearning4j.rl4j.environment.Schema;
 import org.deeplearning4j.rl4j.environment.StepResult;
 import org.nd4j.linalg.api.rng.Random;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
 
-public class TMazeEnvironment implements Environment<Integer> {
+public class TMazeEnvironment extends BufferedEnvironment<Integer> {
     private static final double BAD_MOVE_REWARD = -0.1;
     private static final double GOAL_REWARD = 4.0;
     private static final double TRAP_REWARD = -4.0;
@@ -45,9 +46,6 @@ public class TMazeEnvironment implements Environment<Integer> {
     private final int lengthOfMaze;
     private final Random rnd;
 
-    @Getter
-    private final Schema<Integer> schema;
-
     private int currentLocation;
     private boolean hasNavigatedToBranch;
 
@@ -62,10 +60,9 @@ public class TMazeEnvironment implements Environment<Integer> {
     boolean episodeFinished;
 
     public TMazeEnvironment(int lengthOfMaze, Random rnd) {
+        super(new Schema<Integer>(new IntegerActionSchema(NUM_ACTIONS, ACTION_RIGHT, rnd), Collections.singletonList(new ChannelSchema("data", 5))));
         this.lengthOfMaze = lengthOfMaze;
         this.rnd = rnd;
-
-        this.schema = new Schema<Integer>(new IntegerActionSchema(NUM_ACTIONS, ACTION_RIGHT, rnd));
     }
 
     @Override
@@ -76,9 +73,8 @@ public class TMazeEnvironment implements Environment<Integer> {
 
         isSolutionUp = rnd.nextBoolean();
 
-        return new HashMap<String, Object>() {{
-            put("data", new double[] { 1.0, 0.0, 0.0, isSolutionUp ? 1.0 : 0.0, isSolutionUp ? 0.0 : 1.0 });
-        }};
+        writeObservation(1.0, 0.0, 0.0, isSolutionUp ? 1.0 : 0.0, isSolutionUp ? 0.0 : 1.0);
+        return getChannelsData();
     }
 
     @Override
@@ -130,14 +126,22 @@ public class TMazeEnvironment implements Environment<Integer> {
             reward += BRANCH_REWARD;
             hasNavigatedToBranch = true;
         }
-        double[] channelData = isAtJunctionAfterMove
-                ? new double[] { 0.0, 0.0, 1.0, -1.0, -1.0 }
-                : new double[] { 0.0, 1.0, 0.0, -1.0, -1.0 };
-
-        Map<String, Object> channelsData = new HashMap<String, Object>() {{
-            put("data", channelData);
-        }};
-        return new StepResult(channelsData, reward, episodeFinished);
+        if(isAtJunctionAfterMove) {
+            writeObservation(0.0, 0.0, 1.0, -1.0, -1.0);
+        } else {
+            writeObservation(0.0, 1.0, 0.0, -1.0, -1.0);
+        }
+
+        return getStepResult(reward, episodeFinished);
+    }
+
+    private void writeObservation(double isAtStart, double isInCorridor, double isAtJunction, double isSolutionUpIndicator, double isSolutionDownIndicator) {
+        double[] data = getChannelBuffer(0);
+        data[0] = isAtStart;
+        data[1] = isInCorridor;
+        data[2] = isAtJunction;
+        data[3] = isSolutionUpIndicator;
+        data[4] = isSolutionDownIndicator;
     }
 
 
@@ -20,7 +20,8 @@
 package org.deeplearning4j.rl4j.mdp.robotlake;
 
 import lombok.Getter;
-import org.deeplearning4j.rl4j.environment.Environment;
+import org.deeplearning4j.rl4j.environment.BufferedEnvironment;
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
 import org.deeplearning4j.rl4j.environment.IntegerActionSchema;
 import org.deeplearning4j.rl4j.environment.Schema;
 import org.deeplearning4j.rl4j.environment.StepResult;
@@ -30,10 +31,10 @@ import org.deeplearning4j.rl4j.space.ObservationSpace;
 import org.nd4j.linalg.api.rng.Random;
 import org.nd4j.linalg.factory.Nd4j;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
 
-public class RobotLake implements Environment<Integer>  {
+public class RobotLake extends BufferedEnvironment<Integer> {
     private static final double GOAL_REWARD = 10.0;
     private static final double STEPPED_ON_HOLE_REWARD = -2.0;
     private static final double MOVE_AWAY_FROM_GOAL_REWARD = -0.1;
@@ -49,8 +50,8 @@ public class RobotLake implements Environment<Integer>  {
     public static final char HOLE = '@';
     public static final char ICE = ' ';
 
-    @Getter
-    private Schema<Integer> schema;
+    private static final int TRACKER_CHANNEL = 0;
+    private static final int RADAR_CHANNEL = 1;
 
     @Getter
     private boolean episodeFinished = false;
@@ -72,9 +73,10 @@ public class RobotLake implements Environment<Integer>  {
     }
 
     public RobotLake(int size, boolean areStartingPositionsRandom, Random rnd) {
+        super(new Schema<Integer>(new IntegerActionSchema(NUM_ACTIONS, ACTION_LEFT, rnd),
+                Arrays.asList(new ChannelSchema("tracker", 2), new ChannelSchema("radar", 4))));
         state = new RobotLakeState(size, areStartingPositionsRandom, rnd);
         this.size = size;
-        this.schema = new Schema<Integer>(new IntegerActionSchema(NUM_ACTIONS, ACTION_LEFT, rnd));
     }
 
     @Override
@@ -83,6 +85,7 @@ public class RobotLake implements Environment<Integer>  {
         episodeFinished = false;
         goalReached = false;
 
+        writeObservation();
         return getChannelsData();
     }
 
@@ -135,7 +138,8 @@ public class RobotLake implements Environment<Integer>  {
             }
         }
 
-        return new StepResult(getChannelsData(), reward, episodeFinished);
+        writeObservation();
+        return getStepResult(reward, episodeFinished);
     }
 
 
@@ -144,33 +148,30 @@ public class RobotLake implements Environment<Integer>  {
         // Do nothing
     }
 
-    private double[] getTrackerChannelData() {
-        return new double[] {
-                state.getGoalY() - state.getRobotY(),
-                state.getGoalX() - state.getRobotX()
-        };
+    private void writeTrackerChannelData() {
+        double[] tracker = getChannelBuffer(TRACKER_CHANNEL);
+        tracker[0] = state.getGoalY() - state.getRobotY();
+        tracker[1] = state.getGoalX() - state.getRobotX();
     }
 
-    private double[] getRadarChannelData() {
-        return new double[] {
-                // UP Direction
-                state.getRobotY() == 0  || RobotLakeHelper.isLocationSafe(state.getLake(), state.getRobotY() - 1, state.getRobotX()) ? 1.0 : 0.0,
+    private void writeRadarChannelData() {
+        double[] radar = getChannelBuffer(RADAR_CHANNEL);
+
+        // UP Direction
+        radar[0] = state.getRobotY() == 0  || RobotLakeHelper.isLocationSafe(state.getLake(), state.getRobotY() - 1, state.getRobotX()) ? 1.0 : 0.0;
 
-                // RIGHT Direction
-                state.getRobotX() == (size - 1) || RobotLakeHelper.isLocationSafe(state.getLake(), state.getRobotY(), state.getRobotX() + 1) ? 1.0 : 0.0,
+        // RIGHT Direction
+        radar[1] = state.getRobotX() == (size - 1) || RobotLakeHelper.isLocationSafe(state.getLake(), state.getRobotY(), state.getRobotX() + 1) ? 1.0 : 0.0;
 
-                // DOWN Direction
-                state.getRobotY() == (size - 1) || RobotLakeHelper.isLocationSafe(state.getLake(), state.getRobotY() + 1, state.getRobotX()) ? 1.0 : 0.0,
+        // DOWN Direction
+        radar[2] = state.getRobotY() == (size - 1) || RobotLakeHelper.isLocationSafe(state.getLake(), state.getRobotY() + 1, state.getRobotX()) ? 1.0 : 0.0;
 
-                // LEFT Direction
-                state.getRobotX() == 0 || RobotLakeHelper.isLocationSafe(state.getLake(), state.getRobotY(), state.getRobotX() - 1) ? 1.0 : 0.0,
-        };
+        // LEFT Direction
+        radar[3] = state.getRobotX() == 0 || RobotLakeHelper.isLocationSafe(state.getLake(), state.getRobotY(), state.getRobotX() - 1) ? 1.0 : 0.0;
     }
 
-    private Map<String, Object> getChannelsData() {
-        return new HashMap<String, Object>() {{
-            put("tracker", getTrackerChannelData());
-            put("radar", getRadarChannelData());
-        }};
+    private void writeObservation() {
+        writeTrackerChannelData();
+        writeRadarChannelData();
     }
 }
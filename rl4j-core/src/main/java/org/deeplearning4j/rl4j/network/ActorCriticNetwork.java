@@ -52,6 +52,11 @@ public class ActorCriticNetwork extends BaseNetwork<ActorCriticNetwork> {
         return new ActorCriticNetwork(getNetworkHandler().clone(), isCombined);
     }
 
+    @Override
+    public ActorCriticNetwork copyOnWriteClone() {
+        return new ActorCriticNetwork(getNetworkHandler().copyOnWriteClone(), isCombined);
+    }
+
     public static Builder builder() {
         return new Builder();
     }
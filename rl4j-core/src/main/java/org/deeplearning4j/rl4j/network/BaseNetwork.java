@@ -156,6 +156,17 @@ public abstract class BaseNetwork<NET_TYPE extends BaseNetwork>
         networkHandler.copyFrom(from.networkHandler);
     }
 
+    /**
+     * Merge the network parameters of the argument into the current network and clear the cache
+     * @param from The network that will be merged with the current network
+     * @param weight The factor of the parameters of the current network
+     * @param fromWeight The factor of the parameters of <i>from</i>
+     */
+    public void mergeFrom(BaseNetwork from, double weight, double fromWeight) {
+        reset();
+        networkHandler.mergeFrom(from.networkHandler, weight, fromWeight);
+    }
+
     @Value
     protected static class ModelCounters {
         int iterationCount;
@@ -163,4 +174,10 @@ public abstract class BaseNetwork<NET_TYPE extends BaseNetwork>
     }
 
     public abstract NET_TYPE clone();
+
+    /**
+     * @return A clone that uses the parameters of this network, without copying them, until it changes them. Only
+     * its activations, gradients and updater state are its own until then.
+     */
+    public abstract NET_TYPE copyOnWriteClone();
 }
@@ -0,0 +1,261 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.network;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.experimental.SuperBuilder;
+import org.deeplearning4j.rl4j.agent.learning.update.Features;
+import org.deeplearning4j.rl4j.agent.learning.update.FeaturesBuilder;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link IOutputNeuralNet} that can be shared by many threads. The observations passed to {@link #output(Observation)}
+ * by all threads are gathered in batches and each batch is evaluated with a single forward pass of the wrapped network.
+ * A batch is evaluated as soon as it reaches <i>maxBatchSize</i> observations or <i>maxWaitMicros</i> after its first
+ * observation was received, whichever comes first.
+ * <br>
+ * The forward passes are done on a dedicated thread. When built with a {@link VersionedParameterStore}, they are done on
+ * a private copy of the network, refreshed from the latest published snapshot whenever a newer version is available;
+ * no lock is shared with the threads updating the network. Otherwise, they are done while holding the monitor of the
+ * wrapped network, and the threads updating it must hold the same monitor. Recurrent networks are not supported.
+ */
+public class BatchingOutputNeuralNet implements IOutputNeuralNet, AutoCloseable {
+
+    private final IOutputNeuralNet network;
+    private final VersionedParameterStore<ITrainableNeuralNet> parameterStore;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+
+    private final BlockingQueue<Request> pendingRequests = new LinkedBlockingQueue<>();
+    private final FeaturesBuilder featuresBuilder = new FeaturesBuilder(false);
+    private final Thread dispatchThread;
+
+    private volatile boolean isClosed = false;
+
+    // The version of the parameters of the private copy; only used with a parameter store, while holding the monitor of the copy
+    private long evaluatedVersion = -1;
+
+    /**
+     * @param network The network that will evaluate the batches. The threads updating it must hold its monitor.
+     * @param configuration The {@link Configuration} of the batching
+     */
+    public BatchingOutputNeuralNet(@NonNull IOutputNeuralNet network, @NonNull Configuration configuration) {
+        this(network, null, configuration);
+    }
+
+    /**
+     * @param parameterStore The published snapshots of the network to evaluate the batches with
+     * @param configuration The {@link Configuration} of the batching
+     */
+    public BatchingOutputNeuralNet(@NonNull VersionedParameterStore<ITrainableNeuralNet> parameterStore, @NonNull Configuration configuration) {
+        this(parameterStore.getLatest().clone(), parameterStore, configuration);
+    }
+
+    private BatchingOutputNeuralNet(IOutputNeuralNet network, VersionedParameterStore<ITrainableNeuralNet> parameterStore, Configuration configuration) {
+        Preconditions.checkArgument(!network.isRecurrent(), "Recurrent networks are not supported");
+        Preconditions.checkArgument(configuration.getMaxBatchSize() > 0, "Configuration: maxBatchSize must be greater than 0, got %s", configuration.getMaxBatchSize());
+        Preconditions.checkArgument(configuration.getMaxWaitMicros() >= 0, "Configuration: maxWaitMicros must be 0 or greater, got %s", configuration.getMaxWaitMicros());
+
+        this.network = network;
+        this.parameterStore = parameterStore;
+        this.maxBatchSize = configuration.getMaxBatchSize();
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(configuration.getMaxWaitMicros());
+
+        dispatchThread = new Thread(this::dispatch, "BatchingOutputNeuralNet");
+        dispatchThread.setDaemon(true);
+        dispatchThread.start();
+    }
+
+    /**
+     * Wait until the observation has been evaluated as part of a batch.
+     * @param observation An {@link Observation}
+     * @return The output of the network for this observation
+     */
+    @Override
+    public NeuralNetOutput output(Observation observation) {
+        Preconditions.checkState(!isClosed, "The BatchingOutputNeuralNet is closed");
+
+        Request request = new Request(observation);
+        pendingRequests.add(request);
+        if(isClosed) {
+            // Closed while the request was added; it may never be dispatched
+            failPendingRequests();
+        }
+
+        try {
+            return request.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Evaluated immediately, without batching.
+     */
+    @Override
+    public NeuralNetOutput output(INDArray batch) {
+        synchronized (network) {
+            refreshParameters();
+            return network.output(batch);
+        }
+    }
+
+    /**
+     * Evaluated immediately, without batching.
+     */
+    @Override
+    public NeuralNetOutput output(Features features) {
+        synchronized (network) {
+            refreshParameters();
+            return network.output(features);
+        }
+    }
+
+    @Override
+    public void reset() {
+        // Nothing to reset; recurrent networks are not supported
+    }
+
+    @Override
+    public boolean isRecurrent() {
+        return false;
+    }
+
+    /**
+     * Stop the dispatch thread. The requests still pending will fail.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        dispatchThread.interrupt();
+        try {
+            dispatchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failPendingRequests();
+    }
+
+    private void dispatch() {
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!isClosed) {
+                batch.add(pendingRequests.take());
+
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Request request = remaining > 0
+                            ? pendingRequests.poll(remaining, TimeUnit.NANOSECONDS)
+                            : pendingRequests.poll();
+                    if(request == null) {
+                        break;
+                    }
+                    batch.add(request);
+                }
+
+                evaluate(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            for(Request request : batch) {
+                request.result.completeExceptionally(new IllegalStateException("The BatchingOutputNeuralNet was closed"));
+            }
+        }
+    }
+
+    private void evaluate(List<Request> batch) {
+        try {
+            Features features = featuresBuilder.build(batch.stream().map(r -> r.observation), batch.size());
+
+            NeuralNetOutput output;
+            synchronized (network) {
+                refreshParameters();
+                output = network.output(features);
+            }
+
+            for(int i = 0; i < batch.size(); ++i) {
+                batch.get(i).result.complete(output.getExampleOutput(i));
+            }
+        } catch (Throwable t) {
+            for(Request request : batch) {
+                request.result.completeExceptionally(t);
+            }
+        }
+    }
+
+    // Must hold the monitor of the network
+    private void refreshParameters() {
+        if(parameterStore != null && parameterStore.getVersion() != evaluatedVersion) {
+            evaluatedVersion = parameterStore.copyTo((ITrainableNeuralNet) network);
+        }
+    }
+
+    private void failPendingRequests() {
+        Request request;
+        while ((request = pendingRequests.poll()) != null) {
+            request.result.completeExceptionally(new IllegalStateException("The BatchingOutputNeuralNet was closed"));
+        }
+    }
+
+    private static class Request {
+        private final Observation observation;
+        private final CompletableFuture<NeuralNetOutput> result = new CompletableFuture<>();
+
+        private Request(Observation observation) {
+            this.observation = observation;
+        }
+    }
+
+    @SuperBuilder
+    @Data
+    public static class Configuration {
+        /**
+         * The maximum number of observations evaluated in a single forward pass. Default is 32
+         */
+        @Builder.Default
+        private int maxBatchSize = 32;
+
+        /**
+         * How long, in microseconds, to wait for more observations after the first observation of a batch is received.
+         * Default is 100
+         */
+        @Builder.Default
+        private long maxWaitMicros = 100;
+    }
+}
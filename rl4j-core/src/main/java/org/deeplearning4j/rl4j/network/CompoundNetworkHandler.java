@@ -138,10 +138,27 @@ public class CompoundNetworkHandler implements INetworkHandler {
         return new CompoundNetworkHandler(clonedHandlers);
     }
 
+    @Override
+    public INetworkHandler copyOnWriteClone() {
+        INetworkHandler[] clonedHandlers = new INetworkHandler[networkHandlers.length];
+        for(int i = 0; i < networkHandlers.length; ++i) {
+            clonedHandlers[i] = networkHandlers[i].copyOnWriteClone();
+        }
+
+        return new CompoundNetworkHandler(clonedHandlers);
+    }
+
     @Override
     public void copyFrom(INetworkHandler from) {
         for(int i = 0; i < networkHandlers.length; ++i) {
             networkHandlers[i].copyFrom(((CompoundNetworkHandler) from).networkHandlers[i]);
         }
     }
+
+    @Override
+    public void mergeFrom(INetworkHandler from, double weight, double fromWeight) {
+        for(int i = 0; i < networkHandlers.length; ++i) {
+            networkHandlers[i].mergeFrom(((CompoundNetworkHandler) from).networkHandlers[i], weight, fromWeight);
+        }
+    }
 }
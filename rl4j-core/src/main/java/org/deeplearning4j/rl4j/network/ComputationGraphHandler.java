@@ -32,6 +32,8 @@ import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
 import org.deeplearning4j.rl4j.observation.Observation;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
+import java.util.Arrays;
+
 public class ComputationGraphHandler implements INetworkHandler {
 
     private final ComputationGraph model;
@@ -109,14 +111,27 @@ public class ComputationGraphHandler implements INetworkHandler {
 
     @Override
     public void performFit(FeaturesLabels featuresLabels) {
-        model.fit(buildInputs(featuresLabels.getFeatures()), buildLabels(featuresLabels));
+        INDArray[] labelsMasks = buildLabelsMasks(featuresLabels);
+        if(labelsMasks == null) {
+            model.fit(buildInputs(featuresLabels.getFeatures()), buildLabels(featuresLabels));
+        } else {
+            model.fit(buildInputs(featuresLabels.getFeatures()), buildLabels(featuresLabels), null, labelsMasks);
+        }
     }
 
     @Override
     public void performGradientsComputation(FeaturesLabels featuresLabels) {
         model.setInputs(buildInputs(featuresLabels.getFeatures()));
         model.setLabels(buildLabels(featuresLabels));
-        model.computeGradientAndScore();
+
+        INDArray[] labelsMasks = buildLabelsMasks(featuresLabels);
+        if(labelsMasks == null) {
+            model.computeGradientAndScore();
+        } else {
+            model.setLayerMaskArrays(null, labelsMasks);
+            model.computeGradientAndScore();
+            model.clearLayerMaskArrays();
+        }
     }
 
     @Override
@@ -134,6 +149,19 @@ public class ComputationGraphHandler implements INetworkHandler {
         return  result;
     }
 
+    // The sample weights are used as a per-example mask on every label; the mask multiplies the loss of each example.
+    private INDArray[] buildLabelsMasks(FeaturesLabels featuresLabels) {
+        INDArray sampleWeights = featuresLabels.getSampleWeights();
+        if(sampleWeights == null) {
+            return null;
+        }
+
+        INDArray[] result = new INDArray[labelNames.length];
+        Arrays.fill(result, sampleWeights);
+
+        return result;
+    }
+
     private BaseNetwork.ModelCounters getModelCounters() {
         return new BaseNetwork.ModelCounters(configuration.getIterationCount(), configuration.getEpochCount());
     }
@@ -176,9 +204,30 @@ public class ComputationGraphHandler implements INetworkHandler {
         return new ComputationGraphHandler(model.clone(), labelNames, gradientName, inputFeatureIdx);
     }
 
+    @Override
+    public INetworkHandler copyOnWriteClone() {
+        // A model of its own (activations, gradients, updater), built on the parameters array of this model
+        ComputationGraph sharedParamsModel = new ComputationGraph(configuration.clone());
+        sharedParamsModel.init(model.params(), false);
+
+        INetworkHandler sharedParamsHandler = channelToNetworkInputMapper != null
+                ? new ComputationGraphHandler(sharedParamsModel, labelNames, gradientName, channelToNetworkInputMapper)
+                : new ComputationGraphHandler(sharedParamsModel, labelNames, gradientName, inputFeatureIdx);
+        return new CopyOnWriteNetworkHandler(sharedParamsHandler);
+    }
+
     @Override
     public void copyFrom(INetworkHandler from) {
-        model.setParams(((ComputationGraphHandler) from).model.params());
+        model.setParams(((ComputationGraphHandler) CopyOnWriteNetworkHandler.unwrap(from)).model.params());
+    }
+
+    @Override
+    public void mergeFrom(INetworkHandler from, double weight, double fromWeight) {
+        INDArray params = model.params();
+        if(weight != 1.0) {
+            params.muli(weight);
+        }
+        params.addi(((ComputationGraphHandler) CopyOnWriteNetworkHandler.unwrap(from)).model.params().mul(fromWeight));
     }
 
 
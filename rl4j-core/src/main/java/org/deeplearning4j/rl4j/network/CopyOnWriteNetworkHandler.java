@@ -0,0 +1,158 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.network;
+
+import lombok.Getter;
+import org.deeplearning4j.rl4j.agent.learning.update.Features;
+import org.deeplearning4j.rl4j.agent.learning.update.FeaturesLabels;
+import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * A {@link INetworkHandler} that starts with a handler whose model uses the parameters of another network (see
+ * {@link INetworkHandler#copyOnWriteClone()}) and only copies them the first time it changes them: when fitting,
+ * applying gradients, copying or merging parameters. The outputs and the gradient computations read the shared
+ * parameters; they see the changes made to the other network until the copy.
+ * <br>
+ * The first {@link #copyFrom(INetworkHandler)} copies the parameters of the source only once, into a clone of the
+ * source; the following ones copy into that same clone.
+ */
+public class CopyOnWriteNetworkHandler implements INetworkHandler {
+
+    private INetworkHandler handler;
+
+    /**
+     * True once the parameters have been copied; the handler doesn't share anything with the other network anymore.
+     */
+    @Getter
+    private boolean materialized = false;
+
+    /**
+     * @param sharedParamsHandler A handler whose model uses the parameters of another network
+     */
+    public CopyOnWriteNetworkHandler(INetworkHandler sharedParamsHandler) {
+        this.handler = sharedParamsHandler;
+    }
+
+    /**
+     * @param networkHandler Any {@link INetworkHandler}
+     * @return The handler wrapped by <i>networkHandler</i> if it is a CopyOnWriteNetworkHandler, <i>networkHandler</i> otherwise
+     */
+    public static INetworkHandler unwrap(INetworkHandler networkHandler) {
+        return networkHandler instanceof CopyOnWriteNetworkHandler
+                ? ((CopyOnWriteNetworkHandler) networkHandler).handler
+                : networkHandler;
+    }
+
+    private INetworkHandler getWritableHandler() {
+        if(!materialized) {
+            handler = handler.clone();
+            materialized = true;
+        }
+
+        return handler;
+    }
+
+    @Override
+    public boolean isRecurrent() {
+        return handler.isRecurrent();
+    }
+
+    @Override
+    public void notifyGradientCalculation() {
+        handler.notifyGradientCalculation();
+    }
+
+    @Override
+    public void notifyIterationDone() {
+        handler.notifyIterationDone();
+    }
+
+    @Override
+    public void performFit(FeaturesLabels featuresLabels) {
+        getWritableHandler().performFit(featuresLabels);
+    }
+
+    @Override
+    public void performGradientsComputation(FeaturesLabels featuresLabels) {
+        handler.performGradientsComputation(featuresLabels);
+    }
+
+    @Override
+    public void fillGradientsResponse(Gradients gradients) {
+        handler.fillGradientsResponse(gradients);
+    }
+
+    @Override
+    public void applyGradient(Gradients gradients, long batchSize) {
+        getWritableHandler().applyGradient(gradients, batchSize);
+    }
+
+    @Override
+    public INDArray[] recurrentStepOutput(Observation observation) {
+        return handler.recurrentStepOutput(observation);
+    }
+
+    @Override
+    public INDArray[] stepOutput(Observation observation) {
+        return handler.stepOutput(observation);
+    }
+
+    @Override
+    public INDArray[] batchOutput(Features features) {
+        return handler.batchOutput(features);
+    }
+
+    @Override
+    public void resetState() {
+        handler.resetState();
+    }
+
+    @Override
+    public INetworkHandler clone() {
+        return handler.clone();
+    }
+
+    @Override
+    public INetworkHandler copyOnWriteClone() {
+        return handler.copyOnWriteClone();
+    }
+
+    /**
+     * Copy the parameters of <i>from</i>. Before the parameters are materialized, <i>from</i> is cloned instead of this
+     * handler, so that they are copied only once.
+     */
+    @Override
+    public void copyFrom(INetworkHandler from) {
+        if(!materialized) {
+            handler = unwrap(from).clone();
+            materialized = true;
+            return;
+        }
+
+        handler.copyFrom(from);
+    }
+
+    @Override
+    public void mergeFrom(INetworkHandler from, double weight, double fromWeight) {
+        getWritableHandler().mergeFrom(from, weight, fromWeight);
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.network;
+
+import lombok.NonNull;
+import org.deeplearning4j.nn.gradient.DefaultGradient;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.rl4j.agent.learning.update.Features;
+import org.deeplearning4j.rl4j.agent.learning.update.FeaturesLabels;
+import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
+import org.deeplearning4j.rl4j.network.configuration.DQNDenseNetworkConfiguration;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.shape.Shape;
+import org.nd4j.linalg.api.rng.Random;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.learning.config.Adam;
+import org.nd4j.linalg.learning.config.IUpdater;
+
+import java.util.Arrays;
+
+/**
+ * A Q-Network for small dense feed-forward networks, implemented in plain Java on primitive arrays. For networks of a
+ * few thousand parameters, the cost of evaluating a single observation with ND4J is mostly op dispatch and native calls;
+ * this implementation avoids them and does not allocate while fitting.
+ * <br>
+ * The architecture is the one of {@link org.deeplearning4j.rl4j.network.dqn.DQNFactoryStdDense DQNFactoryStdDense}:
+ * <i>numLayers</i> ReLU layers of <i>numHiddenNodes</i>, an identity output layer, MSE loss, Xavier weight initialization
+ * and an {@link Adam} updater, with L2 regularization of the weights. The input must be a single channel of rank 2.
+ * <br>
+ * The result of {@link #output(Observation)} is reused by the next call with a different observation.
+ */
+public class DenseQNetwork implements ITrainableNeuralNet<DenseQNetwork> {
+
+    private final int[] layerSizes;
+    private final int numLayers;
+    private final int[] weightOffsets;
+    private final int[] biasOffsets;
+
+    private final double learningRate;
+    private final double beta1;
+    private final double beta2;
+    private final double epsilon;
+    private final double l2;
+
+    private final float[] params;
+    private final float[] gradients;
+    private final float[] adamM;
+    private final float[] adamV;
+    private int iterationCount = 0;
+
+    // Scratch buffers, grown as needed to fit the largest batch seen
+    private int scratchBatchSize = 0;
+    private final float[][] activations;
+    private final float[][] deltas;
+    private float[] labels;
+    private float[] sampleWeights;
+
+    // Single-observation output, reused
+    private final INDArray observationOutputArray;
+    private final NeuralNetOutput observationOutput = new NeuralNetOutput();
+    private Observation cachedObservation;
+
+    /**
+     * @param numInputs The size of the input
+     * @param numOutputs The number of actions
+     * @param configuration The configuration of the network. The updater must be null (default {@link Adam}) or an {@link Adam}.
+     * @param rnd The random generator used to initialize the weights. If null, Nd4j.getRandom() is used.
+     */
+    public DenseQNetwork(int numInputs, int numOutputs, @NonNull DQNDenseNetworkConfiguration configuration, Random rnd) {
+        Preconditions.checkArgument(numInputs > 0, "numInputs must be greater than 0, got %s", numInputs);
+        Preconditions.checkArgument(numOutputs > 0, "numOutputs must be greater than 0, got %s", numOutputs);
+        Preconditions.checkArgument(configuration.getNumLayers() > 0, "Configuration: numLayers must be greater than 0, got %s", configuration.getNumLayers());
+        Preconditions.checkArgument(configuration.getNumHiddenNodes() > 0, "Configuration: numHiddenNodes must be greater than 0, got %s", configuration.getNumHiddenNodes());
+
+        IUpdater updater = configuration.getUpdater() != null ? configuration.getUpdater() : new Adam();
+        Preconditions.checkArgument(updater instanceof Adam, "Only the Adam updater is supported, got %s", updater.getClass().getSimpleName());
+        Adam adam = (Adam) updater;
+        Preconditions.checkArgument(adam.getLearningRateSchedule() == null, "Learning rate schedules are not supported");
+
+        learningRate = adam.getLearningRate();
+        beta1 = adam.getBeta1();
+        beta2 = adam.getBeta2();
+        epsilon = adam.getEpsilon();
+        l2 = configuration.getL2();
+
+        numLayers = configuration.getNumLayers() + 1;
+        layerSizes = new int[numLayers + 1];
+        layerSizes[0] = numInputs;
+        Arrays.fill(layerSizes, 1, numLayers, configuration.getNumHiddenNodes());
+        layerSizes[numLayers] = numOutputs;
+
+        weightOffsets = new int[numLayers];
+        biasOffsets = new int[numLayers];
+        int numParams = 0;
+        for(int layer = 0; layer < numLayers; ++layer) {
+            weightOffsets[layer] = numParams;
+            numParams += layerSizes[layer] * layerSizes[layer + 1];
+            biasOffsets[layer] = numParams;
+            numParams += layerSizes[layer + 1];
+        }
+
+        params = new float[numParams];
+        gradients = new float[numParams];
+        adamM = new float[numParams];
+        adamV = new float[numParams];
+        activations = new float[numLayers + 1][];
+        deltas = new float[numLayers + 1][];
+        observationOutputArray = Nd4j.create(DataType.FLOAT, 1, numOutputs);
+        observationOutput.put(CommonOutputNames.QValues, observationOutputArray);
+
+        initWeights(rnd == null ? Nd4j.getRandom() : rnd);
+    }
+
+    private DenseQNetwork(DenseQNetwork from) {
+        layerSizes = from.layerSizes;
+        numLayers = from.numLayers;
+        weightOffsets = from.weightOffsets;
+        biasOffsets = from.biasOffsets;
+        learningRate = from.learningRate;
+        beta1 = from.beta1;
+        beta2 = from.beta2;
+        epsilon = from.epsilon;
+        l2 = from.l2;
+
+        params = from.params.clone();
+        gradients = new float[params.length];
+        adamM = from.adamM.clone();
+        adamV = from.adamV.clone();
+        iterationCount = from.iterationCount;
+
+        activations = new float[numLayers + 1][];
+        deltas = new float[numLayers + 1][];
+        observationOutputArray = Nd4j.create(DataType.FLOAT, 1, layerSizes[numLayers]);
+        observationOutput.put(CommonOutputNames.QValues, observationOutputArray);
+    }
+
+    // Xavier: N(0, 2 / (fanIn + fanOut)), zero biases
+    private void initWeights(Random rnd) {
+        for(int layer = 0; layer < numLayers; ++layer) {
+            int fanIn = layerSizes[layer];
+            int fanOut = layerSizes[layer + 1];
+            double stdDev = Math.sqrt(2.0 / (fanIn + fanOut));
+            for(int i = weightOffsets[layer]; i < biasOffsets[layer]; ++i) {
+                params[i] = (float) (rnd.nextGaussian() * stdDev);
+            }
+        }
+    }
+
+    /**
+     * @return The number of parameters (weights and biases) of the network
+     */
+    public int getNumParameters() {
+        return params.length;
+    }
+
+    @Override
+    public NeuralNetOutput output(Observation observation) {
+        if(observation != cachedObservation) {
+            ensureScratchCapacity(1);
+            copyToArray(observation.getChannelData(0), activations[0], layerSizes[0]);
+            forward(1);
+
+            float[] output = activations[numLayers];
+            DataBuffer outputBuffer = observationOutputArray.data();
+            for(int i = 0; i < layerSizes[numLayers]; ++i) {
+                outputBuffer.put(i, output[i]);
+            }
+            cachedObservation = observation;
+        }
+
+        return observationOutput;
+    }
+
+    @Override
+    public NeuralNetOutput output(INDArray batch) {
+        return output(new Features(new INDArray[] { batch }));
+    }
+
+    @Override
+    public NeuralNetOutput output(Features features) {
+        int batchSize = (int) features.getBatchSize();
+        ensureScratchCapacity(batchSize);
+        copyToArray(features.get(0), activations[0], batchSize * layerSizes[0]);
+        forward(batchSize);
+
+        float[] output = Arrays.copyOf(activations[numLayers], batchSize * layerSizes[numLayers]);
+        NeuralNetOutput result = new NeuralNetOutput();
+        result.put(CommonOutputNames.QValues, Nd4j.create(output, new long[] { batchSize, layerSizes[numLayers] }, DataType.FLOAT));
+
+        return result;
+    }
+
+    @Override
+    public void fit(FeaturesLabels featuresLabels) {
+        int batchSize = backward(featuresLabels);
+        applyUpdate(batchSize);
+    }
+
+    @Override
+    public Gradients computeGradients(FeaturesLabels featuresLabels) {
+        int batchSize = backward(featuresLabels);
+
+        Gradients result = new Gradients(batchSize);
+        INDArray flattenedGradients = Nd4j.create(gradients.clone(), new long[] { 1, gradients.length }, DataType.FLOAT);
+        result.putGradient(CommonGradientNames.QValues, new DefaultGradient(flattenedGradients));
+
+        return result;
+    }
+
+    @Override
+    public void applyGradients(Gradients gradients) {
+        Gradient gradient = gradients.getGradient(CommonGradientNames.QValues);
+        copyToArray(gradient.gradient(), this.gradients, this.gradients.length);
+        applyUpdate((int) gradients.getBatchSize());
+    }
+
+    @Override
+    public void copyFrom(DenseQNetwork from) {
+        Preconditions.checkArgument(from.params.length == params.length, "The networks do not have the same number of parameters: %s and %s", from.params.length, params.length);
+        reset();
+        System.arraycopy(from.params, 0, params, 0, params.length);
+    }
+
+    @Override
+    public void mergeFrom(DenseQNetwork from, double weight, double fromWeight) {
+        Preconditions.checkArgument(from.params.length == params.length, "The networks do not have the same number of parameters: %s and %s", from.params.length, params.length);
+        reset();
+        for(int i = 0; i < params.length; ++i) {
+            params[i] = (float) (weight * params[i] + fromWeight * from.params[i]);
+        }
+    }
+
+    @Override
+    public DenseQNetwork clone() {
+        return new DenseQNetwork(this);
+    }
+
+    @Override
+    public void reset() {
+        cachedObservation = null;
+    }
+
+    @Override
+    public boolean isRecurrent() {
+        return false;
+    }
+
+    private void ensureScratchCapacity(int batchSize) {
+        if(batchSize <= scratchBatchSize) {
+            return;
+        }
+
+        for(int layer = 0; layer <= numLayers; ++layer) {
+            activations[layer] = new float[batchSize * layerSizes[layer]];
+            deltas[layer] = new float[batchSize * layerSizes[layer]];
+        }
+        labels = new float[batchSize * layerSizes[numLayers]];
+        sampleWeights = new float[batchSize];
+        scratchBatchSize = batchSize;
+    }
+
+    private void forward(int batchSize) {
+        for(int layer = 0; layer < numLayers; ++layer) {
+            int numIn = layerSizes[layer];
+            int numOut = layerSizes[layer + 1];
+            int weightOffset = weightOffsets[layer];
+            int biasOffset = biasOffsets[layer];
+            boolean isHidden = layer < numLayers - 1;
+            float[] in = activations[layer];
+            float[] out = activations[layer + 1];
+
+            for(int n = 0; n < batchSize; ++n) {
+                int inOffset = n * numIn;
+                for(int j = 0; j < numOut; ++j) {
+                    int w = weightOffset + j * numIn;
+                    float sum = params[biasOffset + j];
+                    for(int i = 0; i < numIn; ++i) {
+                        sum += in[inOffset + i] * params[w + i];
+                    }
+                    out[n * numOut + j] = isHidden && sum < 0.0f ? 0.0f : sum;
+                }
+            }
+        }
+    }
+
+    // Computes the gradients of the MSE loss, summed over the batch, in the gradients array
+    private int backward(FeaturesLabels featuresLabels) {
+        int batchSize = (int) featuresLabels.getBatchSize();
+        int numOutputs = layerSizes[numLayers];
+
+        ensureScratchCapacity(batchSize);
+        copyToArray(featuresLabels.getFeatures().get(0), activations[0], batchSize * layerSizes[0]);
+        copyToArray(featuresLabels.getLabels(CommonLabelNames.QValues), labels, batchSize * numOutputs);
+        INDArray sampleWeightsArray = featuresLabels.getSampleWeights();
+        if(sampleWeightsArray != null) {
+            copyToArray(sampleWeightsArray, sampleWeights, batchSize);
+        } else {
+            Arrays.fill(sampleWeights, 0, batchSize, 1.0f);
+        }
+
+        forward(batchSize);
+
+        float[] output = activations[numLayers];
+        float[] outputDelta = deltas[numLayers];
+        float lossScale = 2.0f / numOutputs;
+        for(int n = 0; n < batchSize; ++n) {
+            for(int j = 0; j < numOutputs; ++j) {
+                int idx = n * numOutputs + j;
+                outputDelta[idx] = lossScale * sampleWeights[n] * (output[idx] - labels[idx]);
+            }
+        }
+
+        Arrays.fill(gradients, 0.0f);
+        for(int layer = numLayers - 1; layer >= 0; --layer) {
+            int numIn = layerSizes[layer];
+            int numOut = layerSizes[layer + 1];
+            int weightOffset = weightOffsets[layer];
+            int biasOffset = biasOffsets[layer];
+            float[] in = activations[layer];
+            float[] delta = deltas[layer + 1];
+            float[] inDelta = deltas[layer];
+            boolean propagate = layer > 0;
+
+            if(propagate) {
+                Arrays.fill(inDelta, 0, batchSize * numIn, 0.0f);
+            }
+
+            for(int n = 0; n < batchSize; ++n) {
+                int inOffset = n * numIn;
+                for(int j = 0; j < numOut; ++j) {
+                    float d = delta[n * numOut + j];
+                    if(d == 0.0f) {
+                        continue;
+                    }
+
+                    int w = weightOffset + j * numIn;
+                    gradients[biasOffset + j] += d;
+                    for(int i = 0; i < numIn; ++i) {
+                        gradients[w + i] += d * in[inOffset + i];
+                    }
+                    if(propagate) {
+                        for(int i = 0; i < numIn; ++i) {
+                            inDelta[inOffset + i] += d * params[w + i];
+                        }
+                    }
+                }
+            }
+
+            // Derivative of the ReLU of the previous layer
+            if(propagate) {
+                for(int i = 0; i < batchSize * numIn; ++i) {
+                    if(in[i] <= 0.0f) {
+                        inDelta[i] = 0.0f;
+                    }
+                }
+            }
+        }
+
+        return batchSize;
+    }
+
+    // Averages the gradients over the batch, adds the L2 regularization, and performs an Adam step
+    private void applyUpdate(int batchSize) {
+        cachedObservation = null;
+        ++iterationCount;
+
+        double alpha = learningRate * Math.sqrt(1.0 - Math.pow(beta2, iterationCount)) / (1.0 - Math.pow(beta1, iterationCount));
+        float inverseBatchSize = 1.0f / batchSize;
+        for(int layer = 0; layer < numLayers; ++layer) {
+            int biasOffset = biasOffsets[layer];
+            int end = biasOffset + layerSizes[layer + 1];
+            for(int i = weightOffsets[layer]; i < end; ++i) {
+                float g = gradients[i] * inverseBatchSize;
+                if(l2 > 0.0 && i < biasOffset) {
+                    g += (float) l2 * params[i];
+                }
+
+                adamM[i] = (float) (beta1 * adamM[i] + (1.0 - beta1) * g);
+                adamV[i] = (float) (beta2 * adamV[i] + (1.0 - beta2) * g * g);
+                params[i] -= (float) (alpha * adamM[i] / (Math.sqrt(adamV[i]) + epsilon));
+            }
+        }
+    }
+
+    private static void copyToArray(INDArray source, float[] destination, int length) {
+        Preconditions.checkArgument(source.length() == length, "Expected an array of %s elements, got shape %s", length, Arrays.toString(source.shape()));
+
+        // Row-range views (such as the halves of a stacked batch) are contiguous as well and can be read directly
+        if(source.ordering() == 'c' && Shape.hasDefaultStridesForShape(source)) {
+            DataBuffer buffer = source.data();
+            long offset = source.offset();
+            for(int i = 0; i < length; ++i) {
+                destination[i] = buffer.getFloat(offset + i);
+            }
+        } else {
+            for(int i = 0; i < length; ++i) {
+                destination[i] = source.getFloat(i);
+            }
+        }
+    }
+}
@@ -95,9 +95,23 @@ public interface INetworkHandler {
      */
     INetworkHandler clone();
 
+    /**
+     * @return A copy that uses the parameters of the current instance, without copying them, until it changes them.
+     * (See {@link CopyOnWriteNetworkHandler})
+     */
+    INetworkHandler copyOnWriteClone();
+
     /**
      * Copies the parameter of another network to the instance.
      * @param from
      */
     void copyFrom(INetworkHandler from);
+
+    /**
+     * Changes the parameters of the instance to <i>weight</i> * its parameters + <i>fromWeight</i> * the parameters of another network.
+     * @param from
+     * @param weight
+     * @param fromWeight
+     */
+    void mergeFrom(INetworkHandler from, double weight, double fromWeight);
 }
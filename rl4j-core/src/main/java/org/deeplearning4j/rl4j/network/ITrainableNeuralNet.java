@@ -48,6 +48,15 @@ public interface ITrainableNeuralNet<NET_TYPE extends ITrainableNeuralNet> exten
      */
     void copyFrom(NET_TYPE from);
 
+    /**
+     * Changes the parameters of this instance to <i>weight</i> * its parameters + <i>fromWeight</i> * the parameters
+     * of the <i>from</i> network.
+     * @param from The network to merge with this instance; must have the same architecture.
+     * @param weight The factor of the parameters of this instance
+     * @param fromWeight The factor of the parameters of <i>from</i>
+     */
+    void mergeFrom(NET_TYPE from, double weight, double fromWeight);
+
     /**
      * Creates a clone of the network instance.
      */
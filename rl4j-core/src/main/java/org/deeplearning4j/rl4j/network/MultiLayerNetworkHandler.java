@@ -91,14 +91,29 @@ public class MultiLayerNetworkHandler implements INetworkHandler {
     public void performFit(FeaturesLabels featuresLabels) {
         INDArray features = featuresLabels.getFeatures().get(inputFeatureIdx);
         INDArray labels = featuresLabels.getLabels(labelName);
-        model.fit(features, labels);
+        INDArray sampleWeights = featuresLabels.getSampleWeights();
+        if(sampleWeights == null) {
+            model.fit(features, labels);
+        } else {
+            // A per-example labels mask multiplies the loss of each example
+            model.fit(features, labels, null, sampleWeights);
+        }
     }
 
     @Override
     public void performGradientsComputation(FeaturesLabels featuresLabels) {
         model.setInput(featuresLabels.getFeatures().get(inputFeatureIdx));
         model.setLabels(featuresLabels.getLabels(labelName));
-        model.computeGradientAndScore();
+
+        INDArray sampleWeights = featuresLabels.getSampleWeights();
+        if(sampleWeights == null) {
+            model.computeGradientAndScore();
+        } else {
+            // A per-example labels mask multiplies the loss of each example
+            model.setLayerMaskArrays(null, sampleWeights);
+            model.computeGradientAndScore();
+            model.clearLayerMaskArrays();
+        }
     }
 
     private BaseNetwork.ModelCounters getModelCounters() {
@@ -140,9 +155,27 @@ public class MultiLayerNetworkHandler implements INetworkHandler {
         return new MultiLayerNetworkHandler(model.clone(), labelName, gradientName, inputFeatureIdx);
     }
 
+    @Override
+    public INetworkHandler copyOnWriteClone() {
+        // A model of its own (activations, gradients, updater), built on the parameters array of this model
+        MultiLayerNetwork sharedParamsModel = new MultiLayerNetwork(configuration.clone());
+        sharedParamsModel.init(model.params(), false);
+
+        return new CopyOnWriteNetworkHandler(new MultiLayerNetworkHandler(sharedParamsModel, labelName, gradientName, inputFeatureIdx));
+    }
+
     @Override
     public void copyFrom(INetworkHandler from) {
-        model.setParams(((MultiLayerNetworkHandler) from).model.params());
+        model.setParams(((MultiLayerNetworkHandler) CopyOnWriteNetworkHandler.unwrap(from)).model.params());
+    }
+
+    @Override
+    public void mergeFrom(INetworkHandler from, double weight, double fromWeight) {
+        INDArray params = model.params();
+        if(weight != 1.0) {
+            params.muli(weight);
+        }
+        params.addi(((MultiLayerNetworkHandler) CopyOnWriteNetworkHandler.unwrap(from)).model.params().mul(fromWeight));
     }
 
     @Override
@@ -20,8 +20,10 @@
 package org.deeplearning4j.rl4j.network;
 
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 
 import java.util.HashMap;
+import java.util.Map;
 
 public class NeuralNetOutput {
     private final HashMap<String, INDArray> outputs = new HashMap<String, INDArray>();
@@ -46,4 +48,16 @@ public class NeuralNetOutput {
         }
         return result;
     }
+
+    /**
+     * @param exampleIdx The index of an example in the batch
+     * @return The outputs of a single example. Each output is a view, of batch size 1, of the corresponding output of this instance.
+     */
+    public NeuralNetOutput getExampleOutput(int exampleIdx) {
+        NeuralNetOutput result = new NeuralNetOutput();
+        for(Map.Entry<String, INDArray> entry : outputs.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().get(NDArrayIndex.interval(exampleIdx, exampleIdx + 1)));
+        }
+        return result;
+    }
 }
@@ -52,6 +52,11 @@ public class QNetwork extends BaseNetwork<QNetwork> {
         return new QNetwork(getNetworkHandler().clone());
     }
 
+    @Override
+    public QNetwork copyOnWriteClone() {
+        return new QNetwork(getNetworkHandler().copyOnWriteClone());
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -0,0 +1,143 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.network;
+
+import lombok.NonNull;
+import org.nd4j.common.base.Preconditions;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes versioned snapshots of the parameters of a network, so that many threads can copy the latest parameters
+ * while another one keeps updating the network, without any lock.
+ * <br>
+ * The snapshots are kept in a fixed pool of network clones, published through an atomic reference. {@link #publish(ITrainableNeuralNet)}
+ * copies the parameters into the oldest snapshot and makes it the latest one; a published snapshot is never changed
+ * until <i>numSnapshots - 1</i> newer snapshots have been published. {@link #copyTo(ITrainableNeuralNet)} copies from the
+ * latest snapshot and retries in the rare case where the writer has recycled that snapshot during the copy (each
+ * snapshot carries a sequence number that is odd while it is being written).
+ * <br>
+ * There must be a single writer at a time: the callers of {@link #publish(ITrainableNeuralNet)} must serialize the calls.
+ *
+ * @param <NET_TYPE> The type of the network
+ */
+public class VersionedParameterStore<NET_TYPE extends ITrainableNeuralNet> {
+
+    private static final int DEFAULT_NUM_SNAPSHOTS = 3;
+
+    private final Snapshot<NET_TYPE>[] snapshots;
+    private final AtomicReference<Snapshot<NET_TYPE>> latest;
+
+    // Only accessed by the writer
+    private long version = 0;
+    private int nextSnapshotIdx = 1;
+
+    /**
+     * @param initial The network whose parameters are the version 0
+     */
+    public VersionedParameterStore(@NonNull NET_TYPE initial) {
+        this(initial, DEFAULT_NUM_SNAPSHOTS);
+    }
+
+    /**
+     * @param initial The network whose parameters are the version 0
+     * @param numSnapshots The number of snapshots in the pool. More snapshots make the readers less likely to retry.
+     */
+    public VersionedParameterStore(@NonNull NET_TYPE initial, int numSnapshots) {
+        Preconditions.checkArgument(numSnapshots >= 2, "numSnapshots must be 2 or greater, got %s", numSnapshots);
+
+        snapshots = new Snapshot[numSnapshots];
+        for(int i = 0; i < numSnapshots; ++i) {
+            snapshots[i] = new Snapshot<>((NET_TYPE) initial.clone());
+        }
+        latest = new AtomicReference<>(snapshots[0]);
+    }
+
+    /**
+     * Publish the parameters of <i>source</i> as the new latest version. Must not be called concurrently.
+     * @param source The network to copy the parameters from
+     * @return The version of the published snapshot
+     */
+    public long publish(@NonNull NET_TYPE source) {
+        Snapshot<NET_TYPE> snapshot = snapshots[nextSnapshotIdx];
+        nextSnapshotIdx = (nextSnapshotIdx + 1) % snapshots.length;
+
+        snapshot.sequence++; // odd: being written
+        VarHandle.storeStoreFence();
+        snapshot.network.copyFrom(source);
+        snapshot.version = ++version;
+        snapshot.sequence++; // even: stable
+
+        latest.set(snapshot);
+
+        return version;
+    }
+
+    /**
+     * Copy the parameters of the latest snapshot to <i>destination</i>. Never blocks.
+     * @param destination The network to copy the parameters to
+     * @return The version that has been copied
+     */
+    public long copyTo(@NonNull NET_TYPE destination) {
+        while(true) {
+            Snapshot<NET_TYPE> snapshot = latest.get();
+            long sequence = snapshot.sequence;
+            if((sequence & 1) != 0) {
+                // Recycled by the writer since it was read from latest
+                Thread.onSpinWait();
+                continue;
+            }
+
+            long snapshotVersion = snapshot.version;
+            destination.copyFrom(snapshot.network);
+            VarHandle.acquireFence();
+            if(snapshot.sequence == sequence) {
+                return snapshotVersion;
+            }
+        }
+    }
+
+    /**
+     * @return The version of the latest snapshot
+     */
+    public long getVersion() {
+        return latest.get().version;
+    }
+
+    /**
+     * @return The network of the latest snapshot. It must not be changed, and its parameters are only guaranteed to
+     * stay those of this version until <i>numSnapshots - 1</i> newer versions have been published. Use
+     * {@link #copyTo(ITrainableNeuralNet)} to get a consistent copy.
+     */
+    public NET_TYPE getLatest() {
+        return latest.get().network;
+    }
+
+    private static class Snapshot<NET_TYPE> {
+        private final NET_TYPE network;
+        private volatile long sequence = 0;
+        private volatile long version = 0;
+
+        private Snapshot(NET_TYPE network) {
+            this.network = network;
+        }
+    }
+}
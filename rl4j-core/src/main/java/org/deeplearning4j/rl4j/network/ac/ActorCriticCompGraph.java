@@ -135,6 +135,11 @@ public class ActorCriticCompGraph implements IActorCritic<ActorCriticCompGraph>
         cg.setParams(from.cg.params());
     }
 
+    @Override
+    public void mergeFrom(ActorCriticCompGraph from, double weight, double fromWeight) {
+        throw new NotImplementedException("Not implemented in legacy classes");
+    }
+
     @Deprecated
     public Gradient[] gradient(INDArray input, INDArray[] labels) {
         cg.setInput(0, input);
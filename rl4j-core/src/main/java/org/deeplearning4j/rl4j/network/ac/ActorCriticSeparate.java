@@ -165,6 +165,11 @@ public class ActorCriticSeparate<NN extends ActorCriticSeparate> implements IAct
         policyNet.setParams(from.policyNet.params());
     }
 
+    @Override
+    public void mergeFrom(NN from, double weight, double fromWeight) {
+        throw new NotImplementedException("Not implemented in legacy classes");
+    }
+
     @Deprecated
     public Gradient[] gradient(INDArray input, INDArray[] labels) {
         valueNet.setInput(input);
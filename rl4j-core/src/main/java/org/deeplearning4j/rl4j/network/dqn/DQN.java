@@ -111,6 +111,11 @@ public class DQN implements IDQN<DQN> {
         mln.setParams(from.mln.params());
     }
 
+    @Override
+    public void mergeFrom(DQN from, double weight, double fromWeight) {
+        throw new NotImplementedException("Not implemented in legacy classes");
+    }
+
     @Override
     public DQN clone() {
         DQN nn = new DQN(mln.clone());
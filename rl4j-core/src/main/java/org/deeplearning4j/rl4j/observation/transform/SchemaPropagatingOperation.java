@@ -0,0 +1,32 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.observation.transform;
+
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
+
+public interface SchemaPropagatingOperation {
+    /**
+     * Called by TransformProcess to infer the schema of the observations. See {@link TransformProcess#getObservationSchema(java.util.List) TransformProcess.getObservationSchema()}
+     * @param inputSchema The schema of the channel data given to the operation
+     * @return The schema of the channel data returned by the operation, or null if it can't be determined.
+     * @throws IllegalArgumentException if the operation can't accept data described by <i>inputSchema</i>
+     */
+    ChannelSchema getOutputSchema(ChannelSchema inputSchema);
+}
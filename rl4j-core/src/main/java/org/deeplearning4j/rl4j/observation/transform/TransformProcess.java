@@ -21,6 +21,7 @@ package org.deeplearning4j.rl4j.observation.transform;
 
 import lombok.Getter;
 import org.apache.commons.lang3.NotImplementedException;
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
 import org.deeplearning4j.rl4j.helper.INDArrayHelper;
 import org.deeplearning4j.rl4j.observation.Observation;
 import org.nd4j.common.base.Preconditions;
@@ -30,10 +31,17 @@ import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
 import org.nd4j.shade.guava.collect.Maps;
 import org.datavec.api.transform.Operation;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class TransformProcess {
 
@@ -41,11 +49,96 @@ public class TransformProcess {
     @Getter
     private final String[] channelNames;
     private final HashSet<String> operationsChannelNames;
+    private final CompiledPipeline compiledPipeline;
 
-    private TransformProcess(Builder builder, String... channelNames) {
+    private TransformProcess(Builder builder, boolean isCompiled, String... channelNames) {
         operations = builder.operations;
         this.channelNames = channelNames;
         this.operationsChannelNames = builder.requiredChannelNames;
+        this.compiledPipeline = isCompiled ? new CompiledPipeline(operations, channelNames) : null;
+    }
+
+    /**
+     * @return True if the transform process was built with {@link Builder#buildCompiled(String...)}
+     */
+    public boolean isCompiled() {
+        return compiledPipeline != null;
+    }
+
+    /**
+     * Compiled transform processes only.
+     * @return The number of channel slots: one for each distinct channel used by the steps or the observation.
+     */
+    public int getNumChannelSlots() {
+        Preconditions.checkState(compiledPipeline != null, "Channel slots are only available on a compiled TransformProcess");
+        return compiledPipeline.slotNames.length;
+    }
+
+    /**
+     * Compiled transform processes only.
+     * @param channelName The name of a channel
+     * @return The index of the slot of the channel, to be used with {@link #transformSlots(Object[], int, boolean)}
+     */
+    public int getChannelSlot(String channelName) {
+        Preconditions.checkState(compiledPipeline != null, "Channel slots are only available on a compiled TransformProcess");
+        Integer slot = compiledPipeline.slotsByName.get(channelName);
+        Preconditions.checkArgument(slot != null, "The TransformProcess does not use the channel '%s'", channelName);
+        return slot;
+    }
+
+    /**
+     * Compiled transform processes only.
+     * @param slot The index of a channel slot
+     * @return The name of the channel of the slot
+     */
+    public String getChannelSlotName(int slot) {
+        Preconditions.checkState(compiledPipeline != null, "Channel slots are only available on a compiled TransformProcess");
+        return compiledPipeline.slotNames[slot];
+    }
+
+    /**
+     * Infer the schema of the observations built by this TransformProcess, by propagating the schema of the channels
+     * through the steps. Filters don't change the schema, all other steps must implement
+     * {@link SchemaPropagatingOperation SchemaPropagatingOperation}.
+     * @param channels The schema of the channels supplied to the TransformProcess (usually the channels of the
+     *                 {@link org.deeplearning4j.rl4j.environment.Schema Schema} of the environment)
+     * @return The schema of the channels of the observations, in the same order, or null if a step can't tell its output schema
+     * @throws IllegalArgumentException if a channel used by the TransformProcess is not described or is rejected by a step
+     */
+    public List<ChannelSchema> getObservationSchema(List<ChannelSchema> channels) {
+        Map<String, ChannelSchema> schemaByChannel = new HashMap<String, ChannelSchema>();
+        for(ChannelSchema channel : channels) {
+            schemaByChannel.put(channel.getName(), channel);
+        }
+
+        for(String channelName : operationsChannelNames) {
+            Preconditions.checkArgument(schemaByChannel.containsKey(channelName), "The schema of the channel '%s' is not supplied", channelName);
+        }
+
+        for(Map.Entry<String, Object> entry : operations) {
+            if(entry.getValue() instanceof FilterOperation) {
+                continue;
+            }
+
+            if(!(entry.getValue() instanceof SchemaPropagatingOperation)) {
+                return null;
+            }
+
+            ChannelSchema outputSchema = ((SchemaPropagatingOperation) entry.getValue()).getOutputSchema(schemaByChannel.get(entry.getKey()));
+            if(outputSchema == null) {
+                return null;
+            }
+            schemaByChannel.put(entry.getKey(), outputSchema);
+        }
+
+        // The dimension 0 of all INDArrays will be 1 (batch count)
+        List<ChannelSchema> result = new ArrayList<ChannelSchema>(channelNames.length);
+        for(String channelName : channelNames) {
+            ChannelSchema channel = schemaByChannel.get(channelName);
+            result.add(channel.withDataTypeAndShape(channel.getDataType(), INDArrayHelper.forceCorrectShape(channel.getShape())));
+        }
+
+        return result;
     }
 
     /**
@@ -71,6 +164,10 @@ public class TransformProcess {
         // null or empty channelData
         Preconditions.checkArgument(channelsData != null && channelsData.size() != 0, "Error: channelsData not supplied.");
 
+        if(compiledPipeline != null) {
+            return compiledPipeline.transform(channelsData, currentObservationStep, isFinalObservation);
+        }
+
         // Check that all channels have data
         for(Map.Entry<String, Object> channel : channelsData.entrySet()) {
             Preconditions.checkNotNull(channel.getValue(), "Error: data of channel '%s' is null", channel.getKey());
@@ -146,6 +243,36 @@ public class TransformProcess {
         return new Observation(data);
     }
 
+    /**
+     * Compiled transform processes only. Transforms the channel data, supplied by slot, into an Observation or a skipped
+     * observation. The steps store their results in <i>channelSlots</i>. The filters only see the channels that have a slot.
+     *
+     * @param channelSlots The data of each channel, indexed by slot (see {@link #getChannelSlot(String)})
+     * @param currentObservationStep The observation's step number within the episode.
+     * @param isFinalObservation True if the observation is the last of the episode.
+     * @return An observation (may be a skipped observation)
+     */
+    public Observation transformSlots(Object[] channelSlots, int currentObservationStep, boolean isFinalObservation) {
+        return transformSlots(channelSlots, null, currentObservationStep, isFinalObservation);
+    }
+
+    /**
+     * Compiled transform processes only. Transforms the channel data, supplied by slot, into an Observation or a skipped
+     * observation. The steps store their results in <i>channelSlots</i>; <i>channelsData</i> is not changed.
+     *
+     * @param channelSlots The data of each channel, indexed by slot (see {@link #getChannelSlot(String)})
+     * @param channelsData All the channels, read by the filters for the channels that don't have a slot. Can be null.
+     * @param currentObservationStep The observation's step number within the episode.
+     * @param isFinalObservation True if the observation is the last of the episode.
+     * @return An observation (may be a skipped observation)
+     */
+    public Observation transformSlots(Object[] channelSlots, Map<String, Object> channelsData, int currentObservationStep, boolean isFinalObservation) {
+        Preconditions.checkState(compiledPipeline != null, "Channel slots are only available on a compiled TransformProcess");
+        Preconditions.checkArgument(channelSlots.length == compiledPipeline.slotNames.length, "Expected %s channel slots, got %s", compiledPipeline.slotNames.length, channelSlots.length);
+
+        return compiledPipeline.transform(channelSlots, channelsData, currentObservationStep, isFinalObservation);
+    }
+
     /**
      * @return An instance of a builder
      */
@@ -215,7 +342,243 @@ public class TransformProcess {
                 requiredChannelNames.add(channelName);
             }
 
-            return new TransformProcess(this, channelNames);
+            return new TransformProcess(this, false, channelNames);
+        }
+
+        /**
+         * Builds a compiled TransformProcess. The steps are resolved once into an array of stages that work on indexed
+         * channel slots, and the channels are validated here instead of on every call to transform().
+         * <br>
+         * Filters receive a read-only view of the channels: the current data of the channels that have a slot, and the
+         * supplied data of the other channels.
+         * @param channelNames A subset of channel names to be used to build the observation
+         * @return An instance of TransformProcess
+         */
+        public TransformProcess buildCompiled(String... channelNames) {
+            if(channelNames.length == 0) {
+                throw new IllegalArgumentException("At least one channel must be supplied.");
+            }
+
+            for(String channelName : channelNames) {
+                Preconditions.checkNotNull(channelName, "Error: got a null channel name");
+                requiredChannelNames.add(channelName);
+            }
+
+            return new TransformProcess(this, true, channelNames);
+        }
+    }
+
+    private static class CompiledPipeline {
+        private final String[] slotNames;
+        private final Map<String, Integer> slotsByName = new HashMap<>();
+        private final Stage[] stages;
+        private final int[] observationSlots;
+
+        // Working storage of transform(Map)
+        private final Object[] slots;
+        private final SlotsView slotsView;
+
+        private CompiledPipeline(List<Map.Entry<String, Object>> operations, String[] channelNames) {
+            Set<String> names = new LinkedHashSet<>();
+            for(Map.Entry<String, Object> entry : operations) {
+                if(entry.getKey() != null) {
+                    names.add(entry.getKey());
+                }
+            }
+            for(String channelName : channelNames) {
+                names.add(channelName);
+            }
+            slotNames = names.toArray(new String[0]);
+            for(int i = 0; i < slotNames.length; ++i) {
+                slotsByName.put(slotNames[i], i);
+            }
+
+            stages = new Stage[operations.size()];
+            for(int i = 0; i < stages.length; ++i) {
+                Map.Entry<String, Object> entry = operations.get(i);
+                Object operation = entry.getValue();
+                if(operation instanceof FilterOperation) {
+                    stages[i] = new FilterStage((FilterOperation) operation);
+                } else if(operation instanceof Operation) {
+                    stages[i] = new TransformStage(slotsByName.get(entry.getKey()), (Operation) operation);
+                } else if(operation instanceof DataSetPreProcessor) {
+                    stages[i] = new PreProcessStage(slotsByName.get(entry.getKey()), (DataSetPreProcessor) operation);
+                } else {
+                    throw new IllegalArgumentException(String.format("Unknown operation: '%s'", operation.getClass().getName()));
+                }
+            }
+
+            observationSlots = new int[channelNames.length];
+            for(int i = 0; i < channelNames.length; ++i) {
+                observationSlots[i] = slotsByName.get(channelNames[i]);
+            }
+
+            slots = new Object[slotNames.length];
+            slotsView = new SlotsView(slotNames, slotsByName);
+        }
+
+        private Observation transform(Map<String, Object> channelsData, int currentObservationStep, boolean isFinalObservation) {
+            for(int i = 0; i < slotNames.length; ++i) {
+                Object channelData = channelsData.get(slotNames[i]);
+                Preconditions.checkArgument(channelData != null, "The channelsData map does not contain the channel '%s'", slotNames[i]);
+                slots[i] = channelData;
+            }
+
+            try {
+                return transform(slots, channelsData, currentObservationStep, isFinalObservation);
+            } finally {
+                Arrays.fill(slots, null);
+            }
+        }
+
+        private Observation transform(Object[] channelSlots, Map<String, Object> channelsData, int currentObservationStep, boolean isFinalObservation) {
+            slotsView.slots = channelSlots;
+            slotsView.channelsData = channelsData;
+            try {
+                for(Stage stage : stages) {
+                    if(!stage.apply(channelSlots, slotsView, currentObservationStep, isFinalObservation)) {
+                        return Observation.SkippedObservation;
+                    }
+                }
+            } finally {
+                slotsView.slots = null;
+                slotsView.channelsData = null;
+            }
+
+            INDArray[] data = new INDArray[observationSlots.length];
+            for(int i = 0; i < observationSlots.length; ++i) {
+                Object channelData = channelSlots[observationSlots[i]];
+
+                INDArray finalChannelData;
+                if(channelData instanceof INDArray) {
+                    finalChannelData = (INDArray) channelData;
+                } else if(channelData instanceof DataSet) {
+                    finalChannelData = ((DataSet) channelData).getFeatures();
+                } else {
+                    throw new IllegalStateException("All channels used to build the observation must be instances of DataSet or INDArray");
+                }
+
+                // The dimension 0 of all INDArrays must be 1 (batch count)
+                data[i] = INDArrayHelper.forceCorrectShape(finalChannelData);
+            }
+
+            return new Observation(data);
+        }
+    }
+
+    private interface Stage {
+        /**
+         * @return false if the observation is skipped
+         */
+        boolean apply(Object[] slots, Map<String, Object> slotsView, int currentObservationStep, boolean isFinalObservation);
+    }
+
+    private static class FilterStage implements Stage {
+        private final FilterOperation filterOperation;
+
+        private FilterStage(FilterOperation filterOperation) {
+            this.filterOperation = filterOperation;
+        }
+
+        @Override
+        public boolean apply(Object[] slots, Map<String, Object> slotsView, int currentObservationStep, boolean isFinalObservation) {
+            return !filterOperation.isSkipped(slotsView, currentObservationStep, isFinalObservation);
+        }
+    }
+
+    private static class TransformStage implements Stage {
+        private final int slot;
+        private final Operation transformOperation;
+
+        private TransformStage(int slot, Operation transformOperation) {
+            this.slot = slot;
+            this.transformOperation = transformOperation;
+        }
+
+        // null results are considered skipped observations
+        @Override
+        public boolean apply(Object[] slots, Map<String, Object> slotsView, int currentObservationStep, boolean isFinalObservation) {
+            Object transformed = transformOperation.transform(slots[slot]);
+            if(transformed == null) {
+                return false;
+            }
+            slots[slot] = transformed;
+            return true;
+        }
+    }
+
+    private static class PreProcessStage implements Stage {
+        private final int slot;
+        private final DataSetPreProcessor dataSetPreProcessor;
+
+        private PreProcessStage(int slot, DataSetPreProcessor dataSetPreProcessor) {
+            this.slot = slot;
+            this.dataSetPreProcessor = dataSetPreProcessor;
+        }
+
+        @Override
+        public boolean apply(Object[] slots, Map<String, Object> slotsView, int currentObservationStep, boolean isFinalObservation) {
+            Object channelData = slots[slot];
+            if(!(channelData instanceof DataSet)) {
+                throw new IllegalArgumentException("The channel data must be a DataSet to call preProcess");
+            }
+            dataSetPreProcessor.preProcess((DataSet) channelData);
+            return true;
+        }
+    }
+
+    // A read-only Map view of the channels, for the filters: the channel slots, then the supplied channels that don't have a slot
+    private static class SlotsView extends AbstractMap<String, Object> {
+        private final String[] slotNames;
+        private final Map<String, Integer> slotsByName;
+        private Object[] slots;
+        private Map<String, Object> channelsData;
+
+        private SlotsView(String[] slotNames, Map<String, Integer> slotsByName) {
+            this.slotNames = slotNames;
+            this.slotsByName = slotsByName;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Integer slot = slotsByName.get(key);
+            if(slot != null) {
+                return slots[slot];
+            }
+
+            return channelsData == null ? null : channelsData.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            List<Entry<String, Object>> entries = new ArrayList<>(slotNames.length);
+            for(int i = 0; i < slotNames.length; ++i) {
+                entries.add(new SimpleImmutableEntry<>(slotNames[i], slots[i]));
+            }
+            if(channelsData != null) {
+                for(Entry<String, Object> entry : channelsData.entrySet()) {
+                    if(!slotsByName.containsKey(entry.getKey())) {
+                        entries.add(new SimpleImmutableEntry<>(entry));
+                    }
+                }
+            }
+
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return entries.iterator();
+                }
+
+                @Override
+                public int size() {
+                    return entries.size();
+                }
+            };
         }
     }
 }
@@ -20,10 +20,16 @@
 package org.deeplearning4j.rl4j.observation.transform.operation;
 
 import org.datavec.api.transform.Operation;
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
+import org.deeplearning4j.rl4j.observation.transform.SchemaPropagatingOperation;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
-public class ArrayToINDArrayTransform implements Operation<double[], INDArray> {
+import java.util.Arrays;
+
+public class ArrayToINDArrayTransform implements Operation<double[], INDArray>, SchemaPropagatingOperation {
     private final long[] shape;
 
     /**
@@ -48,4 +54,17 @@ public class ArrayToINDArrayTransform implements Operation<double[], INDArray> {
         }
         return result;
     }
+
+    @Override
+    public ChannelSchema getOutputSchema(ChannelSchema inputSchema) {
+        if(shape == null) {
+            return inputSchema.withDataTypeAndShape(DataType.DOUBLE, inputSchema.getSize());
+        }
+
+        ChannelSchema result = inputSchema.withDataTypeAndShape(DataType.DOUBLE, shape);
+        Preconditions.checkArgument(result.getSize() == inputSchema.getSize(), "Channel '%s': can't reshape %s elements to %s",
+                inputSchema.getName(), inputSchema.getSize(), Arrays.toString(shape));
+
+        return result;
+    }
 }
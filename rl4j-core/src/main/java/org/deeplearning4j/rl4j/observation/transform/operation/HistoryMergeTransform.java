@@ -20,26 +20,34 @@
 package org.deeplearning4j.rl4j.observation.transform.operation;
 
 import org.datavec.api.transform.Operation;
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
 import org.deeplearning4j.rl4j.helper.INDArrayHelper;
 import org.deeplearning4j.rl4j.observation.transform.ResettableOperation;
+import org.deeplearning4j.rl4j.observation.transform.SchemaPropagatingOperation;
 import org.deeplearning4j.rl4j.observation.transform.operation.historymerge.CircularFifoStore;
 import org.deeplearning4j.rl4j.observation.transform.operation.historymerge.HistoryMergeAssembler;
 import org.deeplearning4j.rl4j.observation.transform.operation.historymerge.HistoryMergeElementStore;
 import org.deeplearning4j.rl4j.observation.transform.operation.historymerge.HistoryStackAssembler;
+import org.nd4j.common.base.Preconditions;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
 
-public class HistoryMergeTransform implements Operation<INDArray, INDArray>, ResettableOperation {
+import java.util.Arrays;
+
+public class HistoryMergeTransform implements Operation<INDArray, INDArray>, ResettableOperation, SchemaPropagatingOperation {
 
     private final HistoryMergeElementStore historyMergeElementStore;
     private final HistoryMergeAssembler historyMergeAssembler;
     private final boolean shouldStoreCopy;
     private final boolean isFirstDimensionBatch;
+    private final int frameStackLength;
 
-    private HistoryMergeTransform(Builder builder) {
+    private HistoryMergeTransform(Builder builder, int frameStackLength) {
         this.historyMergeElementStore = builder.historyMergeElementStore;
         this.historyMergeAssembler = builder.historyMergeAssembler;
         this.shouldStoreCopy = builder.shouldStoreCopy;
         this.isFirstDimensionBatch = builder.isFirstDimenstionBatch;
+        this.frameStackLength = frameStackLength;
     }
 
     @Override
@@ -72,6 +80,30 @@ public class HistoryMergeTransform implements Operation<INDArray, INDArray>, Res
         historyMergeElementStore.reset();
     }
 
+    /**
+     * Only the output schema of the default {@link HistoryStackAssembler HistoryStackAssembler} is known; null is
+     * returned with other assemblers.
+     */
+    @Override
+    public ChannelSchema getOutputSchema(ChannelSchema inputSchema) {
+        if(!(historyMergeAssembler instanceof HistoryStackAssembler)) {
+            return null;
+        }
+
+        long[] elementShape = inputSchema.getShape();
+        if(isFirstDimensionBatch) {
+            Preconditions.checkArgument(elementShape.length > 1, "Channel '%s': expected a batch dimension, got a shape of %s",
+                    inputSchema.getName(), Arrays.toString(elementShape));
+            elementShape = Arrays.copyOfRange(elementShape, 1, elementShape.length);
+        }
+
+        long[] stackShape = new long[elementShape.length + 1];
+        stackShape[0] = frameStackLength;
+        System.arraycopy(elementShape, 0, stackShape, 1, elementShape.length);
+
+        return inputSchema.withDataTypeAndShape(Nd4j.defaultFloatingPointType(), INDArrayHelper.forceCorrectShape(stackShape));
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -129,7 +161,7 @@ public class HistoryMergeTransform implements Operation<INDArray, INDArray>, Res
                 historyMergeAssembler = new HistoryStackAssembler();
             }
 
-            return new HistoryMergeTransform(this);
+            return new HistoryMergeTransform(this, frameStackLength);
         }
     }
 }
@@ -20,10 +20,12 @@
 package org.deeplearning4j.rl4j.observation.transform.operation;
 
 import org.datavec.api.transform.Operation;
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
+import org.deeplearning4j.rl4j.observation.transform.SchemaPropagatingOperation;
 import org.nd4j.common.base.Preconditions;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
-public class SimpleNormalizationTransform implements Operation<INDArray, INDArray> {
+public class SimpleNormalizationTransform implements Operation<INDArray, INDArray>, SchemaPropagatingOperation {
 
     private final double offset;
     private final double divisor;
@@ -45,4 +47,10 @@ public class SimpleNormalizationTransform implements Operation<INDArray, INDArra
 
         return input;
     }
+
+    @Override
+    public ChannelSchema getOutputSchema(ChannelSchema inputSchema) {
+        // In-place
+        return inputSchema;
+    }
 }
@@ -22,6 +22,7 @@ package org.deeplearning4j.rl4j.policy;
 
 import lombok.Builder;
 import lombok.NonNull;
+import org.deeplearning4j.rl4j.agent.learning.update.Features;
 import org.deeplearning4j.rl4j.learning.Learning;
 import org.deeplearning4j.rl4j.network.CommonOutputNames;
 import org.deeplearning4j.rl4j.network.IOutputNeuralNet;
@@ -35,8 +36,10 @@ import org.nd4j.linalg.api.rng.Random;
 import org.nd4j.linalg.factory.Nd4j;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
-public class ACPolicy<OBSERVATION extends Encodable> extends Policy<Integer> {
+public class ACPolicy<OBSERVATION extends Encodable> extends Policy<Integer> implements IBatchPolicy<Integer> {
 
     final private IOutputNeuralNet neuralNet;
     private final boolean isTraining;
@@ -78,15 +81,33 @@ public class ACPolicy<OBSERVATION extends Encodable> extends Policy<Integer> {
             return Learning.getMaxAction(output);
         }
 
+        return sampleAction(output);
+    }
+
+    @Override
+    public List<Integer> nextActions(Features features) {
+        INDArray output = neuralNet.output(features).get(CommonOutputNames.ActorCritic.Policy);
+
+        int batchSize = (int) features.getBatchSize();
+        List<Integer> result = new ArrayList<>(batchSize);
+        for(int i = 0; i < batchSize; ++i) {
+            INDArray probabilities = output.getRow(i);
+            result.add(isTraining ? sampleAction(probabilities) : Learning.getMaxAction(probabilities));
+        }
+
+        return result;
+    }
+
+    private Integer sampleAction(INDArray probabilities) {
         float rVal = rnd.nextFloat();
-        for (int i = 0; i < output.length(); i++) {
-            if (rVal < output.getFloat(i)) {
+        for (int i = 0; i < probabilities.length(); i++) {
+            if (rVal < probabilities.getFloat(i)) {
                 return i;
             } else
-                rVal -= output.getFloat(i);
+                rVal -= probabilities.getFloat(i);
         }
 
-        throw new RuntimeException("Output from network is not a probability distribution: " + output);
+        throw new RuntimeException("Output from network is not a probability distribution: " + probabilities);
     }
 
     @Deprecated
@@ -21,6 +21,7 @@
 package org.deeplearning4j.rl4j.policy;
 
 import lombok.AllArgsConstructor;
+import org.deeplearning4j.rl4j.agent.learning.update.Features;
 import org.deeplearning4j.rl4j.learning.Learning;
 import org.deeplearning4j.rl4j.network.CommonOutputNames;
 import org.deeplearning4j.rl4j.network.IOutputNeuralNet;
@@ -29,11 +30,14 @@ import org.deeplearning4j.rl4j.network.dqn.IDQN;
 import org.deeplearning4j.rl4j.space.Encodable;
 import org.deeplearning4j.rl4j.observation.Observation;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 @AllArgsConstructor
-public class DQNPolicy<OBSERVATION> extends Policy<Integer> {
+public class DQNPolicy<OBSERVATION> extends Policy<Integer> implements IBatchPolicy<Integer> {
 
     final private IOutputNeuralNet neuralNet;
 
@@ -51,6 +55,20 @@ public class DQNPolicy<OBSERVATION> extends Policy<Integer> {
         return Learning.getMaxAction(output);
     }
 
+    @Override
+    public List<Integer> nextActions(Features features) {
+        INDArray output = neuralNet.output(features).get(CommonOutputNames.QValues);
+        INDArray maxActions = Nd4j.argMax(output, 1);
+
+        int batchSize = (int) features.getBatchSize();
+        List<Integer> result = new ArrayList<>(batchSize);
+        for(int i = 0; i < batchSize; ++i) {
+            result.add(maxActions.getInt(i));
+        }
+
+        return result;
+    }
+
     @Deprecated
     public Integer nextAction(INDArray input) {
         INDArray output = neuralNet.output(input).get(CommonOutputNames.QValues);
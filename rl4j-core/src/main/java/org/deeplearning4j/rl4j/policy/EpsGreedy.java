@@ -25,6 +25,7 @@ import lombok.Data;
 import lombok.NonNull;
 import lombok.experimental.SuperBuilder;
 import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.rl4j.agent.learning.update.Features;
 import org.deeplearning4j.rl4j.environment.IActionSchema;
 import org.deeplearning4j.rl4j.learning.IEpochTrainer;
 import org.deeplearning4j.rl4j.mdp.MDP;
@@ -32,12 +33,16 @@ import org.deeplearning4j.rl4j.network.IOutputNeuralNet;
 import org.deeplearning4j.rl4j.observation.Observation;
 import org.deeplearning4j.rl4j.space.ActionSpace;
 import org.deeplearning4j.rl4j.space.Encodable;
+import org.nd4j.common.base.Preconditions;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.rng.Random;
 import org.nd4j.linalg.factory.Nd4j;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Slf4j
-public class EpsGreedy<A> extends Policy<A> {
+public class EpsGreedy<A> extends Policy<A> implements IBatchPolicy<A> {
 
     final private INeuralNetPolicy<A> policy;
     final private int annealingStart;
@@ -139,6 +144,39 @@ public class EpsGreedy<A> extends Policy<A> {
         return actionSchema.getRandomAction();
     }
 
+    /**
+     * Decide the actions of a batch of observations. Each observation counts as one annealing step. The wrapped policy
+     * is evaluated at most once, on the whole batch, and only if at least one greedy action is needed.
+     */
+    @Override
+    public List<A> nextActions(Features features) {
+        Preconditions.checkState(actionSchema != null, "nextActions() can only be used with an action schema");
+        Preconditions.checkState(policy instanceof IBatchPolicy, "nextActions() requires the greedy policy to be an IBatchPolicy");
+
+        int batchSize = (int) features.getBatchSize();
+        List<A> result = new ArrayList<>(batchSize);
+        List<A> greedyActions = null;
+        for(int i = 0; i < batchSize; ++i) {
+            double ep = getEpsilon();
+            if (annealingStep % 500 == 1) {
+                log.info("EP: " + ep + " " + annealingStep);
+            }
+
+            ++annealingStep;
+
+            if (rnd.nextDouble() > ep) {
+                if(greedyActions == null) {
+                    greedyActions = ((IBatchPolicy<A>) policy).nextActions(features);
+                }
+                result.add(greedyActions.get(i));
+            } else {
+                result.add(actionSchema.getRandomAction());
+            }
+        }
+
+        return result;
+    }
+
     public double getEpsilon() {
         int step = actionSchema != null ? annealingStep : learning.getStepCount();
         return Math.min(1.0, Math.max(minEpsilon, 1.0 - (step - annealingStart) * 1.0 / epsilonNbStep));
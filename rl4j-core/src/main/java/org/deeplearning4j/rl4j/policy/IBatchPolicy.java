@@ -0,0 +1,49 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.policy;
+
+import org.deeplearning4j.rl4j.agent.learning.update.Features;
+
+import java.util.List;
+
+/**
+ * A policy that can decide the actions of several observations with a single evaluation. Used by the
+ * {@link org.deeplearning4j.rl4j.agent.VectorAgentLearner VectorAgentLearner}.
+ */
+public interface IBatchPolicy<ACTION> extends IPolicy<ACTION> {
+    /**
+     * Decide the next actions of a batch of observations
+     * @param features The observations, stacked along the first dimension
+     * @return The actions; the i-th action is for the i-th observation of the batch
+     */
+    List<ACTION> nextActions(Features features);
+
+    /**
+     * Called when a new episode starts in one of the environments whose observations are batched; the other
+     * environments continue their episodes. By default, nothing is reset: the batched policies evaluate each observation
+     * on its own and keep no per-episode state (the VectorAgentLearner doesn't support recurrent networks).
+     * {@link #reset()} is still called once, before the first episodes start.
+     * @param environmentIdx The index of the environment in the batch
+     */
+    default void reset(int environmentIdx) {
+        // Do nothing
+    }
+}
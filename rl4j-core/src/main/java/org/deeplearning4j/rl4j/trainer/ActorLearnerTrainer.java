@@ -0,0 +1,246 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.trainer;
+
+import lombok.NonNull;
+import org.apache.commons.lang3.builder.Builder;
+import org.deeplearning4j.rl4j.agent.IAgentLearner;
+import org.deeplearning4j.rl4j.agent.learning.learner.ILearner;
+import org.nd4j.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+// TODO: Add listeners & events
+
+/**
+ * A trainer where several actor threads only act and store their experience, while a single learner thread trains.
+ * (See {@link org.deeplearning4j.rl4j.builder.BaseDQNAgentLearnerBuilder.Configuration#actorLearnerMode actorLearnerMode})
+ */
+public class ActorLearnerTrainer<ACTION> implements ITrainer, AutoCloseable {
+
+    // How long the learner waits before trying again when there is not enough experience to learn from
+    private static final long LEARNER_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Builder<IAgentLearner<ACTION>> actorBuilder;
+    private final ILearner learner;
+    private final Predicate<ActorLearnerTrainer<ACTION>> stoppingCondition;
+
+    private final int numActors;
+    private final AtomicInteger episodeCount = new AtomicInteger();
+    private final AtomicInteger stepCount = new AtomicInteger();
+
+    private volatile boolean shouldStop = false;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile Thread learnerThread;
+
+    private final CpuExecutionPlan executionPlan;
+
+    /**
+     * Build a ActorLearnerTrainer that will train until a stopping condition is met.
+     * @param actorBuilder the builder that will be used to create the actors.
+     * @param learner the learner that will train from the experience of the actors.
+     * @param stoppingCondition the training will stop when this condition evaluates to true. It is evaluated after every episode.
+     * @param numActors the number of actor threads to run in parallel
+     */
+    public ActorLearnerTrainer(@NonNull Builder<IAgentLearner<ACTION>> actorBuilder,
+                               @NonNull ILearner learner,
+                               @NonNull Predicate<ActorLearnerTrainer<ACTION>> stoppingCondition,
+                               int numActors) {
+        this(actorBuilder, learner, stoppingCondition, numActors, null);
+    }
+
+    /**
+     * Build a ActorLearnerTrainer that will train until a stopping condition is met.
+     * @param actorBuilder the builder that will be used to create the actors.
+     * @param learner the learner that will train from the experience of the actors.
+     * @param stoppingCondition the training will stop when this condition evaluates to true. It is evaluated after every episode.
+     * @param numActors the number of actor threads to run in parallel
+     * @param executionPlanConfiguration how the CPU cores are distributed among the actors and the learner; use
+     *                                   <i>learningCores</i> to reserve cores for the learner. (See {@link CpuExecutionPlan})
+     *                                   Can be null.
+     */
+    @lombok.Builder
+    public ActorLearnerTrainer(@NonNull Builder<IAgentLearner<ACTION>> actorBuilder,
+                               @NonNull ILearner learner,
+                               @NonNull Predicate<ActorLearnerTrainer<ACTION>> stoppingCondition,
+                               int numActors,
+                               CpuExecutionPlan.Configuration executionPlanConfiguration) {
+        Preconditions.checkArgument(numActors > 0, "numActors must be greater than 0, got: %s", numActors);
+
+        this.actorBuilder = actorBuilder;
+        this.learner = learner;
+        this.stoppingCondition = stoppingCondition;
+        this.numActors = numActors;
+        this.executionPlan = executionPlanConfiguration == null ? null : new CpuExecutionPlan(executionPlanConfiguration, numActors, 1);
+    }
+
+    /**
+     * Run the actors and the learner until the stopping condition is met. If an actor or the learner fails, all the
+     * threads are stopped and the first failure is rethrown.
+     */
+    public void train() {
+        reset();
+        if(executionPlan != null) {
+            executionPlan.applyNativeThreads();
+        }
+        Thread[] threads = new Thread[numActors + 1];
+        List<IAgentLearner<ACTION>> actors = new ArrayList<>();
+
+        for(int i = 0; i < numActors; ++i) {
+            actors.add(actorBuilder.build());
+            threads[i] = new ActorThread(actors.get(i), i);
+        }
+        learnerThread = new LearnerThread();
+        threads[numActors] = learnerThread;
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        // Wait for all threads to finish
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                // Ignore
+            }
+        }
+
+        for(IAgentLearner<ACTION> actor : actors) {
+            actor.close();
+        }
+
+        Throwable firstFailure = failure.get();
+        if(firstFailure instanceof RuntimeException) {
+            throw (RuntimeException) firstFailure;
+        }
+        if(firstFailure instanceof Error) {
+            throw (Error) firstFailure;
+        }
+        if(firstFailure != null) {
+            throw new RuntimeException("A thread of the ActorLearnerTrainer has failed", firstFailure);
+        }
+    }
+
+    /**
+     * Close the learner; to be called when the training is over. (See {@link ILearner#close()})
+     */
+    @Override
+    public void close() {
+        learner.close();
+    }
+
+    private void reset() {
+        episodeCount.set(0);
+        stepCount.set(0);
+        shouldStop = false;
+        failure.set(null);
+    }
+
+    private void stop() {
+        shouldStop = true;
+
+        // Wake up the learner if it is waiting for experience
+        Thread learner = learnerThread;
+        if(learner != null) {
+            LockSupport.unpark(learner);
+        }
+    }
+
+    private void onThreadFailed(Throwable t) {
+        failure.compareAndSet(null, t);
+        stop();
+    }
+
+    public int getEpisodeCount() {
+        return episodeCount.get();
+    }
+
+    public int getStepCount() {
+        return stepCount.get();
+    }
+
+    /**
+     * @return The number of training steps done by the learner
+     */
+    public int getUpdateCount() {
+        return learner.getUpdateCount();
+    }
+
+    private void onEpisodeEnded(int numStepsInEpisode) {
+        episodeCount.incrementAndGet();
+        stepCount.addAndGet(numStepsInEpisode);
+        if(stoppingCondition.test(this)) {
+            stop();
+        }
+    }
+
+    private class ActorThread extends Thread {
+        private final IAgentLearner<ACTION> actor;
+        private final int threadIdx;
+
+        public ActorThread(IAgentLearner<ACTION> actor, int threadIdx) {
+            this.actor = actor;
+            this.threadIdx = threadIdx;
+        }
+
+        @Override
+        public void run() {
+            if(executionPlan != null) {
+                executionPlan.onActingThreadStarted(threadIdx);
+            } else {
+                CpuExecutionPlan.selectDevice(threadIdx);
+            }
+            try {
+                while(!shouldStop) {
+                    actor.run();
+                    onEpisodeEnded(actor.getEpisodeStepCount());
+                }
+            } catch (Throwable t) {
+                onThreadFailed(t);
+            }
+        }
+    }
+
+    private class LearnerThread extends Thread {
+        @Override
+        public void run() {
+            if(executionPlan != null) {
+                executionPlan.onLearningThreadStarted(0);
+            }
+            try {
+                while(!shouldStop) {
+                    if(!learner.learn()) {
+                        // Not enough experience yet; stop() unparks the thread
+                        LockSupport.parkNanos(LEARNER_WAIT_NANOS);
+                    }
+                }
+            } catch (Throwable t) {
+                onThreadFailed(t);
+            }
+        }
+    }
+}
@@ -20,26 +20,67 @@
 package org.deeplearning4j.rl4j.trainer;
 
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.builder.Builder;
+import org.deeplearning4j.rl4j.agent.Agent;
 import org.deeplearning4j.rl4j.agent.IAgentLearner;
+import org.deeplearning4j.rl4j.agent.listener.AgentListener;
+import org.deeplearning4j.rl4j.environment.StepResult;
+import org.deeplearning4j.rl4j.observation.Observation;
 import org.nd4j.common.base.Preconditions;
-import org.nd4j.linalg.factory.Nd4j;
 
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 
 // TODO: Add listeners & events
 
+/**
+ * Trains with several workers, each one running the episodes of its own {@link IAgentLearner}, on an {@link ExecutorService}.
+ * <br>
+ * The thread calling {@link #train()} coordinates the workers: it evaluates the stopping condition when episodes end
+ * (once for all the episodes that ended since the last evaluation), and, in the elastic mode, adapts the number of
+ * workers. When the training stops, the workers don't start new episodes; the running episodes finish, or, after
+ * <i>stopTimeoutMillis</i>, are aborted.
+ * <br>
+ * If a worker fails, the training stops as if the stopping condition was met, and {@link #train()} rethrows the first failure.
+ */
+@Slf4j
 public class AsyncTrainer<ACTION> implements ITrainer {
 
     private final Builder<IAgentLearner<ACTION>> agentLearnerBuilder;
     private final Predicate<AsyncTrainer<ACTION>> stoppingCondition;
 
     private final int numThreads;
-    private final AtomicInteger episodeCount = new AtomicInteger();
-    private final AtomicInteger stepCount = new AtomicInteger();
 
-    private boolean shouldStop = false;
+    private volatile boolean shouldStop = false;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    // One permit per ended episode (or exited worker); wakes the coordinator
+    private final Semaphore episodeEndSignal = new Semaphore(0);
+    private final AtomicInteger numRunningWorkers = new AtomicInteger();
+
+    private final CpuExecutionPlan executionPlan;
+
+    private final ElasticWorkerController.Configuration elasticConfiguration;
+    private ElasticWorkerController elasticController;
+
+    private final ExecutorService executorService;
+    private final long stopTimeoutMillis;
+    private ExecutorService workerExecutor;
+
+    // The workers, with their AgentLearner, are kept when retired and restarted when more workers are needed
+    private final List<Worker> workers = new CopyOnWriteArrayList<>();
+    private volatile int numActiveThreads;
 
     /**
      * Build a AsyncTrainer that will train until a stopping condition is met.
@@ -50,76 +91,378 @@ public class AsyncTrainer<ACTION> implements ITrainer {
      * @param stoppingCondition the training will stop when this condition evaluates to true
      * @param numThreads the number of threads to run in parallel
      */
-    @lombok.Builder
     public AsyncTrainer(@NonNull Builder<IAgentLearner<ACTION>> agentLearnerBuilder,
                         @NonNull Predicate<AsyncTrainer<ACTION>> stoppingCondition,
                         int numThreads) {
+        this(agentLearnerBuilder, stoppingCondition, numThreads, null, null, null, 0);
+    }
+
+    /**
+     * Build a AsyncTrainer that will train until a stopping condition is met.
+     * @param agentLearnerBuilder the builder that will be used to create the agent-learner instances.
+     * @param stoppingCondition the training will stop when this condition evaluates to true
+     * @param numThreads the number of threads to run in parallel; the initial number of threads in the elastic mode.
+     * @param executionPlanConfiguration how the CPU cores are distributed among the threads. (See {@link CpuExecutionPlan})
+     *                                   Can be null; the threads then run on any core, with the default numbers of native threads.
+     * @param elasticConfiguration if set, the number of threads is adapted to the measured throughput, between
+     *                             <i>minWorkers</i> and <i>maxWorkers</i>. (See {@link ElasticWorkerController}) Can be null.
+     */
+    public AsyncTrainer(@NonNull Builder<IAgentLearner<ACTION>> agentLearnerBuilder,
+                        @NonNull Predicate<AsyncTrainer<ACTION>> stoppingCondition,
+                        int numThreads,
+                        CpuExecutionPlan.Configuration executionPlanConfiguration,
+                        ElasticWorkerController.Configuration elasticConfiguration) {
+        this(agentLearnerBuilder, stoppingCondition, numThreads, executionPlanConfiguration, elasticConfiguration, null, 0);
+    }
+
+    /**
+     * Build a AsyncTrainer that will train until a stopping condition is met.
+     * @param agentLearnerBuilder the builder that will be used to create the agent-learner instances.
+     * @param stoppingCondition the training will stop when this condition evaluates to true. Only evaluated by the
+     *                          thread calling {@link #train()}.
+     * @param numThreads the number of workers to run in parallel; the initial number of workers in the elastic mode.
+     * @param executionPlanConfiguration how the CPU cores are distributed among the workers. (See {@link CpuExecutionPlan})
+     *                                   Can be null. Pinning is meant for platform threads; don't combine it with virtual threads.
+     * @param elasticConfiguration if set, the number of workers is adapted to the measured throughput, between
+     *                             <i>minWorkers</i> and <i>maxWorkers</i>. (See {@link ElasticWorkerController}) Can be null.
+     * @param executorService the executor that runs the workers, for instance a virtual thread executor from
+     *                        {@link WorkerExecutors}. It is not shut down by the trainer. Can be null; each worker then
+     *                        runs on its own platform thread.
+     * @param stopTimeoutMillis the time given to the running episodes to finish once the training stops; the episodes
+     *                          still running after are aborted. 0 to wait until they finish.
+     */
+    @lombok.Builder
+    public AsyncTrainer(@NonNull Builder<IAgentLearner<ACTION>> agentLearnerBuilder,
+                        @NonNull Predicate<AsyncTrainer<ACTION>> stoppingCondition,
+                        int numThreads,
+                        CpuExecutionPlan.Configuration executionPlanConfiguration,
+                        ElasticWorkerController.Configuration elasticConfiguration,
+                        ExecutorService executorService,
+                        long stopTimeoutMillis) {
         Preconditions.checkArgument(numThreads > 0, "numThreads must be greater than 0, got: ", numThreads);
+        Preconditions.checkArgument(stopTimeoutMillis >= 0, "stopTimeoutMillis must be 0 or greater, got: %s", stopTimeoutMillis);
 
         this.agentLearnerBuilder = agentLearnerBuilder;
         this.stoppingCondition = stoppingCondition;
         this.numThreads = numThreads;
+        this.elasticConfiguration = elasticConfiguration;
+        this.executorService = executorService;
+        this.stopTimeoutMillis = stopTimeoutMillis;
+
+        // Validates the elastic configuration; a new controller is created by every train()
+        int maxThreads = elasticConfiguration == null ? numThreads : new ElasticWorkerController(elasticConfiguration, numThreads).getMaxWorkers();
+        this.executionPlan = executionPlanConfiguration == null ? null : new CpuExecutionPlan(executionPlanConfiguration, maxThreads, 0);
     }
 
+    /**
+     * Run the workers until the stopping condition is met. If a worker fails, all the workers are stopped and the
+     * first failure is rethrown.
+     */
     public void train() {
         reset();
-        Thread[] threads = new Thread[numThreads];
+        if(executionPlan != null) {
+            executionPlan.applyNativeThreads();
+        }
 
-        for(int i = 0; i < numThreads; ++i) {
-            AgentLearnerThread thread = new AgentLearnerThread(agentLearnerBuilder.build(), i);
-            threads[i] = thread;
-            thread.start();
+        workerExecutor = executorService != null ? executorService : WorkerExecutors.newPlatformThreadExecutor();
+        try {
+            if(elasticConfiguration == null) {
+                setNumActiveThreads(numThreads);
+            } else {
+                elasticController = new ElasticWorkerController(elasticConfiguration, numThreads);
+                setNumActiveThreads(elasticController.getNumWorkers());
+            }
+
+            coordinate();
+            awaitWorkers();
+            closeAgentLearners();
+            rethrowFailure();
+        } finally {
+            if(executorService == null) {
+                workerExecutor.shutdown();
+            }
+            workerExecutor = null;
         }
+    }
 
-        // Wait for all threads to finish
-        for (Thread thread : threads) {
-            try {
-                thread.join();
-            } catch (InterruptedException e) {
-                // Ignore
+    // Evaluates the stopping condition when episodes end and samples the counters of the elastic mode, until the
+    // training stops or all workers have exited
+    private void coordinate() {
+        long samplePeriodMillis = elasticConfiguration == null ? 0 : elasticConfiguration.getSamplePeriodMillis();
+        long nextSampleTime = System.currentTimeMillis() + samplePeriodMillis;
+
+        try {
+            while(!shouldStop && numRunningWorkers.get() > 0) {
+                long timeoutMillis = elasticConfiguration == null
+                        ? Long.MAX_VALUE
+                        : Math.max(0, nextSampleTime - System.currentTimeMillis());
+
+                if(episodeEndSignal.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    episodeEndSignal.drainPermits();
+                    if(stoppingCondition.test(this)) {
+                        stop();
+                        break;
+                    }
+                }
+
+                if(elasticConfiguration != null && !shouldStop && System.currentTimeMillis() >= nextSampleTime) {
+                    int updateCount = elasticConfiguration.getUpdateCountSupplier() == null ? 0 : elasticConfiguration.getUpdateCountSupplier().getAsInt();
+                    setNumActiveThreads(elasticController.onSample(System.currentTimeMillis(), getStepCount(), updateCount));
+                    nextSampleTime += samplePeriodMillis;
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop();
+        }
+    }
+
+    // Waits for the running episodes to finish, and aborts those still running after stopTimeoutMillis
+    private void awaitWorkers() {
+        long deadline = stopTimeoutMillis == 0 ? 0 : System.currentTimeMillis() + stopTimeoutMillis;
+        for(Worker worker : workers) {
+            worker.await(deadline);
         }
     }
 
+    // The AgentLearners of the aborted workers may still be running; they are left as they are
+    private void closeAgentLearners() {
+        for(Worker worker : workers) {
+            if(!worker.isAborted) {
+                worker.agentLearner.close();
+            }
+        }
+    }
+
+    private void rethrowFailure() {
+        Throwable firstFailure = failure.get();
+        if(firstFailure instanceof RuntimeException) {
+            throw (RuntimeException) firstFailure;
+        }
+        if(firstFailure instanceof Error) {
+            throw (Error) firstFailure;
+        }
+        if(firstFailure != null) {
+            throw new RuntimeException("A worker of the AsyncTrainer has failed", firstFailure);
+        }
+    }
+
+    private void onWorkerFailed(Throwable t) {
+        failure.compareAndSet(null, t);
+        stop();
+    }
+
+    // The workers [0, numActiveThreads[ run; a retired worker finishes its episode, so the experience it has not yet
+    // learned from is handled by the end-of-episode of its learning behavior, and exits.
+    private void setNumActiveThreads(int newNumActiveThreads) {
+        for(int i = numActiveThreads; i < newNumActiveThreads; ++i) {
+            if(i == workers.size()) {
+                workers.add(new Worker(agentLearnerBuilder.build(), i));
+            } else if(!workers.get(i).awaitRetired()) {
+                newNumActiveThreads = i;
+                break;
+            }
+
+            workers.get(i).start();
+        }
+
+        for(int i = newNumActiveThreads; i < numActiveThreads; ++i) {
+            workers.get(i).retire();
+        }
+
+        numActiveThreads = newNumActiveThreads;
+    }
+
     private void reset() {
-        episodeCount.set(0);
-        stepCount.set(0);
         shouldStop = false;
+        failure.set(null);
+        episodeEndSignal.drainPermits();
+        numRunningWorkers.set(0);
+        workers.clear();
+        numActiveThreads = 0;
+    }
+
+    private void stop() {
+        shouldStop = true;
     }
 
     public int getEpisodeCount() {
-        return episodeCount.get();
+        int result = 0;
+        for(Worker worker : workers) {
+            result += worker.episodeCount;
+        }
+        return result;
     }
 
     public int getStepCount() {
-        return stepCount.get();
+        int result = 0;
+        for(Worker worker : workers) {
+            result += worker.stepCount;
+        }
+        return result;
     }
 
-    private void onEpisodeEnded(int numStepsInEpisode) {
-        episodeCount.incrementAndGet();
-        stepCount.addAndGet(numStepsInEpisode);
-        if(stoppingCondition.test(this)) {
-            shouldStop = true;
-        }
+    /**
+     * @return The number of workers currently running (excluding the retired workers finishing their episode)
+     */
+    public int getNumActiveThreads() {
+        return numActiveThreads;
     }
 
-    private class AgentLearnerThread extends Thread {
+    /**
+     * @return The controller of the elastic mode, with the measured throughput. Null if not in the elastic mode or
+     * before train() is called.
+     */
+    public ElasticWorkerController getElasticController() {
+        return elasticController;
+    }
+
+    private class Worker implements Runnable {
         private final IAgentLearner<ACTION> agentLearner;
-        private final int deviceNum;
+        private final int workerIdx;
+
+        // Each counter is written only by its worker; the totals are the sums over the workers
+        private volatile int episodeCount = 0;
+        private volatile int stepCount = 0;
+
+        // When the AgentLearner is an Agent, the steps are counted as they are taken instead of at the end of the episode
+        private final boolean isCountingEachStep;
 
-        public AgentLearnerThread(IAgentLearner<ACTION> agentLearner, int deviceNum) {
+        private volatile boolean isRetired = false;
+        private volatile boolean isAborted = false;
+        private Future<?> future;
+
+        public Worker(IAgentLearner<ACTION> agentLearner, int workerIdx) {
             this.agentLearner = agentLearner;
-            this.deviceNum = deviceNum;
+            this.workerIdx = workerIdx;
+
+            isCountingEachStep = agentLearner instanceof Agent;
+            if(isCountingEachStep) {
+                ((Agent<ACTION>) agentLearner).addListener(new WorkerListener(this));
+            }
+        }
+
+        public void start() {
+            isRetired = false;
+            numRunningWorkers.incrementAndGet();
+            future = workerExecutor.submit(this);
+        }
+
+        public void retire() {
+            isRetired = true;
+        }
+
+        // The AgentLearner can't be run by two tasks; let the retired one drain first. A worker is not restarted once
+        // the training stops, in particular after a failure.
+        public boolean awaitRetired() {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException e) {
+                onWorkerFailed(e.getCause());
+            } catch (CancellationException e) {
+                // Aborted
+            }
+            return !shouldStop;
+        }
+
+        public void await(long deadline) {
+            if(future == null) {
+                return;
+            }
+
+            try {
+                if(deadline == 0) {
+                    future.get();
+                } else {
+                    future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                }
+            } catch (TimeoutException e) {
+                abort();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abort();
+            } catch (ExecutionException e) {
+                onWorkerFailed(e.getCause());
+            } catch (CancellationException e) {
+                // Aborted
+            }
+        }
+
+        // The episode stops at the next step (when the AgentLearner is an Agent) or when the interrupted environment returns
+        private void abort() {
+            isAborted = true;
+            future.cancel(true);
         }
 
         @Override
         public void run() {
-            Nd4j.getAffinityManager().unsafeSetDevice(deviceNum);
-            while(!shouldStop) {
-                agentLearner.run();
-                onEpisodeEnded(agentLearner.getEpisodeStepCount());
+            if(executionPlan != null) {
+                executionPlan.onActingThreadStarted(workerIdx);
+            } else {
+                CpuExecutionPlan.selectDevice(workerIdx);
             }
+
+            try {
+                while(!shouldStop && !isRetired) {
+                    agentLearner.run();
+                    if(isAborted) {
+                        break;
+                    }
+
+                    if(!isCountingEachStep) {
+                        stepCount += agentLearner.getEpisodeStepCount();
+                    }
+                    ++episodeCount;
+                    episodeEndSignal.release();
+                }
+            } catch (Throwable t) {
+                // An aborted episode may end with an exception; it's not a failure
+                if(!isAborted) {
+                    log.error("AsyncTrainer worker {} failed", workerIdx, t);
+                    onWorkerFailed(t);
+                }
+            } finally {
+                numRunningWorkers.decrementAndGet();
+                episodeEndSignal.release();
+            }
+        }
+    }
+
+    // Counts the steps of the worker and stops its episode when it is aborted
+    private class WorkerListener implements AgentListener<ACTION> {
+        private final Worker worker;
+
+        public WorkerListener(Worker worker) {
+            this.worker = worker;
+        }
+
+        private ListenerResponse getResponse() {
+            return worker.isAborted ? ListenerResponse.STOP : ListenerResponse.CONTINUE;
+        }
+
+        @Override
+        public ListenerResponse onBeforeEpisode(Agent agent) {
+            return getResponse();
+        }
+
+        @Override
+        public ListenerResponse onBeforeStep(Agent agent, Observation observation, ACTION action) {
+            return getResponse();
         }
 
+        @Override
+        public ListenerResponse onAfterStep(Agent agent, StepResult stepResult) {
+            // Only the worker's thread writes its counter
+            ++worker.stepCount;
+            return getResponse();
+        }
+
+        @Override
+        public void onAfterEpisode(Agent agent) {
+            // Do Nothing
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,234 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.trainer;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.SuperBuilder;
+import org.nd4j.common.base.Preconditions;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.stream.IntStream;
+
+/**
+ * Distributes the CPU cores among the threads of a trainer, to avoid the oversubscription that happens when every
+ * thread runs its native ops on a pool as large as the machine.
+ * <br>
+ * The cores are split in an acting budget, shared by the threads that step the environments (and train, in the
+ * asynchronous setup), and a learning budget, for the dedicated learner threads (see {@link ActorLearnerTrainer}).
+ * Each thread gets a contiguous block of cores of its budget, or, with {@link Pinning#NumaNode}, all the cores of the
+ * NUMA nodes of its block, and is pinned to it with the configured {@link ICorePinner}.
+ * <br>
+ * The numbers of threads of ND4J and of the BLAS library are process-wide: they are set to the number of cores per
+ * acting thread, which is the size of the thread pool each thread uses for its native ops.
+ */
+public class CpuExecutionPlan {
+
+    private final int[][] actingThreadCores;
+    private final int[][] learningThreadCores;
+    private final ICorePinner corePinner;
+
+    /**
+     * The number of threads used for the native ops (ND4J and BLAS) by each calling thread
+     */
+    @Getter
+    private final int nativeThreads;
+
+    /**
+     * @param configuration The budgets and the pinning configuration
+     * @param numActingThreads The number of threads that step the environments
+     * @param numLearningThreads The number of dedicated learner threads
+     */
+    public CpuExecutionPlan(@NonNull Configuration configuration, int numActingThreads, int numLearningThreads) {
+        int totalCores = configuration.getTotalCores() > 0 ? configuration.getTotalCores() : Runtime.getRuntime().availableProcessors();
+        int learningCores = configuration.getLearningCores();
+        Preconditions.checkArgument(numActingThreads > 0, "numActingThreads must be greater than 0, got %s", numActingThreads);
+        Preconditions.checkArgument(numLearningThreads >= 0, "numLearningThreads must be 0 or greater, got %s", numLearningThreads);
+        Preconditions.checkArgument(learningCores >= 0 && learningCores < totalCores, "Configuration: learningCores must be between 0 and totalCores - 1 (%s), got %s", totalCores - 1, learningCores);
+        Preconditions.checkArgument(configuration.getNativeThreads() >= 0, "Configuration: nativeThreads must be 0 or greater, got %s", configuration.getNativeThreads());
+
+        int actingCores = totalCores - learningCores;
+        int coresPerNumaNode = configuration.getCoresPerNumaNode() > 0 ? configuration.getCoresPerNumaNode() : totalCores;
+        boolean isNumaPinning = configuration.getPinning() == Pinning.NumaNode;
+
+        actingThreadCores = assignCores(0, actingCores, numActingThreads, isNumaPinning, coresPerNumaNode, totalCores);
+        // Without a learning budget, the learner threads share the acting cores
+        learningThreadCores = learningCores > 0
+                ? assignCores(actingCores, learningCores, numLearningThreads, isNumaPinning, coresPerNumaNode, totalCores)
+                : assignCores(0, actingCores, numLearningThreads, isNumaPinning, coresPerNumaNode, totalCores);
+
+        nativeThreads = configuration.getNativeThreads() > 0
+                ? configuration.getNativeThreads()
+                : Math.max(1, actingCores / numActingThreads);
+
+        corePinner = configuration.getPinning() == Pinning.None
+                ? null
+                : (configuration.getCorePinner() != null ? configuration.getCorePinner() : new TasksetCorePinner());
+    }
+
+    // Each thread gets a contiguous block of the cores [firstCore, firstCore + numCores[; the blocks are as equal as
+    // possible. With more threads than cores, the threads share the cores round-robin.
+    private static int[][] assignCores(int firstCore, int numCores, int numThreads, boolean isNumaPinning, int coresPerNumaNode, int totalCores) {
+        int[][] result = new int[numThreads][];
+        for(int i = 0; i < numThreads; ++i) {
+            int blockStart;
+            int blockEnd;
+            if(numThreads <= numCores) {
+                blockStart = firstCore + (int) ((long) i * numCores / numThreads);
+                blockEnd = firstCore + (int) ((long) (i + 1) * numCores / numThreads);
+            } else {
+                blockStart = firstCore + i % numCores;
+                blockEnd = blockStart + 1;
+            }
+
+            if(isNumaPinning) {
+                blockStart = (blockStart / coresPerNumaNode) * coresPerNumaNode;
+                blockEnd = Math.min(totalCores, ((blockEnd - 1) / coresPerNumaNode + 1) * coresPerNumaNode);
+            }
+
+            result[i] = IntStream.range(blockStart, blockEnd).toArray();
+        }
+
+        return result;
+    }
+
+    /**
+     * @param threadIdx The index of an acting thread
+     * @return The cores of the acting thread
+     */
+    public int[] getActingThreadCores(int threadIdx) {
+        return actingThreadCores[threadIdx].clone();
+    }
+
+    /**
+     * @param threadIdx The index of a learner thread
+     * @return The cores of the learner thread
+     */
+    public int[] getLearningThreadCores(int threadIdx) {
+        return learningThreadCores[threadIdx].clone();
+    }
+
+    /**
+     * Set the process-wide numbers of threads of ND4J and of the BLAS library. Should be called before the threads start.
+     */
+    public void applyNativeThreads() {
+        Nd4j.getEnvironment().setMaxMasterThreads(nativeThreads);
+        Nd4j.getEnvironment().setMaxThreads(nativeThreads);
+        Nd4j.factory().blas().setMaxThreads(nativeThreads);
+    }
+
+    /**
+     * Must be called by an acting thread when it starts: pins it and selects its device.
+     * @param threadIdx The index of the acting thread
+     */
+    public void onActingThreadStarted(int threadIdx) {
+        onThreadStarted(actingThreadCores[threadIdx], threadIdx);
+    }
+
+    /**
+     * Must be called by a learner thread when it starts: pins it and selects its device.
+     * @param threadIdx The index of the learner thread
+     */
+    public void onLearningThreadStarted(int threadIdx) {
+        onThreadStarted(learningThreadCores[threadIdx], threadIdx);
+    }
+
+    private void onThreadStarted(int[] cores, int threadIdx) {
+        selectDevice(threadIdx);
+        if(corePinner != null) {
+            corePinner.pin(cores);
+        }
+    }
+
+    /**
+     * Spread the threads over the devices. Only done when there is more than one device; with the CPU backend, the
+     * device is always 0.
+     * @param threadIdx The index of the thread
+     */
+    public static void selectDevice(int threadIdx) {
+        int numDevices = Nd4j.getAffinityManager().getNumberOfDevices();
+        if(numDevices > 1) {
+            Nd4j.getAffinityManager().unsafeSetDevice(threadIdx % numDevices);
+        }
+    }
+
+    /**
+     * How the threads are pinned to their cores
+     */
+    public enum Pinning {
+        /**
+         * The threads are not pinned; only the numbers of native threads are set
+         */
+        None,
+
+        /**
+         * Each thread is pinned to its block of cores
+         */
+        Cores,
+
+        /**
+         * Each thread is pinned to all the cores of the NUMA nodes of its block of cores
+         */
+        NumaNode,
+    }
+
+    @SuperBuilder
+    @Data
+    public static class Configuration {
+        /**
+         * The number of cores to use. Default is 0 (all the available processors)
+         */
+        @Builder.Default
+        private int totalCores = 0;
+
+        /**
+         * The number of cores reserved for the learner threads; the acting threads get the others. Default is 0 (the
+         * learner threads, if any, share the cores of the acting threads)
+         */
+        @Builder.Default
+        private int learningCores = 0;
+
+        /**
+         * The number of threads used by the native ops of each thread. Default is 0 (the number of acting cores per
+         * acting thread)
+         */
+        @Builder.Default
+        private int nativeThreads = 0;
+
+        /**
+         * How the threads are pinned to their cores. Default is None
+         */
+        @Builder.Default
+        private Pinning pinning = Pinning.None;
+
+        /**
+         * The number of consecutive cores of a NUMA node; used with {@link Pinning#NumaNode}. Default is 0 (a single node)
+         */
+        @Builder.Default
+        private int coresPerNumaNode = 0;
+
+        /**
+         * Pins the threads when <i>pinning</i> isn't None. Default is null (a {@link TasksetCorePinner})
+         */
+        private ICorePinner corePinner;
+    }
+}
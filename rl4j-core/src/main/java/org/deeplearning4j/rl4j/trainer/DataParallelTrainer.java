@@ -0,0 +1,168 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.trainer;
+
+import lombok.NonNull;
+import org.apache.commons.lang3.builder.Builder;
+import org.deeplearning4j.rl4j.agent.IAgentLearner;
+import org.deeplearning4j.rl4j.agent.learning.update.updater.async.DataParallelSharedNetworksUpdateHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+// TODO: Add listeners & events
+
+/**
+ * A synchronous data-parallel trainer: one worker thread per worker of the {@link DataParallelSharedNetworksUpdateHandler},
+ * each one with its own environment. The workers compute their gradients in parallel and all of them are summed
+ * into a single update of the global network; the effective batch is the sum of the batches of the workers.
+ * (See {@link org.deeplearning4j.rl4j.builder.BaseAsyncAgentLearnerBuilder.Configuration#dataParallelConfiguration dataParallelConfiguration})
+ */
+public class DataParallelTrainer<ACTION> implements ITrainer {
+
+    private final Builder<IAgentLearner<ACTION>> agentLearnerBuilder;
+    private final DataParallelSharedNetworksUpdateHandler sharedNetworksUpdateHandler;
+    private final Predicate<DataParallelTrainer<ACTION>> stoppingCondition;
+
+    private final AtomicInteger episodeCount = new AtomicInteger();
+    private final AtomicInteger stepCount = new AtomicInteger();
+
+    private volatile boolean shouldStop = false;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Build a DataParallelTrainer that will train until a stopping condition is met.
+     * @param agentLearnerBuilder the builder that will be used to create the workers. Their gradients must be handled
+     *                            by <i>sharedNetworksUpdateHandler</i>.
+     * @param sharedNetworksUpdateHandler the handler that reduces and applies the gradients of the workers. The number
+     *                                    of worker threads is its number of workers.
+     * @param stoppingCondition the training will stop when this condition evaluates to true. It is evaluated after every episode.
+     */
+    @lombok.Builder
+    public DataParallelTrainer(@NonNull Builder<IAgentLearner<ACTION>> agentLearnerBuilder,
+                               @NonNull DataParallelSharedNetworksUpdateHandler sharedNetworksUpdateHandler,
+                               @NonNull Predicate<DataParallelTrainer<ACTION>> stoppingCondition) {
+        this.agentLearnerBuilder = agentLearnerBuilder;
+        this.sharedNetworksUpdateHandler = sharedNetworksUpdateHandler;
+        this.stoppingCondition = stoppingCondition;
+    }
+
+    /**
+     * Run the workers until the stopping condition is met. If a worker fails, all the workers are stopped and the
+     * first failure is rethrown.
+     */
+    public void train() {
+        reset();
+        int numWorkers = sharedNetworksUpdateHandler.getNumWorkers();
+        Thread[] threads = new Thread[numWorkers];
+        List<IAgentLearner<ACTION>> agentLearners = new ArrayList<>();
+
+        for(int i = 0; i < numWorkers; ++i) {
+            agentLearners.add(agentLearnerBuilder.build());
+            threads[i] = new WorkerThread(agentLearners.get(i), i);
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        // Wait for all threads to finish
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                // Ignore
+            }
+        }
+
+        for(IAgentLearner<ACTION> agentLearner : agentLearners) {
+            agentLearner.close();
+        }
+
+        Throwable firstFailure = failure.get();
+        if(firstFailure instanceof RuntimeException) {
+            throw (RuntimeException) firstFailure;
+        }
+        if(firstFailure instanceof Error) {
+            throw (Error) firstFailure;
+        }
+        if(firstFailure != null) {
+            throw new RuntimeException("A worker of the DataParallelTrainer has failed", firstFailure);
+        }
+    }
+
+    private void reset() {
+        episodeCount.set(0);
+        stepCount.set(0);
+        shouldStop = false;
+        failure.set(null);
+        sharedNetworksUpdateHandler.reset();
+    }
+
+    public int getEpisodeCount() {
+        return episodeCount.get();
+    }
+
+    public int getStepCount() {
+        return stepCount.get();
+    }
+
+    private void onEpisodeEnded(int numStepsInEpisode) {
+        episodeCount.incrementAndGet();
+        stepCount.addAndGet(numStepsInEpisode);
+        if(stoppingCondition.test(this)) {
+            stopWorkers();
+        }
+    }
+
+    // The other workers may be waiting for the gradients of a worker that won't submit any more
+    private void stopWorkers() {
+        shouldStop = true;
+        sharedNetworksUpdateHandler.stop();
+    }
+
+    private class WorkerThread extends Thread {
+        private final IAgentLearner<ACTION> agentLearner;
+        private final int deviceNum;
+
+        public WorkerThread(IAgentLearner<ACTION> agentLearner, int deviceNum) {
+            this.agentLearner = agentLearner;
+            this.deviceNum = deviceNum;
+        }
+
+        @Override
+        public void run() {
+            CpuExecutionPlan.selectDevice(deviceNum);
+            try {
+                while(!shouldStop) {
+                    agentLearner.run();
+                    onEpisodeEnded(agentLearner.getEpisodeStepCount());
+                }
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            } finally {
+                stopWorkers();
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.trainer;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.SuperBuilder;
+import org.nd4j.common.base.Preconditions;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Decides how many workers an elastic {@link AsyncTrainer} should run, from the throughput measured over a sliding
+ * window of samples of the step and update counts.
+ * <br>
+ * It hill-climbs: when the window is full, it probes one more (or one less) worker. A probe is kept if, over the next
+ * full window, adding a worker increased the env steps per second by at least <i>minImprovement</i>, or removing one
+ * lost less than <i>minImprovement</i>. When an update count is available, a probe that lowers the updates per second by
+ * more than <i>minImprovement</i> is never kept; more workers can mean more contention on the shared networks. A failed
+ * probe is reverted and the next one goes the other way. After a failed probe in both directions, the count is held
+ * for <i>holdWindows</i> windows before probing again, to follow a workload that changes over time.
+ */
+public class ElasticWorkerController {
+
+    private final int windowSize;
+    private final double minImprovement;
+    private final int holdWindows;
+
+    @Getter
+    private final int minWorkers;
+
+    @Getter
+    private final int maxWorkers;
+
+    private final long[] sampleTimes;
+    private final int[] sampleStepCounts;
+    private final int[] sampleUpdateCounts;
+    private int nextSampleIdx;
+    private int numSamples;
+
+    /**
+     * The number of workers that should run
+     */
+    @Getter
+    private int numWorkers;
+
+    /**
+     * The env steps per second over the last full window
+     */
+    @Getter
+    private double stepsPerSecond;
+
+    /**
+     * The updates per second over the last full window
+     */
+    @Getter
+    private double updatesPerSecond;
+
+    private int probeDirection = 1;
+    private boolean isProbing = false;
+    private double stepsPerSecondBeforeProbe;
+    private double updatesPerSecondBeforeProbe;
+    private int numFailedProbes = 0;
+    private int numHoldSamples = 0;
+
+    /**
+     * @param configuration The configuration of the controller
+     * @param initialNumWorkers The number of workers to start with. Clamped to [minWorkers, maxWorkers].
+     */
+    public ElasticWorkerController(@NonNull Configuration configuration, int initialNumWorkers) {
+        Preconditions.checkArgument(configuration.getMinWorkers() > 0, "Configuration: minWorkers must be greater than 0, got %s", configuration.getMinWorkers());
+        Preconditions.checkArgument(configuration.getMaxWorkers() >= 0, "Configuration: maxWorkers must be 0 or greater, got %s", configuration.getMaxWorkers());
+        Preconditions.checkArgument(configuration.getSamplePeriodMillis() > 0, "Configuration: samplePeriodMillis must be greater than 0, got %s", configuration.getSamplePeriodMillis());
+        Preconditions.checkArgument(configuration.getWindowSize() > 1, "Configuration: windowSize must be greater than 1, got %s", configuration.getWindowSize());
+        Preconditions.checkArgument(configuration.getMinImprovement() >= 0.0, "Configuration: minImprovement must be 0 or greater, got %s", configuration.getMinImprovement());
+        Preconditions.checkArgument(configuration.getHoldWindows() >= 0, "Configuration: holdWindows must be 0 or greater, got %s", configuration.getHoldWindows());
+
+        minWorkers = configuration.getMinWorkers();
+        maxWorkers = configuration.getMaxWorkers() > 0
+                ? configuration.getMaxWorkers()
+                : Math.max(minWorkers, Runtime.getRuntime().availableProcessors());
+        Preconditions.checkArgument(maxWorkers >= minWorkers, "Configuration: maxWorkers must be at least minWorkers (%s), got %s", minWorkers, maxWorkers);
+
+        windowSize = configuration.getWindowSize();
+        minImprovement = configuration.getMinImprovement();
+        holdWindows = configuration.getHoldWindows();
+
+        sampleTimes = new long[windowSize];
+        sampleStepCounts = new int[windowSize];
+        sampleUpdateCounts = new int[windowSize];
+
+        numWorkers = Math.min(maxWorkers, Math.max(minWorkers, initialNumWorkers));
+    }
+
+    /**
+     * Record a sample of the counters and decide the number of workers.
+     * @param timeMillis The time of the sample, in milliseconds
+     * @param stepCount The total number of env steps
+     * @param updateCount The total number of updates, or 0 if not measured
+     * @return The number of workers that should run
+     */
+    public int onSample(long timeMillis, int stepCount, int updateCount) {
+        sampleTimes[nextSampleIdx] = timeMillis;
+        sampleStepCounts[nextSampleIdx] = stepCount;
+        sampleUpdateCounts[nextSampleIdx] = updateCount;
+        nextSampleIdx = (nextSampleIdx + 1) % windowSize;
+        if(numSamples < windowSize) {
+            ++numSamples;
+            if(numSamples < windowSize) {
+                return numWorkers;
+            }
+        }
+
+        computeRates();
+
+        if(isProbing) {
+            evaluateProbe();
+        } else if(numFailedProbes >= 2) {
+            // Both directions failed: hold, with the window sliding
+            if(++numHoldSamples >= holdWindows * windowSize) {
+                numFailedProbes = 0;
+                numHoldSamples = 0;
+            }
+        } else {
+            startProbe();
+        }
+
+        return numWorkers;
+    }
+
+    private void computeRates() {
+        int newestIdx = (nextSampleIdx + windowSize - 1) % windowSize;
+        int oldestIdx = nextSampleIdx;
+        long elapsedMillis = sampleTimes[newestIdx] - sampleTimes[oldestIdx];
+        if(elapsedMillis > 0) {
+            stepsPerSecond = (sampleStepCounts[newestIdx] - sampleStepCounts[oldestIdx]) * 1000.0 / elapsedMillis;
+            updatesPerSecond = (sampleUpdateCounts[newestIdx] - sampleUpdateCounts[oldestIdx]) * 1000.0 / elapsedMillis;
+        }
+    }
+
+    private void evaluateProbe() {
+        isProbing = false;
+
+        boolean areUpdatesKept = updatesPerSecond >= updatesPerSecondBeforeProbe * (1.0 - minImprovement);
+        boolean isKept = probeDirection > 0
+                ? stepsPerSecond > stepsPerSecondBeforeProbe * (1.0 + minImprovement)
+                : stepsPerSecond >= stepsPerSecondBeforeProbe * (1.0 - minImprovement);
+
+        if(isKept && areUpdatesKept) {
+            numFailedProbes = 0;
+            startProbe();
+        } else {
+            ++numFailedProbes;
+            numWorkers -= probeDirection;
+            probeDirection = -probeDirection;
+            clearWindow();
+        }
+    }
+
+    private void startProbe() {
+        if(!canChange(probeDirection)) {
+            probeDirection = -probeDirection;
+            if(!canChange(probeDirection)) {
+                // minWorkers == maxWorkers
+                return;
+            }
+        }
+
+        stepsPerSecondBeforeProbe = stepsPerSecond;
+        updatesPerSecondBeforeProbe = updatesPerSecond;
+        numWorkers += probeDirection;
+        isProbing = true;
+        clearWindow();
+    }
+
+    private boolean canChange(int direction) {
+        int newNumWorkers = numWorkers + direction;
+        return newNumWorkers >= minWorkers && newNumWorkers <= maxWorkers;
+    }
+
+    // The throughput of a different number of workers is measured on a new window
+    private void clearWindow() {
+        numSamples = 0;
+        nextSampleIdx = 0;
+    }
+
+    @SuperBuilder
+    @Data
+    public static class Configuration {
+        /**
+         * The minimum number of workers. Default is 1
+         */
+        @Builder.Default
+        private int minWorkers = 1;
+
+        /**
+         * The maximum number of workers; the CPU budget. Default is 0 (the number of available processors)
+         */
+        @Builder.Default
+        private int maxWorkers = 0;
+
+        /**
+         * The time between two samples of the counters, in milliseconds. Default is 1000
+         */
+        @Builder.Default
+        private long samplePeriodMillis = 1000;
+
+        /**
+         * The number of samples of the sliding window over which the throughput is measured. Default is 5
+         */
+        @Builder.Default
+        private int windowSize = 5;
+
+        /**
+         * The relative change of throughput needed to keep a probe. Default is 0.05
+         */
+        @Builder.Default
+        private double minImprovement = 0.05;
+
+        /**
+         * The number of windows the number of workers is held after a failed probe in both directions. Default is 5
+         */
+        @Builder.Default
+        private int holdWindows = 5;
+
+        /**
+         * Returns the total number of updates of the shared networks, for instance
+         * {@link org.deeplearning4j.rl4j.builder.BaseAsyncAgentLearnerBuilder#getUpdateCount() BaseAsyncAgentLearnerBuilder::getUpdateCount}.
+         * Default is null (the updates are not measured)
+         */
+        private IntSupplier updateCountSupplier;
+    }
+}
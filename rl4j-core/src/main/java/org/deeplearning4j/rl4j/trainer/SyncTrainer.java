@@ -28,7 +28,7 @@ import java.util.function.Predicate;
 
 // TODO: Add listeners & events
 
-public class SyncTrainer<ACTION> implements ITrainer {
+public class SyncTrainer<ACTION> implements ITrainer, AutoCloseable {
 
     private final Predicate<SyncTrainer<ACTION>> stoppingCondition;
 
@@ -42,6 +42,8 @@ public class SyncTrainer<ACTION> implements ITrainer {
     @Getter
     final IAgentLearner<ACTION> agentLearner;
 
+    private final CpuExecutionPlan executionPlan;
+
     /**
      * Build a SyncTrainer that will train until a stopping condition is met.
      * @param agentLearnerBuilder the builder that will be used to create the agent-learner instance.
@@ -50,21 +52,48 @@ public class SyncTrainer<ACTION> implements ITrainer {
      *                            need is not met by BaseAgentLearnerBuilder.
      * @param stoppingCondition the training will stop when this condition evaluates to true
      */
-    @lombok.Builder
     public SyncTrainer(@NonNull Builder<IAgentLearner<ACTION>> agentLearnerBuilder,
                        @NonNull Predicate<SyncTrainer<ACTION>> stoppingCondition) {
+        this(agentLearnerBuilder, stoppingCondition, null);
+    }
+
+    /**
+     * Build a SyncTrainer that will train until a stopping condition is met.
+     * @param agentLearnerBuilder the builder that will be used to create the agent-learner instance.
+     * @param stoppingCondition the training will stop when this condition evaluates to true
+     * @param executionPlanConfiguration the CPU cores the training uses; the thread calling {@link #train()} is
+     *                                   pinned to them. (See {@link CpuExecutionPlan}) Can be null.
+     */
+    @lombok.Builder
+    public SyncTrainer(@NonNull Builder<IAgentLearner<ACTION>> agentLearnerBuilder,
+                       @NonNull Predicate<SyncTrainer<ACTION>> stoppingCondition,
+                       CpuExecutionPlan.Configuration executionPlanConfiguration) {
         this.stoppingCondition = stoppingCondition;
         agentLearner = agentLearnerBuilder.build();
+        executionPlan = executionPlanConfiguration == null ? null : new CpuExecutionPlan(executionPlanConfiguration, 1, 0);
     }
 
     public void train() {
         episodeCount = 0;
         stepCount = 0;
 
+        if(executionPlan != null) {
+            executionPlan.applyNativeThreads();
+            executionPlan.onActingThreadStarted(0);
+        }
+
         while (!stoppingCondition.test(this)) {
             agentLearner.run();
             ++episodeCount;
             stepCount += agentLearner.getEpisodeStepCount();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Close the agent-learner; to be called when the training is over. (See {@link IAgentLearner#close()})
+     */
+    @Override
+    public void close() {
+        agentLearner.close();
+    }
+}
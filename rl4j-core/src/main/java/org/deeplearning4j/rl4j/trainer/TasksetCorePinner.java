@@ -0,0 +1,61 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.trainer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * A Linux {@link ICorePinner} that uses the <i>taskset</i> command on the native id of the calling thread, read from
+ * /proc/thread-self. A failure to pin is logged and ignored: the thread keeps running on any core.
+ */
+@Slf4j
+public class TasksetCorePinner implements ICorePinner {
+
+    private static final Path THREAD_SELF = Paths.get("/proc/thread-self");
+
+    @Override
+    public void pin(int[] cores) {
+        try {
+            // The link is <pid>/task/<tid>
+            String nativeThreadId = Files.readSymbolicLink(THREAD_SELF).getFileName().toString();
+            String coreList = Arrays.stream(cores).mapToObj(Integer::toString).collect(Collectors.joining(","));
+
+            Process process = new ProcessBuilder("taskset", "-cp", coreList, nativeThreadId)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            int exitCode = process.waitFor();
+            if(exitCode != 0) {
+                log.warn("taskset failed to pin thread {} to cores {} (exit code {})", nativeThreadId, coreList, exitCode);
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("Could not pin the thread to cores {}: {}", Arrays.toString(cores), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.trainer;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.commons.lang3.builder.Builder;
+import org.deeplearning4j.rl4j.agent.VectorAgentLearner;
+
+import java.util.function.Predicate;
+
+/**
+ * A trainer that steps all the environments of a {@link VectorAgentLearner} in lockstep until a stopping condition is met.
+ * The stopping condition is checked after every step.
+ */
+public class VectorTrainer<ACTION> implements ITrainer, AutoCloseable {
+
+    private final Predicate<VectorTrainer<ACTION>> stoppingCondition;
+
+    @Getter
+    private int episodeCount;
+
+    @Getter
+    private int stepCount;
+
+    @Getter
+    final VectorAgentLearner<ACTION> agentLearner;
+
+    /**
+     * Build a VectorTrainer that will train until a stopping condition is met.
+     * @param agentLearnerBuilder the builder that will be used to create the vector agent-learner instance.
+     *                            (See {@link org.deeplearning4j.rl4j.builder.BaseAgentLearnerBuilder#buildVectorAgentLearner(int) BaseAgentLearnerBuilder.buildVectorAgentLearner()})
+     * @param stoppingCondition the training will stop when this condition evaluates to true
+     */
+    @lombok.Builder
+    public VectorTrainer(@NonNull Builder<VectorAgentLearner<ACTION>> agentLearnerBuilder,
+                         @NonNull Predicate<VectorTrainer<ACTION>> stoppingCondition) {
+        this.stoppingCondition = stoppingCondition;
+        agentLearner = agentLearnerBuilder.build();
+    }
+
+    public void train() {
+        episodeCount = 0;
+        stepCount = 0;
+
+        int numEnvironments = agentLearner.getNumEnvironments();
+        while (!stoppingCondition.test(this)) {
+            episodeCount += agentLearner.step();
+            stepCount += numEnvironments;
+        }
+    }
+
+    /**
+     * Close the agent-learner; to be called when the training is over. (See {@link VectorAgentLearner#close()})
+     */
+    @Override
+    public void close() {
+        agentLearner.close();
+    }
+}
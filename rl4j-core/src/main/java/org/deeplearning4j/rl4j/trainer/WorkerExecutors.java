@@ -0,0 +1,98 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.trainer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factories of the {@link ExecutorService} that runs the workers of an {@link AsyncTrainer}.
+ * <br>
+ * Virtual threads suit the workers whose environment blocks, on I/O or on a simulator process: thousands of them can
+ * wait on few platform threads. They are used only when the runtime provides them (Java 21+); this module is compiled
+ * for Java 17, so they are looked up at runtime.
+ */
+@Slf4j
+public final class WorkerExecutors {
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadPerTaskExecutor();
+
+    private WorkerExecutors() {
+    }
+
+    private static Method findVirtualThreadPerTaskExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the runtime provides virtual threads
+     */
+    public static boolean isVirtualThreadAvailable() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * @return An executor that starts a virtual thread for each worker
+     * @throws UnsupportedOperationException if the runtime doesn't provide virtual threads
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        if(!isVirtualThreadAvailable()) {
+            throw new UnsupportedOperationException("Virtual threads are not available in this runtime");
+        }
+
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new UnsupportedOperationException("Could not create a virtual thread executor", e);
+        }
+    }
+
+    /**
+     * @return An executor that runs each worker on its own platform thread
+     */
+    public static ExecutorService newPlatformThreadExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> new Thread(runnable, "AsyncTrainer-worker-" + threadCount.getAndIncrement()));
+    }
+
+    /**
+     * @param preferVirtualThreads If true, use virtual threads when the runtime provides them
+     * @return A virtual thread executor if preferred and available, a platform thread executor otherwise
+     */
+    public static ExecutorService newWorkerExecutor(boolean preferVirtualThreads) {
+        if(preferVirtualThreads) {
+            if(isVirtualThreadAvailable()) {
+                return newVirtualThreadExecutor();
+            }
+            log.info("Virtual threads are not available in this runtime; the workers will use platform threads");
+        }
+
+        return newPlatformThreadExecutor();
+    }
+}
@@ -22,8 +22,10 @@ package org.deeplearning4j.rl4j.agent;
 
 import org.deeplearning4j.rl4j.agent.listener.AgentListener;
 import org.deeplearning4j.rl4j.environment.*;
+import org.deeplearning4j.rl4j.mdp.CartpoleEnvironment;
 import org.deeplearning4j.rl4j.observation.Observation;
 import org.deeplearning4j.rl4j.observation.transform.TransformProcess;
+import org.deeplearning4j.rl4j.observation.transform.operation.ArrayToINDArrayTransform;
 import org.deeplearning4j.rl4j.policy.IPolicy;
 
 import org.junit.jupiter.api.Disabled;
@@ -530,4 +532,27 @@ public class AgentTest {
         verify(spy, times(1)).onAfterEpisode();
         verify(listenerMock, times(1)).onAfterEpisode(any());
     }
+
+    @Test
+    public void when_environmentIsBufferedAndTransformProcessCompiled_expect_observationsBuiltFromChannelSlots() {
+        // Arrange
+        CartpoleEnvironment environment = new CartpoleEnvironment(Nd4j.getRandomFactory().getNewRandomInstance(123));
+        TransformProcess transformProcess = spy(TransformProcess.builder()
+                .transform("data", new ArrayToINDArrayTransform())
+                .buildCompiled("data"));
+        when(policyMock.nextAction(any(Observation.class))).thenReturn(1);
+        Agent.Configuration configuration = Agent.Configuration.builder()
+                .maxEpisodeSteps(1)
+                .build();
+        Agent<Integer> sut = new Agent<Integer>(environment, transformProcess, policyMock, configuration, null);
+
+        // Act
+        sut.run();
+
+        // Assert
+        verify(transformProcess, times(2)).transformSlots(any(Object[].class), anyMap(), anyInt(), anyBoolean());
+        verify(transformProcess, never()).transform(anyMap(), anyInt(), anyBoolean());
+        double[] buffer = (double[]) environment.getChannelData(0);
+        assertArrayEquals(buffer, sut.getObservation().getChannelData(0).toDoubleVector(), 0.0);
+    }
 }
@@ -0,0 +1,207 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.agent;
+
+import org.deeplearning4j.rl4j.agent.learning.behavior.ILearningBehavior;
+import org.deeplearning4j.rl4j.agent.learning.update.Features;
+import org.deeplearning4j.rl4j.environment.Environment;
+import org.deeplearning4j.rl4j.environment.IntegerActionSchema;
+import org.deeplearning4j.rl4j.environment.Schema;
+import org.deeplearning4j.rl4j.environment.StepResult;
+import org.deeplearning4j.rl4j.environment.VectorEnvironment;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.deeplearning4j.rl4j.observation.transform.TransformProcess;
+import org.deeplearning4j.rl4j.policy.IBatchPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class VectorAgentLearnerTest {
+
+    private static final int NUM_ENVIRONMENTS = 3;
+
+    @Mock
+    IBatchPolicy<Integer> policyMock;
+
+    List<Environment<Integer>> environmentMocks;
+    List<TransformProcess> transformProcessMocks;
+    List<ILearningBehavior<Integer>> learningBehaviorMocks;
+
+    // The observation of the environment i at step s is (10 * i + s)
+    @BeforeEach
+    public void setup() {
+        environmentMocks = new ArrayList<>();
+        transformProcessMocks = new ArrayList<>();
+        learningBehaviorMocks = new ArrayList<>();
+
+        Schema<Integer> schema = new Schema<>(new IntegerActionSchema(2, -1));
+        for(int i = 0; i < NUM_ENVIRONMENTS; ++i) {
+            int environmentIdx = i;
+
+            Environment<Integer> environmentMock = mock(Environment.class);
+            lenient().when(environmentMock.getSchema()).thenReturn(schema);
+            lenient().when(environmentMock.reset()).thenReturn(new HashMap<>());
+            lenient().when(environmentMock.step(anyInt())).thenAnswer(a -> new StepResult(new HashMap<>(), environmentIdx + 1.0, false));
+            environmentMocks.add(environmentMock);
+
+            TransformProcess transformProcessMock = mock(TransformProcess.class);
+            lenient().when(transformProcessMock.transform(any(Map.class), anyInt(), anyBoolean()))
+                    .thenAnswer(a -> new Observation(Nd4j.create(new double[] { 10.0 * environmentIdx + (int)a.getArgument(1) }).reshape(1, 1)));
+            transformProcessMocks.add(transformProcessMock);
+
+            learningBehaviorMocks.add(mock(ILearningBehavior.class));
+        }
+
+        lenient().when(policyMock.nextActions(any(Features.class)))
+                .thenAnswer(a -> IntStream.range(0, (int)a.getArgument(0, Features.class).getBatchSize()).boxed().collect(Collectors.toList()));
+    }
+
+    private VectorAgentLearner<Integer> buildSut(Integer maxEpisodeSteps) {
+        Agent.Configuration configuration = Agent.Configuration.builder()
+                .maxEpisodeSteps(maxEpisodeSteps)
+                .build();
+        return new VectorAgentLearner<Integer>(new VectorEnvironment<>(environmentMocks), transformProcessMocks, policyMock, configuration, null, learningBehaviorMocks);
+    }
+
+    @Test
+    public void when_ctorIsCalledWithWrongNumberOfLearningBehaviors_expect_Exception() {
+        // Arrange
+        learningBehaviorMocks.remove(0);
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> buildSut(null));
+
+        // Assert
+        assertTrue(exception.getMessage().contains("Expected one learning behavior per environment (3), got 2"));
+    }
+
+    @Test
+    public void when_stepping_expect_policyEvaluatedOnceOnStackedObservations() {
+        // Arrange
+        VectorAgentLearner<Integer> sut = buildSut(null);
+
+        // Act
+        sut.step();
+
+        // Assert
+        ArgumentCaptor<Features> featuresCaptor = ArgumentCaptor.forClass(Features.class);
+        verify(policyMock, times(1)).nextActions(featuresCaptor.capture());
+        Features features = featuresCaptor.getValue();
+        assertEquals(3, features.getBatchSize());
+        assertEquals(0.0, features.get(0).getDouble(0, 0), 0.00001);
+        assertEquals(10.0, features.get(0).getDouble(1, 0), 0.00001);
+        assertEquals(20.0, features.get(0).getDouble(2, 0), 0.00001);
+
+        for(int i = 0; i < NUM_ENVIRONMENTS; ++i) {
+            verify(environmentMocks.get(i), times(1)).step(i);
+            verify(learningBehaviorMocks.get(i), times(1)).handleEpisodeStart();
+            verify(learningBehaviorMocks.get(i), times(1)).notifyBeforeStep();
+        }
+    }
+
+    @Test
+    public void when_stepping_expect_experienceHandledByTheLearningBehaviorOfEachEnvironment() {
+        // Arrange
+        VectorAgentLearner<Integer> sut = buildSut(null);
+
+        // Act
+        sut.step();
+
+        // Assert
+        for(int i = 0; i < NUM_ENVIRONMENTS; ++i) {
+            ArgumentCaptor<Observation> observationCaptor = ArgumentCaptor.forClass(Observation.class);
+            verify(learningBehaviorMocks.get(i), times(1)).handleNewExperience(observationCaptor.capture(), eq(i), eq(i + 1.0), eq(false));
+            assertEquals(10.0 * i, observationCaptor.getValue().getData().getDouble(0), 0.00001);
+            assertEquals(i + 1.0, sut.getReward(i), 0.00001);
+            assertEquals(1, sut.getEpisodeStepCount(i));
+        }
+    }
+
+    @Test
+    public void when_observationIsSkipped_expect_excludedFromBatchAndLastActionRepeated() {
+        // Arrange
+        when(transformProcessMocks.get(1).transform(any(Map.class), anyInt(), anyBoolean())).thenAnswer(a -> (int)a.getArgument(1) == 0
+                ? new Observation(Nd4j.create(new double[] { 10.0 }).reshape(1, 1))
+                : Observation.SkippedObservation);
+        VectorAgentLearner<Integer> sut = buildSut(null);
+
+        // Act
+        sut.step();
+        sut.step();
+
+        // Assert
+        ArgumentCaptor<Features> featuresCaptor = ArgumentCaptor.forClass(Features.class);
+        verify(policyMock, times(2)).nextActions(featuresCaptor.capture());
+        Features secondBatch = featuresCaptor.getAllValues().get(1);
+        assertEquals(2, secondBatch.getBatchSize());
+        assertEquals(1.0, secondBatch.get(0).getDouble(0, 0), 0.00001);
+        assertEquals(21.0, secondBatch.get(0).getDouble(1, 0), 0.00001);
+
+        verify(environmentMocks.get(1), times(2)).step(1);
+        verify(environmentMocks.get(2), times(1)).step(1);
+        verify(learningBehaviorMocks.get(1), times(1)).handleNewExperience(any(Observation.class), anyInt(), anyDouble(), anyBoolean());
+    }
+
+    @Test
+    public void when_episodeEnds_expect_episodeEndHandledAndEnvironmentReset() {
+        // Arrange
+        when(environmentMocks.get(2).isEpisodeFinished()).thenReturn(true);
+        VectorAgentLearner<Integer> sut = buildSut(2);
+
+        // Act
+        int firstStepEndedEpisodes = sut.step();
+        int secondStepEndedEpisodes = sut.step();
+
+        // Assert
+        assertEquals(1, firstStepEndedEpisodes);
+        assertEquals(3, secondStepEndedEpisodes);
+
+        verify(environmentMocks.get(0), times(2)).reset();
+        verify(environmentMocks.get(2), times(3)).reset();
+        verify(learningBehaviorMocks.get(0), times(1)).handleEpisodeEnd(any(Observation.class));
+        verify(learningBehaviorMocks.get(2), times(2)).handleEpisodeEnd(any(Observation.class));
+        verify(learningBehaviorMocks.get(2), times(3)).handleEpisodeStart();
+
+        verify(policyMock, times(1)).reset();
+        verify(policyMock, times(2)).reset(0);
+        verify(policyMock, times(3)).reset(2);
+
+        assertEquals(0, sut.getEpisodeStepCount(0));
+        assertEquals(0.0, sut.getReward(0), 0.00001);
+    }
+}
@@ -82,4 +82,38 @@ public class NonRecurrentActorCriticHelperTest {
         }
     }
 
+    @Test
+    public void when_callingCreateValueLabelsWithReturns_expect_returnsInValueArray() {
+        // Arrange
+
+        // Act
+        INDArray result = sut.createValueLabels(new double[] { 1.5, 2.5 });
+
+        // Assert
+        assertArrayEquals(new long[] { 2, 1 }, result.shape());
+        assertEquals(1.5, result.getDouble(0), 0.00001);
+        assertEquals(2.5, result.getDouble(1), 0.00001);
+    }
+
+    @Test
+    public void when_callingCreatePolicyLabelsWithAdvantages_expect_advantagesSetAtActions() {
+        // Arrange
+
+        // Act
+        INDArray result = sut.createPolicyLabels(new int[] { 2, 0 }, new double[] { 123.0, 234.0 });
+
+        // Assert
+        assertArrayEquals(new long[] { 2, 3 }, result.shape());
+        for(int j = 0; j < 2; ++j) {
+            for(int i = 0; i < 3; ++i) {
+                if(j == 0 && i == 2) {
+                    assertEquals(123.0, result.getDouble(j, i), 0.00001);
+                } else if(j == 1 && i == 0) {
+                    assertEquals(234.0, result.getDouble(j, i), 0.00001);
+                } else {
+                    assertEquals(0.0, result.getDouble(j, i), 0.00001);
+                }
+            }
+        }
+    }
 }
@@ -20,6 +20,7 @@
 
 package org.deeplearning4j.rl4j.agent.learning.algorithm.actorcritic;
 
+import org.deeplearning4j.rl4j.agent.learning.update.Features;
 import org.deeplearning4j.rl4j.agent.learning.update.FeaturesLabels;
 import org.deeplearning4j.rl4j.experience.StateActionReward;
 import org.deeplearning4j.rl4j.network.CommonLabelNames;
@@ -86,7 +87,7 @@ public class NonRecurrentAdvantageActorCriticTest {
                 add(new StateActionReward<Integer>(observation, action, 0.0, true));
             }
         };
-        when(threadCurrentMock.output(observation)).thenReturn(neuralNetOutputMock);
+        when(threadCurrentMock.output(any(Features.class))).thenReturn(neuralNetOutputMock);
 
         // Act
         sut.compute(experience);
@@ -110,7 +111,7 @@ public class NonRecurrentAdvantageActorCriticTest {
                 add(new StateActionReward<Integer>(observation, action, 0.0, false));
             }
         };
-        when(threadCurrentMock.output(observation)).thenReturn(neuralNetOutputMock);
+        when(threadCurrentMock.output(any(Features.class))).thenReturn(neuralNetOutputMock);
 
         // Act
         sut.compute(experience);
@@ -127,10 +128,10 @@ public class NonRecurrentAdvantageActorCriticTest {
     public void when_callingCompute_expect_valueAndPolicyComputedCorrectly() {
         // Arrange
         int action = 0;
-        when(threadCurrentMock.output(any(Observation.class))).thenAnswer(invocation -> {
+        when(threadCurrentMock.output(any(Features.class))).thenAnswer(invocation -> {
             NeuralNetOutput result = new NeuralNetOutput();
-            result.put(CommonOutputNames.ActorCritic.Value, invocation.getArgument(0, Observation.class).getData().getColumn(0).mul(-1.0));
-            result.put(CommonOutputNames.ActorCritic.Policy, invocation.getArgument(0, Observation.class).getData().mul(-0.1));
+            result.put(CommonOutputNames.ActorCritic.Value, invocation.getArgument(0, Features.class).get(0).getColumn(0).mul(-1.0));
+            result.put(CommonOutputNames.ActorCritic.Policy, invocation.getArgument(0, Features.class).get(0).mul(-0.1));
             return result;
         });
         List<StateActionReward<Integer>> experience = new ArrayList<StateActionReward<Integer>>() {
@@ -147,6 +148,9 @@ public class NonRecurrentAdvantageActorCriticTest {
         ArgumentCaptor<FeaturesLabels> argument = ArgumentCaptor.forClass(FeaturesLabels.class);
         verify(threadCurrentMock, times(1)).computeGradients(argument.capture());
 
+        // a single batched pass on all the observations
+        verify(threadCurrentMock, times(1)).output(any(Features.class));
+
         // input side -- should be a stack of observations
         INDArray featuresValues = argument.getValue().getFeatures().get(0);
         assertEquals(-1.1, featuresValues.getDouble(0, 0), 0.00001);
@@ -34,6 +34,7 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -47,6 +48,8 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -168,6 +171,41 @@ public class DoubleDQNTest {
 
     }
 
+    @Test
+    public void when_computing_expect_observationsAndNextObservationsEvaluatedInOneQNetworkPass() {
+
+        // Assemble
+        when(targetQNetworkMock.output(any(Features.class))).thenAnswer(i -> {
+            NeuralNetOutput result = new NeuralNetOutput();
+            result.put(CommonOutputNames.QValues, i.getArgument(0, Features.class).get(0).mul(-1.0));
+            return result;
+        });
+
+        List<StateActionRewardState<Integer>> stateActionRewardStates = new ArrayList<StateActionRewardState<Integer>>() {
+            {
+                add(builtTransition(buildObservation(new double[]{1.1, 2.2}),
+                        0, 1.0, false, buildObservation(new double[]{11.0, 22.0})));
+                add(builtTransition(buildObservation(new double[]{3.3, 4.4}),
+                        1, 2.0, false, buildObservation(new double[]{33.0, 44.0})));
+            }
+        };
+
+        DoubleDQN sut = new DoubleDQN(qNetworkMock, targetQNetworkMock, configuration);
+
+        // Act
+        sut.compute(stateActionRewardStates);
+
+        // Assert
+        ArgumentCaptor<Features> featuresCaptor = ArgumentCaptor.forClass(Features.class);
+        verify(qNetworkMock, times(1)).output(featuresCaptor.capture());
+        INDArray stackedObservations = featuresCaptor.getValue().get(0);
+        assertEquals(4, stackedObservations.size(0));
+        assertEquals(1.1, stackedObservations.getDouble(0, 0), 0.0001);
+        assertEquals(3.3, stackedObservations.getDouble(1, 0), 0.0001);
+        assertEquals(11.0, stackedObservations.getDouble(2, 0), 0.0001);
+        assertEquals(33.0, stackedObservations.getDouble(3, 0), 0.0001);
+    }
+
     private Observation buildObservation(double[] data) {
         return new Observation(Nd4j.create(data).reshape(1, 2));
     }
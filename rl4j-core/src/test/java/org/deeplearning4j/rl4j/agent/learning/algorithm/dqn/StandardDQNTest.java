@@ -22,7 +22,9 @@ package org.deeplearning4j.rl4j.agent.learning.algorithm.dqn;
 
 import org.deeplearning4j.rl4j.agent.learning.update.Features;
 import org.deeplearning4j.rl4j.agent.learning.update.FeaturesLabels;
+import org.deeplearning4j.rl4j.experience.IPrioritizedBatch;
 import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.deeplearning4j.rl4j.experience.StateActionRewardStateBatch;
 import org.deeplearning4j.rl4j.network.CommonLabelNames;
 import org.deeplearning4j.rl4j.network.CommonOutputNames;
 import org.deeplearning4j.rl4j.network.IOutputNeuralNet;
@@ -46,6 +48,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
@@ -156,6 +159,54 @@ public class StandardDQNTest {
 
     }
 
+    @Test
+    public void when_batchIsStateActionRewardStateBatch_expect_featuresUsedDirectly() {
+
+        // Assemble
+        Features features = new Features(new INDArray[] { Nd4j.create(new double[][] { { 1.1, 2.2 }, { 3.3, 4.4 } }) });
+        Features nextFeatures = new Features(new INDArray[] { Nd4j.create(new double[][] { { 11.0, 22.0 }, { 33.0, 44.0 } }) });
+        StateActionRewardStateBatch batch = new StateActionRewardStateBatch(features, nextFeatures, 1);
+        batch.set(0, 0, 1.0, false);
+        batch.set(1, 1, 2.0, true);
+        batch.setSize(2);
+
+        StandardDQN sut = new StandardDQN(qNetworkMock, targetQNetworkMock, configuration);
+
+        // Act
+        FeaturesLabels result = sut.compute(batch);
+
+        // Assert
+        assertSame(features, result.getFeatures());
+
+        INDArray evaluatedQValues = result.getLabels(CommonLabelNames.QValues);
+        assertEquals((1.0 + 0.5 * 22.0), evaluatedQValues.getDouble(0, 0), 0.0001);
+        assertEquals(2.2, evaluatedQValues.getDouble(0, 1), 0.0001);
+
+        assertEquals(3.3, evaluatedQValues.getDouble(1, 0), 0.0001);
+        assertEquals(2.0, evaluatedQValues.getDouble(1, 1), 0.0001); // terminal: reward only
+    }
+
+    @Test
+    public void when_batchIsPrioritized_expect_tdErrorsReportedAndSampleWeightsSet() {
+
+        // Assemble
+        INDArray weights = Nd4j.create(new double[] { 0.5 }, new long[] { 1, 1 });
+        double[][] reportedTDErrors = new double[1][];
+        List<StateActionRewardState<Integer>> stateActionRewardStates = new PrioritizedBatch(weights, reportedTDErrors);
+        stateActionRewardStates.add(buildTransition(buildObservation(new double[]{1.1, 2.2}),
+                0, 1.0, false, buildObservation(new double[]{11.0, 22.0})));
+
+        StandardDQN sut = new StandardDQN(qNetworkMock, targetQNetworkMock, configuration);
+
+        // Act
+        FeaturesLabels result = sut.compute(stateActionRewardStates);
+
+        // Assert
+        assertSame(weights, result.getSampleWeights());
+        assertEquals(1, reportedTDErrors[0].length);
+        assertEquals((1.0 + 0.5 * 22.0) - 1.1, reportedTDErrors[0][0], 0.0001);
+    }
+
     private Observation buildObservation(double[] data) {
         return new Observation(Nd4j.create(data).reshape(1, 2));
     }
@@ -166,4 +217,24 @@ public class StandardDQNTest {
 
         return result;
     }
+
+    private static class PrioritizedBatch extends ArrayList<StateActionRewardState<Integer>> implements IPrioritizedBatch {
+        private final INDArray weights;
+        private final double[][] reportedTDErrors;
+
+        public PrioritizedBatch(INDArray weights, double[][] reportedTDErrors) {
+            this.weights = weights;
+            this.reportedTDErrors = reportedTDErrors;
+        }
+
+        @Override
+        public INDArray getImportanceSamplingWeights() {
+            return weights;
+        }
+
+        @Override
+        public void updatePriorities(double[] tdErrors) {
+            reportedTDErrors[0] = tdErrors;
+        }
+    }
 }
@@ -117,4 +117,22 @@ public class RecurrentNStepQLearningHelperTest {
 
         assertEquals(-4.2, result.getDouble(0, 0, 0), 0.00001);
     }
+
+    @Test
+    public void when_callingCreateLabelsWithReturns_expect_returnsSetAtActionsOthersKept() {
+        // Arrange
+        INDArray allExpectedQValues = Nd4j.create(new double[] { 1.1, 2.1, 1.2, 2.2, 1.3, 2.3 }).reshape(1, 3, 2);
+
+        // Act
+        INDArray result = sut.createLabels(allExpectedQValues, new int[] { 2, 0 }, new double[] { 10.0, 20.0 });
+
+        // Assert
+        assertArrayEquals(new long[] { 1, 3, 2 }, result.shape());
+        assertEquals(1.1, result.getDouble(0, 0, 0), 0.00001);
+        assertEquals(1.2, result.getDouble(0, 1, 0), 0.00001);
+        assertEquals(10.0, result.getDouble(0, 2, 0), 0.00001);
+        assertEquals(20.0, result.getDouble(0, 0, 1), 0.00001);
+        assertEquals(2.2, result.getDouble(0, 1, 1), 0.00001);
+        assertEquals(2.3, result.getDouble(0, 2, 1), 0.00001);
+    }
 }
@@ -62,9 +62,9 @@ public class RecurrentNStepQLearningTest {
     NStepQLearning sut;
 
     private void setup(double gamma) {
-        when(threadCurrentMock.output(any(Observation.class))).thenAnswer(invocation -> {
+        when(threadCurrentMock.output(any(Features.class))).thenAnswer(invocation -> {
             NeuralNetOutput result = new NeuralNetOutput();
-            result.put(CommonOutputNames.QValues, invocation.getArgument(0, Observation.class).getChannelData(0).mul(-1.0));
+            result.put(CommonOutputNames.QValues, invocation.getArgument(0, Features.class).get(0).mul(-1.0));
             return result;
         });
         when(targetMock.output(any(Features.class))).thenAnswer(invocation -> {
@@ -148,6 +148,9 @@ public class RecurrentNStepQLearningTest {
         ArgumentCaptor<FeaturesLabels> argument = ArgumentCaptor.forClass(FeaturesLabels.class);
         verify(threadCurrentMock, times(1)).computeGradients(argument.capture());
 
+        // a single batched pass on all the observations
+        verify(threadCurrentMock, times(1)).output(any(Features.class));
+
         // input side -- should be a stack of observations
         INDArray featuresValues = argument.getValue().getFeatures().get(0);
         assertEquals(-1.1, featuresValues.getDouble(0, 0, 0), 0.00001);
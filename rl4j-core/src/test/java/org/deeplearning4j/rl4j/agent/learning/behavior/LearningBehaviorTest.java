@@ -40,6 +40,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -180,4 +181,54 @@ public class LearningBehaviorTest {
         verify(updateRuleMock, times(1)).notifyNewBatchStarted();
     }
 
+    @Test
+    public void when_schedulerRequestsSeveralGradientSteps_expect_updateRuleUpdatedAsManyTimes() {
+        // Arrange
+        UpdateScheduler updateScheduler = new UpdateScheduler(UpdateScheduler.Configuration.builder()
+                .trainInterval(2)
+                .gradientStepsPerTraining(3)
+                .build());
+        LearningBehavior<Integer, Object> sut = LearningBehavior.<Integer, Object>builder()
+                .experienceHandler(experienceHandlerMock)
+                .updateRule(updateRuleMock)
+                .updateScheduler(updateScheduler)
+                .build();
+        when(experienceHandlerMock.isTrainingBatchReady()).thenReturn(true);
+        List<Object> trainingBatch = new ArrayList<Object>();
+        when(experienceHandlerMock.generateTrainingBatch()).thenReturn(trainingBatch);
+
+        // Act
+        sut.handleNewExperience(null, 0, 0, false);
+        sut.handleNewExperience(null, 0, 0, false);
+        sut.handleNewExperience(null, 0, 0, false);
+        sut.handleEpisodeEnd(null);
+
+        // Assert
+        verify(updateRuleMock, times(3)).update(trainingBatch);
+        assertEquals(3, updateScheduler.getEnvironmentStepCount());
+        assertEquals(3, updateScheduler.getGradientStepCount());
+    }
+
+    @Test
+    public void when_schedulerIsWarmingUp_expect_noUpdate() {
+        // Arrange
+        UpdateScheduler updateScheduler = new UpdateScheduler(UpdateScheduler.Configuration.builder()
+                .warmupSize(3)
+                .build());
+        LearningBehavior<Integer, Object> sut = LearningBehavior.<Integer, Object>builder()
+                .experienceHandler(experienceHandlerMock)
+                .updateRule(updateRuleMock)
+                .updateScheduler(updateScheduler)
+                .build();
+        when(experienceHandlerMock.isTrainingBatchReady()).thenReturn(true);
+
+        // Act
+        sut.handleNewExperience(null, 0, 0, false);
+        sut.handleNewExperience(null, 0, 0, false);
+
+        // Assert
+        verify(updateRuleMock, never()).update(any(List.class));
+        assertTrue(updateScheduler.isWarmingUp());
+    }
+
 }
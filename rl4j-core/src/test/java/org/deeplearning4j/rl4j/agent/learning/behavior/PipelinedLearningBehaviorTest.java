@@ -0,0 +1,315 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.agent.learning.behavior;
+
+import org.deeplearning4j.rl4j.agent.learning.update.IUpdateRule;
+import org.deeplearning4j.rl4j.experience.ExperienceHandler;
+import org.deeplearning4j.rl4j.experience.IPrioritizedBatch;
+import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@Tag(TagNames.FILE_IO)
+@NativeTag
+public class PipelinedLearningBehaviorTest {
+
+    @Mock
+    ExperienceHandler<Integer, Object> experienceHandlerMock;
+
+    @Mock
+    IUpdateRule<Object> updateRuleMock;
+
+    @Mock
+    ITrainableNeuralNet actorNetworkMock;
+
+    @Mock
+    ITrainableNeuralNet learnerNetworkMock;
+
+    PipelinedLearningBehavior<Integer, Object> sut;
+
+    private void setup(PipelinedLearningBehavior.Configuration configuration) {
+        sut = new PipelinedLearningBehavior<Integer, Object>(experienceHandlerMock, updateRuleMock, actorNetworkMock, learnerNetworkMock, configuration);
+    }
+
+    @AfterEach
+    public void teardown() {
+        if(sut != null) {
+            sut.close();
+        }
+    }
+
+    @Test
+    public void when_trainingBatchIsReady_expect_updateDoneOnLearnerThread() {
+        // Arrange
+        setup(PipelinedLearningBehavior.Configuration.builder().build());
+        List<Object> trainingBatch = new ArrayList<Object>();
+        when(experienceHandlerMock.isTrainingBatchReady()).thenReturn(true);
+        when(experienceHandlerMock.generateTrainingBatch()).thenReturn(trainingBatch);
+        String[] updateThreadName = new String[1];
+        doAnswer(invocation -> {
+            updateThreadName[0] = Thread.currentThread().getName();
+            return null;
+        }).when(updateRuleMock).update(any(List.class));
+
+        // Act
+        sut.handleNewExperience(new Observation(Nd4j.rand(1, 1)), 1, 2.0, false);
+        waitUntil(() -> sut.getAppliedUpdateCount() == 1);
+
+        // Assert
+        verify(updateRuleMock, times(1)).update(trainingBatch);
+        verify(updateRuleMock, times(1)).notifyNewBatchStarted();
+        assertEquals("PipelinedLearner", updateThreadName[0]);
+        assertEquals(1, sut.getStaleness());
+    }
+
+    @Test
+    public void when_learnerNetworkUpdated_expect_actorNetworkSyncedBeforeStep() {
+        // Arrange
+        setup(PipelinedLearningBehavior.Configuration.builder().build());
+        when(experienceHandlerMock.isTrainingBatchReady()).thenReturn(true);
+        when(experienceHandlerMock.generateTrainingBatch()).thenReturn(new ArrayList<Object>());
+        sut.handleEpisodeEnd(new Observation(Nd4j.rand(1, 1)));
+        waitUntil(() -> sut.getAppliedUpdateCount() == 1);
+
+        // Act
+        sut.notifyBeforeStep();
+        sut.notifyBeforeStep();
+
+        // Assert
+        verify(actorNetworkMock, times(1)).copyFrom(learnerNetworkMock);
+        assertEquals(0, sut.getStaleness());
+    }
+
+    @Test
+    public void when_syncIntervalNotReached_expect_actorNetworkNotSynced() {
+        // Arrange
+        setup(PipelinedLearningBehavior.Configuration.builder().syncInterval(3).build());
+        when(experienceHandlerMock.isTrainingBatchReady()).thenReturn(true);
+        when(experienceHandlerMock.generateTrainingBatch()).thenReturn(new ArrayList<Object>());
+        sut.handleEpisodeEnd(new Observation(Nd4j.rand(1, 1)));
+        waitUntil(() -> sut.getAppliedUpdateCount() == 1);
+
+        // Act
+        sut.notifyBeforeStep();
+        sut.notifyBeforeStep();
+
+        // Assert
+        verify(actorNetworkMock, never()).copyFrom(any());
+        assertEquals(1, sut.getStaleness());
+    }
+
+    @Test
+    public void when_queueIsFullAndDroppingBatches_expect_batchDropped() throws InterruptedException {
+        // Arrange
+        setup(PipelinedLearningBehavior.Configuration.builder().queueCapacity(1).dropBatchesWhenFull(true).build());
+        when(experienceHandlerMock.isTrainingBatchReady()).thenReturn(true);
+        when(experienceHandlerMock.generateTrainingBatch()).thenAnswer(invocation -> new ArrayList<Object>());
+        CountDownLatch updateStarted = new CountDownLatch(1);
+        CountDownLatch releaseUpdate = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            updateStarted.countDown();
+            releaseUpdate.await();
+            return null;
+        }).when(updateRuleMock).update(any(List.class));
+
+        // Act
+        sut.handleEpisodeEnd(null);
+        updateStarted.await();
+        sut.handleEpisodeEnd(null);
+        sut.handleEpisodeEnd(null);
+
+        // Assert
+        assertEquals(1, sut.getQueueDepth());
+        assertEquals(1, sut.getDroppedBatchCount());
+        assertEquals(0, sut.getBackpressureCount());
+
+        releaseUpdate.countDown();
+        waitUntil(() -> sut.getAppliedUpdateCount() == 2);
+    }
+
+    @Test
+    public void when_queueIsFull_expect_agentWaitsForLearner() throws InterruptedException {
+        // Arrange
+        setup(PipelinedLearningBehavior.Configuration.builder().queueCapacity(1).build());
+        when(experienceHandlerMock.isTrainingBatchReady()).thenReturn(true);
+        when(experienceHandlerMock.generateTrainingBatch()).thenAnswer(invocation -> new ArrayList<Object>());
+        CountDownLatch updateStarted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            updateStarted.countDown();
+            Thread.sleep(20);
+            return null;
+        }).when(updateRuleMock).update(any(List.class));
+
+        // Act
+        sut.handleEpisodeEnd(null);
+        updateStarted.await();
+        sut.handleEpisodeEnd(null);
+        sut.handleEpisodeEnd(null);
+        waitUntil(() -> sut.getAppliedUpdateCount() == 3);
+
+        // Assert
+        assertEquals(0, sut.getDroppedBatchCount());
+        assertEquals(1, sut.getBackpressureCount());
+        assertTrue(sut.getBackpressureWaitNanos() > 0);
+    }
+
+    @Test
+    public void when_batchIsPrioritized_expect_priorityUpdatesAppliedOnAgentThread() {
+        // Arrange
+        setup(PipelinedLearningBehavior.Configuration.builder().build());
+        String[] priorityUpdateThreadName = new String[1];
+        PrioritizedBatch trainingBatch = new PrioritizedBatch(priorityUpdateThreadName);
+        trainingBatch.add(new Object());
+        when(experienceHandlerMock.isTrainingBatchReady()).thenReturn(true);
+        when(experienceHandlerMock.generateTrainingBatch()).thenReturn(trainingBatch);
+        doAnswer(invocation -> {
+            List<Object> batch = invocation.getArgument(0);
+            assertEquals(1, batch.size());
+            ((IPrioritizedBatch) batch).updatePriorities(new double[] { 1.0 });
+            return null;
+        }).when(updateRuleMock).update(any(List.class));
+        sut.handleEpisodeEnd(null);
+        waitUntil(() -> sut.getAppliedUpdateCount() == 1);
+
+        // Act
+        sut.notifyBeforeStep();
+
+        // Assert
+        assertEquals(Thread.currentThread().getName(), priorityUpdateThreadName[0]);
+    }
+
+    @Test
+    public void when_learnerFails_expect_exceptionOnAgentThread() {
+        // Arrange
+        setup(PipelinedLearningBehavior.Configuration.builder().build());
+        when(experienceHandlerMock.isTrainingBatchReady()).thenReturn(true);
+        when(experienceHandlerMock.generateTrainingBatch()).thenReturn(new ArrayList<Object>());
+        doThrow(new IllegalStateException("failed")).when(updateRuleMock).update(any(List.class));
+        sut.handleEpisodeEnd(null);
+
+        // Act
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (System.currentTimeMillis() < deadline) {
+                sut.notifyBeforeStep();
+                Thread.sleep(1);
+            }
+        });
+
+        // Assert
+        assertEquals("failed", exception.getCause().getMessage());
+    }
+
+    @Test
+    public void when_closed_expect_queuedBatchesTrainedAndHandlerClosed() throws InterruptedException {
+        // Arrange
+        setup(PipelinedLearningBehavior.Configuration.builder().queueCapacity(2).build());
+        when(experienceHandlerMock.isTrainingBatchReady()).thenReturn(true);
+        when(experienceHandlerMock.generateTrainingBatch()).thenAnswer(invocation -> new ArrayList<Object>());
+        CountDownLatch updateStarted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            updateStarted.countDown();
+            Thread.sleep(20);
+            return null;
+        }).when(updateRuleMock).update(any(List.class));
+        sut.handleEpisodeEnd(null);
+        updateStarted.await();
+        sut.handleEpisodeEnd(null);
+        sut.handleEpisodeEnd(null);
+
+        // Act
+        sut.close();
+
+        // Assert
+        assertEquals(3, sut.getAppliedUpdateCount());
+        assertEquals(0, sut.getQueueDepth());
+        verify(experienceHandlerMock, times(1)).close();
+    }
+
+    @Test
+    public void when_closedWithoutDraining_expect_queuedBatchesDiscarded() throws InterruptedException {
+        // Arrange
+        setup(PipelinedLearningBehavior.Configuration.builder().queueCapacity(2).drainQueueOnClose(false).build());
+        when(experienceHandlerMock.isTrainingBatchReady()).thenReturn(true);
+        when(experienceHandlerMock.generateTrainingBatch()).thenAnswer(invocation -> new ArrayList<Object>());
+        CountDownLatch updateStarted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            updateStarted.countDown();
+            Thread.sleep(10000);
+            return null;
+        }).when(updateRuleMock).update(any(List.class));
+        sut.handleEpisodeEnd(null);
+        updateStarted.await();
+        sut.handleEpisodeEnd(null);
+
+        // Act
+        sut.close();
+
+        // Assert
+        assertEquals(0, sut.getAppliedUpdateCount());
+        assertEquals(0, sut.getQueueDepth());
+        verify(updateRuleMock, times(1)).update(any(List.class));
+        verify(experienceHandlerMock, times(1)).close();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out");
+            Thread.yield();
+        }
+    }
+
+    private static class PrioritizedBatch extends ArrayList<Object> implements IPrioritizedBatch {
+        private final String[] priorityUpdateThreadName;
+
+        public PrioritizedBatch(String[] priorityUpdateThreadName) {
+            this.priorityUpdateThreadName = priorityUpdateThreadName;
+        }
+
+        @Override
+        public INDArray getImportanceSamplingWeights() {
+            return null;
+        }
+
+        @Override
+        public void updatePriorities(double[] tdErrors) {
+            priorityUpdateThreadName[0] = Thread.currentThread().getName();
+        }
+    }
+}
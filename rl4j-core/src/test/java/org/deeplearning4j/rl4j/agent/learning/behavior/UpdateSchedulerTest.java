@@ -0,0 +1,148 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.agent.learning.behavior;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag(TagNames.FILE_IO)
+@NativeTag
+public class UpdateSchedulerTest {
+
+    @Test
+    public void when_defaultConfiguration_expect_oneGradientStepPerEnvironmentStep() {
+        // Arrange
+        UpdateScheduler sut = new UpdateScheduler(UpdateScheduler.Configuration.builder().build());
+
+        // Act
+        int[] results = runSteps(sut, 3);
+
+        // Assert
+        assertArrayEquals(new int[] { 1, 1, 1 }, results);
+        assertEquals(1.0, sut.getReplayRatio(), 0.00001);
+    }
+
+    @Test
+    public void when_warmingUp_expect_noGradientStepsUntilWarmupSizeReached() {
+        // Arrange
+        UpdateScheduler sut = new UpdateScheduler(UpdateScheduler.Configuration.builder()
+                .warmupSize(3)
+                .build());
+
+        // Act
+        int[] results = runSteps(sut, 5);
+
+        // Assert
+        assertArrayEquals(new int[] { 0, 0, 1, 1, 1 }, results);
+        assertFalse(sut.isWarmingUp());
+        assertEquals(1.0, sut.getReplayRatio(), 0.00001);
+    }
+
+    @Test
+    public void when_trainIntervalAndGradientStepsSet_expect_gradientStepsEveryTrainInterval() {
+        // Arrange
+        UpdateScheduler sut = new UpdateScheduler(UpdateScheduler.Configuration.builder()
+                .trainInterval(3)
+                .gradientStepsPerTraining(2)
+                .build());
+
+        // Act
+        int[] results = runSteps(sut, 6);
+
+        // Assert
+        assertArrayEquals(new int[] { 0, 0, 2, 0, 0, 2 }, results);
+        assertEquals(4, sut.getGradientStepCount());
+    }
+
+    @Test
+    public void when_targetReplayRatioBelowOne_expect_ratioEnforced() {
+        // Arrange
+        UpdateScheduler sut = new UpdateScheduler(UpdateScheduler.Configuration.builder()
+                .targetReplayRatio(0.25)
+                .build());
+
+        // Act
+        int[] results = runSteps(sut, 8);
+
+        // Assert
+        assertArrayEquals(new int[] { 0, 0, 0, 1, 0, 0, 0, 1 }, results);
+        assertEquals(0.25, sut.getReplayRatio(), 0.00001);
+    }
+
+    @Test
+    public void when_targetReplayRatioWithTrainInterval_expect_deficitCaughtUpAtTrainingEvents() {
+        // Arrange
+        UpdateScheduler sut = new UpdateScheduler(UpdateScheduler.Configuration.builder()
+                .trainInterval(2)
+                .targetReplayRatio(1.5)
+                .build());
+
+        // Act
+        int[] results = runSteps(sut, 4);
+
+        // Assert
+        assertArrayEquals(new int[] { 0, 3, 0, 3 }, results);
+        assertEquals(1.5, sut.getReplayRatio(), 0.00001);
+    }
+
+    @Test
+    public void when_trainingBatchNotReadyAfterWarmup_expect_warmupEndsWhenBatchReady() {
+        // Arrange
+        UpdateScheduler sut = new UpdateScheduler(UpdateScheduler.Configuration.builder()
+                .targetReplayRatio(1.0)
+                .build());
+
+        // Act
+        sut.notifyEnvironmentStep();
+        sut.notifyEnvironmentStep();
+        int[] results = runSteps(sut, 2);
+
+        // Assert
+        assertArrayEquals(new int[] { 1, 1 }, results);
+    }
+
+    @Test
+    public void when_trainIntervalIsZero_expect_exception() {
+        // Arrange
+        UpdateScheduler.Configuration configuration = UpdateScheduler.Configuration.builder()
+                .trainInterval(0)
+                .build();
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new UpdateScheduler(configuration));
+
+        // Assert
+        assertEquals("Configuration: trainInterval must be greater than 0, got 0", exception.getMessage());
+    }
+
+    private int[] runSteps(UpdateScheduler sut, int numSteps) {
+        int[] results = new int[numSteps];
+        for(int i = 0; i < numSteps; ++i) {
+            sut.notifyEnvironmentStep();
+            results[i] = sut.computeGradientSteps();
+        }
+
+        return results;
+    }
+}
@@ -20,6 +20,7 @@
 
 package org.deeplearning4j.rl4j.agent.learning.update;
 
+import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Tag;
@@ -30,8 +31,13 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.nd4j.common.tests.tags.NativeTag;
 import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.mock;
 
@@ -65,4 +71,45 @@ public class GradientsTest {
         // Assert
         assertSame(gradient, result);
     }
+
+    @Test
+    public void when_copying_expect_variablesAreViewsOfCopiedFlattenedGradient() {
+        // Arrange
+        INDArray flattened = Nd4j.create(new double[] { 1.0, 2.0, 3.0, 4.0, 5.0, 6.0 });
+        DefaultGradient gradient = new DefaultGradient(flattened);
+        gradient.setGradientFor("W", flattened.get(NDArrayIndex.interval(0, 4)).reshape('f', 2, 2), 'f');
+        gradient.setGradientFor("b", flattened.get(NDArrayIndex.interval(4, 6)));
+        Gradients sut = new Gradients(5);
+        sut.putGradient("test", gradient);
+
+        // Act
+        Gradients result = sut.copy();
+        flattened.assign(0.0);
+        result.getGradient("test").gradient().muli(10.0);
+
+        // Assert
+        assertEquals(5, result.getBatchSize());
+        Gradient copiedGradient = result.getGradient("test");
+        assertNotSame(gradient, copiedGradient);
+        assertArrayEquals(new double[] { 10.0, 20.0, 30.0, 40.0, 50.0, 60.0 }, copiedGradient.gradient().toDoubleVector(), 0.00001);
+        assertEquals(30.0, copiedGradient.getGradientFor("W").getDouble(0, 1), 0.00001);
+        assertEquals(60.0, copiedGradient.getGradientFor("b").getDouble(1), 0.00001);
+    }
+
+    @Test
+    public void when_addingAndScaling_expect_flattenedGradientsChangedInPlace() {
+        // Arrange
+        Gradients sut = new Gradients(2);
+        sut.putGradient("test", new DefaultGradient(Nd4j.create(new double[] { 1.0, 2.0 })));
+        Gradients other = new Gradients(3);
+        other.putGradient("test", new DefaultGradient(Nd4j.create(new double[] { 3.0, 4.0 })));
+
+        // Act
+        Gradients result = sut.addi(other).muli(0.5).withBatchSize(5);
+
+        // Assert
+        assertEquals(5, result.getBatchSize());
+        assertSame(sut.getGradient("test"), result.getGradient("test"));
+        assertArrayEquals(new double[] { 2.0, 3.0 }, result.getGradient("test").gradient().toDoubleVector(), 0.00001);
+    }
 }
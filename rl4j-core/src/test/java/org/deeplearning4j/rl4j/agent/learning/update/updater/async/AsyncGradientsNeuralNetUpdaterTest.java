@@ -44,6 +44,9 @@ public class AsyncGradientsNeuralNetUpdaterTest {
     @Mock
     ITrainableNeuralNet globalCurrentMock;
 
+    @Mock
+    ITrainableNeuralNet threadTargetMock;
+
     @Mock
     AsyncSharedNetworksUpdateHandler asyncSharedNetworksUpdateHandlerMock;
 
@@ -60,7 +63,7 @@ public class AsyncGradientsNeuralNetUpdaterTest {
         sut.update(gradients);
 
         // Assert
-        verify(asyncSharedNetworksUpdateHandlerMock, times(1)).handleGradients(gradients);
+        verify(asyncSharedNetworksUpdateHandlerMock, times(1)).handleGradients(gradients, 0, 0L);
         verify(threadCurrentMock, never()).copyFrom(globalCurrentMock);
     }
 
@@ -70,12 +73,27 @@ public class AsyncGradientsNeuralNetUpdaterTest {
         NeuralNetUpdaterConfiguration configuration = NeuralNetUpdaterConfiguration.builder()
                 .build();
         AsyncGradientsNeuralNetUpdater sut = new AsyncGradientsNeuralNetUpdater(threadCurrentMock, asyncSharedNetworksUpdateHandlerMock);
-        when(asyncSharedNetworksUpdateHandlerMock.getGlobalCurrent()).thenReturn(globalCurrentMock);
 
         // Act
         sut.synchronizeCurrent();
 
         // Assert
-        verify(threadCurrentMock, times(1)).copyFrom(globalCurrentMock);
+        verify(asyncSharedNetworksUpdateHandlerMock, times(1)).copyGlobalCurrentTo(threadCurrentMock);
+    }
+
+    @Test
+    public void when_builtWithThreadTarget_expect_threadTargetRefreshedOnlyWhenNewTargetVersionPublished() {
+        // Arrange
+        when(asyncSharedNetworksUpdateHandlerMock.getTargetVersion()).thenReturn(0L, 0L, 1L);
+        when(asyncSharedNetworksUpdateHandlerMock.copyTargetTo(threadTargetMock)).thenReturn(0L, 1L);
+        AsyncGradientsNeuralNetUpdater sut = new AsyncGradientsNeuralNetUpdater(threadCurrentMock, threadTargetMock, asyncSharedNetworksUpdateHandlerMock);
+
+        // Act
+        sut.synchronizeCurrent(); // target version unchanged
+        sut.synchronizeCurrent(); // new target version
+
+        // Assert
+        verify(asyncSharedNetworksUpdateHandlerMock, times(2)).copyTargetTo(threadTargetMock);
+        verify(asyncSharedNetworksUpdateHandlerMock, times(2)).copyGlobalCurrentTo(threadCurrentMock);
     }
 }
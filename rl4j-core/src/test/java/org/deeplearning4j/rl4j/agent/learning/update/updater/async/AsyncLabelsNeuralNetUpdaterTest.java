@@ -64,7 +64,7 @@ public class AsyncLabelsNeuralNetUpdaterTest {
 
         // Assert
         verify(threadCurrentMock, times(1)).computeGradients(featureLabels);
-        verify(asyncSharedNetworksUpdateHandlerMock, times(1)).handleGradients(gradients);
+        verify(asyncSharedNetworksUpdateHandlerMock, times(1)).handleGradients(gradients, 0, 0L);
         verify(threadCurrentMock, times(0)).copyFrom(any());
     }
 
@@ -74,12 +74,11 @@ public class AsyncLabelsNeuralNetUpdaterTest {
         NeuralNetUpdaterConfiguration configuration = NeuralNetUpdaterConfiguration.builder()
                 .build();
         AsyncLabelsNeuralNetUpdater sut = new AsyncLabelsNeuralNetUpdater(threadCurrentMock, asyncSharedNetworksUpdateHandlerMock);
-        when(asyncSharedNetworksUpdateHandlerMock.getGlobalCurrent()).thenReturn(globalCurrentMock);
 
         // Act
         sut.synchronizeCurrent();
 
         // Assert
-        verify(threadCurrentMock, times(1)).copyFrom(globalCurrentMock);
+        verify(asyncSharedNetworksUpdateHandlerMock, times(1)).copyGlobalCurrentTo(threadCurrentMock);
     }
 }
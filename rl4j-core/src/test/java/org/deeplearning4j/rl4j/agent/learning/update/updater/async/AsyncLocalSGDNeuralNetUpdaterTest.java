@@ -0,0 +1,189 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.agent.learning.update.updater.async;
+
+import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
+import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncLocalSGDNeuralNetUpdaterTest {
+
+    @Mock
+    ITrainableNeuralNet threadCurrentMock;
+
+    @Mock
+    ITrainableNeuralNet baseMock;
+
+    @Mock
+    ITrainableNeuralNet globalCurrentMock;
+
+    @Mock
+    ITrainableNeuralNet threadTargetMock;
+
+    @Mock
+    AsyncSharedNetworksUpdateHandler asyncSharedNetworksUpdateHandlerMock;
+
+    @BeforeEach
+    public void setup() {
+        lenient().when(threadCurrentMock.clone()).thenReturn(baseMock);
+        lenient().doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(globalCurrentMock);
+            return null;
+        }).when(asyncSharedNetworksUpdateHandlerMock).updateGlobalCurrent(any());
+    }
+
+    @Test
+    public void when_fewerUpdatesThanLocalUpdates_expect_appliedLocallyWithoutMerge() {
+        // Arrange
+        AsyncLocalSGDNeuralNetUpdater sut = new AsyncLocalSGDNeuralNetUpdater(threadCurrentMock, asyncSharedNetworksUpdateHandlerMock,
+                AsyncLocalSGDNeuralNetUpdater.Configuration.builder().localUpdates(3).build());
+        Gradients gradients = new Gradients(10);
+
+        // Act
+        sut.synchronizeCurrent();
+        sut.update(gradients);
+        sut.synchronizeCurrent();
+        sut.update(gradients);
+        sut.synchronizeCurrent();
+
+        // Assert
+        verify(threadCurrentMock, times(2)).applyGradients(gradients);
+        verify(asyncSharedNetworksUpdateHandlerMock, never()).updateGlobalCurrent(any());
+        verify(asyncSharedNetworksUpdateHandlerMock, never()).handleGradients(any(Gradients.class), anyInt(), anyLong());
+        verify(asyncSharedNetworksUpdateHandlerMock, times(1)).copyGlobalCurrentTo(threadCurrentMock);
+        assertEquals(0, sut.getMergeCount());
+    }
+
+    @Test
+    public void when_newTargetVersionPublishedWithoutMerge_expect_threadTargetRefreshed() {
+        // Arrange
+        when(asyncSharedNetworksUpdateHandlerMock.getTargetVersion()).thenReturn(0L, 0L, 1L);
+        when(asyncSharedNetworksUpdateHandlerMock.copyTargetTo(threadTargetMock)).thenReturn(0L, 1L);
+        AsyncLocalSGDNeuralNetUpdater sut = new AsyncLocalSGDNeuralNetUpdater(threadCurrentMock, threadTargetMock, asyncSharedNetworksUpdateHandlerMock,
+                AsyncLocalSGDNeuralNetUpdater.Configuration.builder().localUpdates(3).build());
+        Gradients gradients = new Gradients(10);
+
+        // Act
+        sut.synchronizeCurrent();
+        sut.update(gradients);
+        sut.synchronizeCurrent();
+
+        // Assert
+        verify(asyncSharedNetworksUpdateHandlerMock, times(1)).copyGlobalCurrentTo(threadCurrentMock);
+        verify(asyncSharedNetworksUpdateHandlerMock, times(2)).copyTargetTo(threadTargetMock);
+    }
+
+    @Test
+    public void when_localUpdatesReachedInDeltaMode_expect_changeSinceLastSyncAddedToGlobal() {
+        // Arrange
+        AsyncLocalSGDNeuralNetUpdater sut = new AsyncLocalSGDNeuralNetUpdater(threadCurrentMock, asyncSharedNetworksUpdateHandlerMock,
+                AsyncLocalSGDNeuralNetUpdater.Configuration.builder()
+                        .localUpdates(2)
+                        .mergeMode(AsyncLocalSGDNeuralNetUpdater.MergeMode.Delta)
+                        .mergeWeight(0.5)
+                        .build());
+        Gradients gradients = new Gradients(10);
+
+        // Act
+        sut.synchronizeCurrent();
+        sut.update(gradients);
+        sut.update(gradients);
+        sut.synchronizeCurrent();
+
+        // Assert
+        verify(globalCurrentMock, times(1)).mergeFrom(threadCurrentMock, 1.0, 0.5);
+        verify(globalCurrentMock, times(1)).mergeFrom(baseMock, 1.0, -0.5);
+        verify(asyncSharedNetworksUpdateHandlerMock, times(2)).copyGlobalCurrentTo(threadCurrentMock);
+        verify(baseMock, times(2)).copyFrom(threadCurrentMock);
+        assertEquals(1, sut.getMergeCount());
+    }
+
+    @Test
+    public void when_localUpdatesReachedInAverageMode_expect_globalMovedTowardThreadCurrent() {
+        // Arrange
+        AsyncLocalSGDNeuralNetUpdater sut = new AsyncLocalSGDNeuralNetUpdater(threadCurrentMock, asyncSharedNetworksUpdateHandlerMock,
+                AsyncLocalSGDNeuralNetUpdater.Configuration.builder()
+                        .localUpdates(1)
+                        .mergeMode(AsyncLocalSGDNeuralNetUpdater.MergeMode.Average)
+                        .mergeWeight(0.25)
+                        .build());
+
+        // Act
+        sut.synchronizeCurrent();
+        sut.update(new Gradients(10));
+
+        // Assert
+        verify(globalCurrentMock, times(1)).mergeFrom(threadCurrentMock, 0.75, 0.25);
+        verify(threadCurrentMock, never()).clone();
+    }
+
+    @Test
+    public void when_syncTakesMoreThanTargetFraction_expect_localUpdatesDoubledUpToMax() {
+        // Arrange
+        AsyncLocalSGDNeuralNetUpdater sut = new AsyncLocalSGDNeuralNetUpdater(threadCurrentMock, asyncSharedNetworksUpdateHandlerMock,
+                AsyncLocalSGDNeuralNetUpdater.Configuration.builder()
+                        .localUpdates(1)
+                        .maxLocalUpdates(2)
+                        .targetSyncTimeFraction(Double.MIN_VALUE)
+                        .build());
+        Gradients gradients = new Gradients(10);
+
+        // Act
+        sut.synchronizeCurrent();
+        sut.update(gradients);
+        sut.synchronizeCurrent();
+        int localUpdatesAfterFirstMerge = sut.getLocalUpdates();
+        sut.update(gradients);
+        sut.update(gradients);
+        sut.synchronizeCurrent();
+
+        // Assert
+        assertEquals(2, localUpdatesAfterFirstMerge);
+        assertEquals(2, sut.getLocalUpdates());
+        assertEquals(2, sut.getMergeCount());
+    }
+
+    @Test
+    public void when_localUpdatesOutOfBounds_expect_exception() {
+        // Arrange
+        AsyncLocalSGDNeuralNetUpdater.Configuration configuration = AsyncLocalSGDNeuralNetUpdater.Configuration.builder()
+                .localUpdates(100)
+                .maxLocalUpdates(64)
+                .build();
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new AsyncLocalSGDNeuralNetUpdater(threadCurrentMock, asyncSharedNetworksUpdateHandlerMock, configuration));
+
+        // Assert
+        assertTrue(exception.getMessage().contains("localUpdates must be between minLocalUpdates (1) and maxLocalUpdates (64), got 100"));
+    }
+}
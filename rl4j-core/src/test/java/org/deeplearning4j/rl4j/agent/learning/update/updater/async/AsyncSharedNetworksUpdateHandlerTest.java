@@ -31,6 +31,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.nd4j.common.tests.tags.NativeTag;
 import org.nd4j.common.tests.tags.TagNames;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -47,11 +48,21 @@ public class AsyncSharedNetworksUpdateHandlerTest {
     @Mock
     ITrainableNeuralNet targetMock;
 
+    @Mock
+    ITrainableNeuralNet snapshotMock;
+
+    @Mock
+    ITrainableNeuralNet targetSnapshotMock;
+
+    @Mock
+    ITrainableNeuralNet threadTargetMock;
+
     @Test
     public void when_handleGradientsIsCalledWithoutTarget_expect_gradientsAppliedOnGlobalCurrent() {
         // Arrange
         NeuralNetUpdaterConfiguration configuration = NeuralNetUpdaterConfiguration.builder()
                 .build();
+        when(globalCurrentMock.clone()).thenReturn(snapshotMock);
         AsyncSharedNetworksUpdateHandler sut = new AsyncSharedNetworksUpdateHandler(globalCurrentMock, configuration);
         Gradients gradients = new Gradients(10);
 
@@ -68,6 +79,8 @@ public class AsyncSharedNetworksUpdateHandlerTest {
         NeuralNetUpdaterConfiguration configuration = NeuralNetUpdaterConfiguration.builder()
                 .targetUpdateFrequency(2)
                 .build();
+        when(globalCurrentMock.clone()).thenReturn(snapshotMock);
+        when(targetMock.clone()).thenReturn(targetSnapshotMock);
         AsyncSharedNetworksUpdateHandler sut = new AsyncSharedNetworksUpdateHandler(globalCurrentMock, targetMock, configuration);
         Gradients gradients = new Gradients(10);
 
@@ -77,7 +90,52 @@ public class AsyncSharedNetworksUpdateHandlerTest {
 
         // Assert
         verify(globalCurrentMock, times(2)).applyGradients(gradients);
-        verify(targetMock, times(1)).copyFrom(globalCurrentMock);
+        verify(targetMock, times(1)).copyFrom(snapshotMock);
+    }
+
+    @Test
+    public void when_targetIsSynchronized_expect_targetPublished() {
+        // Arrange
+        NeuralNetUpdaterConfiguration configuration = NeuralNetUpdaterConfiguration.builder()
+                .targetUpdateFrequency(2)
+                .build();
+        when(globalCurrentMock.clone()).thenReturn(snapshotMock);
+        when(targetMock.clone()).thenReturn(targetSnapshotMock);
+        AsyncSharedNetworksUpdateHandler sut = new AsyncSharedNetworksUpdateHandler(globalCurrentMock, targetMock, configuration);
+        Gradients gradients = new Gradients(10);
+
+        // Act
+        sut.handleGradients(gradients);
+        long versionAfterOneUpdate = sut.getTargetVersion();
+        sut.handleGradients(gradients);
+        long version = sut.copyTargetTo(threadTargetMock);
+
+        // Assert
+        assertTrue(sut.hasTarget());
+        assertEquals(0, versionAfterOneUpdate);
+        assertEquals(1, version);
+        verify(targetSnapshotMock, times(1)).copyFrom(targetMock);
+        verify(threadTargetMock, times(1)).copyFrom(targetSnapshotMock);
+        verify(threadTargetMock, never()).copyFrom(targetMock);
+    }
+
+    @Test
+    public void when_handleGradientsIsCalled_expect_globalCurrentPublished() {
+        // Arrange
+        NeuralNetUpdaterConfiguration configuration = NeuralNetUpdaterConfiguration.builder()
+                .build();
+        when(globalCurrentMock.clone()).thenReturn(snapshotMock);
+        AsyncSharedNetworksUpdateHandler sut = new AsyncSharedNetworksUpdateHandler(globalCurrentMock, configuration);
+        Gradients gradients = new Gradients(10);
+
+        // Act
+        sut.handleGradients(gradients);
+        long version = sut.copyGlobalCurrentTo(targetMock);
+
+        // Assert
+        assertEquals(1, version);
+        verify(snapshotMock, times(1)).copyFrom(globalCurrentMock);
+        verify(targetMock, times(1)).copyFrom(snapshotMock);
     }
 
     @Test
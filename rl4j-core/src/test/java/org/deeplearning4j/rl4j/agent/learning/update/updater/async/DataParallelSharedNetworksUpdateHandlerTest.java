@@ -0,0 +1,190 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.agent.learning.update.updater.async;
+
+import org.deeplearning4j.nn.gradient.DefaultGradient;
+import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
+import org.deeplearning4j.rl4j.agent.learning.update.updater.NeuralNetUpdaterConfiguration;
+import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DataParallelSharedNetworksUpdateHandlerTest {
+
+    private static final String GRADIENT_NAME = "test";
+
+    @Mock
+    ITrainableNeuralNet globalCurrentMock;
+
+    @Mock
+    ITrainableNeuralNet snapshotMock;
+
+    private final NeuralNetUpdaterConfiguration updaterConfiguration = NeuralNetUpdaterConfiguration.builder().build();
+
+    @Test
+    public void when_allWorkersSubmitted_expect_sumAppliedOnceWithSummedBatchSize() throws InterruptedException {
+        // Arrange
+        List<Long> appliedBatchSizes = new ArrayList<>();
+        List<double[]> appliedValues = recordAppliedGradients(appliedBatchSizes);
+        DataParallelSharedNetworksUpdateHandler sut = buildSut(3);
+        Thread[] workers = new Thread[] {
+                buildWorker(sut, sut.registerWorker(), buildGradients(1, 1.0, 2.0)),
+                buildWorker(sut, sut.registerWorker(), buildGradients(2, 10.0, 20.0)),
+                buildWorker(sut, sut.registerWorker(), buildGradients(3, 100.0, 200.0)),
+        };
+
+        // Act
+        startAndJoin(workers);
+
+        // Assert
+        verify(globalCurrentMock, times(1)).applyGradients(any(Gradients.class));
+        assertEquals(6L, (long) appliedBatchSizes.get(0));
+        assertArrayEquals(new double[] { 111.0, 222.0 }, appliedValues.get(0), 0.00001);
+        assertEquals(1, sut.getRoundCount());
+        assertEquals(1, sut.getVersion());
+    }
+
+    @Test
+    public void when_gradientsArriveInDifferentOrders_expect_sameResult() throws InterruptedException {
+        // Arrange
+        List<double[]> appliedValues = recordAppliedGradients(new ArrayList<>());
+        DataParallelSharedNetworksUpdateHandler sut = buildSut(5);
+        double[] values = new double[] { 0.1, 1e16, 0.2, -1e16, 0.3 };
+
+        // Act
+        for(int round = 0; round < 2; ++round) {
+            Thread[] workers = new Thread[values.length];
+            for(int i = 0; i < values.length; ++i) {
+                workers[i] = buildWorker(sut, i, buildGradients(1, values[i]));
+            }
+            if(round == 1) {
+                for(int i = workers.length - 1; i >= 0; --i) {
+                    workers[i].start();
+                    workers[i].join(50);
+                }
+            }
+            startAndJoin(workers);
+        }
+
+        // Assert
+        assertEquals(2, sut.getRoundCount());
+        assertArrayEquals(appliedValues.get(0), appliedValues.get(1), 0.0);
+    }
+
+    @Test
+    public void when_stopped_expect_waitingWorkerReleasedAndNothingApplied() throws InterruptedException {
+        // Arrange
+        DataParallelSharedNetworksUpdateHandler sut = buildSut(2);
+        Thread worker = buildWorker(sut, sut.registerWorker(), buildGradients(1, 1.0));
+        worker.start();
+
+        // Act
+        sut.stop();
+        worker.join(10000);
+
+        // Assert
+        assertFalse(worker.isAlive());
+        verify(globalCurrentMock, never()).applyGradients(any(Gradients.class));
+        assertEquals(0, sut.getRoundCount());
+    }
+
+    @Test
+    public void when_resetAfterStop_expect_incompleteRoundDiscarded() {
+        // Arrange
+        DataParallelSharedNetworksUpdateHandler sut = buildSut(1);
+        sut.stop();
+        sut.handleGradients(buildGradients(1, 1.0), 0, 0);
+
+        // Act
+        sut.reset();
+        sut.handleGradients(buildGradients(1, 2.0), 0, 0);
+
+        // Assert
+        verify(globalCurrentMock, times(1)).applyGradients(any(Gradients.class));
+        assertEquals(1, sut.getRoundCount());
+    }
+
+    @Test
+    public void when_registeringMoreWorkersThanNumWorkers_expect_idsRestartAtZero() {
+        // Arrange
+        DataParallelSharedNetworksUpdateHandler sut = buildSut(2);
+
+        // Act
+        int[] workerIds = new int[] { sut.registerWorker(), sut.registerWorker(), sut.registerWorker() };
+
+        // Assert
+        assertArrayEquals(new int[] { 0, 1, 0 }, workerIds);
+    }
+
+    private DataParallelSharedNetworksUpdateHandler buildSut(int numWorkers) {
+        when(globalCurrentMock.clone()).thenReturn(snapshotMock);
+        return new DataParallelSharedNetworksUpdateHandler(globalCurrentMock, updaterConfiguration,
+                DataParallelSharedNetworksUpdateHandler.Configuration.builder()
+                        .numWorkers(numWorkers)
+                        .build());
+    }
+
+    private Thread buildWorker(DataParallelSharedNetworksUpdateHandler sut, int workerId, Gradients gradients) {
+        return new Thread(() -> sut.handleGradients(gradients, workerId, 0));
+    }
+
+    private void startAndJoin(Thread[] workers) throws InterruptedException {
+        for(Thread worker : workers) {
+            if(worker.getState() == Thread.State.NEW) {
+                worker.start();
+            }
+        }
+        for(Thread worker : workers) {
+            worker.join(10000);
+            assertFalse(worker.isAlive());
+        }
+    }
+
+    private Gradients buildGradients(long batchSize, double... values) {
+        Gradients result = new Gradients(batchSize);
+        result.putGradient(GRADIENT_NAME, new DefaultGradient(Nd4j.create(values)));
+
+        return result;
+    }
+
+    // Records the values of the applied gradients; they must be read when applied since they are summed in place
+    private List<double[]> recordAppliedGradients(List<Long> appliedBatchSizes) {
+        List<double[]> result = new ArrayList<>();
+        lenient().doAnswer(invocation -> {
+            Gradients gradients = invocation.getArgument(0, Gradients.class);
+            result.add(gradients.getGradient(GRADIENT_NAME).gradient().toDoubleVector());
+            appliedBatchSizes.add(gradients.getBatchSize());
+            return null;
+        }).when(globalCurrentMock).applyGradients(any(Gradients.class));
+
+        return result;
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.agent.learning.update.updater.async;
+
+import org.deeplearning4j.nn.gradient.DefaultGradient;
+import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
+import org.deeplearning4j.rl4j.agent.learning.update.updater.NeuralNetUpdaterConfiguration;
+import org.deeplearning4j.rl4j.network.ITrainableNeuralNet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class QueuedSharedNetworksUpdateHandlerTest {
+
+    private static final String GRADIENT_NAME = "test";
+
+    @Mock
+    ITrainableNeuralNet globalCurrentMock;
+
+    @Mock
+    ITrainableNeuralNet snapshotMock;
+
+    private final NeuralNetUpdaterConfiguration updaterConfiguration = NeuralNetUpdaterConfiguration.builder().build();
+
+    private QueuedSharedNetworksUpdateHandler sut;
+
+    @AfterEach
+    public void tearDown() {
+        if(sut != null) {
+            sut.close();
+        }
+    }
+
+    @Test
+    public void when_gradientsHandled_expect_copyAppliedByApplierThread() {
+        // Arrange
+        List<double[]> appliedValues = recordAppliedGradients(null);
+        sut = buildSut(QueuedSharedNetworksUpdateHandler.Configuration.builder().build());
+        int workerId = sut.registerWorker();
+        Gradients gradients = buildGradients(2, 1.0, 2.0);
+
+        // Act
+        sut.handleGradients(gradients, workerId, 0);
+        gradients.getGradient(GRADIENT_NAME).gradient().assign(0.0);
+        sut.close();
+
+        // Assert
+        ArgumentCaptor<Gradients> gradientsCaptor = ArgumentCaptor.forClass(Gradients.class);
+        verify(globalCurrentMock, times(1)).applyGradients(gradientsCaptor.capture());
+        assertNotSame(gradients, gradientsCaptor.getValue());
+        assertEquals(2, gradientsCaptor.getValue().getBatchSize());
+        assertArrayEquals(new double[] { 1.0, 2.0 }, appliedValues.get(0), 0.00001);
+        assertEquals(1, sut.getVersion());
+        assertEquals(1, sut.getWorkerStatistics(workerId).getReceivedCount());
+    }
+
+    @Test
+    public void when_gradientsSummed_expect_oneUpdateWithSummedBatchSize() throws InterruptedException {
+        // Arrange
+        CountDownLatch applierBlocked = new CountDownLatch(1);
+        CountDownLatch releaseApplier = new CountDownLatch(1);
+        List<Long> appliedBatchSizes = new ArrayList<>();
+        List<double[]> appliedValues = recordAppliedGradients(invocation -> {
+            appliedBatchSizes.add(invocation.getArgument(0, Gradients.class).getBatchSize());
+            if(appliedBatchSizes.size() == 1) {
+                applierBlocked.countDown();
+                releaseApplier.await();
+            }
+        });
+        sut = buildSut(QueuedSharedNetworksUpdateHandler.Configuration.builder()
+                .maxGradientsPerUpdate(2)
+                .aggregation(QueuedSharedNetworksUpdateHandler.Aggregation.Sum)
+                .build());
+        int workerId = sut.registerWorker();
+
+        // Act
+        sut.handleGradients(buildGradients(1, 0.0, 0.0), workerId, 0);
+        assertTrue(applierBlocked.await(10, TimeUnit.SECONDS));
+        sut.handleGradients(buildGradients(2, 1.0, 2.0), workerId, 1);
+        sut.handleGradients(buildGradients(3, 3.0, 4.0), workerId, 1);
+        releaseApplier.countDown();
+        sut.close();
+
+        // Assert
+        assertEquals(2, appliedBatchSizes.size());
+        assertEquals(5L, (long) appliedBatchSizes.get(1));
+        assertArrayEquals(new double[] { 4.0, 6.0 }, appliedValues.get(1), 0.00001);
+    }
+
+    @Test
+    public void when_gradientsAveraged_expect_everyGradientWithSameWeight() throws InterruptedException {
+        // Arrange
+        CountDownLatch applierBlocked = new CountDownLatch(1);
+        CountDownLatch releaseApplier = new CountDownLatch(1);
+        List<Long> appliedBatchSizes = new ArrayList<>();
+        List<double[]> appliedValues = recordAppliedGradients(invocation -> {
+            appliedBatchSizes.add(invocation.getArgument(0, Gradients.class).getBatchSize());
+            if(appliedBatchSizes.size() == 1) {
+                applierBlocked.countDown();
+                releaseApplier.await();
+            }
+        });
+        sut = buildSut(QueuedSharedNetworksUpdateHandler.Configuration.builder()
+                .maxGradientsPerUpdate(2)
+                .aggregation(QueuedSharedNetworksUpdateHandler.Aggregation.Average)
+                .build());
+        int workerId = sut.registerWorker();
+
+        // Act
+        sut.handleGradients(buildGradients(1, 0.0, 0.0), workerId, 0);
+        assertTrue(applierBlocked.await(10, TimeUnit.SECONDS));
+        sut.handleGradients(buildGradients(2, 2.0, 4.0), workerId, 1);
+        sut.handleGradients(buildGradients(4, 4.0, 8.0), workerId, 1);
+        releaseApplier.countDown();
+        sut.close();
+
+        // Assert
+        assertEquals(2, appliedBatchSizes.size());
+        assertEquals(1L, (long) appliedBatchSizes.get(1));
+        assertArrayEquals(new double[] { 1.0, 2.0 }, appliedValues.get(1), 0.00001);
+    }
+
+    @Test
+    public void when_gradientsTooStaleAndPolicyIsDrop_expect_gradientsDropped() {
+        // Arrange
+        recordAppliedGradients(null);
+        sut = buildSut(QueuedSharedNetworksUpdateHandler.Configuration.builder()
+                .maxStaleness(0)
+                .stalenessPolicy(QueuedSharedNetworksUpdateHandler.StalenessPolicy.Drop)
+                .build());
+        int workerId = sut.registerWorker();
+
+        // Act
+        sut.handleGradients(buildGradients(1, 1.0, 1.0), workerId, 0);
+        verify(globalCurrentMock, timeout(10000).times(1)).applyGradients(any(Gradients.class));
+        sut.handleGradients(buildGradients(1, 1.0, 1.0), workerId, 0);
+        sut.close();
+
+        // Assert
+        verify(globalCurrentMock, times(1)).applyGradients(any(Gradients.class));
+        QueuedSharedNetworksUpdateHandler.WorkerStatistics statistics = sut.getWorkerStatistics(workerId);
+        assertEquals(2, statistics.getReceivedCount());
+        assertEquals(1, statistics.getDroppedCount());
+        assertEquals(1, statistics.getLastStaleness());
+        assertEquals(0.5, statistics.getMeanStaleness(), 0.00001);
+    }
+
+    @Test
+    public void when_gradientsTooStaleAndPolicyIsDownWeight_expect_gradientsScaled() {
+        // Arrange
+        List<double[]> appliedValues = recordAppliedGradients(null);
+        sut = buildSut(QueuedSharedNetworksUpdateHandler.Configuration.builder()
+                .maxStaleness(1)
+                .stalenessPolicy(QueuedSharedNetworksUpdateHandler.StalenessPolicy.DownWeight)
+                .build());
+        int workerId = sut.registerWorker();
+
+        // Act
+        sut.handleGradients(buildGradients(1, 1.0, 1.0), workerId, 0);
+        sut.handleGradients(buildGradients(1, 1.0, 1.0), workerId, 1);
+        verify(globalCurrentMock, timeout(10000).times(2)).applyGradients(any(Gradients.class));
+        sut.handleGradients(buildGradients(1, 4.0, 8.0), workerId, 0);
+        sut.close();
+
+        // Assert
+        assertEquals(3, appliedValues.size());
+        assertArrayEquals(new double[] { 2.0, 4.0 }, appliedValues.get(2), 0.00001);
+    }
+
+    @Test
+    public void when_handlingGradientsAfterClose_expect_exception() {
+        // Arrange
+        sut = buildSut(QueuedSharedNetworksUpdateHandler.Configuration.builder().build());
+        sut.close();
+
+        // Act
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> sut.handleGradients(buildGradients(1, 1.0, 1.0), 0, 0));
+
+        // Assert
+        assertEquals("The QueuedSharedNetworksUpdateHandler is closed", exception.getMessage());
+    }
+
+    @Test
+    public void when_severalWorkersWaitForAFullQueue_expect_capacityNeverExceeded() throws InterruptedException {
+        // Arrange
+        CountDownLatch applierBlocked = new CountDownLatch(1);
+        CountDownLatch releaseApplier = new CountDownLatch(1);
+        List<double[]> appliedValues = recordAppliedGradients(invocation -> {
+            applierBlocked.countDown();
+            releaseApplier.await();
+        });
+        sut = buildSut(QueuedSharedNetworksUpdateHandler.Configuration.builder().queueCapacity(2).build());
+        sut.handleGradients(buildGradients(1, 1.0, 1.0), 0, 0);
+        assertTrue(applierBlocked.await(10, TimeUnit.SECONDS));
+        Thread[] workers = new Thread[6];
+        for(int i = 0; i < workers.length; ++i) {
+            workers[i] = new Thread(() -> sut.handleGradients(buildGradients(1, 1.0, 1.0), 0, 0));
+        }
+
+        // Act
+        int maxQueueDepth = 0;
+        for(Thread worker : workers) {
+            worker.start();
+        }
+        long deadline = System.currentTimeMillis() + 100;
+        while(System.currentTimeMillis() < deadline) {
+            maxQueueDepth = Math.max(maxQueueDepth, sut.getQueueDepth());
+        }
+        releaseApplier.countDown();
+        for(Thread worker : workers) {
+            worker.join();
+        }
+        sut.close();
+
+        // Assert
+        assertEquals(2, maxQueueDepth);
+        assertEquals(7, appliedValues.size());
+    }
+
+    @Test
+    public void when_closedWhileWorkersHandleGradients_expect_everyAcceptedGradientApplied() throws InterruptedException {
+        // Arrange
+        List<double[]> appliedValues = recordAppliedGradients(null);
+        sut = buildSut(QueuedSharedNetworksUpdateHandler.Configuration.builder().queueCapacity(4).build());
+        AtomicInteger acceptedCount = new AtomicInteger();
+        Thread[] workers = new Thread[4];
+        for(int i = 0; i < workers.length; ++i) {
+            workers[i] = new Thread(() -> {
+                try {
+                    while(true) {
+                        sut.handleGradients(buildGradients(1, 1.0, 1.0), 0, 0);
+                        acceptedCount.incrementAndGet();
+                    }
+                } catch (IllegalStateException e) {
+                    // Closed
+                }
+            });
+            workers[i].start();
+        }
+
+        // Act
+        Thread.sleep(50);
+        sut.close();
+        for(Thread worker : workers) {
+            worker.join();
+        }
+
+        // Assert
+        assertEquals(acceptedCount.get(), appliedValues.size());
+    }
+
+    private QueuedSharedNetworksUpdateHandler buildSut(QueuedSharedNetworksUpdateHandler.Configuration configuration) {
+        when(globalCurrentMock.clone()).thenReturn(snapshotMock);
+        return new QueuedSharedNetworksUpdateHandler(globalCurrentMock, updaterConfiguration, configuration);
+    }
+
+    private Gradients buildGradients(long batchSize, double... values) {
+        Gradients result = new Gradients(batchSize);
+        result.putGradient(GRADIENT_NAME, new DefaultGradient(Nd4j.create(values)));
+
+        return result;
+    }
+
+    // Records the values of the applied gradients; they must be read when applied since they are not copied
+    private List<double[]> recordAppliedGradients(AppliedGradientsCallback callback) {
+        List<double[]> result = new ArrayList<>();
+        lenient().doAnswer(invocation -> {
+            result.add(invocation.getArgument(0, Gradients.class).getGradient(GRADIENT_NAME).gradient().toDoubleVector());
+            if(callback != null) {
+                callback.onApplied(invocation);
+            }
+            return null;
+        }).when(globalCurrentMock).applyGradients(any(Gradients.class));
+
+        return result;
+    }
+
+    private interface AppliedGradientsCallback {
+        void onApplied(org.mockito.invocation.InvocationOnMock invocation) throws Exception;
+    }
+}
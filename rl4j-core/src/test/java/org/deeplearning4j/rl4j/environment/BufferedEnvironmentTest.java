@@ -0,0 +1,154 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.environment;
+
+import org.deeplearning4j.rl4j.mdp.CartpoleEnvironment;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BufferedEnvironmentTest {
+
+    @Test
+    public void when_schemaHasNoChannels_expect_IllegalArgumentException() {
+        // Arrange
+        Schema<Integer> schema = new Schema<Integer>(new IntegerActionSchema(2, 0));
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new TestEnvironment(schema));
+
+        // Assert
+        assertEquals("The schema of a BufferedEnvironment must describe its channels", exception.getMessage());
+    }
+
+    @Test
+    public void when_channelIsDuplicated_expect_IllegalArgumentException() {
+        // Arrange
+        Schema<Integer> schema = new Schema<Integer>(new IntegerActionSchema(2, 0),
+                Arrays.asList(new ChannelSchema("data", 2), new ChannelSchema("data", 3)));
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new TestEnvironment(schema));
+
+        // Assert
+        assertEquals("Duplicate channel 'data'", exception.getMessage());
+    }
+
+    @Test
+    public void when_stepping_expect_channelsDataAndStepResultRecycled() {
+        // Arrange
+        TestEnvironment sut = new TestEnvironment(buildSchema());
+
+        // Act
+        Map<String, Object> resetChannelsData = sut.reset();
+        double[] resetBuffer = (double[]) resetChannelsData.get("data");
+        StepResult firstResult = sut.step(1);
+        StepResult secondResult = sut.step(2);
+
+        // Assert
+        assertSame(resetChannelsData, firstResult.getChannelsData());
+        assertSame(firstResult, secondResult);
+        assertSame(resetBuffer, secondResult.getChannelsData().get("data"));
+        assertArrayEquals(new double[] { 3.0, 6.0 }, resetBuffer, 0.0);
+        assertEquals(2.0, secondResult.getReward(), 0.0);
+        assertTrue(secondResult.isTerminal());
+    }
+
+    @Test
+    public void when_channelsDataEntryWasReplaced_expect_bufferBoundAgainOnNextStep() {
+        // Arrange
+        TestEnvironment sut = new TestEnvironment(buildSchema());
+        Map<String, Object> channelsData = sut.reset();
+        double[] buffer = (double[]) channelsData.get("data");
+
+        // Act
+        channelsData.replace("data", Nd4j.create(buffer)); // As done by a TransformProcess
+        StepResult result = sut.step(1);
+
+        // Assert
+        assertSame(buffer, result.getChannelsData().get("data"));
+    }
+
+    @Test
+    public void when_cartpoleIsStepped_expect_observationWrittenInSameBuffer() {
+        // Arrange
+        CartpoleEnvironment sut = new CartpoleEnvironment(Nd4j.getRandomFactory().getNewRandomInstance(123));
+        double[] resetBuffer = (double[]) sut.reset().get("data");
+        double[] resetObservation = resetBuffer.clone();
+
+        // Act
+        StepResult result = sut.step(1);
+
+        // Assert
+        double[] stepBuffer = (double[]) result.getChannelsData().get("data");
+        assertSame(resetBuffer, stepBuffer);
+        assertEquals(4, stepBuffer.length);
+        assertFalse(Arrays.equals(resetObservation, stepBuffer));
+        assertEquals(resetObservation[0] + 0.02 * resetObservation[1], stepBuffer[0], 1e-9); // Euler: x += tau * xDot
+    }
+
+    private static Schema<Integer> buildSchema() {
+        return new Schema<Integer>(new IntegerActionSchema(2, 0), Collections.singletonList(new ChannelSchema("data", 2)));
+    }
+
+    private static class TestEnvironment extends BufferedEnvironment<Integer> {
+        private int stepCount;
+
+        public TestEnvironment(Schema<Integer> schema) {
+            super(schema);
+        }
+
+        @Override
+        public Map<String, Object> reset() {
+            stepCount = 0;
+            writeObservation();
+            return getChannelsData();
+        }
+
+        @Override
+        public StepResult step(Integer action) {
+            stepCount += action;
+            writeObservation();
+            return getStepResult(action, stepCount >= 3);
+        }
+
+        @Override
+        public boolean isEpisodeFinished() {
+            return stepCount >= 3;
+        }
+
+        @Override
+        public void close() {
+            // Do nothing
+        }
+
+        private void writeObservation() {
+            double[] data = getChannelBuffer(0);
+            data[0] = stepCount;
+            data[1] = 2.0 * stepCount;
+        }
+    }
+}
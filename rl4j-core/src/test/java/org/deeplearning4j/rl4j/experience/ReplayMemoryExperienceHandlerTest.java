@@ -21,11 +21,13 @@
 package org.deeplearning4j.rl4j.experience;
 
 import org.deeplearning4j.rl4j.learning.sync.IExpReplay;
+import org.deeplearning4j.rl4j.learning.sync.MappedExpReplay;
 import org.deeplearning4j.rl4j.observation.Observation;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
@@ -35,6 +37,8 @@ import org.nd4j.common.tests.tags.NativeTag;
 import org.nd4j.common.tests.tags.TagNames;
 import org.nd4j.linalg.factory.Nd4j;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -48,6 +52,9 @@ public class ReplayMemoryExperienceHandlerTest {
     @Mock
     IExpReplay<Integer> expReplayMock;
 
+    @TempDir
+    Path tempDir;
+
     private ReplayMemoryExperienceHandler.Configuration buildConfiguration() {
         return ReplayMemoryExperienceHandler.Configuration.builder()
                 .maxReplayMemorySize(10)
@@ -164,4 +171,42 @@ public class ReplayMemoryExperienceHandlerTest {
         assertTrue(sut.isTrainingBatchReady());
     }
 
+
+    @Test
+    public void when_closingHandlerOfGivenExpReplay_expect_expReplayNotClosed() throws IOException {
+        // Arrange
+        MappedExpReplay mappedExpReplayMock = mock(MappedExpReplay.class);
+        ReplayMemoryExperienceHandler sut = new ReplayMemoryExperienceHandler(mappedExpReplayMock);
+
+        // Act
+        sut.close();
+
+        // Assert
+        verify(mappedExpReplayMock, never()).close();
+    }
+
+    @Test
+    public void when_closingHandlerWithMemoryMappedReplay_expect_fileFlushedAndReopenable() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("replay.bin");
+        ReplayMemoryExperienceHandler.Configuration configuration = ReplayMemoryExperienceHandler.Configuration.builder()
+                .maxReplayMemorySize(10)
+                .batchSize(5)
+                .replayMemoryType(ReplayMemoryExperienceHandler.ReplayMemoryTypes.MemoryMapped)
+                .replayMemoryFile(file.toString())
+                .prefetchBatches(true)
+                .build();
+        ReplayMemoryExperienceHandler sut = new ReplayMemoryExperienceHandler(configuration, null);
+        sut.addExperience(new Observation(Nd4j.create(new double[][] { { 1.0, 2.0 } })), 1, 1.0, false);
+        sut.addExperience(new Observation(Nd4j.create(new double[][] { { 2.0, 3.0 } })), 2, 2.0, false);
+        sut.setFinalObservation(new Observation(Nd4j.create(new double[][] { { 3.0, 4.0 } })));
+
+        // Act
+        sut.close();
+
+        // Assert
+        try(MappedExpReplay reopened = new MappedExpReplay(file, 10, 5, null)) {
+            assertEquals(2, reopened.getSize());
+        }
+    }
 }
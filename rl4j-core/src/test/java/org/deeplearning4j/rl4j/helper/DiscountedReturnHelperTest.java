@@ -0,0 +1,55 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.helper;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+@Tag(TagNames.FILE_IO)
+@NativeTag
+public class DiscountedReturnHelperTest {
+    @Test
+    public void when_computingReturns_expect_rewardsDiscountedFromTheEnd() {
+        // Arrange
+        double[] rewards = new double[] { 1.0, 2.0, 3.0 };
+
+        // Act
+        double[] result = DiscountedReturnHelper.computeReturns(rewards, 0.5, 0.0);
+
+        // Assert
+        assertArrayEquals(new double[] { 1.0 + 0.5 * (2.0 + 0.5 * 3.0), 2.0 + 0.5 * 3.0, 3.0 }, result, 0.00001);
+    }
+
+    @Test
+    public void when_computingReturnsWithBootstrapValue_expect_bootstrapValueDiscountedIntoEveryReturn() {
+        // Arrange
+        double[] rewards = new double[] { 1.0, 2.0 };
+
+        // Act
+        double[] result = DiscountedReturnHelper.computeReturns(rewards, 0.5, 10.0);
+
+        // Assert
+        assertArrayEquals(new double[] { 1.0 + 0.5 * (2.0 + 0.5 * 10.0), 2.0 + 0.5 * 10.0 }, result, 0.00001);
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
+import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.deeplearning4j.rl4j.experience.StateActionRewardStateBatch;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.deeplearning4j.rl4j.support.MockRandom;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarExpReplayTest {
+    @Test
+    public void when_storingElementWithStorageNotFull_expect_elementStored() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0 });
+        ColumnarExpReplay sut = new ColumnarExpReplay(2, 1, randomMock);
+
+        // Act
+        sut.store(buildTransition(1.0, 123, 234, 2.0, true));
+        List<StateActionRewardState<Integer>> results = sut.getBatch(1);
+
+        // Assert
+        assertEquals(1, results.size());
+        assertEquals(123, (int)results.get(0).getAction());
+        assertEquals(234, (int)results.get(0).getReward());
+        assertTrue(results.get(0).isTerminal());
+        assertArrayEquals(new long[] { 1, 3 }, results.get(0).getObservation().getChannelData(0).shape());
+        assertEquals(1.0, results.get(0).getObservation().getChannelData(0).getDouble(0, 2), 0.00001);
+        assertEquals(2.0, results.get(0).getNextObservation().getChannelData(0).getDouble(0, 2), 0.00001);
+    }
+
+    @Test
+    public void when_storingElementWithStorageFull_expect_oldestElementReplacedByStored() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0, 1 });
+        ColumnarExpReplay sut = new ColumnarExpReplay(2, 1, randomMock);
+
+        // Act
+        sut.store(buildTransition(1.0, 1, 2, 2.0, false));
+        sut.store(buildTransition(2.0, 3, 4, 3.0, false));
+        sut.store(buildTransition(3.0, 5, 6, 4.0, false));
+        List<StateActionRewardState<Integer>> results = sut.getBatch(2);
+
+        // Assert
+        assertEquals(2, sut.getSize());
+        assertEquals(2, results.size());
+
+        assertEquals(3, (int)results.get(0).getAction());
+        assertEquals(4, (int)results.get(0).getReward());
+        assertEquals(2.0, results.get(0).getObservation().getChannelData(0).getDouble(0, 0), 0.00001);
+        assertEquals(3.0, results.get(0).getNextObservation().getChannelData(0).getDouble(0, 0), 0.00001);
+
+        assertEquals(5, (int)results.get(1).getAction());
+        assertEquals(6, (int)results.get(1).getReward());
+        assertEquals(3.0, results.get(1).getObservation().getChannelData(0).getDouble(0, 0), 0.00001);
+        assertEquals(4.0, results.get(1).getNextObservation().getChannelData(0).getDouble(0, 0), 0.00001);
+    }
+
+    @Test
+    public void when_copyingBatch_expect_copyUnaffectedByNextBatch() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0, 1 });
+        ColumnarExpReplay sut = new ColumnarExpReplay(2, 1, randomMock);
+        sut.store(buildTransition(1.0, 1, 2, 2.0, false));
+        sut.store(buildTransition(2.0, 3, 4, 3.0, true));
+
+        // Act
+        StateActionRewardStateBatch result = ((StateActionRewardStateBatch) sut.getBatch(1)).copy();
+        sut.getBatch(1);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(1, result.getAction(0));
+        assertEquals(2.0, result.getReward(0), 0.00001);
+        assertFalse(result.isTerminal(0));
+        assertEquals(1.0, result.getFeatures().get(0).getDouble(0, 0), 0.00001);
+        assertEquals(2.0, result.getNextFeatures().get(0).getDouble(0, 0), 0.00001);
+        assertEquals(2.0, result.getStackedFeatures().get(0).getDouble(1, 0), 0.00001);
+    }
+
+    @Test
+    public void when_gettingConsecutiveBatches_expect_previousBatchUnaffectedAndBuffersAlternated() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0, 1, 1 });
+        ColumnarExpReplay sut = new ColumnarExpReplay(2, 1, randomMock);
+        sut.store(buildTransition(1.0, 1, 2, 2.0, false));
+        sut.store(buildTransition(2.0, 3, 4, 3.0, true));
+
+        // Act
+        StateActionRewardStateBatch first = (StateActionRewardStateBatch) sut.getBatch(1);
+        StateActionRewardStateBatch second = (StateActionRewardStateBatch) sut.getBatch(1);
+        int firstActionBeforeThirdBatch = first.getAction(0);
+        double firstFeatureBeforeThirdBatch = first.getFeatures().get(0).getDouble(0, 0);
+        StateActionRewardStateBatch third = (StateActionRewardStateBatch) sut.getBatch(1);
+
+        // Assert
+        assertNotSame(first, second);
+        assertSame(first, third);
+
+        assertEquals(1, firstActionBeforeThirdBatch);
+        assertEquals(1.0, firstFeatureBeforeThirdBatch, 0.00001);
+        assertEquals(3, second.getAction(0));
+        assertEquals(2.0, second.getFeatures().get(0).getDouble(0, 0), 0.00001);
+        assertEquals(3, third.getAction(0));
+    }
+
+    @Test
+    public void when_memoryFillsUp_expect_smallerBatchesAreViewsOfTheSameBuffer() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0, 0, 1, 0 });
+        ColumnarExpReplay sut = new ColumnarExpReplay(5, 3, randomMock);
+        sut.store(buildTransition(1.0, 1, 2, 2.0, false));
+
+        // Act
+        StateActionRewardStateBatch first = (StateActionRewardStateBatch) sut.getBatch();
+        long firstAddress = first.getStackedFeatures().get(0).data().address();
+        sut.getBatch();
+        sut.store(buildTransition(2.0, 3, 4, 3.0, false));
+        StateActionRewardStateBatch third = (StateActionRewardStateBatch) sut.getBatch();
+
+        // Assert
+        assertEquals(2, third.size());
+        assertArrayEquals(new long[] { 2, 3 }, third.getFeatures().get(0).shape());
+        assertArrayEquals(new long[] { 4, 3 }, third.getStackedFeatures().get(0).shape());
+        assertEquals(firstAddress, third.getStackedFeatures().get(0).data().address());
+        assertEquals(2.0, third.getFeatures().get(0).getDouble(0, 0), 0.00001);
+        assertEquals(1.0, third.getFeatures().get(0).getDouble(1, 0), 0.00001);
+        assertEquals(3.0, third.getNextFeatures().get(0).getDouble(0, 0), 0.00001);
+        assertEquals(2.0, third.getStackedFeatures().get(0).getDouble(3, 0), 0.00001);
+    }
+
+    @Test
+    public void when_askBatchSizeGreaterThanStoredCount_expect_batchWithStoredCountElements() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0, 1, 2 });
+        ColumnarExpReplay sut = new ColumnarExpReplay(5, 1, randomMock);
+
+        // Act
+        sut.store(buildTransition(1.0, 1, 2, 2.0, false));
+        sut.store(buildTransition(2.0, 3, 4, 3.0, false));
+        sut.store(buildTransition(3.0, 5, 6, 4.0, false));
+        List<StateActionRewardState<Integer>> results = sut.getBatch(10);
+
+        // Assert
+        assertEquals(3, results.size());
+        assertEquals(1, (int)results.get(0).getAction());
+        assertEquals(3, (int)results.get(1).getAction());
+        assertEquals(5, (int)results.get(2).getAction());
+    }
+
+    @Test
+    public void when_randomGivesDuplicates_expect_noDuplicatesInBatch() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0, 1, 0, 1, 2 });
+        ColumnarExpReplay sut = new ColumnarExpReplay(5, 1, randomMock);
+
+        // Act
+        sut.store(buildTransition(1.0, 1, 2, 2.0, false));
+        sut.store(buildTransition(2.0, 3, 4, 3.0, false));
+        sut.store(buildTransition(3.0, 5, 6, 4.0, false));
+        List<StateActionRewardState<Integer>> results = sut.getBatch(3);
+
+        // Assert
+        assertEquals(3, results.size());
+        assertEquals(1, (int)results.get(0).getAction());
+        assertEquals(3, (int)results.get(1).getAction());
+        assertEquals(5, (int)results.get(2).getAction());
+    }
+
+    @Test
+    public void when_gettingBatch_expect_sampledRowsGatheredInFeatures() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 2, 0 });
+        ColumnarExpReplay sut = new ColumnarExpReplay(5, 2, randomMock);
+        sut.store(buildTransition(1.0, 1, 2, 2.0, false));
+        sut.store(buildTransition(2.0, 3, 4, 3.0, false));
+        sut.store(buildTransition(3.0, 5, 6, 4.0, true));
+
+        // Act
+        List<StateActionRewardState<Integer>> results = sut.getBatch();
+
+        // Assert
+        assertTrue(results instanceof StateActionRewardStateBatch);
+        StateActionRewardStateBatch batch = (StateActionRewardStateBatch) results;
+        assertEquals(2, batch.size());
+        assertArrayEquals(new long[] { 2, 3 }, batch.getFeatures().get(0).shape());
+
+        assertEquals(3.0, batch.getFeatures().get(0).getDouble(0, 1), 0.00001);
+        assertEquals(4.0, batch.getNextFeatures().get(0).getDouble(0, 1), 0.00001);
+        assertEquals(5, batch.getAction(0));
+        assertEquals(6.0, batch.getReward(0), 0.00001);
+        assertTrue(batch.isTerminal(0));
+
+        assertEquals(1.0, batch.getFeatures().get(0).getDouble(1, 1), 0.00001);
+        assertEquals(2.0, batch.getNextFeatures().get(0).getDouble(1, 1), 0.00001);
+        assertEquals(1, batch.getAction(1));
+        assertFalse(batch.isTerminal(1));
+    }
+
+    @Test
+    public void when_storingObservationWithDifferentShape_expect_exception() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0 });
+        ColumnarExpReplay sut = new ColumnarExpReplay(5, 1, randomMock);
+        sut.store(buildTransition(1.0, 1, 2, 2.0, false));
+
+        StateActionRewardState<Integer> transition = new StateActionRewardState<Integer>(new Observation(Nd4j.create(1, 4)), 1, 1.0, false);
+        transition.setNextObservation(new Observation(Nd4j.create(1, 4)));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> sut.store(transition));
+    }
+
+    @Test
+    public void when_observationSchemaIsSupplied_expect_columnsAllocatedFromSchema() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0 });
+        ColumnarExpReplay sut = new ColumnarExpReplay(5, 1, Collections.singletonList(new ChannelSchema("data", DataType.DOUBLE, 1, 4)), randomMock);
+
+        StateActionRewardState<Integer> transition = new StateActionRewardState<Integer>(new Observation(Nd4j.ones(1, 4)), 1, 1.0, false);
+        transition.setNextObservation(new Observation(Nd4j.ones(1, 4).muli(2.0)));
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> sut.store(buildTransition(1.0, 1, 2, 2.0, false)));
+        sut.store(transition);
+        StateActionRewardStateBatch batch = (StateActionRewardStateBatch) sut.getBatch(1);
+
+        // Assert
+        assertEquals("Channel 0: expected 4 elements, got 3", exception.getMessage());
+        assertEquals(1, sut.getSize());
+        assertArrayEquals(new long[] { 1, 4 }, batch.getFeatures().get(0).shape());
+        assertEquals(DataType.DOUBLE, batch.getFeatures().get(0).dataType());
+        assertEquals(2.0, batch.getNextFeatures().get(0).getDouble(0, 3), 0.00001);
+    }
+
+    @Test
+    public void when_samplingWhileStoringConcurrently_expect_noTornTransitions() throws InterruptedException {
+        // Arrange
+        ColumnarExpReplay sut = new ColumnarExpReplay(4, 3, Nd4j.getRandomFactory().getNewRandomInstance(123));
+        Object storeLock = new Object();
+        for(int i = 0; i < 4; ++i) {
+            sut.store(buildTransition(i, i, i, i + 1, false));
+        }
+        Thread storingThread = new Thread(() -> {
+            for(int i = 4; i < 5000; ++i) {
+                StateActionRewardState<Integer> transition = buildTransition(i, i, i, i + 1, false);
+                synchronized (storeLock) {
+                    sut.store(transition);
+                }
+            }
+        });
+
+        // Act
+        storingThread.start();
+        while(storingThread.isAlive()) {
+            StateActionRewardStateBatch batch = (StateActionRewardStateBatch) sut.getBatch(storeLock);
+
+            // Assert
+            for(int i = 0; i < batch.size(); ++i) {
+                double value = batch.getReward(i);
+                assertEquals((int)value, batch.getAction(i));
+                for(int j = 0; j < 3; ++j) {
+                    assertEquals(value, batch.getFeatures().get(0).getDouble(i, j), 0.00001);
+                    assertEquals(value + 1, batch.getNextFeatures().get(0).getDouble(i, j), 0.00001);
+                }
+            }
+        }
+        storingThread.join();
+    }
+
+    private StateActionRewardState<Integer> buildTransition(double observationValue, Integer action, double reward, double nextObservationValue, boolean isTerminal) {
+        StateActionRewardState<Integer> result = new StateActionRewardState<Integer>(buildObservation(observationValue), action, reward, isTerminal);
+        result.setNextObservation(buildObservation(nextObservationValue));
+
+        return result;
+    }
+
+    private Observation buildObservation(double value) {
+        return new Observation(Nd4j.zeros(1, 3).addi(value));
+    }
+}
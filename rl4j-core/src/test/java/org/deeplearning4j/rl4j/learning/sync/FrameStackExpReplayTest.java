@@ -0,0 +1,163 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.deeplearning4j.rl4j.support.MockRandom;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrameStackExpReplayTest {
+    @Test
+    public void when_transitionsAreConsecutive_expect_stacksRebuiltFromSharedFrames() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0, 1 });
+        FrameStackExpReplay<Integer> sut = new FrameStackExpReplay<>(5, 2, randomMock);
+        Observation obs1 = buildStack(1.0, 2.0);
+        Observation obs2 = buildStack(2.0, 3.0);
+        Observation obs3 = buildStack(3.0, 4.0);
+
+        // Act
+        sut.store(buildTransition(obs1, 1, false, obs2));
+        sut.store(buildTransition(obs2, 2, false, obs3));
+        List<StateActionRewardState<Integer>> results = sut.getBatch();
+
+        // Assert
+        assertEquals(2, results.size());
+
+        assertEquals(1, (int)results.get(0).getAction());
+        assertStack(results.get(0).getObservation(), 1.0, 2.0);
+        assertStack(results.get(0).getNextObservation(), 2.0, 3.0);
+
+        assertEquals(2, (int)results.get(1).getAction());
+        assertStack(results.get(1).getObservation(), 2.0, 3.0);
+        assertStack(results.get(1).getNextObservation(), 3.0, 4.0);
+    }
+
+    @Test
+    public void when_newEpisodeStarts_expect_stacksNotMixedAcrossEpisodes() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0, 1 });
+        FrameStackExpReplay<Integer> sut = new FrameStackExpReplay<>(5, 2, randomMock);
+
+        // Act
+        sut.store(buildTransition(buildStack(1.0, 2.0), 1, true, buildStack(2.0, 3.0)));
+        sut.store(buildTransition(buildStack(10.0, 20.0), 2, false, buildStack(20.0, 30.0)));
+        List<StateActionRewardState<Integer>> results = sut.getBatch();
+
+        // Assert
+        assertTrue(results.get(0).isTerminal());
+        assertStack(results.get(0).getObservation(), 1.0, 2.0);
+        assertStack(results.get(0).getNextObservation(), 2.0, 3.0);
+
+        assertFalse(results.get(1).isTerminal());
+        assertStack(results.get(1).getObservation(), 10.0, 20.0);
+        assertStack(results.get(1).getNextObservation(), 20.0, 30.0);
+    }
+
+    @Test
+    public void when_storageIsFull_expect_oldestTransitionReplaced() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0, 1 });
+        FrameStackExpReplay<Integer> sut = new FrameStackExpReplay<>(2, 2, randomMock);
+        Observation obs1 = buildStack(1.0, 2.0);
+        Observation obs2 = buildStack(2.0, 3.0);
+        Observation obs3 = buildStack(3.0, 4.0);
+        Observation obs4 = buildStack(4.0, 5.0);
+
+        // Act
+        sut.store(buildTransition(obs1, 1, false, obs2));
+        sut.store(buildTransition(obs2, 2, false, obs3));
+        sut.store(buildTransition(obs3, 3, false, obs4));
+        List<StateActionRewardState<Integer>> results = sut.getBatch();
+
+        // Assert
+        assertEquals(2, sut.getSize());
+        assertEquals(2, (int)results.get(0).getAction());
+        assertStack(results.get(0).getObservation(), 2.0, 3.0);
+        assertEquals(3, (int)results.get(1).getAction());
+        assertStack(results.get(1).getObservation(), 3.0, 4.0);
+        assertStack(results.get(1).getNextObservation(), 4.0, 5.0);
+    }
+
+    @Test
+    public void when_framesOfTransitionOverwritten_expect_transitionDropped() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0 });
+        FrameStackExpReplay<Integer> sut = new FrameStackExpReplay<>(2, 2, randomMock);
+
+        // Act
+        // Every transition starts a new episode and uses 3 of the 4 frames of the ring
+        sut.store(buildTransition(buildStack(1.0, 2.0), 1, true, buildStack(2.0, 3.0)));
+        sut.store(buildTransition(buildStack(10.0, 20.0), 2, true, buildStack(20.0, 30.0)));
+        List<StateActionRewardState<Integer>> results = sut.getBatch();
+
+        // Assert
+        assertEquals(1, sut.getSize());
+        assertEquals(1, results.size());
+        assertEquals(2, (int)results.get(0).getAction());
+        assertStack(results.get(0).getObservation(), 10.0, 20.0);
+        assertStack(results.get(0).getNextObservation(), 20.0, 30.0);
+    }
+
+    @Test
+    public void when_observationIsNotAStack_expect_exception() {
+        // Arrange
+        FrameStackExpReplay<Integer> sut = new FrameStackExpReplay<>(2, 2, new MockRandom(null, null));
+        Observation observation = new Observation(Nd4j.create(new long[] { 3 }));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> sut.store(buildTransition(observation, 1, false, observation)));
+    }
+
+    private StateActionRewardState<Integer> buildTransition(Observation observation, int action, boolean isTerminal, Observation nextObservation) {
+        StateActionRewardState<Integer> result = new StateActionRewardState<Integer>(observation, action, 0.0, isTerminal);
+        result.setNextObservation(nextObservation);
+
+        return result;
+    }
+
+    // Builds a [1, numFrames, 3] stack where every element of frame i is frameValues[i]
+    private Observation buildStack(double... frameValues) {
+        INDArray data = Nd4j.create(1, frameValues.length, 3);
+        for(int i = 0; i < frameValues.length; ++i) {
+            data.get(NDArrayIndex.point(0), NDArrayIndex.point(i)).assign(frameValues[i]);
+        }
+
+        return new Observation(data);
+    }
+
+    private void assertStack(Observation observation, double... frameValues) {
+        INDArray data = observation.getChannelData(0);
+        assertArrayEquals(new long[] { 1, frameValues.length, 3 }, data.shape());
+        for(int i = 0; i < frameValues.length; ++i) {
+            assertEquals(frameValues[i], data.getDouble(0, i, 0), 0.00001);
+            assertEquals(frameValues[i], data.getDouble(0, i, 2), 0.00001);
+        }
+    }
+}
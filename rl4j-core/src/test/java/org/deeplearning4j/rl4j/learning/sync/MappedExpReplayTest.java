@@ -0,0 +1,130 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.deeplearning4j.rl4j.support.MockRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedExpReplayTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void when_storingElement_expect_elementReadBackFromFile() throws IOException {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0 });
+        try(MappedExpReplay sut = new MappedExpReplay(tempDir.resolve("replay.bin"), 2, 1, randomMock)) {
+
+            // Act
+            sut.store(buildTransition(1.0, 123, 234.5, 2.0, true));
+            List<StateActionRewardState<Integer>> results = sut.getBatch(1);
+
+            // Assert
+            assertEquals(1, results.size());
+            assertEquals(123, (int)results.get(0).getAction());
+            assertEquals(234.5, results.get(0).getReward(), 0.00001);
+            assertTrue(results.get(0).isTerminal());
+            assertArrayEquals(new long[] { 1, 3 }, results.get(0).getObservation().getChannelData(0).shape());
+            assertEquals(1.0, results.get(0).getObservation().getChannelData(0).getDouble(0, 2), 0.00001);
+            assertEquals(2.0, results.get(0).getNextObservation().getChannelData(0).getDouble(0, 2), 0.00001);
+        }
+    }
+
+    @Test
+    public void when_storageIsFullWithSeveralSegments_expect_oldestElementReplaced() throws IOException {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0, 1, 2 });
+        // A record is 16 + 2 * 3 * 4 = 40 bytes; 2 records per segment
+        try(MappedExpReplay sut = new MappedExpReplay(tempDir.resolve("replay.bin"), 3, 3, 100, randomMock)) {
+
+            // Act
+            for(int i = 1; i <= 4; ++i) {
+                sut.store(buildTransition(i, i, 0.0, i + 1, false));
+            }
+            List<StateActionRewardState<Integer>> results = sut.getBatch();
+
+            // Assert
+            assertEquals(3, sut.getSize());
+            for(int i = 0; i < 3; ++i) {
+                assertEquals(i + 2, (int)results.get(i).getAction());
+                assertEquals(i + 2, results.get(i).getObservation().getChannelData(0).getDouble(0, 0), 0.00001);
+                assertEquals(i + 3, results.get(i).getNextObservation().getChannelData(0).getDouble(0, 0), 0.00001);
+            }
+        }
+    }
+
+    @Test
+    public void when_fileReopened_expect_transitionsKept() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("replay.bin");
+        try(MappedExpReplay first = new MappedExpReplay(file, 5, 2, null)) {
+            first.store(buildTransition(1.0, 1, 1.0, 2.0, false));
+            first.store(buildTransition(2.0, 2, 2.0, 3.0, true));
+        }
+
+        // Act
+        MockRandom randomMock = new MockRandom(null, new int[] { 0, 1 });
+        try(MappedExpReplay sut = new MappedExpReplay(file, 5, 2, randomMock)) {
+            sut.store(buildTransition(3.0, 3, 3.0, 4.0, false));
+            List<StateActionRewardState<Integer>> results = sut.getBatch();
+
+            // Assert
+            assertEquals(3, sut.getSize());
+            assertEquals(1, (int)results.get(0).getAction());
+            assertEquals(2, (int)results.get(1).getAction());
+            assertTrue(results.get(1).isTerminal());
+            assertEquals(2.0, results.get(1).getObservation().getChannelData(0).getDouble(0, 1), 0.00001);
+        }
+    }
+
+    @Test
+    public void when_fileReopenedWithOtherCapacity_expect_exception() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("replay.bin");
+        try(MappedExpReplay first = new MappedExpReplay(file, 5, 2, null)) {
+            first.store(buildTransition(1.0, 1, 1.0, 2.0, false));
+        }
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new MappedExpReplay(file, 6, 2, null));
+    }
+
+    private StateActionRewardState<Integer> buildTransition(double observationValue, Integer action, double reward, double nextObservationValue, boolean isTerminal) {
+        StateActionRewardState<Integer> result = new StateActionRewardState<Integer>(buildObservation(observationValue), action, reward, isTerminal);
+        result.setNextObservation(buildObservation(nextObservationValue));
+
+        return result;
+    }
+
+    private Observation buildObservation(double value) {
+        return new Observation(Nd4j.zeros(1, 3).addi(value));
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.deeplearning4j.rl4j.support.MockRandom;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class PrefetchingExpReplayTest {
+    @Test
+    public void when_gettingFirstBatch_expect_sampledSynchronouslyAndNextBatchPrefetched() {
+        // Arrange
+        List<StateActionRewardState<Integer>> firstBatch = new ArrayList<>();
+        List<StateActionRewardState<Integer>> secondBatch = new ArrayList<>();
+        IExpReplay<Integer> expReplayMock = mock(IExpReplay.class);
+        when(expReplayMock.getBatch()).thenReturn(firstBatch, secondBatch);
+
+        try (PrefetchingExpReplay<Integer> sut = new PrefetchingExpReplay<>(expReplayMock)) {
+            // Act
+            List<StateActionRewardState<Integer>> result = sut.getBatch();
+
+            // Assert
+            assertSame(firstBatch, result);
+            verify(expReplayMock, timeout(10000).times(2)).getBatch();
+        }
+    }
+
+    @Test
+    public void when_gettingSeveralBatches_expect_batchesReturnedInSamplingOrder() {
+        // Arrange
+        ExpReplay<Integer> expReplay = new ExpReplay<>(10, 1, new MockRandom(null, new int[] { 0, 1, 2, 0 }));
+        expReplay.store(buildTransition(1));
+        expReplay.store(buildTransition(2));
+        expReplay.store(buildTransition(3));
+
+        try (PrefetchingExpReplay<Integer> sut = new PrefetchingExpReplay<>(expReplay)) {
+            // Act
+            int firstAction = sut.getBatch().get(0).getAction();
+            int secondAction = sut.getBatch().get(0).getAction();
+            int thirdAction = sut.getBatch().get(0).getAction();
+
+            // Assert
+            assertEquals(1, firstAction);
+            assertEquals(2, secondAction);
+            assertEquals(3, thirdAction);
+        }
+    }
+
+    @Test
+    public void when_storing_expect_storedInWrappedReplayMemory() {
+        // Arrange
+        IExpReplay<Integer> expReplayMock = mock(IExpReplay.class);
+        StateActionRewardState<Integer> stateActionRewardState = buildTransition(1);
+
+        try (PrefetchingExpReplay<Integer> sut = new PrefetchingExpReplay<>(expReplayMock)) {
+            // Act
+            sut.store(stateActionRewardState);
+
+            // Assert
+            verify(expReplayMock, times(1)).store(stateActionRewardState);
+        }
+    }
+
+    @Test
+    public void when_samplingFails_expect_exceptionRethrownByNextGetBatch() {
+        // Arrange
+        IExpReplay<Integer> expReplayMock = mock(IExpReplay.class);
+        when(expReplayMock.getBatch())
+                .thenReturn(new ArrayList<>())
+                .thenThrow(new IllegalStateException("sampling failed"));
+
+        try (PrefetchingExpReplay<Integer> sut = new PrefetchingExpReplay<>(expReplayMock)) {
+            sut.getBatch();
+
+            // Act
+            IllegalStateException exception = assertThrows(IllegalStateException.class, sut::getBatch);
+
+            // Assert
+            assertEquals("sampling failed", exception.getMessage());
+        }
+    }
+
+    @Test
+    public void when_storingWhileConcurrentlySampledReplayIsSampled_expect_storeNotBlocked() throws InterruptedException {
+        // Arrange
+        IConcurrentlySampledExpReplay<Integer> expReplayMock = mock(IConcurrentlySampledExpReplay.class);
+        CountDownLatch prefetchStarted = new CountDownLatch(1);
+        CountDownLatch releasePrefetch = new CountDownLatch(1);
+        when(expReplayMock.getBatch(any(Object.class)))
+                .thenReturn(new ArrayList<>())
+                .thenAnswer(invocation -> {
+                    prefetchStarted.countDown();
+                    releasePrefetch.await();
+                    return new ArrayList<>();
+                });
+        StateActionRewardState<Integer> stateActionRewardState = buildTransition(1);
+
+        try (PrefetchingExpReplay<Integer> sut = new PrefetchingExpReplay<>(expReplayMock)) {
+            sut.getBatch();
+            prefetchStarted.await();
+
+            // Act
+            sut.store(stateActionRewardState);
+
+            // Assert
+            verify(expReplayMock, times(1)).store(stateActionRewardState);
+            verify(expReplayMock, never()).getBatch();
+            releasePrefetch.countDown();
+        }
+    }
+
+    private StateActionRewardState<Integer> buildTransition(int action) {
+        StateActionRewardState<Integer> result = new StateActionRewardState<Integer>(new Observation(Nd4j.zeros(1, 2)), action, 0.0, false);
+        result.setNextObservation(new Observation(Nd4j.zeros(1, 2)));
+
+        return result;
+    }
+}
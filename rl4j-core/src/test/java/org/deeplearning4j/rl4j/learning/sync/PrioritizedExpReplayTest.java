@@ -0,0 +1,139 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.deeplearning4j.rl4j.support.MockRandom;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrioritizedExpReplayTest {
+    @Test
+    public void when_nothingStored_expect_emptyBatch() {
+        // Arrange
+        PrioritizedExpReplay<Integer> sut = new PrioritizedExpReplay<>(5, 2, 0.6, 0.4, 0.0, 0.000001, new MockRandom(null, null));
+
+        // Act
+        PrioritizedExpReplay<Integer>.Batch results = sut.getBatch();
+
+        // Assert
+        assertEquals(0, results.size());
+    }
+
+    @Test
+    public void when_allPrioritiesEqual_expect_stratifiedSamplesAndUnitWeights() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(new double[] { 0.5, 0.5 }, null);
+        PrioritizedExpReplay<Integer> sut = new PrioritizedExpReplay<>(5, 2, 0.6, 0.4, 0.0, 0.000001, randomMock);
+        sut.store(buildTransition(1));
+        sut.store(buildTransition(2));
+        sut.store(buildTransition(3));
+        sut.store(buildTransition(4));
+
+        // Act
+        PrioritizedExpReplay<Integer>.Batch results = sut.getBatch();
+
+        // Assert
+        assertEquals(2, results.size());
+        assertEquals(2, (int)results.get(0).getAction());
+        assertEquals(4, (int)results.get(1).getAction());
+
+        INDArray weights = results.getImportanceSamplingWeights();
+        assertArrayEquals(new long[] { 2, 1 }, weights.shape());
+        assertEquals(1.0, weights.getDouble(0, 0), 0.00001);
+        assertEquals(1.0, weights.getDouble(1, 0), 0.00001);
+    }
+
+    @Test
+    public void when_prioritiesUpdated_expect_samplingProportionalToPriorities() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(new double[] { 0.0, 0.0, 0.5, 0.9 }, null);
+        PrioritizedExpReplay<Integer> sut = new PrioritizedExpReplay<>(2, 2, 1.0, 1.0, 0.0, 0.000001, randomMock);
+        sut.store(buildTransition(1));
+        sut.store(buildTransition(2));
+
+        // Act
+        PrioritizedExpReplay<Integer>.Batch firstBatch = sut.getBatch();
+        firstBatch.updatePriorities(new double[] { 1.0, -3.0 });
+        PrioritizedExpReplay<Integer>.Batch results = sut.getBatch();
+
+        // Assert
+        // Priorities are now ~1.0 and ~3.0; the segments are [0, 2) and [2, 4)
+        assertEquals(1, (int)results.get(0).getAction());
+        assertEquals(2, (int)results.get(1).getAction());
+
+        // w = (N * P(i))^-1, normalized by the max weight: (2 * 0.25)^-1 = 2.0 and (2 * 0.75)^-1 = 0.667
+        INDArray weights = results.getImportanceSamplingWeights();
+        assertEquals(1.0, weights.getDouble(0, 0), 0.0001);
+        assertEquals(1.0 / 3.0, weights.getDouble(1, 0), 0.0001);
+    }
+
+    @Test
+    public void when_sampledTransitionOverwritten_expect_priorityNotUpdated() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(new double[] { 0.0, 0.0 }, null);
+        PrioritizedExpReplay<Integer> sut = new PrioritizedExpReplay<>(1, 1, 1.0, 1.0, 0.0, 0.000001, randomMock);
+        sut.store(buildTransition(1));
+        PrioritizedExpReplay<Integer>.Batch firstBatch = sut.getBatch();
+
+        // Act
+        sut.store(buildTransition(2));
+        firstBatch.updatePriorities(new double[] { 10.0 });
+        PrioritizedExpReplay<Integer>.Batch results = sut.getBatch();
+
+        // Assert
+        assertEquals(2, (int)results.get(0).getAction());
+        assertEquals(1.0, results.getImportanceSamplingWeights().getDouble(0, 0), 0.00001);
+    }
+
+    @Test
+    public void when_gettingBatches_expect_betaAnnealedUpToOne() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(new double[] { 0.0, 0.0, 0.0 }, null);
+        PrioritizedExpReplay<Integer> sut = new PrioritizedExpReplay<>(5, 1, 0.6, 0.5, 0.3, 0.000001, randomMock);
+        sut.store(buildTransition(1));
+
+        // Act
+        sut.getBatch();
+        double betaAfterFirstBatch = sut.getBeta();
+        sut.getBatch();
+        sut.getBatch();
+
+        // Assert
+        assertEquals(0.8, betaAfterFirstBatch, 0.00001);
+        assertEquals(1.0, sut.getBeta(), 0.00001);
+    }
+
+    private StateActionRewardState<Integer> buildTransition(int action) {
+        StateActionRewardState<Integer> result = new StateActionRewardState<Integer>(buildObservation(action), action, 0.0, false);
+        result.setNextObservation(buildObservation(action + 1));
+
+        return result;
+    }
+
+    private Observation buildObservation(double value) {
+        return new Observation(Nd4j.zeros(1, 3).addi(value));
+    }
+}
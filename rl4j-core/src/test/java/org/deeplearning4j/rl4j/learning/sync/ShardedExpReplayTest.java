@@ -0,0 +1,154 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.deeplearning4j.rl4j.experience.StateActionRewardState;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.deeplearning4j.rl4j.support.MockRandom;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedExpReplayTest {
+    @Test
+    public void when_storingInSeveralShards_expect_batchSampledAcrossShards() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0, 2, 3 });
+        ShardedExpReplay<Integer> sut = new ShardedExpReplay<>(2, 5, 3, randomMock);
+        IExpReplay<Integer> firstShard = sut.acquireShard();
+        IExpReplay<Integer> secondShard = sut.acquireShard();
+
+        // Act
+        firstShard.store(buildTransition(1));
+        firstShard.store(buildTransition(2));
+        secondShard.store(buildTransition(10));
+        secondShard.store(buildTransition(20));
+        List<StateActionRewardState<Integer>> results = sut.getBatch();
+
+        // Assert
+        assertEquals(4, sut.getSize());
+        assertEquals(3, results.size());
+        assertEquals(1, (int)results.get(0).getAction());
+        assertEquals(10, (int)results.get(1).getAction());
+        assertEquals(20, (int)results.get(2).getAction());
+    }
+
+    @Test
+    public void when_shardIsFull_expect_oldestTransitionOfShardReplaced() {
+        // Arrange
+        MockRandom randomMock = new MockRandom(null, new int[] { 0, 1, 2 });
+        ShardedExpReplay<Integer> sut = new ShardedExpReplay<>(2, 2, 3, randomMock);
+        IExpReplay<Integer> firstShard = sut.acquireShard();
+        IExpReplay<Integer> secondShard = sut.acquireShard();
+
+        // Act
+        firstShard.store(buildTransition(1));
+        firstShard.store(buildTransition(2));
+        firstShard.store(buildTransition(3));
+        secondShard.store(buildTransition(10));
+        List<StateActionRewardState<Integer>> results = sut.getBatch();
+
+        // Assert
+        assertEquals(3, sut.getSize());
+        assertEquals(2, (int)results.get(0).getAction());
+        assertEquals(3, (int)results.get(1).getAction());
+        assertEquals(10, (int)results.get(2).getAction());
+    }
+
+    @Test
+    public void when_allShardsAcquired_expect_exception() {
+        // Arrange
+        ShardedExpReplay<Integer> sut = new ShardedExpReplay<>(1, 2, 1, null);
+        sut.acquireShard();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> sut.acquireShard());
+    }
+
+    @Test
+    public void when_actorsStoreConcurrently_expect_allTransitionsStored() throws InterruptedException {
+        // Arrange
+        int numActors = 4;
+        int numTransitionsPerActor = 1000;
+        ShardedExpReplay<Integer> sut = new ShardedExpReplay<>(numActors, numTransitionsPerActor, 1, null);
+        Thread[] threads = new Thread[numActors];
+        for(int i = 0; i < numActors; ++i) {
+            IExpReplay<Integer> shard = sut.acquireShard();
+            threads[i] = new Thread(() -> {
+                for(int j = 0; j < numTransitionsPerActor; ++j) {
+                    shard.store(buildTransition(j));
+                }
+            });
+        }
+
+        // Act
+        for(Thread thread : threads) {
+            thread.start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertEquals(numActors * numTransitionsPerActor, sut.getSize());
+    }
+
+    @Test
+    public void when_storingDirectlyFromSeveralThreads_expect_eachThreadStoresInItsOwnShard() throws InterruptedException {
+        // Arrange
+        ShardedExpReplay<Integer> sut = new ShardedExpReplay<>(2, 1, 2, null);
+        Thread otherThread = new Thread(() -> {
+            sut.store(buildTransition(10));
+            sut.store(buildTransition(20));
+        });
+
+        // Act
+        sut.store(buildTransition(1));
+        sut.store(buildTransition(2));
+        otherThread.start();
+        otherThread.join();
+
+        // Assert
+        // Each shard keeps only the last transition of its thread
+        assertEquals(2, sut.getSize());
+        assertThrows(IllegalStateException.class, () -> sut.acquireShard());
+    }
+
+    @Test
+    public void when_storingDirectlyAfterAllShardsAcquired_expect_exception() {
+        // Arrange
+        ShardedExpReplay<Integer> sut = new ShardedExpReplay<>(1, 2, 1, null);
+        sut.acquireShard();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> sut.store(buildTransition(1)));
+    }
+
+    private StateActionRewardState<Integer> buildTransition(int action) {
+        StateActionRewardState<Integer> result = new StateActionRewardState<Integer>(new Observation(Nd4j.zeros(1, 2)), action, 0.0, false);
+        result.setNextObservation(new Observation(Nd4j.zeros(1, 2)));
+
+        return result;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SumTreeTest {
+    @Test
+    public void when_settingLeaves_expect_totalIsSumOfLeaves() {
+        // Arrange
+        SumTree sut = new SumTree(5);
+
+        // Act
+        sut.set(0, 1.0);
+        sut.set(2, 2.0);
+        sut.set(4, 3.0);
+        sut.set(2, 0.5);
+
+        // Assert
+        assertEquals(4.5, sut.getTotal(), 0.00001);
+        assertEquals(0.5, sut.get(2), 0.00001);
+    }
+
+    @Test
+    public void when_findingPrefixSum_expect_leafContainingPrefixSum() {
+        // Arrange
+        SumTree sut = new SumTree(4);
+        sut.set(0, 1.0);
+        sut.set(1, 0.0);
+        sut.set(2, 2.0);
+        sut.set(3, 3.0);
+
+        // Act & Assert
+        assertEquals(0, sut.find(0.0));
+        assertEquals(0, sut.find(0.99));
+        assertEquals(2, sut.find(1.0));
+        assertEquals(2, sut.find(2.99));
+        assertEquals(3, sut.find(3.0));
+        assertEquals(3, sut.find(5.99));
+    }
+
+    @Test
+    public void when_prefixSumIsPastTotal_expect_lastNonEmptyLeaf() {
+        // Arrange
+        SumTree sut = new SumTree(5);
+        sut.set(0, 1.0);
+        sut.set(1, 2.0);
+
+        // Act
+        int result = sut.find(3.5);
+
+        // Assert
+        assertEquals(1, result);
+    }
+
+    @Test
+    public void when_settingNegativeValue_expect_exception() {
+        // Arrange
+        SumTree sut = new SumTree(2);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> sut.set(0, -1.0));
+    }
+}
@@ -119,6 +119,11 @@ public class MockDQN implements IDQN {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void mergeFrom(ITrainableNeuralNet from, double weight, double fromWeight) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public IDQN clone() {
         return null;
@@ -0,0 +1,187 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.network;
+
+import org.deeplearning4j.rl4j.agent.learning.update.Features;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchingOutputNeuralNetTest {
+
+    @Mock
+    IOutputNeuralNet networkMock;
+
+    BatchingOutputNeuralNet sut;
+
+    @AfterEach
+    public void tearDown() {
+        if(sut != null) {
+            sut.close();
+        }
+    }
+
+    private void setupNetworkMock() {
+        when(networkMock.output(any(Features.class))).thenAnswer(i -> {
+            NeuralNetOutput result = new NeuralNetOutput();
+            result.put(CommonOutputNames.QValues, i.getArgument(0, Features.class).get(0).mul(2.0));
+            return result;
+        });
+    }
+
+    private Observation buildObservation(double value) {
+        return new Observation(Nd4j.create(new double[] { value, -value }).reshape(1, 2));
+    }
+
+    @Test
+    public void when_builtWithParameterStore_expect_privateCopyRefreshedOnlyWhenNewVersionPublished() {
+        // Arrange
+        ITrainableNeuralNet initialMock = mock(ITrainableNeuralNet.class);
+        ITrainableNeuralNet[] snapshotMocks = new ITrainableNeuralNet[] { mock(ITrainableNeuralNet.class), mock(ITrainableNeuralNet.class), mock(ITrainableNeuralNet.class) };
+        ITrainableNeuralNet privateCopyMock = mock(ITrainableNeuralNet.class);
+        when(initialMock.clone()).thenReturn(snapshotMocks[0], snapshotMocks[1], snapshotMocks[2]);
+        when(snapshotMocks[0].clone()).thenReturn(privateCopyMock);
+        when(privateCopyMock.output(any(Features.class))).thenAnswer(i -> new NeuralNetOutput());
+        VersionedParameterStore<ITrainableNeuralNet> parameterStore = new VersionedParameterStore<>(initialMock);
+        BatchingOutputNeuralNet.Configuration configuration = BatchingOutputNeuralNet.Configuration.builder()
+                .maxBatchSize(1)
+                .build();
+        sut = new BatchingOutputNeuralNet(parameterStore, configuration);
+
+        // Act
+        sut.output(buildObservation(1.0));
+        sut.output(buildObservation(1.0));
+        parameterStore.publish(initialMock);
+        sut.output(buildObservation(1.0));
+
+        // Assert
+        verify(privateCopyMock, times(1)).copyFrom(snapshotMocks[0]);
+        verify(privateCopyMock, times(1)).copyFrom(snapshotMocks[1]);
+        verify(privateCopyMock, times(3)).output(any(Features.class));
+        verify(initialMock, never()).output(any(Features.class));
+    }
+
+    @Test
+    public void when_networkIsRecurrent_expect_Exception() {
+        // Arrange
+        when(networkMock.isRecurrent()).thenReturn(true);
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new BatchingOutputNeuralNet(networkMock, BatchingOutputNeuralNet.Configuration.builder().build()));
+
+        // Assert
+        assertEquals("Recurrent networks are not supported", exception.getMessage());
+    }
+
+    @Test
+    public void when_manyThreadsRequestOutput_expect_singleForwardPassAndEachThreadGetsItsRow() throws Exception {
+        // Arrange
+        setupNetworkMock();
+        BatchingOutputNeuralNet.Configuration configuration = BatchingOutputNeuralNet.Configuration.builder()
+                .maxBatchSize(4)
+                .maxWaitMicros(60000000) // The batch is only evaluated once full
+                .build();
+        sut = new BatchingOutputNeuralNet(networkMock, configuration);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // Act
+        List<Future<INDArray>> results = new ArrayList<>();
+        for(int i = 0; i < 4; ++i) {
+            Observation observation = buildObservation(i + 1.0);
+            results.add(executor.submit(() -> sut.output(observation).get(CommonOutputNames.QValues)));
+        }
+
+        // Assert
+        for(int i = 0; i < 4; ++i) {
+            INDArray result = results.get(i).get();
+            assertArrayEquals(new long[] { 1, 2 }, result.shape());
+            assertEquals(2.0 * (i + 1.0), result.getDouble(0, 0), 0.00001);
+            assertEquals(-2.0 * (i + 1.0), result.getDouble(0, 1), 0.00001);
+        }
+        executor.shutdown();
+
+        ArgumentCaptor<Features> featuresCaptor = ArgumentCaptor.forClass(Features.class);
+        verify(networkMock, times(1)).output(featuresCaptor.capture());
+        assertEquals(4, featuresCaptor.getValue().getBatchSize());
+    }
+
+    @Test
+    public void when_batchIsNotFullBeforeMaxWait_expect_partialBatchEvaluated() {
+        // Arrange
+        setupNetworkMock();
+        BatchingOutputNeuralNet.Configuration configuration = BatchingOutputNeuralNet.Configuration.builder()
+                .maxBatchSize(4)
+                .maxWaitMicros(1000)
+                .build();
+        sut = new BatchingOutputNeuralNet(networkMock, configuration);
+
+        // Act
+        INDArray result = sut.output(buildObservation(3.0)).get(CommonOutputNames.QValues);
+
+        // Assert
+        assertEquals(6.0, result.getDouble(0, 0), 0.00001);
+        verify(networkMock, times(1)).output(any(Features.class));
+    }
+
+    @Test
+    public void when_networkFails_expect_exceptionRethrownToCaller() {
+        // Arrange
+        when(networkMock.output(any(Features.class))).thenThrow(new IllegalStateException("forward pass failed"));
+        sut = new BatchingOutputNeuralNet(networkMock, BatchingOutputNeuralNet.Configuration.builder().maxWaitMicros(0).build());
+
+        // Act
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> sut.output(buildObservation(1.0)));
+
+        // Assert
+        assertEquals("forward pass failed", exception.getMessage());
+    }
+
+    @Test
+    public void when_closed_expect_outputThrows() {
+        // Arrange
+        sut = new BatchingOutputNeuralNet(networkMock, BatchingOutputNeuralNet.Configuration.builder().build());
+
+        // Act
+        sut.close();
+
+        // Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> sut.output(buildObservation(1.0)));
+        assertEquals("The BatchingOutputNeuralNet is closed", exception.getMessage());
+    }
+}
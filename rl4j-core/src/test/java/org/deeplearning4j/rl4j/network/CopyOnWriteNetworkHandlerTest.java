@@ -0,0 +1,163 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.network;
+
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.rl4j.agent.learning.update.Features;
+import org.deeplearning4j.rl4j.agent.learning.update.FeaturesLabels;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.learning.config.Sgd;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CopyOnWriteNetworkHandlerTest {
+
+    private static final String LABEL_NAME = "label";
+    private static final String GRADIENT_NAME = "gradient";
+
+    private final Features features = new Features(new INDArray[] { Nd4j.create(new double[][] { { 1.0, -2.0 } }) });
+
+    @Test
+    public void when_sourceParamsChangeBeforeAnyWrite_expect_cloneSeesTheChange() {
+        // Arrange
+        MultiLayerNetwork model = buildModel(123);
+        INetworkHandler source = new MultiLayerNetworkHandler(model, LABEL_NAME, GRADIENT_NAME, 0);
+        CopyOnWriteNetworkHandler sut = (CopyOnWriteNetworkHandler) source.copyOnWriteClone();
+
+        // Act
+        model.params().muli(2.0);
+
+        // Assert
+        assertFalse(sut.isMaterialized());
+        assertEquals(source.batchOutput(features)[0], sut.batchOutput(features)[0]);
+    }
+
+    @Test
+    public void when_cloneFits_expect_paramsCopiedAndSourceUnchanged() {
+        // Arrange
+        MultiLayerNetwork model = buildModel(123);
+        INetworkHandler source = new MultiLayerNetworkHandler(model, LABEL_NAME, GRADIENT_NAME, 0);
+        CopyOnWriteNetworkHandler sut = (CopyOnWriteNetworkHandler) source.copyOnWriteClone();
+        INDArray sourceParamsBefore = model.params().dup();
+        FeaturesLabels featuresLabels = new FeaturesLabels(features);
+        featuresLabels.putLabels(LABEL_NAME, Nd4j.create(new double[][] { { 10.0 } }));
+
+        // Act
+        sut.performFit(featuresLabels);
+
+        // Assert
+        assertTrue(sut.isMaterialized());
+        assertEquals(sourceParamsBefore, model.params());
+        assertNotEquals(source.batchOutput(features)[0], sut.batchOutput(features)[0]);
+    }
+
+    @Test
+    public void when_cloneCopiesFromSource_expect_laterSourceChangesNotSeen() {
+        // Arrange
+        MultiLayerNetwork model = buildModel(123);
+        INetworkHandler source = new MultiLayerNetworkHandler(model, LABEL_NAME, GRADIENT_NAME, 0);
+        CopyOnWriteNetworkHandler sut = (CopyOnWriteNetworkHandler) source.copyOnWriteClone();
+        INDArray outputBefore = sut.batchOutput(features)[0].dup();
+
+        // Act
+        sut.copyFrom(source);
+        model.params().muli(2.0);
+
+        // Assert
+        assertTrue(sut.isMaterialized());
+        assertEquals(outputBefore, sut.batchOutput(features)[0]);
+    }
+
+    @Test
+    public void when_materializedCloneCopiesFromSource_expect_paramsCopiedInPlace() {
+        // Arrange
+        MultiLayerNetwork model = buildModel(123);
+        INetworkHandler source = new MultiLayerNetworkHandler(model, LABEL_NAME, GRADIENT_NAME, 0);
+        INetworkHandler other = new MultiLayerNetworkHandler(buildModel(456), LABEL_NAME, GRADIENT_NAME, 0);
+        CopyOnWriteNetworkHandler sut = (CopyOnWriteNetworkHandler) source.copyOnWriteClone();
+        sut.copyFrom(source);
+        INetworkHandler materializedHandler = CopyOnWriteNetworkHandler.unwrap(sut);
+
+        // Act
+        sut.copyFrom(other);
+
+        // Assert
+        assertSame(materializedHandler, CopyOnWriteNetworkHandler.unwrap(sut));
+        assertEquals(other.batchOutput(features)[0], sut.batchOutput(features)[0]);
+    }
+
+    @Test
+    public void when_refreshedFromStoreThenMorePublishesThanSnapshots_expect_refreshedParamsKept() {
+        // Arrange
+        int numSnapshots = 3;
+        MultiLayerNetwork model = buildModel(123);
+        QNetwork global = QNetwork.builder()
+                .withNetwork(model)
+                .build();
+        VersionedParameterStore<QNetwork> store = new VersionedParameterStore<>(global, numSnapshots);
+        QNetwork sut = global.copyOnWriteClone();
+        store.copyTo(sut);
+        INDArray outputBefore = sut.getNetworkHandler().batchOutput(features)[0].dup();
+
+        // Act
+        for(int i = 0; i < numSnapshots + 1; ++i) {
+            model.params().muli(2.0);
+            store.publish(global);
+        }
+
+        // Assert
+        assertNotEquals(outputBefore, global.getNetworkHandler().batchOutput(features)[0]);
+        assertEquals(outputBefore, sut.getNetworkHandler().batchOutput(features)[0]);
+    }
+
+    @Test
+    public void when_otherHandlerCopiesFromClone_expect_sharedParamsCopied() {
+        // Arrange
+        MultiLayerNetwork model = buildModel(123);
+        INetworkHandler source = new MultiLayerNetworkHandler(model, LABEL_NAME, GRADIENT_NAME, 0);
+        INetworkHandler sut = source.copyOnWriteClone();
+        INetworkHandler other = new MultiLayerNetworkHandler(buildModel(456), LABEL_NAME, GRADIENT_NAME, 0);
+        assertNotEquals(source.batchOutput(features)[0], other.batchOutput(features)[0]);
+
+        // Act
+        other.copyFrom(sut);
+
+        // Assert
+        assertEquals(source.batchOutput(features)[0], other.batchOutput(features)[0]);
+    }
+
+    private MultiLayerNetwork buildModel(long seed) {
+        MultiLayerNetwork result = new MultiLayerNetwork(new NeuralNetConfiguration.Builder()
+                .seed(seed)
+                .updater(new Sgd(0.1))
+                .list()
+                .layer(0, new OutputLayer.Builder().nIn(2).nOut(1).lossFunction(LossFunctions.LossFunction.MSE).activation(Activation.IDENTITY).build())
+                .build());
+        result.init();
+
+        return result;
+    }
+}
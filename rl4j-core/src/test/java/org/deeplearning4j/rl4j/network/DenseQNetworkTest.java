@@ -0,0 +1,225 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.network;
+
+import org.deeplearning4j.rl4j.agent.learning.update.Features;
+import org.deeplearning4j.rl4j.agent.learning.update.FeaturesLabels;
+import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
+import org.deeplearning4j.rl4j.network.configuration.DQNDenseNetworkConfiguration;
+import org.deeplearning4j.rl4j.observation.Observation;
+import org.junit.jupiter.api.Test;
+import org.nd4j.linalg.api.buffer.DataType;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.rng.Random;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.learning.config.Adam;
+import org.nd4j.linalg.learning.config.Sgd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DenseQNetworkTest {
+
+    private static final DQNDenseNetworkConfiguration CONFIGURATION = DQNDenseNetworkConfiguration.builder()
+            .numLayers(2)
+            .numHiddenNodes(8)
+            .updater(new Adam(0.01))
+            .build();
+
+    private DenseQNetwork buildNetwork() {
+        Random rnd = Nd4j.getRandomFactory().getNewRandomInstance(123);
+        return new DenseQNetwork(3, 2, CONFIGURATION, rnd);
+    }
+
+    private FeaturesLabels buildFeaturesLabels(INDArray features, INDArray labels) {
+        FeaturesLabels result = new FeaturesLabels(new Features(new INDArray[] { features }));
+        result.putLabels(CommonLabelNames.QValues, labels);
+        return result;
+    }
+
+    private INDArray outputOf(DenseQNetwork network, INDArray features) {
+        return network.output(new Features(new INDArray[] { features })).get(CommonOutputNames.QValues);
+    }
+
+    @Test
+    public void when_updaterIsNotAdam_expect_Exception() {
+        // Arrange
+        DQNDenseNetworkConfiguration configuration = DQNDenseNetworkConfiguration.builder()
+                .updater(new Sgd())
+                .build();
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new DenseQNetwork(3, 2, configuration, null));
+
+        // Assert
+        assertEquals("Only the Adam updater is supported, got Sgd", exception.getMessage());
+    }
+
+    @Test
+    public void when_created_expect_parametersOfEveryLayerCounted() {
+        // Arrange
+        DenseQNetwork sut = buildNetwork();
+
+        // Act
+        int result = sut.getNumParameters();
+
+        // Assert
+        assertEquals((3 * 8 + 8) + (8 * 8 + 8) + (8 * 2 + 2), result);
+    }
+
+    @Test
+    public void when_outputOfObservation_expect_sameAsBatchOutput() {
+        // Arrange
+        DenseQNetwork sut = buildNetwork();
+        INDArray batch = Nd4j.create(new double[][] { { 0.5, -1.0, 2.0 }, { 1.5, 0.25, -0.75 } });
+
+        // Act
+        INDArray batchOutput = outputOf(sut, batch);
+        INDArray observationOutput = sut.output(new Observation(batch.getRow(1, true).dup())).get(CommonOutputNames.QValues);
+
+        // Assert
+        assertArrayEquals(new long[] { 2, 2 }, batchOutput.shape());
+        assertArrayEquals(new long[] { 1, 2 }, observationOutput.shape());
+        assertEquals(batchOutput.getDouble(1, 0), observationOutput.getDouble(0, 0), 0.00001);
+        assertEquals(batchOutput.getDouble(1, 1), observationOutput.getDouble(0, 1), 0.00001);
+    }
+
+    @Test
+    public void when_outputOfSameObservationIsCalledTwice_expect_cachedOutput() {
+        // Arrange
+        DenseQNetwork sut = buildNetwork();
+        Observation observation = new Observation(Nd4j.create(new double[] { 0.5, -1.0, 2.0 }).reshape(1, 3));
+
+        // Act
+        NeuralNetOutput first = sut.output(observation);
+        double firstValue = first.get(CommonOutputNames.QValues).getDouble(0);
+        NeuralNetOutput second = sut.output(observation);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(firstValue, second.get(CommonOutputNames.QValues).getDouble(0), 0.0);
+    }
+
+    @Test
+    public void when_fitting_expect_lossDecreases() {
+        // Arrange
+        DenseQNetwork sut = buildNetwork();
+        INDArray features = Nd4j.create(new double[][] { { 0.5, -1.0, 2.0 }, { 1.5, 0.25, -0.75 }, { -1.0, 1.0, 0.0 } });
+        INDArray labels = Nd4j.create(new double[][] { { 1.0, -1.0 }, { 0.0, 2.0 }, { -0.5, 0.5 } });
+        FeaturesLabels featuresLabels = buildFeaturesLabels(features, labels);
+        double initialLoss = outputOf(sut, features).castTo(DataType.DOUBLE).squaredDistance(labels);
+
+        // Act
+        for(int i = 0; i < 500; ++i) {
+            sut.fit(featuresLabels);
+        }
+
+        // Assert
+        double finalLoss = outputOf(sut, features).castTo(DataType.DOUBLE).squaredDistance(labels);
+        assertTrue(finalLoss < initialLoss * 0.01, "Expected the loss to decrease from " + initialLoss + ", got " + finalLoss);
+    }
+
+    @Test
+    public void when_applyingComputedGradients_expect_sameAsFit() {
+        // Arrange
+        DenseQNetwork sut = buildNetwork();
+        DenseQNetwork fitted = sut.clone();
+        INDArray features = Nd4j.create(new double[][] { { 0.5, -1.0, 2.0 }, { 1.5, 0.25, -0.75 } });
+        FeaturesLabels featuresLabels = buildFeaturesLabels(features, Nd4j.create(new double[][] { { 1.0, -1.0 }, { 0.0, 2.0 } }));
+
+        // Act
+        for(int i = 0; i < 3; ++i) {
+            Gradients gradients = sut.computeGradients(featuresLabels);
+            sut.applyGradients(gradients);
+            fitted.fit(featuresLabels);
+        }
+
+        // Assert
+        assertEquals(outputOf(fitted, features), outputOf(sut, features));
+    }
+
+    @Test
+    public void when_sampleWeightsAreZero_expect_networkUnchanged() {
+        // Arrange
+        DenseQNetwork sut = buildNetwork();
+        INDArray features = Nd4j.create(new double[][] { { 0.5, -1.0, 2.0 }, { 1.5, 0.25, -0.75 } });
+        FeaturesLabels featuresLabels = buildFeaturesLabels(features, Nd4j.create(new double[][] { { 1.0, -1.0 }, { 0.0, 2.0 } }));
+        featuresLabels.setSampleWeights(Nd4j.zeros(2, 1));
+        INDArray outputBefore = outputOf(sut, features);
+
+        // Act
+        sut.fit(featuresLabels);
+
+        // Assert
+        assertEquals(outputBefore, outputOf(sut, features));
+    }
+
+    @Test
+    public void when_copyFrom_expect_sameOutputAndCacheInvalidated() {
+        // Arrange
+        DenseQNetwork sut = buildNetwork();
+        DenseQNetwork from = new DenseQNetwork(3, 2, CONFIGURATION, Nd4j.getRandomFactory().getNewRandomInstance(456));
+        Observation observation = new Observation(Nd4j.create(new double[] { 0.5, -1.0, 2.0 }).reshape(1, 3));
+        double valueBeforeCopy = sut.output(observation).get(CommonOutputNames.QValues).getDouble(0);
+
+        // Act
+        sut.copyFrom(from);
+
+        // Assert
+        double expected = from.output(observation).get(CommonOutputNames.QValues).getDouble(0);
+        assertNotEquals(valueBeforeCopy, expected, 0.00001);
+        assertEquals(expected, sut.output(observation).get(CommonOutputNames.QValues).getDouble(0), 0.00001);
+    }
+
+    @Test
+    public void when_mergeFrom_expect_weightedSumOfParametersAndCacheInvalidated() {
+        // Arrange
+        DenseQNetwork sut = buildNetwork();
+        DenseQNetwork from = new DenseQNetwork(3, 2, CONFIGURATION, Nd4j.getRandomFactory().getNewRandomInstance(456));
+        DenseQNetwork sameAsSut = sut.clone();
+        Observation observation = new Observation(Nd4j.create(new double[] { 0.5, -1.0, 2.0 }).reshape(1, 3));
+        double valueBeforeMerge = sut.output(observation).get(CommonOutputNames.QValues).getDouble(0);
+
+        // Act
+        sut.mergeFrom(sameAsSut, 0.5, 0.5);
+        double valueAfterSelfAverage = sut.output(observation).get(CommonOutputNames.QValues).getDouble(0);
+        sut.mergeFrom(from, 0.0, 1.0);
+
+        // Assert
+        assertEquals(valueBeforeMerge, valueAfterSelfAverage, 0.00001);
+        assertEquals(from.output(observation).get(CommonOutputNames.QValues).getDouble(0), sut.output(observation).get(CommonOutputNames.QValues).getDouble(0), 0.00001);
+    }
+
+    @Test
+    public void when_cloneIsFitted_expect_originalUnchanged() {
+        // Arrange
+        DenseQNetwork sut = buildNetwork();
+        INDArray features = Nd4j.create(new double[][] { { 0.5, -1.0, 2.0 } });
+        INDArray outputBefore = outputOf(sut, features);
+
+        // Act
+        DenseQNetwork clone = sut.clone();
+        clone.fit(buildFeaturesLabels(features, Nd4j.create(new double[][] { { 10.0, -10.0 } })));
+
+        // Assert
+        assertEquals(outputBefore, outputOf(sut, features));
+        assertNotEquals(outputBefore, outputOf(clone, features));
+    }
+}
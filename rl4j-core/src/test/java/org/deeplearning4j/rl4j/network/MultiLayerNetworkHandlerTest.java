@@ -281,6 +281,23 @@ public class MultiLayerNetworkHandlerTest {
         verify(modelMock, times(1)).setParams(params);
     }
 
+    @Test
+    public void when_callingMergeFrom_expect_weightedSumInModelParams() {
+        // Arrange
+        setup(false);
+        INDArray params = Nd4j.create(new double[] { 1.0, 2.0 });
+        when(modelMock.params()).thenReturn(params);
+        MultiLayerNetwork fromModelMock = mock(MultiLayerNetwork.class);
+        when(fromModelMock.params()).thenReturn(Nd4j.create(new double[] { 10.0, 20.0 }));
+        MultiLayerNetworkHandler from = new MultiLayerNetworkHandler(fromModelMock, null, null, 0);
+
+        // Act
+        sut.mergeFrom(from, 0.5, 0.25);
+
+        // Assert
+        assertArrayEquals(new double[] { 3.0, 6.0 }, params.toDoubleVector(), 0.00001);
+    }
+
     @Test
     public void when_modelIsNotRecurrent_expect_isRecurrentFalse() {
         // Arrange
@@ -0,0 +1,138 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.network;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class VersionedParameterStoreTest {
+
+    @Test
+    public void when_nothingPublished_expect_initialParametersCopiedAsVersion0() {
+        // Arrange
+        ITrainableNeuralNet initialMock = mock(ITrainableNeuralNet.class);
+        ITrainableNeuralNet snapshotMock = mock(ITrainableNeuralNet.class);
+        ITrainableNeuralNet destinationMock = mock(ITrainableNeuralNet.class);
+        when(initialMock.clone()).thenReturn(snapshotMock);
+        VersionedParameterStore<ITrainableNeuralNet> sut = new VersionedParameterStore<>(initialMock, 2);
+
+        // Act
+        long version = sut.copyTo(destinationMock);
+
+        // Assert
+        assertEquals(0, version);
+        verify(destinationMock, times(1)).copyFrom(snapshotMock);
+    }
+
+    @Test
+    public void when_published_expect_newSnapshotCopiedWithNextVersion() {
+        // Arrange
+        ITrainableNeuralNet initialMock = mock(ITrainableNeuralNet.class);
+        ITrainableNeuralNet firstSnapshotMock = mock(ITrainableNeuralNet.class);
+        ITrainableNeuralNet secondSnapshotMock = mock(ITrainableNeuralNet.class);
+        ITrainableNeuralNet sourceMock = mock(ITrainableNeuralNet.class);
+        ITrainableNeuralNet destinationMock = mock(ITrainableNeuralNet.class);
+        when(initialMock.clone()).thenReturn(firstSnapshotMock, secondSnapshotMock);
+        VersionedParameterStore<ITrainableNeuralNet> sut = new VersionedParameterStore<>(initialMock, 2);
+
+        // Act
+        long publishedVersion = sut.publish(sourceMock);
+        long copiedVersion = sut.copyTo(destinationMock);
+
+        // Assert
+        assertEquals(1, publishedVersion);
+        assertEquals(1, copiedVersion);
+        assertEquals(1, sut.getVersion());
+        assertSame(secondSnapshotMock, sut.getLatest());
+        verify(secondSnapshotMock, times(1)).copyFrom(sourceMock);
+        verify(destinationMock, times(1)).copyFrom(secondSnapshotMock);
+    }
+
+    @Test
+    public void when_publishedMoreThanPoolSize_expect_oldestSnapshotRecycled() {
+        // Arrange
+        ITrainableNeuralNet initialMock = mock(ITrainableNeuralNet.class);
+        ITrainableNeuralNet[] snapshotMocks = new ITrainableNeuralNet[] {
+                mock(ITrainableNeuralNet.class),
+                mock(ITrainableNeuralNet.class),
+                mock(ITrainableNeuralNet.class)
+        };
+        ITrainableNeuralNet sourceMock = mock(ITrainableNeuralNet.class);
+        when(initialMock.clone()).thenReturn(snapshotMocks[0], snapshotMocks[1], snapshotMocks[2]);
+        VersionedParameterStore<ITrainableNeuralNet> sut = new VersionedParameterStore<>(initialMock, 3);
+
+        // Act
+        sut.publish(sourceMock);
+        sut.publish(sourceMock);
+        sut.publish(sourceMock);
+
+        // Assert
+        assertEquals(3, sut.getVersion());
+        assertSame(snapshotMocks[0], sut.getLatest());
+        verify(snapshotMocks[0], times(1)).copyFrom(sourceMock);
+        verify(snapshotMocks[1], times(1)).copyFrom(sourceMock);
+        verify(snapshotMocks[2], times(1)).copyFrom(sourceMock);
+    }
+
+    @Test
+    public void when_snapshotRecycledDuringCopy_expect_copyRetriedWithLatest() {
+        // Arrange
+        ITrainableNeuralNet initialMock = mock(ITrainableNeuralNet.class);
+        ITrainableNeuralNet firstSnapshotMock = mock(ITrainableNeuralNet.class);
+        ITrainableNeuralNet secondSnapshotMock = mock(ITrainableNeuralNet.class);
+        ITrainableNeuralNet sourceMock = mock(ITrainableNeuralNet.class);
+        ITrainableNeuralNet destinationMock = mock(ITrainableNeuralNet.class);
+        when(initialMock.clone()).thenReturn(firstSnapshotMock, secondSnapshotMock);
+        VersionedParameterStore<ITrainableNeuralNet> sut = new VersionedParameterStore<>(initialMock, 2);
+
+        // The writer publishes twice during the first copy, recycling the snapshot being copied
+        boolean[] isFirstCopy = new boolean[] { true };
+        doAnswer(invocation -> {
+            if(isFirstCopy[0]) {
+                isFirstCopy[0] = false;
+                sut.publish(sourceMock);
+                sut.publish(sourceMock);
+            }
+            return null;
+        }).when(destinationMock).copyFrom(any());
+
+        // Act
+        long version = sut.copyTo(destinationMock);
+
+        // Assert
+        assertEquals(2, version);
+        verify(destinationMock, times(2)).copyFrom(firstSnapshotMock);
+    }
+
+    @Test
+    public void when_numSnapshotsLessThan2_expect_exception() {
+        // Arrange
+        ITrainableNeuralNet initialMock = mock(ITrainableNeuralNet.class);
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new VersionedParameterStore<>(initialMock, 1));
+
+        // Assert
+        assertEquals("numSnapshots must be 2 or greater, got 1", exception.getMessage());
+    }
+}
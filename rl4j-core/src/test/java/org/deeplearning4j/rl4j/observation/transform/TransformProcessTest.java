@@ -20,17 +20,24 @@
 
 package org.deeplearning4j.rl4j.observation.transform;
 
+import org.deeplearning4j.rl4j.environment.ChannelSchema;
 import org.deeplearning4j.rl4j.observation.Observation;
+import org.deeplearning4j.rl4j.observation.transform.operation.ArrayToINDArrayTransform;
+import org.deeplearning4j.rl4j.observation.transform.operation.HistoryMergeTransform;
+import org.deeplearning4j.rl4j.observation.transform.operation.SimpleNormalizationTransform;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.nd4j.common.tests.tags.NativeTag;
 import org.nd4j.common.tests.tags.TagNames;
+import org.nd4j.linalg.api.buffer.DataType;
 import org.nd4j.linalg.dataset.api.DataSet;
 import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
 import org.nd4j.linalg.factory.Nd4j;
 import org.datavec.api.transform.Operation;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -419,6 +426,267 @@ public class TransformProcessTest {
         assertEquals(234.0, result.getChannelData(1).getDouble(0), 0.000001);
     }
 
+    @Test
+    public void when_compiledTransformIsCalled_expect_sameResultAsNotCompiled() {
+        // Arrange
+        TransformProcess sut = TransformProcess.builder()
+                .filter(new FilterOperationMock(false))
+                .transform("test", new IntegerTransformOperationMock())
+                .transform("test", new ToDataSetTransformOperationMock())
+                .preProcess("test", new DataSetPreProcessorMock())
+                .buildCompiled("test", "other");
+        Map<String, Object> channelsData = new HashMap<String, Object>() {{
+            put("test", 1);
+            put("other", Nd4j.create(new double[] { 234.0 }));
+        }};
+
+        // Act
+        Observation result = sut.transform(channelsData, 0, false);
+
+        // Assert
+        assertTrue(sut.isCompiled());
+        assertFalse(result.isSkipped());
+        assertEquals(2, result.numChannels());
+        assertArrayEquals(new long[] { 1, 1 }, result.getChannelData(0).shape());
+        assertEquals(-10.0, result.getChannelData(0).getDouble(0), 0.00001);
+        assertEquals(234.0, result.getChannelData(1).getDouble(0), 0.00001);
+    }
+
+    @Test
+    public void when_compiledAndFilteredOut_expect_skippedObservationAndFollowingOperationsSkipped() {
+        // Arrange
+        IntegerTransformOperationMock transformOperationMock = new IntegerTransformOperationMock();
+        TransformProcess sut = TransformProcess.builder()
+                .filter(new FilterOperationMock(true))
+                .transform("test", transformOperationMock)
+                .buildCompiled("test");
+        Map<String, Object> channelsData = new HashMap<String, Object>() {{
+            put("test", 1);
+        }};
+
+        // Act
+        Observation result = sut.transform(channelsData, 0, false);
+
+        // Assert
+        assertTrue(result.isSkipped());
+        assertFalse(transformOperationMock.isCalled);
+    }
+
+    @Test
+    public void when_compiledAndChannelNotInMap_expect_exception() {
+        // Arrange
+        TransformProcess sut = TransformProcess.builder()
+                .transform("test", new IntegerTransformOperationMock())
+                .buildCompiled("test");
+        Map<String, Object> channelsData = new HashMap<String, Object>() {{
+            put("not-test", 1);
+        }};
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> sut.transform(channelsData, 0, false));
+
+        // Assert
+        assertEquals("The channelsData map does not contain the channel 'test'", exception.getMessage());
+    }
+
+    @Test
+    public void when_compiledFilterReadsChannels_expect_currentChannelData() {
+        // Arrange
+        Object[] filteredData = new Object[1];
+        TransformProcess sut = TransformProcess.builder()
+                .transform("test", new IntegerTransformOperationMock())
+                .filter((channelsData, step, isFinal) -> {
+                    filteredData[0] = channelsData.get("test");
+                    return false;
+                })
+                .transform("test", new ToDataSetTransformOperationMock())
+                .buildCompiled("test");
+        Map<String, Object> channelsData = new HashMap<String, Object>() {{
+            put("test", 5);
+        }};
+
+        // Act
+        sut.transform(channelsData, 0, false);
+
+        // Assert
+        assertEquals(-5, filteredData[0]);
+    }
+
+    @Test
+    public void when_compiledFilterReadsChannelWithoutSlot_expect_suppliedChannelData() {
+        // Arrange
+        Object[] filteredData = new Object[2];
+        TransformProcess sut = TransformProcess.builder()
+                .filter((channelsData, step, isFinal) -> {
+                    filteredData[0] = channelsData.get("info");
+                    filteredData[1] = channelsData.size();
+                    return false;
+                })
+                .transform("test", new IntegerTransformOperationMock())
+                .transform("test", new ToDataSetTransformOperationMock())
+                .buildCompiled("test");
+        Map<String, Object> channelsData = new HashMap<String, Object>() {{
+            put("test", 5);
+            put("info", "some info");
+        }};
+
+        // Act
+        sut.transform(channelsData, 0, false);
+
+        // Assert
+        assertEquals("some info", filteredData[0]);
+        assertEquals(2, filteredData[1]);
+        assertEquals(5, channelsData.get("test"));
+    }
+
+    @Test
+    public void when_transformingChannelSlotsWithChannelsData_expect_filterReadsChannelWithoutSlot() {
+        // Arrange
+        TransformProcess sut = TransformProcess.builder()
+                .filter((channelsData, step, isFinal) -> Boolean.TRUE.equals(channelsData.get("skip")))
+                .transform("test", new ToDataSetTransformOperationMock())
+                .buildCompiled("test");
+        Object[] channelSlots = new Object[] { 3 };
+        Map<String, Object> channelsData = new HashMap<String, Object>() {{
+            put("test", 3);
+            put("skip", true);
+        }};
+
+        // Act
+        Observation result = sut.transformSlots(channelSlots, channelsData, 0, false);
+
+        // Assert
+        assertTrue(result.isSkipped());
+        assertEquals("test", sut.getChannelSlotName(0));
+    }
+
+    @Test
+    public void when_transformingChannelSlots_expect_slotsTransformedInPlace() {
+        // Arrange
+        TransformProcess sut = TransformProcess.builder()
+                .transform("test", new IntegerTransformOperationMock())
+                .transform("test", new ToDataSetTransformOperationMock())
+                .buildCompiled("other", "test");
+        int testSlot = sut.getChannelSlot("test");
+        int otherSlot = sut.getChannelSlot("other");
+        Object[] channelSlots = new Object[sut.getNumChannelSlots()];
+        channelSlots[testSlot] = 3;
+        channelSlots[otherSlot] = Nd4j.create(new double[] { 234.0 });
+
+        // Act
+        Observation result = sut.transformSlots(channelSlots, 0, false);
+
+        // Assert
+        assertEquals(2, sut.getNumChannelSlots());
+        assertEquals(234.0, result.getChannelData(0).getDouble(0), 0.00001);
+        assertEquals(-3.0, result.getChannelData(1).getDouble(0), 0.00001);
+        assertTrue(channelSlots[testSlot] instanceof DataSet);
+    }
+
+    @Test
+    public void when_gettingChannelSlotOfNotCompiled_expect_exception() {
+        // Arrange
+        TransformProcess sut = TransformProcess.builder()
+                .build("test");
+
+        // Act
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> sut.getChannelSlot("test"));
+
+        // Assert
+        assertEquals("Channel slots are only available on a compiled TransformProcess", exception.getMessage());
+    }
+
+    @Test
+    public void when_gettingObservationSchema_expect_schemaPropagatedThroughSteps() {
+        // Arrange
+        TransformProcess sut = TransformProcess.builder()
+                .filter(new FilterOperationMock(false))
+                .transform("data", new ArrayToINDArrayTransform())
+                .transform("data", new SimpleNormalizationTransform(0.0, 10.0))
+                .build("data");
+        Map<String, Object> channelsData = new HashMap<String, Object>() {{
+            put("data", new double[] { 1.0, 2.0, 3.0, 4.0 });
+        }};
+
+        // Act
+        List<ChannelSchema> result = sut.getObservationSchema(Collections.singletonList(new ChannelSchema("data", 4)));
+        Observation observation = sut.transform(channelsData, 0, false);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(new ChannelSchema("data", DataType.DOUBLE, 1, 4), result.get(0));
+        assertArrayEquals(observation.getChannelData(0).shape(), result.get(0).getShape());
+        assertEquals(observation.getChannelData(0).dataType(), result.get(0).getDataType());
+    }
+
+    @Test
+    public void when_gettingObservationSchemaWithHistoryMerge_expect_stackedSchema() {
+        // Arrange
+        TransformProcess sut = TransformProcess.builder()
+                .transform("data", new ArrayToINDArrayTransform())
+                .transform("data", HistoryMergeTransform.builder().build(3))
+                .build("data");
+
+        // Act
+        List<ChannelSchema> result = sut.getObservationSchema(Collections.singletonList(new ChannelSchema("data", 4)));
+        Observation observation = null;
+        for(int i = 0; i < 3; ++i) {
+            Map<String, Object> channelsData = new HashMap<String, Object>() {{
+                put("data", new double[] { 1.0, 2.0, 3.0, 4.0 });
+            }};
+            observation = sut.transform(channelsData, i, false);
+        }
+
+        // Assert
+        assertArrayEquals(new long[] { 1, 3, 4 }, result.get(0).getShape());
+        assertArrayEquals(observation.getChannelData(0).shape(), result.get(0).getShape());
+        assertEquals(observation.getChannelData(0).dataType(), result.get(0).getDataType());
+    }
+
+    @Test
+    public void when_aStepDoesNotPropagateSchema_expect_nullObservationSchema() {
+        // Arrange
+        TransformProcess sut = TransformProcess.builder()
+                .transform("data", new IntegerTransformOperationMock())
+                .build("data");
+
+        // Act
+        List<ChannelSchema> result = sut.getObservationSchema(Collections.singletonList(new ChannelSchema("data", 1)));
+
+        // Assert
+        assertNull(result);
+    }
+
+    @Test
+    public void when_channelIsNotDescribed_expect_IllegalArgumentException() {
+        // Arrange
+        TransformProcess sut = TransformProcess.builder()
+                .transform("data", new ArrayToINDArrayTransform())
+                .build("data");
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> sut.getObservationSchema(Collections.singletonList(new ChannelSchema("other", 4))));
+
+        // Assert
+        assertEquals("The schema of the channel 'data' is not supplied", exception.getMessage());
+    }
+
+    @Test
+    public void when_channelCannotBeReshaped_expect_IllegalArgumentException() {
+        // Arrange
+        TransformProcess sut = TransformProcess.builder()
+                .transform("data", new ArrayToINDArrayTransform(2, 3))
+                .build("data");
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> sut.getObservationSchema(Collections.singletonList(new ChannelSchema("data", 4))));
+
+        // Assert
+        assertEquals("Channel 'data': can't reshape 4 elements to [2, 3]", exception.getMessage());
+    }
+
     private static class FilterOperationMock implements FilterOperation {
 
         private final boolean skipped;
@@ -29,9 +29,12 @@ import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.rl4j.agent.learning.update.Features;
 import org.deeplearning4j.rl4j.agent.learning.update.FeaturesLabels;
 import org.deeplearning4j.rl4j.agent.learning.update.Gradients;
+import org.deeplearning4j.rl4j.environment.IntegerActionSchema;
 import org.deeplearning4j.rl4j.learning.IHistoryProcessor;
 import org.deeplearning4j.rl4j.learning.Learning;
 import org.deeplearning4j.rl4j.learning.configuration.QLearningConfiguration;
+import org.deeplearning4j.rl4j.network.CommonOutputNames;
+import org.deeplearning4j.rl4j.network.IOutputNeuralNet;
 import org.deeplearning4j.rl4j.network.NeuralNet;
 import org.deeplearning4j.rl4j.network.NeuralNetOutput;
 import org.deeplearning4j.rl4j.network.ac.IActorCritic;
@@ -48,6 +51,7 @@ import org.nd4j.linalg.lossfunctions.LossFunctions;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -113,6 +117,11 @@ public class PolicyTest {
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public void mergeFrom(NN from, double weight, double fromWeight) {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public Gradient[] gradient(INDArray input, INDArray[] labels) {
             throw new UnsupportedOperationException();
@@ -253,6 +262,74 @@ public class PolicyTest {
         assertEquals(0, dqn.outputParams.size());
     }
 
+    @Test
+    public void when_dqnPolicyDecidesBatchActions_expect_maxActionOfEachRow() {
+        // Arrange
+        StubQNetwork qNetwork = new StubQNetwork();
+        DQNPolicy<Integer> sut = new DQNPolicy<Integer>(qNetwork);
+        Features features = new Features(new INDArray[] { Nd4j.create(new double[][] { { 1.0, 3.0, 2.0 }, { 5.0, 4.0, 0.0 } }) });
+
+        // Act
+        List<Integer> result = sut.nextActions(features);
+
+        // Assert
+        assertEquals(1, qNetwork.outputCallCount);
+        assertEquals(2, result.size());
+        assertEquals(1, (int)result.get(0));
+        assertEquals(0, (int)result.get(1));
+    }
+
+    @Test
+    public void when_epsGreedyDecidesBatchActions_expect_greedyPolicyEvaluatedOnce() {
+        // Arrange
+        StubQNetwork qNetwork = new StubQNetwork();
+        MockRandom random = new MockRandom(new double[] { 0.9, 0.9, 0.1, 0.9 }, new int[] { 2, 0 });
+        IntegerActionSchema actionSchema = new IntegerActionSchema(3, 0, random);
+        EpsGreedy<Integer> sut = new EpsGreedy<Integer>(new DQNPolicy<Integer>(qNetwork), actionSchema, 0.5, 0, 1, random);
+        Features features = new Features(new INDArray[] { Nd4j.create(new double[][] { { 1.0, 3.0, 2.0 }, { 5.0, 4.0, 0.0 }, { 0.0, 0.0, 1.0 }, { 0.0, 1.0, 0.0 } }) });
+
+        // Act
+        List<Integer> result = sut.nextActions(features);
+
+        // Assert
+        assertEquals(1, qNetwork.outputCallCount);
+        assertEquals(2, (int)result.get(0)); // epsilon is 1.0 on the first step: random action
+        assertEquals(0, (int)result.get(1)); // greedy
+        assertEquals(0, (int)result.get(2)); // random
+        assertEquals(1, (int)result.get(3)); // greedy
+    }
+
+    private static class StubQNetwork implements IOutputNeuralNet {
+        int outputCallCount = 0;
+
+        @Override
+        public NeuralNetOutput output(Observation observation) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NeuralNetOutput output(INDArray batch) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NeuralNetOutput output(Features features) {
+            ++outputCallCount;
+            NeuralNetOutput result = new NeuralNetOutput();
+            result.put(CommonOutputNames.QValues, features.get(0));
+            return result;
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public boolean isRecurrent() {
+            return false;
+        }
+    }
+
     public static class MockRefacPolicy extends Policy<Integer> {
 
         private NeuralNet neuralNet;
@@ -84,6 +84,11 @@ public class MockNeuralNet implements NeuralNet {
         ++copyCallCount;
     }
 
+    @Override
+    public void mergeFrom(ITrainableNeuralNet from, double weight, double fromWeight) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public NeuralNet clone() {
         return this;
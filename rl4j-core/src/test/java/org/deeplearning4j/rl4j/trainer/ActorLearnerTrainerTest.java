@@ -0,0 +1,134 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+
+package org.deeplearning4j.rl4j.trainer;
+
+import org.apache.commons.lang3.builder.Builder;
+import org.deeplearning4j.rl4j.agent.IAgentLearner;
+import org.deeplearning4j.rl4j.agent.learning.learner.ILearner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ActorLearnerTrainerTest {
+
+    @Mock
+    Builder<IAgentLearner<Integer>> actorBuilderMock;
+
+    @Mock
+    IAgentLearner<Integer> actorMock;
+
+    @Mock
+    ILearner learnerMock;
+
+    @BeforeEach
+    public void setup() {
+        lenient().when(actorBuilderMock.build()).thenReturn(actorMock);
+        lenient().when(actorMock.getEpisodeStepCount()).thenReturn(100);
+    }
+
+    @Test
+    public void when_ctorIsCalledWithInvalidNumberOfActors_expect_Exception() {
+        assertThrows(IllegalArgumentException.class, () -> new ActorLearnerTrainer<Integer>(actorBuilderMock, learnerMock, t -> true, 0));
+    }
+
+    @Test
+    public void when_runningWith2Actors_expect_2ActorsCreated() {
+        // Arrange
+        ActorLearnerTrainer<Integer> sut = new ActorLearnerTrainer<Integer>(actorBuilderMock, learnerMock, t -> true, 2);
+
+        // Act
+        sut.train();
+
+        // Assert
+        verify(actorBuilderMock, times(2)).build();
+    }
+
+    @Test
+    public void when_stoppingConditionTriggered_expect_actorsAndLearnerStopAndCountersAreCorrect() {
+        // Arrange
+        AtomicInteger stoppingConditionHitCount = new AtomicInteger(0);
+        when(learnerMock.learn()).thenReturn(true);
+        Predicate<ActorLearnerTrainer<Integer>> stoppingCondition = t -> stoppingConditionHitCount.incrementAndGet() >= 5;
+        ActorLearnerTrainer<Integer> sut = new ActorLearnerTrainer<Integer>(actorBuilderMock, learnerMock, stoppingCondition, 2);
+
+        // Act
+        sut.train();
+
+        // Assert
+        // The other actor may finish the episode it has started when the condition is met
+        assertTrue(stoppingConditionHitCount.get() >= 5);
+        assertEquals(stoppingConditionHitCount.get(), sut.getEpisodeCount());
+        assertEquals(100 * sut.getEpisodeCount(), sut.getStepCount());
+    }
+
+    @Test
+    public void when_anActorFails_expect_allThreadsStoppedAndFailureRethrown() {
+        // Arrange
+        RuntimeException actorFailure = new RuntimeException("actor failure");
+        doThrow(actorFailure).when(actorMock).run();
+        lenient().when(learnerMock.learn()).thenReturn(false);
+        ActorLearnerTrainer<Integer> sut = new ActorLearnerTrainer<Integer>(actorBuilderMock, learnerMock, t -> false, 2);
+
+        // Act
+        RuntimeException thrown = assertThrows(RuntimeException.class, sut::train);
+
+        // Assert
+        assertSame(actorFailure, thrown);
+        assertEquals(0, sut.getEpisodeCount());
+        verify(actorMock, times(2)).close();
+    }
+
+    @Test
+    public void when_theLearnerFails_expect_allThreadsStoppedAndFailureRethrown() {
+        // Arrange
+        IllegalStateException learnerFailure = new IllegalStateException("learner failure");
+        when(learnerMock.learn()).thenThrow(learnerFailure);
+        ActorLearnerTrainer<Integer> sut = new ActorLearnerTrainer<Integer>(actorBuilderMock, learnerMock, t -> false, 2);
+
+        // Act
+        RuntimeException thrown = assertThrows(RuntimeException.class, sut::train);
+
+        // Assert
+        assertSame(learnerFailure, thrown);
+        verify(actorMock, times(2)).close();
+    }
+
+    @Test
+    public void when_closed_expect_learnerClosed() {
+        // Arrange
+        ActorLearnerTrainer<Integer> sut = new ActorLearnerTrainer<Integer>(actorBuilderMock, learnerMock, t -> true, 1);
+
+        // Act
+        sut.close();
+
+        // Assert
+        verify(learnerMock, times(1)).close();
+    }
+}
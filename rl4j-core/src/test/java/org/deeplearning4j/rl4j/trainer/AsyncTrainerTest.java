@@ -21,7 +21,9 @@
 package org.deeplearning4j.rl4j.trainer;
 
 import org.apache.commons.lang3.builder.Builder;
+import org.deeplearning4j.rl4j.agent.AgentLearner;
 import org.deeplearning4j.rl4j.agent.IAgentLearner;
+import org.deeplearning4j.rl4j.agent.listener.AgentListener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Tag;
@@ -34,7 +36,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.nd4j.common.tests.tags.NativeTag;
 import org.nd4j.common.tests.tags.TagNames;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -56,8 +65,8 @@ public class AsyncTrainerTest {
 
     @BeforeEach
     public void setup() {
-        when(agentLearnerBuilderMock.build()).thenReturn(agentLearnerMock);
-        when(agentLearnerMock.getEpisodeStepCount()).thenReturn(100);
+        lenient().when(agentLearnerBuilderMock.build()).thenReturn(agentLearnerMock);
+        lenient().when(agentLearnerMock.getEpisodeStepCount()).thenReturn(100);
     }
 
     @Test
@@ -89,33 +98,213 @@ public class AsyncTrainerTest {
     @Test
     public void when_stoppingConditionTriggered_expect_agentLearnersStopsAndCountersAreCorrect() {
         // Arrange
-        AtomicInteger stoppingConditionHitCount = new AtomicInteger(0);
-        Predicate<AsyncTrainer<Integer>> stoppingCondition = t -> stoppingConditionHitCount.incrementAndGet() >= 5;
+        AtomicInteger runCount = new AtomicInteger(0);
+        doAnswer(invocation -> runCount.incrementAndGet()).when(agentLearnerMock).run();
+        Set<Thread> stoppingConditionThreads = ConcurrentHashMap.newKeySet();
+        Predicate<AsyncTrainer<Integer>> stoppingCondition = t -> {
+            stoppingConditionThreads.add(Thread.currentThread());
+            return t.getEpisodeCount() >= 5;
+        };
         AsyncTrainer<Integer> sut = new AsyncTrainer<Integer>(agentLearnerBuilderMock, stoppingCondition, 2);
 
         // Act
         sut.train();
 
         // Assert
-        assertEquals(6, stoppingConditionHitCount.get());
-        assertEquals(6, sut.getEpisodeCount());
-        assertEquals(600, sut.getStepCount());
+        assertEquals(Collections.singleton(Thread.currentThread()), stoppingConditionThreads);
+        assertTrue(sut.getEpisodeCount() >= 5);
+        assertEquals(runCount.get(), sut.getEpisodeCount());
+        assertEquals(sut.getEpisodeCount() * 100, sut.getStepCount());
     }
 
     @Test
     public void when_training_expect_countsAreReset() {
         // Arrange
-        AtomicInteger stoppingConditionHitCount = new AtomicInteger(0);
-        Predicate<AsyncTrainer<Integer>> stoppingCondition = t -> stoppingConditionHitCount.incrementAndGet() >= 5;
+        AtomicInteger runCount = new AtomicInteger(0);
+        doAnswer(invocation -> runCount.incrementAndGet()).when(agentLearnerMock).run();
+        Predicate<AsyncTrainer<Integer>> stoppingCondition = t -> t.getEpisodeCount() >= 5;
         AsyncTrainer<Integer> sut = new AsyncTrainer<Integer>(agentLearnerBuilderMock, stoppingCondition, 2);
 
         // Act
         sut.train();
-        stoppingConditionHitCount.set(0);
+        runCount.set(0);
         sut.train();
 
         // Assert
-        assertEquals(6, sut.getEpisodeCount());
-        assertEquals(600, sut.getStepCount());
+        assertEquals(runCount.get(), sut.getEpisodeCount());
+        assertEquals(runCount.get() * 100, sut.getStepCount());
+    }
+
+    @Test
+    public void when_workerFails_expect_otherWorkersStoppedAndFailureRethrown() {
+        // Arrange
+        IAgentLearner<Integer> failingAgentLearnerMock = mock(IAgentLearner.class);
+        RuntimeException workerFailure = new RuntimeException("worker failure");
+        doThrow(workerFailure).when(failingAgentLearnerMock).run();
+        AtomicInteger runCount = new AtomicInteger(0);
+        doAnswer(invocation -> runCount.incrementAndGet()).when(agentLearnerMock).run();
+        when(agentLearnerBuilderMock.build()).thenReturn(failingAgentLearnerMock, agentLearnerMock);
+        Predicate<AsyncTrainer<Integer>> stoppingCondition = t -> false;
+        AsyncTrainer<Integer> sut = new AsyncTrainer<Integer>(agentLearnerBuilderMock, stoppingCondition, 2);
+
+        // Act
+        RuntimeException exception = assertThrows(RuntimeException.class, sut::train);
+
+        // Assert
+        assertSame(workerFailure, exception);
+        assertEquals(runCount.get(), sut.getEpisodeCount());
+        verify(failingAgentLearnerMock, times(1)).run();
+        verify(failingAgentLearnerMock, times(1)).close();
+        verify(agentLearnerMock, times(1)).close();
+    }
+
+    @Test
+    public void when_allWorkersFail_expect_failureRethrown() {
+        // Arrange
+        RuntimeException workerFailure = new RuntimeException("worker failure");
+        doThrow(workerFailure).when(agentLearnerMock).run();
+        Predicate<AsyncTrainer<Integer>> stoppingCondition = t -> false;
+        AsyncTrainer<Integer> sut = new AsyncTrainer<Integer>(agentLearnerBuilderMock, stoppingCondition, 2);
+
+        // Act
+        RuntimeException exception = assertThrows(RuntimeException.class, sut::train);
+
+        // Assert
+        assertSame(workerFailure, exception);
+        assertEquals(0, sut.getEpisodeCount());
+    }
+
+    @Test
+    public void when_executorServiceIsGiven_expect_workersRunOnItAndItIsNotShutDown() {
+        // Arrange
+        Set<String> workerThreadNames = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> workerThreadNames.add(Thread.currentThread().getName())).when(agentLearnerMock).run();
+        ExecutorService executorService = Executors.newFixedThreadPool(2, runnable -> new Thread(runnable, "test-worker"));
+        Predicate<AsyncTrainer<Integer>> stoppingCondition = t -> t.getEpisodeCount() >= 5;
+        AsyncTrainer<Integer> sut = AsyncTrainer.<Integer>builder()
+                .agentLearnerBuilder(agentLearnerBuilderMock)
+                .stoppingCondition(stoppingCondition)
+                .numThreads(2)
+                .executorService(executorService)
+                .build();
+
+        // Act
+        sut.train();
+
+        // Assert
+        assertEquals(Collections.singleton("test-worker"), workerThreadNames);
+        assertFalse(executorService.isShutdown());
+        executorService.shutdown();
+    }
+
+    @Test
+    public void when_episodeDoesNotFinishBeforeStopTimeout_expect_aborted() {
+        // Arrange
+        IAgentLearner<Integer> blockedAgentLearnerMock = mock(IAgentLearner.class);
+        CountDownLatch blockedEpisodeStarted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            blockedEpisodeStarted.countDown();
+            Thread.sleep(60000);
+            return null;
+        }).when(blockedAgentLearnerMock).run();
+        doAnswer(invocation -> {
+            blockedEpisodeStarted.await();
+            return null;
+        }).when(agentLearnerMock).run();
+        when(agentLearnerBuilderMock.build()).thenReturn(agentLearnerMock, blockedAgentLearnerMock);
+        Predicate<AsyncTrainer<Integer>> stoppingCondition = t -> t.getEpisodeCount() >= 5;
+        AsyncTrainer<Integer> sut = AsyncTrainer.<Integer>builder()
+                .agentLearnerBuilder(agentLearnerBuilderMock)
+                .stoppingCondition(stoppingCondition)
+                .numThreads(2)
+                .stopTimeoutMillis(50)
+                .build();
+
+        // Act
+        long startTime = System.currentTimeMillis();
+        sut.train();
+        long duration = System.currentTimeMillis() - startTime;
+
+        // Assert
+        assertTrue(duration < 30000);
+        assertTrue(sut.getEpisodeCount() >= 5);
+        verify(blockedAgentLearnerMock, never()).getEpisodeStepCount();
+    }
+
+    @Test
+    public void when_elasticWithSingleWorkerBudget_expect_oneAgentLearnerCreated() {
+        // Arrange
+        ElasticWorkerController.Configuration elasticConfiguration = ElasticWorkerController.Configuration.builder()
+                .minWorkers(1)
+                .maxWorkers(1)
+                .samplePeriodMillis(1)
+                .build();
+        Predicate<AsyncTrainer<Integer>> stoppingCondition = t -> t.getEpisodeCount() >= 5;
+        AsyncTrainer<Integer> sut = new AsyncTrainer<Integer>(agentLearnerBuilderMock, stoppingCondition, 3, null, elasticConfiguration);
+
+        // Act
+        sut.train();
+
+        // Assert
+        verify(agentLearnerBuilderMock, times(1)).build();
+        assertEquals(1, sut.getNumActiveThreads());
+        assertTrue(sut.getEpisodeCount() >= 5);
+        assertEquals(sut.getEpisodeCount() * 100, sut.getStepCount());
+    }
+
+    @Test
+    public void when_elastic_expect_workersWithinBudgetAndCountersConsistent() {
+        // Arrange
+        ElasticWorkerController.Configuration elasticConfiguration = ElasticWorkerController.Configuration.builder()
+                .minWorkers(1)
+                .maxWorkers(3)
+                .samplePeriodMillis(1)
+                .windowSize(2)
+                .build();
+        Predicate<AsyncTrainer<Integer>> stoppingCondition = t -> t.getEpisodeCount() >= 2000;
+        doAnswer(invocation -> {
+            Thread.sleep(1);
+            return null;
+        }).when(agentLearnerMock).run();
+        AsyncTrainer<Integer> sut = new AsyncTrainer<Integer>(agentLearnerBuilderMock, stoppingCondition, 2, null, elasticConfiguration);
+
+        // Act
+        sut.train();
+
+        // Assert
+        verify(agentLearnerBuilderMock, atMost(3)).build();
+        assertTrue(sut.getNumActiveThreads() >= 1 && sut.getNumActiveThreads() <= 3);
+        assertTrue(sut.getEpisodeCount() >= 2000);
+        assertEquals(sut.getEpisodeCount() * 100, sut.getStepCount());
+        assertNotNull(sut.getElasticController());
+    }
+
+    @Test
+    public void when_agentLearnerIsAnAgent_expect_stepsCountedAsTheyAreTaken() {
+        // Arrange
+        AgentLearner<Integer> agentMock = mock(AgentLearner.class);
+        AtomicReference<AgentListener<Integer>> listener = new AtomicReference<>();
+        doAnswer(invocation -> {
+            listener.set(invocation.getArgument(0));
+            return null;
+        }).when(agentMock).addListener(any());
+        Predicate<AsyncTrainer<Integer>> stoppingCondition = t -> t.getEpisodeCount() >= 1;
+        AsyncTrainer<Integer> sut = new AsyncTrainer<Integer>(() -> agentMock, stoppingCondition, 1);
+        AtomicInteger midEpisodeStepCount = new AtomicInteger(-1);
+        doAnswer(invocation -> {
+            listener.get().onAfterStep(agentMock, null);
+            listener.get().onAfterStep(agentMock, null);
+            midEpisodeStepCount.compareAndSet(-1, sut.getStepCount());
+            listener.get().onAfterStep(agentMock, null);
+            return null;
+        }).when(agentMock).run();
+
+        // Act
+        sut.train();
+
+        // Assert
+        assertEquals(2, midEpisodeStepCount.get());
+        assertEquals(3 * sut.getEpisodeCount(), sut.getStepCount());
+        verify(agentMock, never()).getEpisodeStepCount();
     }
 }
@@ -0,0 +1,148 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.trainer;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@Tag(TagNames.FILE_IO)
+@NativeTag
+public class CpuExecutionPlanTest {
+
+    @Mock
+    ICorePinner corePinnerMock;
+
+    @Test
+    public void when_learningCoresIsNotLessThanTotalCores_expect_Exception() {
+        // Arrange
+        CpuExecutionPlan.Configuration configuration = CpuExecutionPlan.Configuration.builder()
+                .totalCores(4)
+                .learningCores(4)
+                .build();
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new CpuExecutionPlan(configuration, 2, 1));
+
+        // Assert
+        assertTrue(exception.getMessage().contains("Configuration: learningCores must be between 0 and totalCores - 1 (3), got 4"));
+    }
+
+    @Test
+    public void when_coresAreSplitBetweenActingAndLearning_expect_contiguousBlocksPerThread() {
+        // Arrange
+        CpuExecutionPlan.Configuration configuration = CpuExecutionPlan.Configuration.builder()
+                .totalCores(8)
+                .learningCores(2)
+                .build();
+
+        // Act
+        CpuExecutionPlan sut = new CpuExecutionPlan(configuration, 3, 1);
+
+        // Assert
+        assertArrayEquals(new int[] { 0, 1 }, sut.getActingThreadCores(0));
+        assertArrayEquals(new int[] { 2, 3 }, sut.getActingThreadCores(1));
+        assertArrayEquals(new int[] { 4, 5 }, sut.getActingThreadCores(2));
+        assertArrayEquals(new int[] { 6, 7 }, sut.getLearningThreadCores(0));
+        assertEquals(2, sut.getNativeThreads());
+    }
+
+    @Test
+    public void when_moreThreadsThanCores_expect_coresSharedAndOneNativeThread() {
+        // Arrange
+        CpuExecutionPlan.Configuration configuration = CpuExecutionPlan.Configuration.builder()
+                .totalCores(2)
+                .build();
+
+        // Act
+        CpuExecutionPlan sut = new CpuExecutionPlan(configuration, 3, 1);
+
+        // Assert
+        assertArrayEquals(new int[] { 0 }, sut.getActingThreadCores(0));
+        assertArrayEquals(new int[] { 1 }, sut.getActingThreadCores(1));
+        assertArrayEquals(new int[] { 0 }, sut.getActingThreadCores(2));
+        assertArrayEquals(new int[] { 0, 1 }, sut.getLearningThreadCores(0));
+        assertEquals(1, sut.getNativeThreads());
+    }
+
+    @Test
+    public void when_pinningToNumaNodes_expect_blocksExpandedToWholeNodes() {
+        // Arrange
+        CpuExecutionPlan.Configuration configuration = CpuExecutionPlan.Configuration.builder()
+                .totalCores(8)
+                .coresPerNumaNode(4)
+                .nativeThreads(3)
+                .pinning(CpuExecutionPlan.Pinning.NumaNode)
+                .corePinner(corePinnerMock)
+                .build();
+
+        // Act
+        CpuExecutionPlan sut = new CpuExecutionPlan(configuration, 4, 0);
+
+        // Assert
+        assertArrayEquals(new int[] { 0, 1, 2, 3 }, sut.getActingThreadCores(1));
+        assertArrayEquals(new int[] { 4, 5, 6, 7 }, sut.getActingThreadCores(2));
+        assertEquals(3, sut.getNativeThreads());
+    }
+
+    @Test
+    public void when_threadStartsWithCorePinning_expect_threadPinnedToItsCores() {
+        // Arrange
+        CpuExecutionPlan.Configuration configuration = CpuExecutionPlan.Configuration.builder()
+                .totalCores(4)
+                .learningCores(1)
+                .pinning(CpuExecutionPlan.Pinning.Cores)
+                .corePinner(corePinnerMock)
+                .build();
+        CpuExecutionPlan sut = new CpuExecutionPlan(configuration, 3, 1);
+
+        // Act
+        sut.onActingThreadStarted(1);
+        sut.onLearningThreadStarted(0);
+
+        // Assert
+        verify(corePinnerMock, times(1)).pin(new int[] { 1 });
+        verify(corePinnerMock, times(1)).pin(new int[] { 3 });
+    }
+
+    @Test
+    public void when_threadStartsWithoutPinning_expect_pinnerNotCalled() {
+        // Arrange
+        CpuExecutionPlan.Configuration configuration = CpuExecutionPlan.Configuration.builder()
+                .totalCores(4)
+                .corePinner(corePinnerMock)
+                .build();
+        CpuExecutionPlan sut = new CpuExecutionPlan(configuration, 2, 0);
+
+        // Act
+        sut.onActingThreadStarted(0);
+
+        // Assert
+        verify(corePinnerMock, never()).pin(any());
+    }
+}
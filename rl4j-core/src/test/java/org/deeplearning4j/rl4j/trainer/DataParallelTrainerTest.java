@@ -0,0 +1,107 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.trainer;
+
+import org.apache.commons.lang3.builder.Builder;
+import org.deeplearning4j.rl4j.agent.IAgentLearner;
+import org.deeplearning4j.rl4j.agent.learning.update.updater.async.DataParallelSharedNetworksUpdateHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DataParallelTrainerTest {
+
+    @Mock
+    Builder<IAgentLearner<Integer>> agentLearnerBuilderMock;
+
+    @Mock
+    IAgentLearner<Integer> agentLearnerMock;
+
+    @Mock
+    DataParallelSharedNetworksUpdateHandler sharedNetworksUpdateHandlerMock;
+
+    @BeforeEach
+    public void setup() {
+        when(agentLearnerBuilderMock.build()).thenReturn(agentLearnerMock);
+        lenient().when(agentLearnerMock.getEpisodeStepCount()).thenReturn(100);
+        when(sharedNetworksUpdateHandlerMock.getNumWorkers()).thenReturn(3);
+    }
+
+    @Test
+    public void when_training_expect_oneAgentLearnerPerWorkerAndHandlerReset() {
+        // Arrange
+        DataParallelTrainer<Integer> sut = new DataParallelTrainer<Integer>(agentLearnerBuilderMock, sharedNetworksUpdateHandlerMock, t -> true);
+
+        // Act
+        sut.train();
+
+        // Assert
+        verify(agentLearnerBuilderMock, times(3)).build();
+        verify(sharedNetworksUpdateHandlerMock, times(1)).reset();
+    }
+
+    @Test
+    public void when_stoppingConditionTriggered_expect_handlerStoppedAndCountersAreCorrect() {
+        // Arrange
+        AtomicInteger stoppingConditionHitCount = new AtomicInteger(0);
+        Predicate<DataParallelTrainer<Integer>> stoppingCondition = t -> stoppingConditionHitCount.incrementAndGet() >= 5;
+        DataParallelTrainer<Integer> sut = new DataParallelTrainer<Integer>(agentLearnerBuilderMock, sharedNetworksUpdateHandlerMock, stoppingCondition);
+
+        // Act
+        sut.train();
+
+        // Assert
+        assertTrue(stoppingConditionHitCount.get() >= 5);
+        assertEquals(stoppingConditionHitCount.get(), sut.getEpisodeCount());
+        assertEquals(100 * sut.getEpisodeCount(), sut.getStepCount());
+        verify(sharedNetworksUpdateHandlerMock, atLeastOnce()).stop();
+    }
+
+    @Test
+    public void when_workerFails_expect_handlerStoppedAndFailureRethrown() {
+        // Arrange
+        AtomicInteger runCount = new AtomicInteger(0);
+        RuntimeException workerFailure = new RuntimeException("Failure");
+        doAnswer(invocation -> {
+            if(runCount.incrementAndGet() == 1) {
+                throw workerFailure;
+            }
+            return null;
+        }).when(agentLearnerMock).run();
+        DataParallelTrainer<Integer> sut = new DataParallelTrainer<Integer>(agentLearnerBuilderMock, sharedNetworksUpdateHandlerMock, t -> false);
+
+        // Act
+        RuntimeException thrown = assertThrows(RuntimeException.class, sut::train);
+
+        // Assert
+        assertSame(workerFailure, thrown);
+        verify(sharedNetworksUpdateHandlerMock, atLeastOnce()).stop();
+        verify(agentLearnerMock, atLeastOnce()).close();
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.trainer;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag(TagNames.FILE_IO)
+@NativeTag
+public class ElasticWorkerControllerTest {
+
+    private static ElasticWorkerController.Configuration buildConfiguration(int minWorkers, int maxWorkers) {
+        return ElasticWorkerController.Configuration.builder()
+                .minWorkers(minWorkers)
+                .maxWorkers(maxWorkers)
+                .windowSize(2)
+                .minImprovement(0.05)
+                .holdWindows(1)
+                .build();
+    }
+
+    @Test
+    public void when_maxWorkersIsLessThanMinWorkers_expect_Exception() {
+        // Arrange
+        ElasticWorkerController.Configuration configuration = buildConfiguration(4, 2);
+
+        // Act
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new ElasticWorkerController(configuration, 2));
+
+        // Assert
+        assertTrue(exception.getMessage().contains("Configuration: maxWorkers must be at least minWorkers (4), got 2"));
+    }
+
+    @Test
+    public void when_initialNumWorkersIsOutOfBounds_expect_clamped() {
+        // Act
+        ElasticWorkerController sut = new ElasticWorkerController(buildConfiguration(1, 3), 8);
+
+        // Assert
+        assertEquals(3, sut.getNumWorkers());
+    }
+
+    @Test
+    public void when_windowIsNotFull_expect_numWorkersUnchanged() {
+        // Arrange
+        ElasticWorkerController.Configuration configuration = buildConfiguration(1, 4);
+        configuration.setWindowSize(3);
+        ElasticWorkerController sut = new ElasticWorkerController(configuration, 2);
+
+        // Act
+        int result0 = sut.onSample(0, 0, 0);
+        int result1 = sut.onSample(1000, 100, 0);
+
+        // Assert
+        assertEquals(2, result0);
+        assertEquals(2, result1);
+    }
+
+    @Test
+    public void when_windowIsFull_expect_oneMoreWorkerProbedAndThroughputMeasured() {
+        // Arrange
+        ElasticWorkerController sut = new ElasticWorkerController(buildConfiguration(1, 4), 2);
+
+        // Act
+        sut.onSample(0, 0, 0);
+        int result = sut.onSample(2000, 200, 50);
+
+        // Assert
+        assertEquals(3, result);
+        assertEquals(100.0, sut.getStepsPerSecond(), 0.0001);
+        assertEquals(25.0, sut.getUpdatesPerSecond(), 0.0001);
+    }
+
+    @Test
+    public void when_probeImprovesThroughput_expect_probeKeptAndNextProbeStarted() {
+        // Arrange
+        ElasticWorkerController sut = new ElasticWorkerController(buildConfiguration(1, 4), 2);
+        sut.onSample(0, 0, 0);
+        sut.onSample(1000, 100, 0);
+
+        // Act
+        sut.onSample(2000, 100, 0);
+        int result = sut.onSample(3000, 250, 0);
+
+        // Assert
+        assertEquals(4, result);
+    }
+
+    @Test
+    public void when_probeDoesNotImproveThroughput_expect_revertedThenOtherDirectionProbed() {
+        // Arrange
+        ElasticWorkerController sut = new ElasticWorkerController(buildConfiguration(1, 4), 2);
+        sut.onSample(0, 0, 0);
+        sut.onSample(1000, 100, 0);
+
+        // Act
+        sut.onSample(2000, 100, 0);
+        int resultAfterProbe = sut.onSample(3000, 203, 0);
+        sut.onSample(4000, 203, 0);
+        int resultAfterNextWindow = sut.onSample(5000, 303, 0);
+
+        // Assert
+        assertEquals(2, resultAfterProbe);
+        assertEquals(1, resultAfterNextWindow);
+    }
+
+    @Test
+    public void when_probeLowersUpdateRate_expect_reverted() {
+        // Arrange
+        ElasticWorkerController sut = new ElasticWorkerController(buildConfiguration(1, 4), 2);
+        sut.onSample(0, 0, 0);
+        sut.onSample(1000, 100, 100);
+
+        // Act
+        sut.onSample(2000, 100, 100);
+        int result = sut.onSample(3000, 300, 150);
+
+        // Assert
+        assertEquals(2, result);
+    }
+
+    @Test
+    public void when_bothDirectionsFail_expect_heldThenProbedAgain() {
+        // Arrange
+        ElasticWorkerController sut = new ElasticWorkerController(buildConfiguration(1, 3), 2);
+        sut.onSample(0, 0, 0);
+        sut.onSample(1000, 100, 0); // probe 3
+        sut.onSample(2000, 100, 0);
+        sut.onSample(3000, 200, 0); // no improvement, back to 2
+        sut.onSample(4000, 200, 0);
+        sut.onSample(5000, 300, 0); // probe 1
+        sut.onSample(6000, 300, 0);
+        sut.onSample(7000, 350, 0); // throughput lost, back to 2
+
+        // Act
+        int resultWhileHeld0 = sut.onSample(8000, 350, 0);
+        int resultWhileHeld1 = sut.onSample(9000, 450, 0);
+        int resultWhileHeld2 = sut.onSample(10000, 550, 0);
+        int resultAfterHold = sut.onSample(11000, 650, 0);
+
+        // Assert
+        assertEquals(2, resultWhileHeld0);
+        assertEquals(2, resultWhileHeld1);
+        assertEquals(2, resultWhileHeld2);
+        assertEquals(3, resultAfterHold);
+    }
+
+    @Test
+    public void when_atMaxWorkers_expect_probeDown() {
+        // Arrange
+        ElasticWorkerController sut = new ElasticWorkerController(buildConfiguration(1, 2), 2);
+
+        // Act
+        sut.onSample(0, 0, 0);
+        int result = sut.onSample(1000, 100, 0);
+
+        // Assert
+        assertEquals(1, result);
+    }
+}
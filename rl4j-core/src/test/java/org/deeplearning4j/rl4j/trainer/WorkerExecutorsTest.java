@@ -0,0 +1,90 @@
+/*
+ *  ******************************************************************************
+ *  *
+ *  *
+ *  * This program and the accompanying materials are made available under the
+ *  * terms of the Apache License, Version 2.0 which is available at
+ *  * https://www.apache.org/licenses/LICENSE-2.0.
+ *  *
+ *  *  See the NOTICE file distributed with this work for additional
+ *  *  information regarding copyright ownership.
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ *  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ *  * License for the specific language governing permissions and limitations
+ *  * under the License.
+ *  *
+ *  * SPDX-License-Identifier: Apache-2.0
+ *  *****************************************************************************
+ */
+package org.deeplearning4j.rl4j.trainer;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.nd4j.common.tests.tags.NativeTag;
+import org.nd4j.common.tests.tags.TagNames;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag(TagNames.FILE_IO)
+@NativeTag
+public class WorkerExecutorsTest {
+
+    private static boolean hasVirtualThreadPerTaskExecutor() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Test
+    public void when_checkingVirtualThreads_expect_availableOnlyIfRuntimeProvidesThem() {
+        // Act
+        boolean result = WorkerExecutors.isVirtualThreadAvailable();
+
+        // Assert
+        assertEquals(hasVirtualThreadPerTaskExecutor(), result);
+    }
+
+    @Test
+    public void when_virtualThreadsArePreferred_expect_workingExecutor() throws Exception {
+        // Arrange
+        ExecutorService sut = WorkerExecutors.newWorkerExecutor(true);
+
+        // Act
+        Future<Integer> result = sut.submit(() -> 42);
+
+        // Assert
+        assertEquals(42, result.get());
+        sut.shutdown();
+    }
+
+    @Test
+    public void when_virtualThreadsAreNotAvailable_expect_newVirtualThreadExecutorThrows() {
+        if(WorkerExecutors.isVirtualThreadAvailable()) {
+            return;
+        }
+
+        // Act & Assert
+        assertThrows(UnsupportedOperationException.class, WorkerExecutors::newVirtualThreadExecutor);
+    }
+
+    @Test
+    public void when_platformThreadExecutor_expect_namedWorkerThreads() throws Exception {
+        // Arrange
+        ExecutorService sut = WorkerExecutors.newPlatformThreadExecutor();
+
+        // Act
+        String threadName = sut.submit(() -> Thread.currentThread().getName()).get();
+
+        // Assert
+        assertEquals("AsyncTrainer-worker-0", threadName);
+        sut.shutdown();
+    }
+}